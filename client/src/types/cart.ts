@@ -8,9 +8,7 @@ export interface Cart {
   productId: number;
   title?: string;
   price?: number;
-  description?: string;
   cover?: string;
-  detail?: string;
   quantity: number;
 }
 
@@ -0,0 +1,18 @@
+package com.tomato.bookstore.config;
+
+import com.tomato.bookstore.util.AdmissionGate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 秒杀配置类
+ *
+ * <p>提供秒杀商品的内存准入闸门，由结算与秒杀排队共同使用
+ */
+@Configuration
+public class FlashSaleConfig {
+  @Bean
+  public AdmissionGate flashSaleGate() {
+    return new AdmissionGate();
+  }
+}
@@ -0,0 +1,58 @@
+package com.tomato.bookstore.config;
+
+import com.tomato.bookstore.util.NodeIdLease;
+import com.tomato.bookstore.util.SnowflakeIdGenerator;
+import com.tomato.bookstore.util.SnowflakeIdentifierGenerator;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * ID 生成配置类
+ *
+ * <p>订单、订单项、购物车与商品规格的主键以及支付宝商户订单号都由同一个生成器产生。未配置 app.id.node-id 时，每个实例从租约表租用空闲的
+ * 节点号，多实例部署无需逐个分配；配置后固定使用该节点号，由部署方保证各实例不同。
+ */
+@Configuration
+public class IdGeneratorConfig {
+  @Bean
+  public NodeIdLease nodeIdLease(
+      DataSource dataSource,
+      Clock clock,
+      @Value("${app.scheduling.lease-ms:30000}") long leaseMillis,
+      @Value("${app.scheduling.node-name:}") String nodeName) {
+    String host = nodeName;
+    if (!StringUtils.hasText(host)) {
+      try {
+        host = InetAddress.getLocalHost().getHostName();
+      } catch (UnknownHostException e) {
+        host = "unknown";
+      }
+    }
+    return new NodeIdLease(
+        dataSource, clock, leaseMillis, host + "-" + UUID.randomUUID().toString().substring(0, 8));
+  }
+
+  @Bean
+  public SnowflakeIdGenerator snowflakeIdGenerator(
+      Clock clock, NodeIdLease nodeIdLease, @Value("${app.id.node-id:-1}") int nodeId) {
+    if (nodeId < 0) {
+      return new SnowflakeIdGenerator(nodeIdLease, clock);
+    }
+    return new SnowflakeIdGenerator(nodeId, clock);
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer snowflakeIdGeneratorCustomizer(
+      SnowflakeIdGenerator snowflakeIdGenerator) {
+    return properties ->
+        properties.put(SnowflakeIdentifierGenerator.ID_GENERATOR_SETTING, snowflakeIdGenerator);
+  }
+}
@@ -0,0 +1,23 @@
+package com.tomato.bookstore.config;
+
+import com.tomato.bookstore.util.TimingWheel;
+import java.time.Clock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 订单过期配置类
+ *
+ * <p>提供记录待支付订单截止时间的时间轮：下单时登记，支付或取消时移除，由定时任务每个刻度推进一次
+ */
+@Configuration
+public class OrderExpiryConfig {
+  @Bean
+  public TimingWheel<Long> orderExpiryWheel(
+      Clock clock,
+      @Value("${app.order.expiry-tick-ms:1000}") long tickMillis,
+      @Value("${app.order.expiry-wheel-size:2048}") int wheelSize) {
+    return new TimingWheel<>(tickMillis, wheelSize, clock.millis());
+  }
+}
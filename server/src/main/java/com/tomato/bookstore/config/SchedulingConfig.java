@@ -7,5 +7,5 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @Configuration
 @EnableScheduling
 public class SchedulingConfig {
-  // 配置定时任务，具体的任务在 OrderServiceImpl 中实现
+  // 配置定时任务，具体的任务在 task 包及各服务实现中定义
 }
@@ -1,6 +1,7 @@
 package com.tomato.bookstore.config;
 
 import com.tomato.bookstore.constant.ApiConstants;
+import com.tomato.bookstore.constant.RoleConstants;
 import com.tomato.bookstore.security.JwtAuthenticationEntryPoint;
 import com.tomato.bookstore.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
@@ -79,6 +80,9 @@ public class SecurityConfig {
               authorizeRequests
                   .requestMatchers(HttpMethod.GET, ApiConstants.ORDER_RETURN_PATH)
                   .permitAll();
+              authorizeRequests
+                  .requestMatchers(ApiConstants.ACTUATOR_STORE_METRICS_PATH)
+                  .hasAuthority(RoleConstants.ROLE_ADMIN);
               authorizeRequests.anyRequest().authenticated();
             })
         .sessionManagement(
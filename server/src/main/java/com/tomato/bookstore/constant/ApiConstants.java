@@ -20,24 +20,40 @@ public class ApiConstants {
   // 商品相关路径
   public static final String PRODUCTS = "/products";
   public static final String PRODUCT_DETAIL = "/{id}";
+  public static final String PRODUCT_CARDS = "/cards";
+  public static final String PRODUCT_SEARCH = "/search";
+  public static final String PRODUCT_BESTSELLERS = "/bestsellers";
+  public static final String PRODUCT_RECOMMENDATIONS = "/{id}/recommendations";
   public static final String STOCKPILE = "/stockpile";
   public static final String STOCKPILE_DETAIL = "/stockpile/{productId}";
+  public static final String STOCKPILE_BUCKETS = "/stockpile/{productId}/buckets";
+  public static final String STOCKPILE_FLASH_SALE = "/stockpile/{productId}/flash-sale";
 
   // 完整商品路径
   public static final String PRODUCT_BASE_PATH = PRODUCTS;
   public static final String PRODUCT_DETAIL_PATH = PRODUCTS + PRODUCT_DETAIL;
+  public static final String PRODUCT_CARDS_PATH = PRODUCTS + PRODUCT_CARDS;
+  public static final String PRODUCT_SEARCH_PATH = PRODUCTS + PRODUCT_SEARCH;
+  public static final String PRODUCT_BESTSELLERS_PATH = PRODUCTS + PRODUCT_BESTSELLERS;
+  public static final String PRODUCT_RECOMMENDATIONS_PATH = PRODUCTS + PRODUCT_RECOMMENDATIONS;
   public static final String PRODUCT_STOCKPILE_BASE_PATH = PRODUCTS + STOCKPILE;
   public static final String PRODUCT_STOCKPILE_DETAIL_PATH = PRODUCTS + STOCKPILE_DETAIL;
+  public static final String PRODUCT_STOCKPILE_BUCKETS_PATH = PRODUCTS + STOCKPILE_BUCKETS;
+  public static final String PRODUCT_STOCKPILE_FLASH_SALE_PATH = PRODUCTS + STOCKPILE_FLASH_SALE;
 
   // 购物车相关路径
   public static final String CART = "/cart";
   public static final String CART_ITEM = "/{cartItemId}";
   public static final String CART_CHECKOUT = "/checkout";
+  public static final String CART_FLASH_SALE_CHECKOUT = "/checkout/flash-sale";
+  public static final String CART_CHECKOUT_TICKET = "/checkout/tickets/{ticketId}";
 
   // 完整购物车路径
   public static final String CART_BASE_PATH = CART;
   public static final String CART_ITEM_PATH = CART + CART_ITEM;
   public static final String CART_CHECKOUT_PATH = CART + CART_CHECKOUT;
+  public static final String CART_FLASH_SALE_CHECKOUT_PATH = CART + CART_FLASH_SALE_CHECKOUT;
+  public static final String CART_CHECKOUT_TICKET_PATH = CART + CART_CHECKOUT_TICKET;
 
   // 订单相关路径
   public static final String ORDERS = "/orders";
@@ -100,6 +116,27 @@ public class ApiConstants {
   public static final String NOTE_COMMENT_DETAIL_PATH = NOTES + NOTE_COMMENT_DETAIL;
   public static final String NOTE_FEEDBACK_PATH = NOTES + NOTE_FEEDBACK;
 
+  // 报表相关路径
+  public static final String REPORTS = "/reports";
+  public static final String REPORT_PRODUCT_SALES = "/sales/products";
+  public static final String REPORT_DAILY_ORDERS = "/sales/daily";
+  public static final String REPORT_SALES_BACKFILL = "/sales/backfill";
+  public static final String REPORT_EXPORT_ORDERS = "/exports/orders";
+  public static final String REPORT_EXPORT_PRODUCTS = "/exports/products";
+  public static final String REPORT_EXPORT_REVIEWS = "/exports/reviews";
+
+  // 完整报表路径
+  public static final String REPORT_BASE_PATH = REPORTS;
+  public static final String REPORT_PRODUCT_SALES_PATH = REPORTS + REPORT_PRODUCT_SALES;
+  public static final String REPORT_DAILY_ORDERS_PATH = REPORTS + REPORT_DAILY_ORDERS;
+  public static final String REPORT_SALES_BACKFILL_PATH = REPORTS + REPORT_SALES_BACKFILL;
+  public static final String REPORT_EXPORT_ORDERS_PATH = REPORTS + REPORT_EXPORT_ORDERS;
+  public static final String REPORT_EXPORT_PRODUCTS_PATH = REPORTS + REPORT_EXPORT_PRODUCTS;
+  public static final String REPORT_EXPORT_REVIEWS_PATH = REPORTS + REPORT_EXPORT_REVIEWS;
+
+  // 监控端点路径
+  public static final String ACTUATOR_STORE_METRICS_PATH = "/actuator/storemetrics";
+
   // 文件上传相关路径
   public static final String FILE_UPLOAD = "/upload";
   public static final String FILE_UPLOAD_AVATAR = "/avatar";
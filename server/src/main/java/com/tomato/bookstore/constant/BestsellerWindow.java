@@ -0,0 +1,15 @@
+package com.tomato.bookstore.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** 畅销榜统计窗口枚举类 */
+@Getter
+@AllArgsConstructor
+public enum BestsellerWindow {
+  ALL_TIME("全部时间"),
+
+  LAST_7_DAYS("最近 7 天");
+
+  private final String description;
+}
@@ -23,6 +23,8 @@ public enum BusinessErrorCode {
   PRODUCT_STOCK_NOT_FOUND(20006, "商品库存记录不存在"),
   PRODUCT_INVALID_PARAMETER(20007, "商品参数无效"),
   PRODUCT_STOCK_INSUFFICIENT(20008, "商品库存不足"),
+  PRODUCT_SEARCH_UNAVAILABLE(20009, "商品搜索暂不可用"),
+  PRODUCT_FROZEN_STOCK_INSUFFICIENT(20010, "商品冻结库存不足"),
 
   // 购物车模块（30xxx）
   CART_EMPTY(30001, "购物车为空"),
@@ -49,6 +51,14 @@ public enum BusinessErrorCode {
   ORDER_INVALID_ADDRESS(40012, "无效的收货地址"),
   ORDER_NOTIFY_VERIFY_FAILED(40013, "支付通知验证失败"),
   ORDER_PAYMENT_AMOUNT_ERROR(40014, "支付金额错误"),
+  FLASH_SALE_NOT_ACTIVE(40015, "商品未开启秒杀"),
+  FLASH_SALE_SOLD_OUT(40016, "秒杀商品已售罄"),
+  FLASH_SALE_BUSY(40017, "秒杀排队人数过多"),
+  FLASH_SALE_TICKET_NOT_FOUND(40018, "秒杀排队凭证不存在"),
+  FLASH_SALE_CHECKOUT_REQUIRED(40019, "秒杀商品须通过秒杀通道结算"),
+  ORDER_PAY_BUSY(40020, "支付请求繁忙"),
+  ORDER_IDEMPOTENCY_KEY_INVALID(40021, "幂等键无效"),
+  ORDER_DUPLICATE_REQUEST(40022, "重复的请求正在处理"),
 
   // 广告模块（50xxx）
   ADVERTISEMENT_NOT_FOUND(50001, "广告不存在"),
@@ -68,6 +78,9 @@ public enum BusinessErrorCode {
   NOTE_FEEDBACK_ALREADY_EXISTS(70005, "已对此笔记进行过反馈"),
   NOTE_FEEDBACK_NOT_FOUND(70006, "笔记反馈不存在"),
 
+  // 报表模块（80xxx）
+  REPORT_INVALID_DATE_RANGE(80001, "统计日期范围无效"),
+
   // 系统通用（90xxx）
   SYSTEM_ERROR(90001, "系统错误"),
   OPERATION_TOO_FREQUENT(90002, "操作过于频繁"),
@@ -11,6 +11,10 @@ public class ExceptionMessages {
   public static final String PRODUCT_TITLE_EXISTS = "商品名称已存在：%s";
   public static final String PRODUCT_TITLE_USED_BY_OTHER = "商品名称已被其他商品使用：%s";
   public static final String PRODUCT_STOCK_NOT_FOUND = "商品库存记录不存在，商品 ID：%s";
+  public static final String PRODUCT_STOCK_INSUFFICIENT = "商品「%s」库存不足，当前库存：%d，需要数量：%d";
+  public static final String PRODUCT_FROZEN_STOCK_INSUFFICIENT =
+      "商品冻结库存不足，商品 ID：%s，冻结库存：%d，需要数量：%d";
+  public static final String PRODUCT_SEARCH_UNAVAILABLE = "商品搜索索引正在构建，请稍后再试";
 
   // 用户模块异常
   public static final String USER_NOT_FOUND = "用户不存在，ID：%s";
@@ -28,6 +32,16 @@ public class ExceptionMessages {
   public static final String ORDER_EMPTY_CART_ITEMS = "未选择任何商品";
   public static final String ORDER_INVALID_PAYMENT_METHOD = "不支持的支付方式：%s";
   public static final String ORDER_INVALID_ADDRESS = "收货地址不能为空";
+  public static final String ORDER_EXPIRED = "订单已过期，ID：%s";
+  public static final String ORDER_PAY_BUSY = "支付请求繁忙，请稍后再试";
+  public static final String ORDER_IDEMPOTENCY_KEY_TOO_LONG = "幂等键长度不能超过 %d 个字符";
+  public static final String ORDER_IDEMPOTENCY_KEY_REUSED = "幂等键已用于订单 %s 的支付请求";
+  public static final String ORDER_DUPLICATE_REQUEST = "相同幂等键的请求正在处理，请稍后重试";
+  public static final String FLASH_SALE_NOT_ACTIVE = "所选商品均未开启秒杀，请使用普通结算";
+  public static final String FLASH_SALE_SOLD_OUT = "秒杀商品已售罄";
+  public static final String FLASH_SALE_BUSY = "秒杀排队人数过多，请稍后再试";
+  public static final String FLASH_SALE_TICKET_NOT_FOUND = "秒杀排队凭证不存在或已过期：%s";
+  public static final String FLASH_SALE_CHECKOUT_REQUIRED = "商品「%s」正在秒杀，请通过秒杀通道结算";
 
   // 系统通用异常
   public static final String UNAUTHORIZED = "未授权访问";
@@ -36,4 +50,8 @@ public class ExceptionMessages {
   // 广告模块异常
   public static final String ADVERTISEMENT_NOT_FOUND = "广告不存在，ID：%s";
   public static final String ADVERTISEMENT_TITLE_DUPLICATE = "广告标题已存在：%s";
+
+  // 报表模块异常
+  public static final String REPORT_INVALID_DATE_RANGE = "统计日期范围无效：%s 至 %s，最多 %d 天";
+  public static final String REPORT_BACKFILL_NOT_CLOSED = "只能重建已结束的日期，结束日期须早于 %s";
 }
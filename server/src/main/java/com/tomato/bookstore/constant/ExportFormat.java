@@ -0,0 +1,19 @@
+package com.tomato.bookstore.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** 导出文件格式枚举类 */
+@Getter
+@AllArgsConstructor
+public enum ExportFormat {
+  CSV("text/csv;charset=UTF-8", "csv"),
+
+  JSONL("application/x-ndjson;charset=UTF-8", "jsonl");
+
+  /** 响应的内容类型 */
+  private final String contentType;
+
+  /** 文件扩展名 */
+  private final String extension;
+}
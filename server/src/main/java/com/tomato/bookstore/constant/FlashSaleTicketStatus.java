@@ -0,0 +1,17 @@
+package com.tomato.bookstore.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** 秒杀排队凭证状态枚举类 */
+@Getter
+@AllArgsConstructor
+public enum FlashSaleTicketStatus {
+  QUEUED("排队中"),
+
+  SUCCESS("下单成功"),
+
+  FAILED("下单失败");
+
+  private final String description;
+}
@@ -0,0 +1,13 @@
+package com.tomato.bookstore.constant;
+
+/** 订单常量类 */
+public class OrderConstants {
+  /** 订单过期时间：30 分钟 */
+  public static final int ORDER_EXPIRATION_MINUTES = 30;
+
+  /** 幂等键请求头：客户端重试结算或支付时携带相同的键，返回首次请求的结果 */
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+  /** 幂等键最大长度 */
+  public static final int IDEMPOTENCY_KEY_MAX_LENGTH = 64;
+}
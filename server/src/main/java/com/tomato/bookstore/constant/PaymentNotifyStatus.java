@@ -0,0 +1,19 @@
+package com.tomato.bookstore.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** 支付通知处理状态枚举类 */
+@Getter
+@AllArgsConstructor
+public enum PaymentNotifyStatus {
+  RECEIVED("已接收"),
+
+  PROCESSED("已处理"),
+
+  IGNORED("已忽略"),
+
+  FAILED("处理失败");
+
+  private final String description;
+}
@@ -1,15 +1,18 @@
 package com.tomato.bookstore.controller;
 
 import com.tomato.bookstore.constant.ApiConstants;
+import com.tomato.bookstore.constant.OrderConstants;
 import com.tomato.bookstore.constant.RoleConstants;
 import com.tomato.bookstore.dto.ApiResponse;
 import com.tomato.bookstore.dto.CartDTO;
 import com.tomato.bookstore.dto.CartListDTO;
 import com.tomato.bookstore.dto.CheckoutDTO;
+import com.tomato.bookstore.dto.FlashSaleTicketDTO;
 import com.tomato.bookstore.dto.OrderDTO;
 import com.tomato.bookstore.dto.QuantityUpdateDTO;
 import com.tomato.bookstore.security.UserPrincipal;
 import com.tomato.bookstore.service.CartService;
+import com.tomato.bookstore.service.FlashSaleService;
 import com.tomato.bookstore.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +31,7 @@ import org.springframework.web.bind.annotation.*;
 public class CartController {
   private final CartService cartService;
   private final OrderService orderService;
+  private final FlashSaleService flashSaleService;
 
   /**
    * 添加商品到购物车
@@ -107,6 +111,7 @@ public class CartController {
    * 结算购物车（创建订单）
    *
    * @param checkoutDTO 结算信息
+   * @param idempotencyKey 幂等键，重试时携带相同的值
    * @param userPrincipal 当前用户
    * @return 订单信息
    */
@@ -114,14 +119,51 @@ public class CartController {
   @PreAuthorize(RoleConstants.HAS_ANY_ROLE)
   public ApiResponse<OrderDTO> checkout(
       @RequestBody @Valid CheckoutDTO checkoutDTO,
+      @RequestHeader(value = OrderConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+          String idempotencyKey,
       @AuthenticationPrincipal UserPrincipal userPrincipal) {
     log.info(
         "用户「{}」结算购物车：cartItemIds={}", userPrincipal.getUsername(), checkoutDTO.getCartItemIds());
     checkoutDTO.setUserId(userPrincipal.getUserId());
+    checkoutDTO.setIdempotencyKey(idempotencyKey);
     OrderDTO order = orderService.createOrder(checkoutDTO);
     return ApiResponse.success(order);
   }
 
+  /**
+   * 秒杀结算：通过准入闸门后排队异步下单
+   *
+   * @param checkoutDTO 结算信息
+   * @param userPrincipal 当前用户
+   * @return 排队凭证
+   */
+  @PostMapping(ApiConstants.CART_FLASH_SALE_CHECKOUT)
+  @PreAuthorize(RoleConstants.HAS_ANY_ROLE)
+  public ApiResponse<FlashSaleTicketDTO> flashSaleCheckout(
+      @RequestBody @Valid CheckoutDTO checkoutDTO,
+      @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    log.info(
+        "用户「{}」秒杀结算：cartItemIds={}", userPrincipal.getUsername(), checkoutDTO.getCartItemIds());
+    checkoutDTO.setUserId(userPrincipal.getUserId());
+    FlashSaleTicketDTO ticket = flashSaleService.submit(checkoutDTO);
+    return ApiResponse.success(ticket);
+  }
+
+  /**
+   * 查询秒杀排队结果
+   *
+   * @param ticketId 排队凭证 ID
+   * @param userPrincipal 当前用户
+   * @return 排队凭证
+   */
+  @GetMapping(ApiConstants.CART_CHECKOUT_TICKET)
+  @PreAuthorize(RoleConstants.HAS_ANY_ROLE)
+  public ApiResponse<FlashSaleTicketDTO> getCheckoutTicket(
+      @PathVariable String ticketId, @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    FlashSaleTicketDTO ticket = flashSaleService.getTicket(userPrincipal.getUserId(), ticketId);
+    return ApiResponse.success(ticket);
+  }
+
   /**
    * 清空购物车
    *
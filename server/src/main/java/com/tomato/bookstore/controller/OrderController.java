@@ -1,6 +1,7 @@
 package com.tomato.bookstore.controller;
 
 import com.tomato.bookstore.constant.ApiConstants;
+import com.tomato.bookstore.constant.OrderConstants;
 import com.tomato.bookstore.constant.RoleConstants;
 import com.tomato.bookstore.dto.ApiResponse;
 import com.tomato.bookstore.dto.OrderDTO;
@@ -8,6 +9,7 @@ import com.tomato.bookstore.dto.PaymentDTO;
 import com.tomato.bookstore.dto.PaymentNotifyDTO;
 import com.tomato.bookstore.security.UserPrincipal;
 import com.tomato.bookstore.service.OrderService;
+import com.tomato.bookstore.service.PaymentNotifyService;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -31,6 +33,7 @@ import org.springframework.web.bind.annotation.*;
 @Validated
 public class OrderController {
   private final OrderService orderService;
+  private final PaymentNotifyService paymentNotifyService;
 
   @Value("${app.frontend.base-url}")
   private String frontendBaseUrl;
@@ -54,15 +57,18 @@ public class OrderController {
   /**
    * 获取用户的订单列表
    *
+   * @param includeArchived 是否包含已归档的历史订单
    * @param userPrincipal 当前用户
    * @return 订单列表
    */
   @GetMapping
   @PreAuthorize(RoleConstants.HAS_ANY_ROLE)
   public ApiResponse<List<OrderDTO>> getUserOrderList(
+      @RequestParam(defaultValue = "false") boolean includeArchived,
       @AuthenticationPrincipal UserPrincipal userPrincipal) {
-    log.info("用户「{}」获取订单列表", userPrincipal.getUsername());
-    List<OrderDTO> orders = orderService.getUserOrderList(userPrincipal.getUserId());
+    log.info("用户「{}」获取订单列表，includeArchived={}", userPrincipal.getUsername(), includeArchived);
+    List<OrderDTO> orders =
+        orderService.getUserOrderList(userPrincipal.getUserId(), includeArchived);
     return ApiResponse.success(orders);
   }
 
@@ -70,15 +76,20 @@ public class OrderController {
    * 支付订单
    *
    * @param orderId 订单 ID
+   * @param idempotencyKey 幂等键，重试时携带相同的值
    * @param userPrincipal 当前用户
    * @return 支付信息
    */
   @PostMapping(ApiConstants.ORDER_PAY)
   @PreAuthorize(RoleConstants.HAS_ANY_ROLE)
   public ApiResponse<PaymentDTO> payOrder(
-      @PathVariable Long orderId, @AuthenticationPrincipal UserPrincipal userPrincipal) {
+      @PathVariable Long orderId,
+      @RequestHeader(value = OrderConstants.IDEMPOTENCY_KEY_HEADER, required = false)
+          String idempotencyKey,
+      @AuthenticationPrincipal UserPrincipal userPrincipal) {
     log.info("用户「{}」支付订单：orderId={}", userPrincipal.getUsername(), orderId);
-    PaymentDTO paymentDTO = orderService.payOrder(userPrincipal.getUserId(), orderId);
+    PaymentDTO paymentDTO =
+        orderService.payOrder(userPrincipal.getUserId(), orderId, idempotencyKey);
     return ApiResponse.success(paymentDTO);
   }
 
@@ -101,7 +112,7 @@ public class OrderController {
   /**
    * 支付通知回调
    *
-   * <p>支付宝支付成功后，支付宝会向该接口发送支付结果通知。
+   * <p>支付宝支付成功后，支付宝会向该接口发送支付结果通知。通知写入收件箱后立即确认，由后台任务批量更新订单。
    */
   @PostMapping(
       value = ApiConstants.ORDER_NOTIFY,
@@ -120,7 +131,7 @@ public class OrderController {
         totalAmount,
         gmtPayment);
 
-    // 从 out_trade_no 中解析订单 ID（格式：时间戳_订单ID）
+    // 从 out_trade_no 中解析订单 ID（格式：序号_订单ID）
     Long orderId;
     try {
       String[] parts = outTradeNo.split("_");
@@ -154,9 +165,9 @@ public class OrderController {
             .paymentTime(paymentTime)
             .build();
 
-    // 处理支付通知
-    PaymentNotifyDTO result = orderService.handlePaymentNotify(notifyDTO);
-    return ApiResponse.success("支付成功", result);
+    // 记录支付通知，重复通知同样确认
+    paymentNotifyService.receive(notifyDTO);
+    return ApiResponse.success("支付通知已接收", notifyDTO);
   }
 
   /**
@@ -172,7 +183,7 @@ public class OrderController {
       HttpServletResponse response) {
     log.info("收到支付同步返回：outTradeNo={}, tradeNo={}, amount={}", outTradeNo, tradeNo, totalAmount);
 
-    // 从 out_trade_no 中解析订单 ID（格式：时间戳_订单ID）
+    // 从 out_trade_no 中解析订单 ID（格式：序号_订单ID）
     String orderIdStr;
     try {
       String[] parts = outTradeNo.split("_");
@@ -1,13 +1,28 @@
 package com.tomato.bookstore.controller;
 
 import com.tomato.bookstore.constant.ApiConstants;
+import com.tomato.bookstore.constant.BestsellerWindow;
 import com.tomato.bookstore.constant.RoleConstants;
 import com.tomato.bookstore.dto.ApiResponse;
+import com.tomato.bookstore.dto.BestsellerDTO;
+import com.tomato.bookstore.dto.FlashSaleConfigDTO;
+import com.tomato.bookstore.dto.ProductCardDTO;
 import com.tomato.bookstore.dto.ProductDTO;
+import com.tomato.bookstore.dto.ProductRecommendationDTO;
+import com.tomato.bookstore.dto.ProductSearchDTO;
+import com.tomato.bookstore.dto.StockpileBucketDTO;
 import com.tomato.bookstore.dto.StockpileDTO;
 import com.tomato.bookstore.security.UserPrincipal;
+import com.tomato.bookstore.service.BestsellerService;
+import com.tomato.bookstore.service.FlashSaleService;
+import com.tomato.bookstore.service.ProductSearchService;
 import com.tomato.bookstore.service.ProductService;
+import com.tomato.bookstore.service.RecommendationService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +43,10 @@ import org.springframework.web.bind.annotation.*;
 @Validated
 public class ProductController {
   private final ProductService productService;
+  private final FlashSaleService flashSaleService;
+  private final BestsellerService bestsellerService;
+  private final RecommendationService recommendationService;
+  private final ProductSearchService productSearchService;
 
   /**
    * 获取所有商品
@@ -41,6 +60,49 @@ public class ProductController {
     return ApiResponse.success(products);
   }
 
+  /**
+   * 获取所有商品的卡片信息（不含描述、详情与规格），用于商品列表页
+   *
+   * @return 商品卡片列表
+   */
+  @GetMapping(ApiConstants.PRODUCT_CARDS)
+  public ApiResponse<List<ProductCardDTO>> getProductCards() {
+    log.info("获取商品卡片列表");
+    return ApiResponse.success(productService.getProductCards());
+  }
+
+  /**
+   * 按关键词搜索商品（标题、描述、详情与规格值）
+   *
+   * @param keyword 关键词
+   * @param page 页码，从 0 开始
+   * @param size 每页条数
+   * @return 按相关度排序的搜索结果
+   */
+  @GetMapping(ApiConstants.PRODUCT_SEARCH)
+  public ApiResponse<ProductSearchDTO> searchProducts(
+      @RequestParam @NotBlank @Size(max = 100) String keyword,
+      @RequestParam(defaultValue = "0") @Min(0) int page,
+      @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+    log.info("搜索商品：keyword={}, page={}, size={}", keyword, page, size);
+    return ApiResponse.success(productSearchService.search(keyword, page, size));
+  }
+
+  /**
+   * 获取畅销榜
+   *
+   * @param window 统计窗口，默认最近 7 天
+   * @param limit 名次数
+   * @return 畅销榜
+   */
+  @GetMapping(ApiConstants.PRODUCT_BESTSELLERS)
+  public ApiResponse<List<BestsellerDTO>> getBestsellers(
+      @RequestParam(defaultValue = "LAST_7_DAYS") BestsellerWindow window,
+      @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+    log.info("获取畅销榜：window={}, limit={}", window, limit);
+    return ApiResponse.success(bestsellerService.getBestsellers(window, limit));
+  }
+
   /**
    * 获取指定 ID 的商品
    *
@@ -54,6 +116,20 @@ public class ProductController {
     return ApiResponse.success(product);
   }
 
+  /**
+   * 获取与指定商品共同购买次数最多的商品
+   *
+   * @param id 商品 ID
+   * @param limit 条数
+   * @return 推荐列表
+   */
+  @GetMapping(ApiConstants.PRODUCT_RECOMMENDATIONS)
+  public ApiResponse<List<ProductRecommendationDTO>> getRecommendations(
+      @PathVariable Long id, @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+    log.info("获取共同购买推荐：productId={}, limit={}", id, limit);
+    return ApiResponse.success(recommendationService.getRecommendations(id, limit));
+  }
+
   /**
    * 创建商品（仅管理员）
    *
@@ -140,4 +216,51 @@ public class ProductController {
     productService.updateStockpile(productId, stockpileDTO);
     return ApiResponse.success("调整库存成功");
   }
+
+  /**
+   * 调整商品库存分桶数（仅管理员）
+   *
+   * @param productId 商品 ID
+   * @param stockpileBucketDTO 分桶配置
+   * @param userPrincipal 当前用户
+   * @return 调整结果
+   */
+  @PatchMapping(ApiConstants.STOCKPILE_BUCKETS)
+  @PreAuthorize(RoleConstants.HAS_ROLE_ADMIN)
+  public ApiResponse<String> configureStockpileBuckets(
+      @PathVariable Long productId,
+      @RequestBody @Valid StockpileBucketDTO stockpileBucketDTO,
+      @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    log.info(
+        "管理员「{}」调整商品库存分桶 productId={}，分桶数={}",
+        userPrincipal.getUsername(),
+        productId,
+        stockpileBucketDTO.getBucketCount());
+    productService.configureStockpileBuckets(productId, stockpileBucketDTO.getBucketCount());
+    return ApiResponse.success("调整库存分桶成功");
+  }
+
+  /**
+   * 开启或关闭商品秒杀（仅管理员）
+   *
+   * @param productId 商品 ID
+   * @param flashSaleConfigDTO 秒杀开关
+   * @param userPrincipal 当前用户
+   * @return 秒杀配置及当前剩余名额
+   */
+  @PatchMapping(ApiConstants.STOCKPILE_FLASH_SALE)
+  @PreAuthorize(RoleConstants.HAS_ROLE_ADMIN)
+  public ApiResponse<FlashSaleConfigDTO> configureFlashSale(
+      @PathVariable Long productId,
+      @RequestBody @Valid FlashSaleConfigDTO flashSaleConfigDTO,
+      @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    log.info(
+        "管理员「{}」调整商品秒杀 productId={}，开启={}",
+        userPrincipal.getUsername(),
+        productId,
+        flashSaleConfigDTO.getEnabled());
+    FlashSaleConfigDTO result =
+        flashSaleService.configure(productId, flashSaleConfigDTO.getEnabled());
+    return ApiResponse.success(result);
+  }
 }
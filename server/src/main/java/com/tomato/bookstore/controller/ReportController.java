@@ -0,0 +1,161 @@
+package com.tomato.bookstore.controller;
+
+import com.tomato.bookstore.constant.ApiConstants;
+import com.tomato.bookstore.constant.ExportFormat;
+import com.tomato.bookstore.constant.RoleConstants;
+import com.tomato.bookstore.dto.ApiResponse;
+import com.tomato.bookstore.dto.DailyOrderStatsDTO;
+import com.tomato.bookstore.dto.ProductDailySalesDTO;
+import com.tomato.bookstore.security.UserPrincipal;
+import com.tomato.bookstore.service.ExportService;
+import com.tomato.bookstore.service.SalesReportService;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * 报表控制器
+ *
+ * <p>该类包含销售报表与数据导出相关的接口，仅管理员可用。报表数据来自按天汇总的报表表，导出接口边查询边写出响应。
+ */
+@RestController
+@RequestMapping(ApiConstants.REPORT_BASE_PATH)
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ReportController {
+  private final Clock clock;
+  private final SalesReportService salesReportService;
+  private final ExportService exportService;
+
+  /**
+   * 获取商品每日销售汇总（仅管理员）
+   *
+   * @param from 起始日期（含）
+   * @param to 结束日期（含）
+   * @param productId 商品 ID，不传时返回所有商品
+   * @return 汇总列表
+   */
+  @GetMapping(ApiConstants.REPORT_PRODUCT_SALES)
+  @PreAuthorize(RoleConstants.HAS_ROLE_ADMIN)
+  public ApiResponse<List<ProductDailySalesDTO>> getProductDailySales(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @RequestParam(required = false) Long productId) {
+    log.info("获取商品每日销售汇总：from={}, to={}, productId={}", from, to, productId);
+    return ApiResponse.success(salesReportService.getProductDailySales(from, to, productId));
+  }
+
+  /**
+   * 获取每日订单汇总（仅管理员）
+   *
+   * @param from 起始日期（含）
+   * @param to 结束日期（含）
+   * @return 汇总列表
+   */
+  @GetMapping(ApiConstants.REPORT_DAILY_ORDERS)
+  @PreAuthorize(RoleConstants.HAS_ROLE_ADMIN)
+  public ApiResponse<List<DailyOrderStatsDTO>> getDailyOrderStats(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    log.info("获取每日订单汇总：from={}, to={}", from, to);
+    return ApiResponse.success(salesReportService.getDailyOrderStats(from, to));
+  }
+
+  /**
+   * 从订单表重建销售汇总（仅管理员）
+   *
+   * @param from 起始日期（含）
+   * @param to 结束日期（含），须早于今天
+   * @param userPrincipal 当前用户
+   * @return 重建的天数
+   */
+  @PostMapping(ApiConstants.REPORT_SALES_BACKFILL)
+  @PreAuthorize(RoleConstants.HAS_ROLE_ADMIN)
+  public ApiResponse<Integer> backfill(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    log.info("管理员「{}」重建销售汇总：from={}, to={}", userPrincipal.getUsername(), from, to);
+    return ApiResponse.success(salesReportService.backfill(from, to));
+  }
+
+  /**
+   * 导出所有订单（仅管理员）
+   *
+   * @param format 文件格式，默认 CSV
+   * @param userPrincipal 当前用户
+   * @return 文件流
+   */
+  @GetMapping(ApiConstants.REPORT_EXPORT_ORDERS)
+  @PreAuthorize(RoleConstants.HAS_ROLE_ADMIN)
+  public ResponseEntity<StreamingResponseBody> exportOrders(
+      @RequestParam(defaultValue = "CSV") ExportFormat format,
+      @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    log.info("管理员「{}」导出订单：format={}", userPrincipal.getUsername(), format);
+    return download("orders", format, out -> exportService.exportOrders(format, out));
+  }
+
+  /**
+   * 导出所有商品及其库存（仅管理员）
+   *
+   * @param format 文件格式，默认 CSV
+   * @param userPrincipal 当前用户
+   * @return 文件流
+   */
+  @GetMapping(ApiConstants.REPORT_EXPORT_PRODUCTS)
+  @PreAuthorize(RoleConstants.HAS_ROLE_ADMIN)
+  public ResponseEntity<StreamingResponseBody> exportProducts(
+      @RequestParam(defaultValue = "CSV") ExportFormat format,
+      @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    log.info("管理员「{}」导出商品：format={}", userPrincipal.getUsername(), format);
+    return download("products", format, out -> exportService.exportProducts(format, out));
+  }
+
+  /**
+   * 导出所有评论（仅管理员）
+   *
+   * @param format 文件格式，默认 CSV
+   * @param userPrincipal 当前用户
+   * @return 文件流
+   */
+  @GetMapping(ApiConstants.REPORT_EXPORT_REVIEWS)
+  @PreAuthorize(RoleConstants.HAS_ROLE_ADMIN)
+  public ResponseEntity<StreamingResponseBody> exportReviews(
+      @RequestParam(defaultValue = "CSV") ExportFormat format,
+      @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    log.info("管理员「{}」导出评论：format={}", userPrincipal.getUsername(), format);
+    return download("reviews", format, out -> exportService.exportReviews(format, out));
+  }
+
+  /**
+   * 构造下载响应，文件内容在请求线程返回后异步写出
+   *
+   * @param name 文件名前缀
+   * @param format 文件格式
+   * @param body 写出文件内容
+   * @return 下载响应
+   */
+  private ResponseEntity<StreamingResponseBody> download(
+      String name, ExportFormat format, StreamingResponseBody body) {
+    String filename = name + "-" + LocalDate.now(clock) + "." + format.getExtension();
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(format.getContentType()))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(filename).build().toString())
+        .body(body);
+  }
+}
@@ -0,0 +1,21 @@
+package com.tomato.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 畅销榜条目数据传输对象 */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestsellerDTO {
+  /** 名次，从 1 开始 */
+  private Integer rank;
+
+  private Long productId;
+
+  /** 已支付件数 */
+  private Long units;
+}
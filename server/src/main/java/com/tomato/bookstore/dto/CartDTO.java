@@ -21,9 +21,7 @@ public class CartDTO {
 
   private String title;
   private BigDecimal price;
-  private String description;
   private String cover;
-  private String detail;
 
   @NotNull(message = "商品数量不能为空")
   @Min(value = 1, message = "商品数量必须大于 0")
@@ -26,4 +26,7 @@ public class CheckoutDTO {
 
   @NotNull(message = "支付方式不能为空")
   private PaymentMethod paymentMethod;
+
+  /** 幂等键，取自请求头，重复提交时返回首次创建的订单 */
+  private String idempotencyKey;
 }
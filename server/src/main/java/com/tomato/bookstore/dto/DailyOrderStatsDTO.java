@@ -0,0 +1,23 @@
+package com.tomato.bookstore.dto;
+
+import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.constant.PaymentMethod;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 每日订单汇总数据传输对象 */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyOrderStatsDTO {
+  private LocalDate statsDate;
+  private PaymentMethod paymentMethod;
+  private OrderStatus status;
+  private Long orderCount;
+  private BigDecimal totalAmount;
+}
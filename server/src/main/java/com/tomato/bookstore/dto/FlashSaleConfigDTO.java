@@ -0,0 +1,20 @@
+package com.tomato.bookstore.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 商品秒杀开关 DTO */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleConfigDTO {
+  @NotNull(message = "秒杀开关不能为空")
+  private Boolean enabled;
+
+  /** 当前剩余秒杀名额，仅用于展示 */
+  private Integer remaining;
+}
@@ -0,0 +1,30 @@
+package com.tomato.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tomato.bookstore.constant.FlashSaleTicketStatus;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 秒杀排队凭证 DTO */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleTicketDTO {
+  private String ticketId;
+  private FlashSaleTicketStatus status;
+
+  /** 下单成功后的订单 ID */
+  private Long orderId;
+
+  /** 下单失败原因 */
+  private String message;
+
+  private LocalDateTime createdAt;
+  private LocalDateTime updatedAt;
+
+  @JsonIgnore private Long userId;
+}
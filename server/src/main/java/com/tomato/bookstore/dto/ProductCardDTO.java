@@ -0,0 +1,20 @@
+package com.tomato.bookstore.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 商品卡片 DTO，仅包含列表页展示所需的字段 */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCardDTO {
+  private Long id;
+  private String title;
+  private BigDecimal price;
+  private Integer rate;
+  private String cover;
+}
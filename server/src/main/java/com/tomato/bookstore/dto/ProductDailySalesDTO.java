@@ -0,0 +1,21 @@
+package com.tomato.bookstore.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 商品每日销售汇总数据传输对象 */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDailySalesDTO {
+  private LocalDate salesDate;
+  private Long productId;
+  private Long units;
+  private BigDecimal revenue;
+  private Long orderCount;
+}
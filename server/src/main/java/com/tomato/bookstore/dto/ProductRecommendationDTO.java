@@ -0,0 +1,18 @@
+package com.tomato.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 共同购买推荐数据传输对象 */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRecommendationDTO {
+  private Long productId;
+
+  /** 共同购买的订单数 */
+  private Long coPurchases;
+}
@@ -0,0 +1,25 @@
+package com.tomato.bookstore.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 商品搜索结果 DTO */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchDTO {
+  /** 命中的商品总数 */
+  private Long total;
+
+  /** 页码，从 0 开始 */
+  private Integer page;
+
+  private Integer size;
+
+  /** 当前页的商品，按相关度降序 */
+  private List<ProductCardDTO> items;
+}
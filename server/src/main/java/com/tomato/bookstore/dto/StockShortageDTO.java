@@ -0,0 +1,21 @@
+package com.tomato.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 库存不足明细 DTO */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockShortageDTO {
+  private Long productId;
+  private String title;
+
+  /** 当前可售库存，库存记录不存在时为空 */
+  private Integer available;
+
+  private Integer requested;
+}
@@ -0,0 +1,21 @@
+package com.tomato.bookstore.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 商品库存分桶配置数据传输对象 */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockpileBucketDTO {
+  @NotNull(message = "分桶数不能为空")
+  @Min(value = 0, message = "分桶数不能小于 0")
+  @Max(value = 64, message = "分桶数不能大于 64")
+  private Integer bucketCount;
+}
@@ -23,5 +23,11 @@ public class StockpileDTO {
   @Min(value = 0, message = "冻结库存量不能小于 0")
   private Integer frozen;
 
+  /** 库存分桶数，仅用于展示，调整请使用分桶配置接口 */
+  private Integer bucketCount;
+
+  /** 是否开启秒杀，仅用于展示，调整请使用秒杀配置接口 */
+  private Boolean flashSale;
+
   private Long productId;
 }
@@ -0,0 +1,47 @@
+package com.tomato.bookstore.dto;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 最近一段时间的实时经营指标数据传输对象 */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreMetricsDTO {
+  /** 统计窗口（分钟） */
+  private Integer windowMinutes;
+
+  private Long ordersCreated;
+  private Long ordersPaid;
+  private BigDecimal ordersPerMinute;
+
+  /** 已支付订单金额 */
+  private BigDecimal revenue;
+
+  private BigDecimal revenuePerMinute;
+  private Long checkoutFailures;
+
+  /** 结算失败率：失败数 / (下单数 + 失败数) */
+  private BigDecimal checkoutFailureRate;
+
+  private Map<BusinessErrorCode, Long> failuresByCode;
+
+  /** 已支付件数最多的商品 */
+  private List<ProductUnits> topProducts;
+
+  /** 商品已支付件数 */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class ProductUnits {
+    private Long productId;
+    private Long units;
+  }
+}
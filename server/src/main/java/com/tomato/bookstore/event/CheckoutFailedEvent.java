@@ -0,0 +1,16 @@
+package com.tomato.bookstore.event;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import java.time.LocalDateTime;
+import lombok.Value;
+
+/**
+ * 结算失败
+ *
+ * <p>结算事务回滚，事件不会经 {@link DomainEventBus} 分发，只供同步监听者统计使用
+ */
+@Value
+public class CheckoutFailedEvent {
+  BusinessErrorCode errorCode;
+  LocalDateTime occurredAt;
+}
@@ -0,0 +1,102 @@
+package com.tomato.bookstore.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 进程内领域事件总线
+ *
+ * <p>订单事件在发布它的事务提交后才分发，回滚的变更不会产生事件；没有事务时立即分发。每个监听器各自提交到有界线程池，
+ * 队列满时由提交事件的线程直接执行，以此向发布方施加背压而不丢弃事件。每个监听器按事件类型与结果记录耗时指标
+ * （domain.events.listener），队列长度记录为 domain.events.queue.size。
+ *
+ * <p>事件只保存在内存中，进程退出时未处理的事件会丢失，不能用于必须送达的副作用。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DomainEventBus {
+  private final List<OrderEventListener> listeners;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.events.workers:2}")
+  private int workers;
+
+  @Value("${app.events.queue-capacity:1000}")
+  private int queueCapacity;
+
+  private ThreadPoolExecutor executor;
+
+  @PostConstruct
+  void init() {
+    AtomicInteger threadCount = new AtomicInteger();
+    executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "domain-event-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    meterRegistry.gauge("domain.events.queue.size", executor, e -> e.getQueue().size());
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    executor.shutdown();
+    if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+      log.warn("领域事件未处理完毕：remaining={}", executor.getQueue().size());
+    }
+  }
+
+  /**
+   * 事务提交后分发订单事件
+   *
+   * @param event 订单事件
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void dispatch(OrderEvent event) {
+    for (OrderEventListener listener : listeners) {
+      executor.execute(() -> deliver(listener, event));
+    }
+  }
+
+  private void deliver(OrderEventListener listener, OrderEvent event) {
+    String outcome = "success";
+    long start = System.nanoTime();
+    try {
+      listener.onOrderEvent(event);
+    } catch (RuntimeException e) {
+      outcome = "failure";
+      log.error(
+          "领域事件处理失败：listener={}, event={}",
+          listener.getClass().getSimpleName(),
+          event,
+          e);
+    } finally {
+      Timer.builder("domain.events.listener")
+          .tag("listener", listener.getClass().getSimpleName())
+          .tag("event", event.getClass().getSimpleName())
+          .tag("outcome", outcome)
+          .register(meterRegistry)
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.tomato.bookstore.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tomato.bookstore.model.OutboxMessage;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** 文件投递目标：每批消息以 JSON Lines 追加写入并刷盘 */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "file")
+@RequiredArgsConstructor
+public class FileOutboxSink implements OutboxSink {
+  private final ObjectMapper objectMapper;
+
+  @Value("${app.outbox.file-path:outbox/messages.jsonl}")
+  private Path path;
+
+  @Override
+  public synchronized void publish(List<OutboxMessage> messages) {
+    try {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      try (BufferedWriter writer =
+          Files.newBufferedWriter(
+              path,
+              StandardCharsets.UTF_8,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.APPEND,
+              StandardOpenOption.SYNC)) {
+        for (OutboxMessage message : messages) {
+          Map<String, Object> line = new LinkedHashMap<>();
+          line.put("id", message.getId());
+          line.put("aggregateType", message.getAggregateType());
+          line.put("aggregateId", message.getAggregateId());
+          line.put("eventType", message.getEventType());
+          line.put("createdAt", message.getCreatedAt());
+          line.put("payload", objectMapper.readTree(message.getPayload()));
+          writer.write(objectMapper.writeValueAsString(line));
+          writer.newLine();
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("写入发件箱文件失败：" + path, e);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.tomato.bookstore.event;
+
+import com.tomato.bookstore.model.OutboxMessage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** 内存投递目标：只保留最近的消息，供开发与测试查看 */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+  private final Deque<OutboxMessage> messages = new ArrayDeque<>();
+
+  @Value("${app.outbox.memory-capacity:10000}")
+  private int capacity;
+
+  @Override
+  public synchronized void publish(List<OutboxMessage> batch) {
+    for (OutboxMessage message : batch) {
+      if (messages.size() >= capacity) {
+        messages.removeFirst();
+      }
+      messages.addLast(message);
+    }
+  }
+
+  /**
+   * 最近投递的消息
+   *
+   * @return 消息列表（按投递顺序）
+   */
+  public synchronized List<OutboxMessage> recent() {
+    return new ArrayList<>(messages);
+  }
+}
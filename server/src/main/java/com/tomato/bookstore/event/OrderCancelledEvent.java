@@ -0,0 +1,12 @@
+package com.tomato.bookstore.event;
+
+import java.time.LocalDateTime;
+import lombok.Value;
+
+/** 订单已由用户取消 */
+@Value
+public class OrderCancelledEvent implements OrderEvent {
+  Long orderId;
+  Long userId;
+  LocalDateTime occurredAt;
+}
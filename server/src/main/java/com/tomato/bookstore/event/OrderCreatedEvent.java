@@ -0,0 +1,14 @@
+package com.tomato.bookstore.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.Value;
+
+/** 订单已创建 */
+@Value
+public class OrderCreatedEvent implements OrderEvent {
+  Long orderId;
+  Long userId;
+  BigDecimal totalAmount;
+  LocalDateTime occurredAt;
+}
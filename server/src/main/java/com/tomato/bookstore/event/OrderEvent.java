@@ -0,0 +1,18 @@
+package com.tomato.bookstore.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单生命周期事件
+ *
+ * <p>订单服务在状态变更的事务内发布，事务提交后由 {@link DomainEventBus} 异步分发给各 {@link OrderEventListener}
+ */
+public sealed interface OrderEvent
+    permits OrderCreatedEvent, OrderPaidEvent, OrderCancelledEvent, OrderTimedOutEvent {
+  /**
+   * 事件发生时间
+   *
+   * @return 发生时间
+   */
+  LocalDateTime getOccurredAt();
+}
@@ -0,0 +1,15 @@
+package com.tomato.bookstore.event;
+
+/**
+ * 订单事件监听器
+ *
+ * <p>在事件线程池中执行，不在请求线程上，也不在订单事务内。监听器抛出的异常只记录日志与指标，不影响其他监听器。
+ */
+public interface OrderEventListener {
+  /**
+   * 处理订单事件
+   *
+   * @param event 订单事件
+   */
+  void onOrderEvent(OrderEvent event);
+}
@@ -0,0 +1,26 @@
+package com.tomato.bookstore.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/** 记录订单生命周期日志 */
+@Component
+@Slf4j
+public class OrderEventLogListener implements OrderEventListener {
+  @Override
+  public void onOrderEvent(OrderEvent event) {
+    switch (event) {
+      case OrderCreatedEvent e ->
+          log.info(
+              "订单生命周期：已创建，orderId={}, userId={}, totalAmount={}",
+              e.getOrderId(),
+              e.getUserId(),
+              e.getTotalAmount());
+      case OrderPaidEvent e ->
+          log.info("订单生命周期：已支付，orderId={}, tradeNo={}", e.getOrderId(), e.getTradeNo());
+      case OrderCancelledEvent e ->
+          log.info("订单生命周期：已取消，orderId={}, userId={}", e.getOrderId(), e.getUserId());
+      case OrderTimedOutEvent e -> log.info("订单生命周期：已超时，orderIds={}", e.getOrderIds());
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.tomato.bookstore.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.Value;
+
+/** 订单已支付 */
+@Value
+public class OrderPaidEvent implements OrderEvent {
+  Long orderId;
+  String tradeNo;
+  BigDecimal totalAmount;
+
+  /** 商品 ID 到购买数量的映射，即本次扣减的库存 */
+  Map<Long, Integer> quantities;
+
+  LocalDateTime occurredAt;
+}
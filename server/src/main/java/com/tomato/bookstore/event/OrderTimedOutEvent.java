@@ -0,0 +1,12 @@
+package com.tomato.bookstore.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Value;
+
+/** 一批订单已超时关闭（超时按批处理，一批只发布一个事件） */
+@Value
+public class OrderTimedOutEvent implements OrderEvent {
+  List<Long> orderIds;
+  LocalDateTime occurredAt;
+}
@@ -0,0 +1,112 @@
+package com.tomato.bookstore.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tomato.bookstore.model.OrderLine;
+import com.tomato.bookstore.model.OutboxMessage;
+import com.tomato.bookstore.repository.OrderLineRepository;
+import com.tomato.bookstore.repository.OutboxMessageRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 将订单事件写入发件箱
+ *
+ * <p>同步监听，与发布事件的订单事务一同提交或回滚。每个受影响的订单写一条消息，消息中附带订单行的商品与数量，
+ * 以及该事件对库存的影响（锁定、扣减或解锁），下游据此同步订单与库存，无需再回查。
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxEventRecorder {
+  static final String AGGREGATE_ORDER = "ORDER";
+
+  private final ObjectMapper objectMapper;
+  private final OrderLineRepository orderLineRepository;
+  private final OutboxMessageRepository outboxMessageRepository;
+
+  /**
+   * 记录订单事件
+   *
+   * @param event 订单事件
+   */
+  @EventListener
+  public void record(OrderEvent event) {
+    List<Long> orderIds;
+    String eventType;
+    String stockAction;
+    Map<String, Object> fields = new LinkedHashMap<>();
+    switch (event) {
+      case OrderCreatedEvent e -> {
+        orderIds = List.of(e.getOrderId());
+        eventType = "OrderCreated";
+        stockAction = "LOCK";
+        fields.put("userId", e.getUserId());
+        fields.put("totalAmount", e.getTotalAmount());
+      }
+      case OrderPaidEvent e -> {
+        orderIds = List.of(e.getOrderId());
+        eventType = "OrderPaid";
+        stockAction = "REDUCE";
+        fields.put("tradeNo", e.getTradeNo());
+        fields.put("totalAmount", e.getTotalAmount());
+      }
+      case OrderCancelledEvent e -> {
+        orderIds = List.of(e.getOrderId());
+        eventType = "OrderCancelled";
+        stockAction = "UNLOCK";
+        fields.put("userId", e.getUserId());
+      }
+      case OrderTimedOutEvent e -> {
+        orderIds = e.getOrderIds();
+        eventType = "OrderTimedOut";
+        stockAction = "UNLOCK";
+      }
+    }
+
+    Map<Long, List<Map<String, Object>>> itemsByOrder =
+        orderLineRepository.findByOrderIdInOrderById(orderIds).stream()
+            .collect(
+                Collectors.groupingBy(
+                    OrderLine::getOrderId,
+                    Collectors.mapping(
+                        line ->
+                            Map.<String, Object>of(
+                                "productId", line.getProductId(),
+                                "quantity", line.getQuantity()),
+                        Collectors.toList())));
+
+    List<OutboxMessage> messages = new ArrayList<>(orderIds.size());
+    for (Long orderId : orderIds) {
+      Map<String, Object> payload = new LinkedHashMap<>();
+      payload.put("orderId", orderId);
+      payload.putAll(fields);
+      payload.put("occurredAt", event.getOccurredAt());
+      payload.put("stockAction", stockAction);
+      payload.put("items", itemsByOrder.getOrDefault(orderId, List.of()));
+      messages.add(
+          OutboxMessage.builder()
+              .aggregateType(AGGREGATE_ORDER)
+              .aggregateId(orderId)
+              .eventType(eventType)
+              .payload(toJson(payload))
+              .createdAt(event.getOccurredAt())
+              .build());
+    }
+    outboxMessageRepository.saveAll(messages);
+  }
+
+  private String toJson(Map<String, Object> payload) {
+    try {
+      return objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("序列化发件箱消息失败", e);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.tomato.bookstore.event;
+
+import com.tomato.bookstore.model.OutboxMessage;
+import java.util.List;
+
+/**
+ * 发件箱投递目标
+ *
+ * <p>实现由 app.outbox.sink 选择。一批消息全部写入成功才返回，抛出异常时整批保留在发件箱中等待下次重试。
+ */
+public interface OutboxSink {
+  /**
+   * 投递一批消息（批内按消息 ID 升序，跨批次及与提交顺序之间不保证有序）
+   *
+   * @param messages 消息列表
+   */
+  void publish(List<OutboxMessage> messages);
+}
@@ -0,0 +1,33 @@
+package com.tomato.bookstore.event;
+
+import com.tomato.bookstore.service.SalesReportService;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/** 将订单的支付、取消与超时同步累加到销售汇总，与订单事务一同提交或回滚 */
+@Component
+@RequiredArgsConstructor
+public class SalesRollupRecorder {
+  private final SalesReportService salesReportService;
+
+  /**
+   * 记录订单事件
+   *
+   * @param event 订单事件
+   */
+  @EventListener
+  public void record(OrderEvent event) {
+    List<Long> orderIds =
+        switch (event) {
+          case OrderCreatedEvent e -> List.of();
+          case OrderPaidEvent e -> List.of(e.getOrderId());
+          case OrderCancelledEvent e -> List.of(e.getOrderId());
+          case OrderTimedOutEvent e -> e.getOrderIds();
+        };
+    if (!orderIds.isEmpty()) {
+      salesReportService.recordOrders(orderIds, event.getOccurredAt().toLocalDate());
+    }
+  }
+}
@@ -1,8 +1,10 @@
 package com.tomato.bookstore.exception;
 
 import com.tomato.bookstore.dto.ApiResponse;
+import com.tomato.bookstore.dto.StockShortageDTO;
 import jakarta.validation.ConstraintViolationException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -53,6 +55,22 @@ public class GlobalExceptionHandler {
     return ApiResponse.error(e.getCode(), e.getMessage());
   }
 
+  /**
+   * 处理库存不足异常
+   *
+   * <p>该异常在结算锁定库存失败时抛出，响应数据中包含每个失败商品的库存明细。
+   *
+   * @param e 库存不足异常
+   * @return ApiResponse 统一格式的响应
+   */
+  @ExceptionHandler(StockInsufficientException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public ApiResponse<List<StockShortageDTO>> handleStockInsufficientException(
+      StockInsufficientException e) {
+    log.warn("库存不足：{} - {}", e.getCode(), e.getMessage());
+    return ApiResponse.error(e.getCode(), e.getMessage(), e.getShortages());
+  }
+
   /**
    * 处理参数校验异常（表单提交）
    *
@@ -0,0 +1,22 @@
+package com.tomato.bookstore.exception;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.dto.StockShortageDTO;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * 库存不足异常
+ *
+ * <p>结算时一个或多个商品无法锁定库存，携带每个失败商品的明细，便于前端逐项提示
+ */
+@Getter
+public class StockInsufficientException extends BusinessException {
+  private final List<StockShortageDTO> shortages;
+
+  public StockInsufficientException(
+      BusinessErrorCode errorCode, String message, List<StockShortageDTO> shortages) {
+    super(errorCode, message);
+    this.shortages = List.copyOf(shortages);
+  }
+}
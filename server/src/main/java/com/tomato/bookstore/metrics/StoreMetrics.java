@@ -0,0 +1,155 @@
+package com.tomato.bookstore.metrics;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.dto.StoreMetricsDTO;
+import com.tomato.bookstore.event.CheckoutFailedEvent;
+import com.tomato.bookstore.event.OrderCancelledEvent;
+import com.tomato.bookstore.event.OrderCreatedEvent;
+import com.tomato.bookstore.event.OrderEvent;
+import com.tomato.bookstore.event.OrderEventListener;
+import com.tomato.bookstore.event.OrderPaidEvent;
+import com.tomato.bookstore.event.OrderTimedOutEvent;
+import com.tomato.bookstore.util.SlidingWindow;
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 实时经营指标
+ *
+ * <p>只在内存中按时间桶累加订单事件，查询时汇总最近若干分钟的桶，不访问数据库。下单与支付在事务提交后由
+ * {@link com.tomato.bookstore.event.DomainEventBus} 异步送达，结算失败在失败时同步记录。各实例分别统计本实例处理的请求。
+ */
+@Component
+@RequiredArgsConstructor
+public class StoreMetrics implements OrderEventListener {
+  private final Clock clock;
+
+  @Value("${app.metrics.bucket-seconds:5}")
+  private int bucketSeconds;
+
+  @Value("${app.metrics.max-window-minutes:60}")
+  private int maxWindowMinutes;
+
+  @Value("${app.metrics.top-products:10}")
+  private int topProducts;
+
+  private SlidingWindow<Counters> window;
+
+  @PostConstruct
+  void init() {
+    window =
+        new SlidingWindow<>(
+            bucketSeconds * 1000L,
+            Math.ceilDiv(maxWindowMinutes * 60, bucketSeconds),
+            Counters::new);
+  }
+
+  @Override
+  public void onOrderEvent(OrderEvent event) {
+    Counters counters = window.current(clock.millis());
+    switch (event) {
+      case OrderCreatedEvent e -> counters.ordersCreated.increment();
+      case OrderPaidEvent e -> {
+        counters.ordersPaid.increment();
+        counters.revenueCents.add(e.getTotalAmount().movePointRight(2).longValue());
+        e.getQuantities()
+            .forEach(
+                (productId, quantity) ->
+                    counters
+                        .productUnits
+                        .computeIfAbsent(productId, id -> new LongAdder())
+                        .add(quantity));
+      }
+      case OrderCancelledEvent e -> {}
+      case OrderTimedOutEvent e -> {}
+    }
+  }
+
+  /**
+   * 记录结算失败
+   *
+   * @param event 结算失败事件
+   */
+  @EventListener
+  public void onCheckoutFailed(CheckoutFailedEvent event) {
+    window
+        .current(clock.millis())
+        .failures
+        .computeIfAbsent(event.getErrorCode(), code -> new LongAdder())
+        .increment();
+  }
+
+  /**
+   * 汇总最近一段时间的指标
+   *
+   * @param minutes 窗口长度（分钟），超过 app.metrics.max-window-minutes 时按其计算
+   * @return 指标
+   */
+  public StoreMetricsDTO snapshot(int minutes) {
+    long created = 0;
+    long paid = 0;
+    long revenueCents = 0;
+    Map<BusinessErrorCode, Long> failuresByCode = new EnumMap<>(BusinessErrorCode.class);
+    Map<Long, Long> productUnits = new HashMap<>();
+    for (Counters counters : window.values(clock.millis(), minutes * 60_000L)) {
+      created += counters.ordersCreated.sum();
+      paid += counters.ordersPaid.sum();
+      revenueCents += counters.revenueCents.sum();
+      counters.failures.forEach(
+          (code, count) -> failuresByCode.merge(code, count.sum(), Long::sum));
+      counters.productUnits.forEach((id, units) -> productUnits.merge(id, units.sum(), Long::sum));
+    }
+
+    long failures = failuresByCode.values().stream().mapToLong(Long::longValue).sum();
+    BigDecimal revenue = BigDecimal.valueOf(revenueCents, 2);
+    BigDecimal perMinute = BigDecimal.valueOf(minutes);
+    List<StoreMetricsDTO.ProductUnits> top =
+        productUnits.entrySet().stream()
+            .sorted(
+                Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()))
+            .limit(topProducts)
+            .map(e -> new StoreMetricsDTO.ProductUnits(e.getKey(), e.getValue()))
+            .toList();
+    return StoreMetricsDTO.builder()
+        .windowMinutes(minutes)
+        .ordersCreated(created)
+        .ordersPaid(paid)
+        .ordersPerMinute(BigDecimal.valueOf(created).divide(perMinute, 2, RoundingMode.HALF_UP))
+        .revenue(revenue)
+        .revenuePerMinute(revenue.divide(perMinute, 2, RoundingMode.HALF_UP))
+        .checkoutFailures(failures)
+        .checkoutFailureRate(
+            created + failures == 0
+                ? BigDecimal.ZERO
+                : BigDecimal.valueOf(failures)
+                    .divide(BigDecimal.valueOf(created + failures), 4, RoundingMode.HALF_UP))
+        .failuresByCode(failuresByCode)
+        .topProducts(top)
+        .build();
+  }
+
+  /** 一个时间桶内的计数，均为无锁累加 */
+  private static final class Counters {
+    private final LongAdder ordersCreated = new LongAdder();
+    private final LongAdder ordersPaid = new LongAdder();
+    private final LongAdder revenueCents = new LongAdder();
+    private final ConcurrentMap<BusinessErrorCode, LongAdder> failures =
+        new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, LongAdder> productUnits = new ConcurrentHashMap<>();
+  }
+}
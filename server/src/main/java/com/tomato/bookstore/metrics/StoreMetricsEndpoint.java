@@ -0,0 +1,35 @@
+package com.tomato.bookstore.metrics;
+
+import com.tomato.bookstore.dto.StoreMetricsDTO;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/** 实时经营指标端点（/actuator/storemetrics），按配置的窗口各返回一组指标 */
+@Component
+@Endpoint(id = "storemetrics")
+@RequiredArgsConstructor
+public class StoreMetricsEndpoint {
+  private final StoreMetrics storeMetrics;
+
+  @Value("${app.metrics.windows-minutes:1,5,60}")
+  private int[] windowsMinutes;
+
+  /**
+   * 读取各窗口的指标
+   *
+   * @return 窗口（如 5m）到指标的映射
+   */
+  @ReadOperation
+  public Map<String, StoreMetricsDTO> metrics() {
+    Map<String, StoreMetricsDTO> metrics = new LinkedHashMap<>();
+    for (int minutes : windowsMinutes) {
+      metrics.put(minutes + "m", storeMetrics.snapshot(minutes));
+    }
+    return metrics;
+  }
+}
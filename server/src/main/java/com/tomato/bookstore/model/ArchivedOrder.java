@@ -0,0 +1,59 @@
+package com.tomato.bookstore.model;
+
+import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.constant.PaymentMethod;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * 归档订单实体类
+ *
+ * <p>已取消、已超时且超过保留期的订单从订单表移入此表，保留原订单 ID，之后不再修改。只在查询历史订单时读取，不参与下单、支付与超时处理。
+ */
+@Data
+@Entity
+@Immutable
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "archived_orders")
+public class ArchivedOrder {
+  /** 原订单 ID */
+  @Id
+  private Long id;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Column(nullable = false)
+  private BigDecimal totalAmount;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  private PaymentMethod paymentMethod;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  private OrderStatus status;
+
+  @Column(nullable = false)
+  private String shippingAddress;
+
+  private String tradeNo;
+
+  @Column(length = 64)
+  private String outTradeNo;
+
+  private LocalDateTime paymentTime;
+
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+
+  private LocalDateTime updatedAt;
+}
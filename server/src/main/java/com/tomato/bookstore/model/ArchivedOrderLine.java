@@ -0,0 +1,42 @@
+package com.tomato.bookstore.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/** 归档订单行实体类，随订单从订单行快照表移入，保留原订单行 ID */
+@Data
+@Entity
+@Immutable
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "archived_order_lines")
+public class ArchivedOrderLine {
+  /** 原订单行 ID */
+  @Id
+  private Long id;
+
+  @Column(name = "order_id", nullable = false)
+  private Long orderId;
+
+  @Column(nullable = false)
+  private Long productId;
+
+  private Long cartItemId;
+
+  @Column(nullable = false)
+  private String title;
+
+  @Column(nullable = false)
+  private BigDecimal price;
+
+  private String cover;
+
+  @Column(nullable = false)
+  private Integer quantity;
+}
@@ -0,0 +1,47 @@
+package com.tomato.bookstore.model;
+
+import com.tomato.bookstore.constant.BestsellerWindow;
+import com.tomato.bookstore.util.SnowflakeId;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 畅销榜快照实体类
+ *
+ * <p>处理支付通知的实例定期写入内存中的榜单，其他实例从快照加载，各窗口每个名次一行。
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "bestseller_rankings",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"ranking_window", "rank_no"}))
+public class BestsellerRanking {
+  @Id
+  @SnowflakeId
+  private Long id;
+
+  @Column(name = "ranking_window", nullable = false, length = 20)
+  @Enumerated(EnumType.STRING)
+  private BestsellerWindow rankingWindow;
+
+  /** 名次，从 1 开始 */
+  @Column(name = "rank_no", nullable = false)
+  private Integer rankNo;
+
+  @Column(nullable = false)
+  private Long productId;
+
+  /** 已支付件数 */
+  @Column(nullable = false)
+  private Long units;
+
+  @Column(nullable = false)
+  private LocalDateTime updatedAt;
+}
@@ -1,5 +1,6 @@
 package com.tomato.bookstore.model;
 
+import com.tomato.bookstore.util.SnowflakeId;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
@@ -16,7 +17,7 @@ import lombok.NoArgsConstructor;
 @Table(name = "carts")
 public class Cart {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @SnowflakeId
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
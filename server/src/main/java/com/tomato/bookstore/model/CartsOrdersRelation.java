@@ -1,5 +1,6 @@
 package com.tomato.bookstore.model;
 
+import com.tomato.bookstore.util.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,7 +16,7 @@ import lombok.NoArgsConstructor;
 @Table(name = "carts_orders_relation")
 public class CartsOrdersRelation {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @SnowflakeId
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,49 @@
+package com.tomato.bookstore.model;
+
+import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.constant.PaymentMethod;
+import com.tomato.bookstore.util.SnowflakeId;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 每日订单汇总实体类
+ *
+ * <p>按日期、支付方式与订单终态（已支付、已取消、已超时）各一行，日期为订单进入该状态的日期。
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "daily_order_stats",
+    uniqueConstraints =
+        @UniqueConstraint(columnNames = {"stats_date", "payment_method", "status"}))
+public class DailyOrderStats {
+  @Id
+  @SnowflakeId
+  private Long id;
+
+  @Column(name = "stats_date", nullable = false)
+  private LocalDate statsDate;
+
+  @Column(name = "payment_method", nullable = false)
+  @Enumerated(EnumType.STRING)
+  private PaymentMethod paymentMethod;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  private OrderStatus status;
+
+  @Column(nullable = false)
+  private Long orderCount;
+
+  @Column(nullable = false, precision = 14, scale = 2)
+  private BigDecimal totalAmount;
+}
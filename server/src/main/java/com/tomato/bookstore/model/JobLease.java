@@ -0,0 +1,30 @@
+package com.tomato.bookstore.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 定时任务租约实体类，每个任务一行，记录当前持有租约的实例及到期时间 */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "job_leases")
+public class JobLease {
+  @Id
+  @Column(length = 64)
+  private String name;
+
+  @Column(nullable = false, length = 128)
+  private String owner;
+
+  @Column(nullable = false)
+  private LocalDateTime expiresAt;
+
+  @Column(nullable = false)
+  private LocalDateTime renewedAt;
+}
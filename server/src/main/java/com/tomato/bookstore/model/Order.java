@@ -2,6 +2,7 @@ package com.tomato.bookstore.model;
 
 import com.tomato.bookstore.constant.OrderStatus;
 import com.tomato.bookstore.constant.PaymentMethod;
+import com.tomato.bookstore.util.SnowflakeId;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -18,10 +19,12 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "orders")
+@Table(
+    name = "orders",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "idempotency_key"}))
 public class Order {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @SnowflakeId
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -44,6 +47,13 @@ public class Order {
 
   private String tradeNo;
 
+  @Column(unique = true, length = 64)
+  private String outTradeNo;
+
+  /** 结算请求的幂等键，同一用户下唯一 */
+  @Column(length = 64)
+  private String idempotencyKey;
+
   private LocalDateTime paymentTime;
 
   @Column(nullable = false)
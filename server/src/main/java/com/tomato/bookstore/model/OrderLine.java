@@ -0,0 +1,49 @@
+package com.tomato.bookstore.model;
+
+import com.tomato.bookstore.util.SnowflakeId;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * 订单行快照实体类
+ *
+ * <p>下单时记录商品的标题、单价与封面，之后不再修改。订单详情与列表只读取快照，展示的是下单时的价格，也不再依赖购物车与商品记录。
+ */
+@Data
+@Entity
+@Immutable
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_lines")
+public class OrderLine {
+  @Id
+  @SnowflakeId
+  private Long id;
+
+  @Column(name = "order_id", nullable = false)
+  private Long orderId;
+
+  @Column(nullable = false)
+  private Long productId;
+
+  /** 下单时的购物车商品 ID，仅作追溯，不做外键约束 */
+  private Long cartItemId;
+
+  @Column(nullable = false)
+  private String title;
+
+  /** 下单时的单价 */
+  @Column(nullable = false)
+  private BigDecimal price;
+
+  private String cover;
+
+  @Column(nullable = false)
+  private Integer quantity;
+}
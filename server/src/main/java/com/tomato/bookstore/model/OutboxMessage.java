@@ -0,0 +1,48 @@
+package com.tomato.bookstore.model;
+
+import com.tomato.bookstore.util.SnowflakeId;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 发件箱消息实体类
+ *
+ * <p>与订单、库存变更在同一事务内写入，由转发任务批量投递到下游后标记为已投递，保留一段时间后清理。
+ * 投递至少一次且不保证顺序，下游以消息 ID 去重。
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox_messages")
+public class OutboxMessage {
+  @Id
+  @SnowflakeId
+  private Long id;
+
+  /** 聚合类型，如 ORDER */
+  @Column(nullable = false, length = 32)
+  private String aggregateType;
+
+  @Column(nullable = false)
+  private Long aggregateId;
+
+  /** 事件类型，如 OrderPaid */
+  @Column(nullable = false, length = 64)
+  private String eventType;
+
+  /** 事件内容（JSON） */
+  @Column(nullable = false, length = 65535)
+  private String payload;
+
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+
+  /** 投递时间，未投递时为空 */
+  private LocalDateTime publishedAt;
+}
@@ -0,0 +1,61 @@
+package com.tomato.bookstore.model;
+
+import com.tomato.bookstore.constant.PaymentNotifyStatus;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 支付通知收件箱实体类
+ *
+ * <p>支付宝回调先原样落库再确认，由后台任务批量应用到订单。同一支付宝交易号的每种交易状态只保留一条记录，重复通知直接确认；
+ * 先到的非支付状态通知（如 WAIT_BUYER_PAY）不会挡住之后的 TRADE_SUCCESS。
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "payment_notifications",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"trade_no", "trade_status"}))
+public class PaymentNotification {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "trade_no", nullable = false, length = 64)
+  private String tradeNo;
+
+  @Column(nullable = false)
+  private Long orderId;
+
+  @Column(name = "trade_status", nullable = false, length = 32)
+  private String tradeStatus;
+
+  @Column(nullable = false)
+  private BigDecimal totalAmount;
+
+  private LocalDateTime paymentTime;
+
+  @Column(nullable = false, length = 20)
+  @Enumerated(EnumType.STRING)
+  @Builder.Default
+  private PaymentNotifyStatus status = PaymentNotifyStatus.RECEIVED;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private Integer attempts = 0;
+
+  @Column(length = 500)
+  private String lastError;
+
+  @Column(nullable = false)
+  private LocalDateTime receivedAt;
+
+  private LocalDateTime processedAt;
+}
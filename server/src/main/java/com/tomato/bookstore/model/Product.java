@@ -34,8 +34,17 @@ public class Product {
   @Column(nullable = false)
   private Integer rate;
 
+  /** 大文本字段按需加载（需要构建时字节码增强），列表、购物车与订单等只用到标题和价格的场景不读取 */
+  @Basic(fetch = FetchType.LAZY)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
   private String description;
+
   private String cover;
+
+  @Basic(fetch = FetchType.LAZY)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
   private String detail;
 
   @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
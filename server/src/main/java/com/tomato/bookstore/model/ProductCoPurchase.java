@@ -0,0 +1,47 @@
+package com.tomato.bookstore.model;
+
+import com.tomato.bookstore.util.SnowflakeId;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品共同购买实体类
+ *
+ * <p>记录两个商品出现在同一笔已支付订单中的次数，每个商品只保留共同购买次数最多的若干个商品。定期从订单表全量重建，两次重建之间随支付增量累加，
+ * 重建已计入的订单不再累加。
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "product_co_purchases",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "related_product_id"}))
+public class ProductCoPurchase {
+  @Id
+  @SnowflakeId
+  private Long id;
+
+  @Column(name = "product_id", nullable = false)
+  private Long productId;
+
+  /** 被一同购买的商品 ID */
+  @Column(name = "related_product_id", nullable = false)
+  private Long relatedProductId;
+
+  /** 共同购买的订单数 */
+  @Column(nullable = false)
+  private Long coPurchases;
+
+  /** 重建时的统计截止时间，此前支付的订单已计入次数；为空表示记录由支付增量创建 */
+  private LocalDateTime countedBefore;
+
+  /** 最近一次重建或累加的时间 */
+  @Column(nullable = false)
+  private LocalDateTime updatedAt;
+}
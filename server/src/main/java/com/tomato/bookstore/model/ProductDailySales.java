@@ -0,0 +1,47 @@
+package com.tomato.bookstore.model;
+
+import com.tomato.bookstore.util.SnowflakeId;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品每日销售汇总实体类
+ *
+ * <p>每个商品每天一行，统计当天支付成功的订单。订单支付时增量累加，也可以按天从订单表重建。
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "product_daily_sales",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"sales_date", "product_id"}))
+public class ProductDailySales {
+  @Id
+  @SnowflakeId
+  private Long id;
+
+  @Column(name = "sales_date", nullable = false)
+  private LocalDate salesDate;
+
+  @Column(name = "product_id", nullable = false)
+  private Long productId;
+
+  /** 销售件数 */
+  @Column(nullable = false)
+  private Long units;
+
+  /** 销售额（按下单时的单价计算） */
+  @Column(nullable = false, precision = 14, scale = 2)
+  private BigDecimal revenue;
+
+  /** 包含该商品的订单数 */
+  @Column(nullable = false)
+  private Long orderCount;
+}
@@ -1,5 +1,6 @@
 package com.tomato.bookstore.model;
 
+import com.tomato.bookstore.util.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,7 +18,7 @@ import lombok.ToString;
 @Table(name = "specifications")
 public class Specification {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @SnowflakeId
   private Long id;
 
   @Column(nullable = false)
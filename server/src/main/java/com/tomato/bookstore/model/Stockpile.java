@@ -27,6 +27,16 @@ public class Stockpile {
   @Column(nullable = false)
   private Integer frozen;
 
+  /** 库存分桶数，大于 1 时库存分散存放在 stockpile_buckets 中，本行只保存未归入分桶的余量 */
+  @Column(nullable = false)
+  @Builder.Default
+  private Integer bucketCount = 0;
+
+  /** 是否开启秒杀，开启后结算须经过内存准入闸门排队下单 */
+  @Column(nullable = false)
+  @Builder.Default
+  private Boolean flashSale = false;
+
   @OneToOne
   @JoinColumn(name = "product_id", nullable = false)
   @ToString.Exclude
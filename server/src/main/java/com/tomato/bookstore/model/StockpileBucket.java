@@ -0,0 +1,38 @@
+package com.tomato.bookstore.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品库存分桶实体类
+ *
+ * <p>热销商品开启分桶后，其库存被拆分为多行，结算时各自锁定不同的行，避免所有订单串行等待同一行锁。
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "stockpile_buckets",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "bucket_no"}))
+public class StockpileBucket {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "product_id", nullable = false)
+  private Long productId;
+
+  @Column(name = "bucket_no", nullable = false)
+  private Integer bucketNo;
+
+  @Column(nullable = false)
+  private Integer amount;
+
+  @Column(nullable = false)
+  private Integer frozen;
+}
@@ -0,0 +1,36 @@
+package com.tomato.bookstore.repository;
+
+import com.tomato.bookstore.model.ArchivedOrderLine;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** 归档订单行仓库 */
+@Repository
+public interface ArchivedOrderLineRepository extends JpaRepository<ArchivedOrderLine, Long> {
+  /**
+   * 查询多个归档订单的订单行（按订单行 ID 升序）
+   *
+   * @param orderIds 订单 ID 集合
+   * @return 订单行列表
+   */
+  List<ArchivedOrderLine> findByOrderIdInOrderById(Collection<Long> orderIds);
+
+  /**
+   * 从订单行快照表复制订单行到归档表
+   *
+   * @param orderIds 订单 ID 集合
+   * @return 复制的订单行数
+   */
+  @Modifying
+  @Query(
+      "INSERT INTO ArchivedOrderLine (id, orderId, productId, cartItemId, title, price, cover,"
+          + " quantity)"
+          + " SELECT l.id, l.orderId, l.productId, l.cartItemId, l.title, l.price, l.cover,"
+          + " l.quantity FROM OrderLine l WHERE l.orderId IN :orderIds")
+  int copyFromOrderLines(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,37 @@
+package com.tomato.bookstore.repository;
+
+import com.tomato.bookstore.model.ArchivedOrder;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** 归档订单仓库 */
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+  /**
+   * 查询用户的归档订单（按创建时间降序）
+   *
+   * @param userId 用户 ID
+   * @return 归档订单列表
+   */
+  List<ArchivedOrder> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+  /**
+   * 从订单表复制订单到归档表
+   *
+   * @param orderIds 订单 ID 集合
+   * @return 复制的订单数
+   */
+  @Modifying
+  @Query(
+      "INSERT INTO ArchivedOrder (id, userId, totalAmount, paymentMethod, status,"
+          + " shippingAddress, tradeNo, outTradeNo, paymentTime, createdAt, updatedAt)"
+          + " SELECT o.id, o.user.id, o.totalAmount, o.paymentMethod, o.status,"
+          + " o.shippingAddress, o.tradeNo, o.outTradeNo, o.paymentTime, o.createdAt, o.updatedAt"
+          + " FROM Order o WHERE o.id IN :orderIds")
+  int copyFromOrders(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,32 @@
+package com.tomato.bookstore.repository;
+
+import com.tomato.bookstore.constant.BestsellerWindow;
+import com.tomato.bookstore.model.BestsellerRanking;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** 畅销榜快照仓库 */
+@Repository
+public interface BestsellerRankingRepository extends JpaRepository<BestsellerRanking, Long> {
+  /**
+   * 查询指定窗口的榜单（按名次升序）
+   *
+   * @param rankingWindow 统计窗口
+   * @return 榜单
+   */
+  List<BestsellerRanking> findByRankingWindowOrderByRankNoAsc(BestsellerWindow rankingWindow);
+
+  /**
+   * 删除指定窗口的榜单
+   *
+   * @param rankingWindow 统计窗口
+   * @return 删除的行数
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM BestsellerRanking r WHERE r.rankingWindow = :rankingWindow")
+  int deleteByRankingWindow(@Param("rankingWindow") BestsellerWindow rankingWindow);
+}
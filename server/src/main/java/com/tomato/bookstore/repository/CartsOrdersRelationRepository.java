@@ -2,8 +2,12 @@ package com.tomato.bookstore.repository;
 
 import com.tomato.bookstore.model.CartsOrdersRelation;
 import com.tomato.bookstore.model.Order;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /** 购物车商品与订单关联仓库 */
@@ -31,4 +35,14 @@ public interface CartsOrdersRelationRepository extends JpaRepository<CartsOrders
    * @param order 订单
    */
   void deleteByOrder(Order order);
+
+  /**
+   * 批量删除多个订单的购物车商品与订单关联
+   *
+   * @param orderIds 订单 ID 集合
+   * @return 删除的关联数
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM CartsOrdersRelation r WHERE r.order.id IN :orderIds")
+  int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
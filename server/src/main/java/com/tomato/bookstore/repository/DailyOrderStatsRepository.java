@@ -0,0 +1,65 @@
+package com.tomato.bookstore.repository;
+
+import com.tomato.bookstore.model.DailyOrderStats;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** 每日订单汇总仓库 */
+@Repository
+public interface DailyOrderStatsRepository extends JpaRepository<DailyOrderStats, Long> {
+  /**
+   * 查询日期范围内的汇总（按日期升序）
+   *
+   * @param from 起始日期（含）
+   * @param to 结束日期（含）
+   * @return 汇总列表
+   */
+  List<DailyOrderStats> findByStatsDateBetweenOrderByStatsDateAscPaymentMethodAscStatusAsc(
+      LocalDate from, LocalDate to);
+
+  /**
+   * 累加汇总行，汇总行不存在时以本次的数值插入
+   *
+   * <p>依赖唯一约束 uk_daily_order_stats 在一条语句内完成插入或累加，随调用方的事务提交或回滚
+   *
+   * @param id 插入时使用的汇总行 ID
+   * @param statsDate 日期
+   * @param paymentMethod 支付方式（枚举名）
+   * @param status 订单状态（枚举名）
+   * @param orderCount 订单数
+   * @param totalAmount 订单金额
+   * @return 影响的行数
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      nativeQuery = true,
+      value =
+          "INSERT INTO daily_order_stats"
+              + " (id, stats_date, payment_method, status, order_count, total_amount)"
+              + " VALUES (:id, :statsDate, :paymentMethod, :status, :orderCount, :totalAmount)"
+              + " ON DUPLICATE KEY UPDATE order_count = order_count + :orderCount,"
+              + " total_amount = total_amount + :totalAmount")
+  int upsert(
+      @Param("id") Long id,
+      @Param("statsDate") LocalDate statsDate,
+      @Param("paymentMethod") String paymentMethod,
+      @Param("status") String status,
+      @Param("orderCount") long orderCount,
+      @Param("totalAmount") BigDecimal totalAmount);
+
+  /**
+   * 删除指定日期的所有汇总行
+   *
+   * @param statsDate 日期
+   * @return 删除的行数
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM DailyOrderStats s WHERE s.statsDate = :statsDate")
+  int deleteByStatsDate(@Param("statsDate") LocalDate statsDate);
+}
@@ -0,0 +1,71 @@
+package com.tomato.bookstore.repository;
+
+import com.tomato.bookstore.model.JobLease;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 定时任务租约仓库
+ *
+ * <p>每个方法各自在独立的短事务中执行，租约的获取与续期只依赖单行条件更新与主键冲突，MySQL 与 H2 行为一致
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+  /**
+   * 续期自己持有的租约，或接管已过期的租约
+   *
+   * @param name 任务名
+   * @param owner 当前实例标识
+   * @param expiresAt 新的到期时间
+   * @param now 当前时间
+   * @return 更新的行数，1 表示持有租约
+   */
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE JobLease l SET l.owner = :owner, l.expiresAt = :expiresAt, l.renewedAt = :now"
+          + " WHERE l.name = :name AND (l.owner = :owner OR l.expiresAt < :now)")
+  int renew(
+      @Param("name") String name,
+      @Param("owner") String owner,
+      @Param("expiresAt") LocalDateTime expiresAt,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * 首次创建租约，其他实例已创建时因主键冲突失败
+   *
+   * @param name 任务名
+   * @param owner 当前实例标识
+   * @param expiresAt 到期时间
+   * @param now 当前时间
+   * @return 插入的行数
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "INSERT INTO JobLease (name, owner, expiresAt, renewedAt)"
+          + " VALUES (:name, :owner, :expiresAt, :now)")
+  int create(
+      @Param("name") String name,
+      @Param("owner") String owner,
+      @Param("expiresAt") LocalDateTime expiresAt,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * 释放指定实例持有的所有租约
+   *
+   * @param owner 实例标识
+   * @param now 当前时间
+   * @return 释放的租约数
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE JobLease l SET l.expiresAt = :now WHERE l.owner = :owner AND l.expiresAt > :now")
+  int releaseAll(@Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,151 @@
+package com.tomato.bookstore.repository;
+
+import com.tomato.bookstore.model.OrderLine;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** 订单行快照仓库 */
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
+  /**
+   * 查询订单的所有订单行
+   *
+   * @param orderId 订单 ID
+   * @return 订单行列表
+   */
+  List<OrderLine> findByOrderIdOrderById(Long orderId);
+
+  /**
+   * 查询一批订单的所有订单行
+   *
+   * @param orderIds 订单 ID 集合
+   * @return 订单行列表
+   */
+  List<OrderLine> findByOrderIdInOrderById(Collection<Long> orderIds);
+
+  /**
+   * 按商品汇总一批订单的购买数量
+   *
+   * @param orderIds 订单 ID 集合
+   * @return 商品 ID 与购买数量合计列表
+   */
+  @Query(
+      "SELECT l.productId AS productId, SUM(l.quantity) AS quantity"
+          + " FROM OrderLine l WHERE l.orderId IN :orderIds GROUP BY l.productId")
+  List<ProductQuantity> sumQuantityByProductForOrders(
+      @Param("orderIds") Collection<Long> orderIds);
+
+  /**
+   * 按商品汇总一批订单中已支付订单的销售数据
+   *
+   * @param orderIds 订单 ID 集合
+   * @return 商品销售汇总列表
+   */
+  @Query(
+      "SELECT l.productId AS productId, SUM(l.quantity) AS units,"
+          + " SUM(l.price * l.quantity) AS revenue, COUNT(DISTINCT l.orderId) AS orderCount"
+          + " FROM OrderLine l JOIN Order o ON o.id = l.orderId"
+          + " WHERE l.orderId IN :orderIds"
+          + " AND o.status = com.tomato.bookstore.constant.OrderStatus.PAID"
+          + " GROUP BY l.productId ORDER BY l.productId")
+  List<ProductSales> sumPaidSalesByProductForOrders(@Param("orderIds") Collection<Long> orderIds);
+
+  /**
+   * 按商品汇总在指定时间段内支付的订单的销售数据
+   *
+   * @param from 起始时间（含）
+   * @param to 结束时间（不含）
+   * @return 商品销售汇总列表
+   */
+  @Query(
+      "SELECT l.productId AS productId, SUM(l.quantity) AS units,"
+          + " SUM(l.price * l.quantity) AS revenue, COUNT(DISTINCT l.orderId) AS orderCount"
+          + " FROM OrderLine l JOIN Order o ON o.id = l.orderId"
+          + " WHERE o.status = com.tomato.bookstore.constant.OrderStatus.PAID"
+          + " AND o.updatedAt >= :from AND o.updatedAt < :to"
+          + " GROUP BY l.productId ORDER BY l.productId")
+  List<ProductSales> sumPaidSalesByProductBetween(
+      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+  /**
+   * 按商品汇总指定时间之前支付（以订单更新时间计）的已支付订单的购买数量
+   *
+   * @param before 截止时间（不含）
+   * @return 商品 ID 与购买数量合计列表
+   */
+  @Query(
+      "SELECT l.productId AS productId, SUM(l.quantity) AS quantity"
+          + " FROM OrderLine l JOIN Order o ON o.id = l.orderId"
+          + " WHERE o.status = com.tomato.bookstore.constant.OrderStatus.PAID"
+          + " AND o.updatedAt < :before"
+          + " GROUP BY l.productId")
+  List<ProductQuantity> sumPaidQuantityByProductBefore(@Param("before") LocalDateTime before);
+
+  /**
+   * 查询订单包含的商品
+   *
+   * @param orderIds 订单 ID 集合
+   * @return 订单 ID 与商品 ID 列表
+   */
+  @Query(
+      "SELECT l.orderId AS orderId, l.productId AS productId FROM OrderLine l"
+          + " WHERE l.orderId IN :orderIds")
+  List<OrderProduct> findOrderProductsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+  /**
+   * 查询在指定时间段内支付（以订单更新时间计）的已支付订单包含的商品
+   *
+   * @param from 起始时间（含）
+   * @param to 结束时间（不含）
+   * @return 订单 ID 与商品 ID 列表
+   */
+  @Query(
+      "SELECT l.orderId AS orderId, l.productId AS productId"
+          + " FROM OrderLine l JOIN Order o ON o.id = l.orderId"
+          + " WHERE o.status = com.tomato.bookstore.constant.OrderStatus.PAID"
+          + " AND o.updatedAt >= :from AND o.updatedAt < :to")
+  List<OrderProduct> findPaidOrderProductsBetween(
+      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+  /**
+   * 批量删除多个订单的订单行
+   *
+   * @param orderIds 订单 ID 集合
+   * @return 删除的订单行数
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM OrderLine l WHERE l.orderId IN :orderIds")
+  int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+  /** 商品 ID 与数量投影 */
+  interface ProductQuantity {
+    Long getProductId();
+
+    Long getQuantity();
+  }
+
+  /** 商品销售汇总投影 */
+  interface ProductSales {
+    Long getProductId();
+
+    Long getUnits();
+
+    BigDecimal getRevenue();
+
+    Long getOrderCount();
+  }
+
+  /** 订单 ID 与商品 ID 投影 */
+  interface OrderProduct {
+    Long getOrderId();
+
+    Long getProductId();
+  }
+}
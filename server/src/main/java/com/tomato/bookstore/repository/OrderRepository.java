@@ -1,12 +1,21 @@
 package com.tomato.bookstore.repository;
 
 import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.constant.PaymentMethod;
 import com.tomato.bookstore.model.Order;
 import com.tomato.bookstore.model.User;
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /** 订单仓库 */
@@ -38,6 +47,15 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
    */
   Optional<Order> findByUserAndId(User user, Long id);
 
+  /**
+   * 根据用户和幂等键查找订单
+   *
+   * @param user 用户
+   * @param idempotencyKey 幂等键
+   * @return 订单（如果存在）
+   */
+  Optional<Order> findByUserAndIdempotencyKey(User user, String idempotencyKey);
+
   /**
    * 根据订单状态查找过期订单
    *
@@ -47,6 +65,188 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
    */
   List<Order> findByStatusAndCreatedAtBefore(OrderStatus status, LocalDateTime expiredTime);
 
+  /**
+   * 锁定一批订单中指定状态的订单，返回其 ID 与创建时间
+   *
+   * @param ids 订单 ID 集合
+   * @param status 订单状态
+   * @return 已锁定订单的 ID 与创建时间列表
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(
+      "SELECT o.id AS id, o.createdAt AS createdAt FROM Order o"
+          + " WHERE o.id IN :ids AND o.status = :status")
+  List<OrderCreatedAt> findCreatedAtForUpdateByIdInAndStatus(
+      @Param("ids") Collection<Long> ids, @Param("status") OrderStatus status);
+
+  /**
+   * 条件更新订单状态：仅当订单属于指定用户且仍处于原状态时更新
+   *
+   * @param id 订单 ID
+   * @param userId 用户 ID
+   * @param from 原状态
+   * @param to 目标状态
+   * @param updatedAt 更新时间
+   * @return 更新的订单数，0 表示订单不存在、不属于该用户或状态已改变
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE Order o SET o.status = :to, o.updatedAt = :updatedAt"
+          + " WHERE o.id = :id AND o.user.id = :userId AND o.status = :from")
+  int updateStatusByIdAndUserId(
+      @Param("id") Long id,
+      @Param("userId") Long userId,
+      @Param("from") OrderStatus from,
+      @Param("to") OrderStatus to,
+      @Param("updatedAt") LocalDateTime updatedAt);
+
+  /**
+   * 条件标记订单已支付：仅当订单待支付且金额一致时更新
+   *
+   * @param id 订单 ID
+   * @param totalAmount 支付金额
+   * @param tradeNo 支付宝交易号
+   * @param paymentTime 支付时间
+   * @param updatedAt 更新时间
+   * @return 更新的订单数，0 表示订单不存在、状态已改变或金额不一致
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE Order o SET o.status = com.tomato.bookstore.constant.OrderStatus.PAID,"
+          + " o.tradeNo = :tradeNo, o.paymentTime = :paymentTime, o.updatedAt = :updatedAt"
+          + " WHERE o.id = :id AND o.totalAmount = :totalAmount"
+          + " AND o.status = com.tomato.bookstore.constant.OrderStatus.PENDING")
+  int markPaid(
+      @Param("id") Long id,
+      @Param("totalAmount") BigDecimal totalAmount,
+      @Param("tradeNo") String tradeNo,
+      @Param("paymentTime") LocalDateTime paymentTime,
+      @Param("updatedAt") LocalDateTime updatedAt);
+
+  /**
+   * 为订单分配商户订单号：仅当订单尚未分配时更新，保证同一订单始终使用同一个商户订单号
+   *
+   * @param id 订单 ID
+   * @param outTradeNo 商户订单号
+   * @return 更新的订单数，0 表示已分配过
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Order o SET o.outTradeNo = :outTradeNo WHERE o.id = :id AND o.outTradeNo IS NULL")
+  int assignOutTradeNo(@Param("id") Long id, @Param("outTradeNo") String outTradeNo);
+
+  /**
+   * 按 ID 游标分页查询导出用的订单字段（按 ID 升序）
+   *
+   * @param afterId 上一页最后一个订单 ID
+   * @param pageable 分页参数（用于限制批量大小）
+   * @return 订单导出行列表
+   */
+  @Query(
+      "SELECT o.id AS id, o.user.id AS userId, o.totalAmount AS totalAmount,"
+          + " o.paymentMethod AS paymentMethod, o.status AS status, o.tradeNo AS tradeNo,"
+          + " o.outTradeNo AS outTradeNo, o.paymentTime AS paymentTime,"
+          + " o.createdAt AS createdAt, o.updatedAt AS updatedAt"
+          + " FROM Order o WHERE o.id > :afterId ORDER BY o.id")
+  List<OrderExportRow> findExportRows(@Param("afterId") Long afterId, Pageable pageable);
+
+  /**
+   * 查询处于指定状态且更新时间早于指定时间的订单 ID（按更新时间升序）
+   *
+   * @param statuses 订单状态集合
+   * @param updatedBefore 更新时间上限
+   * @param pageable 分页参数（用于限制批量大小）
+   * @return 订单 ID 列表
+   */
+  @Query(
+      "SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.updatedAt < :updatedBefore"
+          + " ORDER BY o.updatedAt")
+  List<Long> findIdsByStatusInAndUpdatedAtBefore(
+      @Param("statuses") Collection<OrderStatus> statuses,
+      @Param("updatedBefore") LocalDateTime updatedBefore,
+      Pageable pageable);
+
+  /**
+   * 批量删除处于指定状态的订单
+   *
+   * @param ids 订单 ID 集合
+   * @param statuses 订单状态集合
+   * @return 删除的订单数
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM Order o WHERE o.id IN :ids AND o.status IN :statuses")
+  int deleteByIdInAndStatusIn(
+      @Param("ids") Collection<Long> ids, @Param("statuses") Collection<OrderStatus> statuses);
+
+  /**
+   * 按 ID 游标分页查询指定状态且在指定时间之前更新的订单 ID（按 ID 升序）
+   *
+   * @param status 订单状态
+   * @param updatedBefore 更新时间上限（不含）
+   * @param afterId 上一页最后一个订单 ID
+   * @param pageable 分页参数（用于限制批量大小）
+   * @return 订单 ID 列表
+   */
+  @Query(
+      "SELECT o.id FROM Order o WHERE o.status = :status AND o.updatedAt < :updatedBefore"
+          + " AND o.id > :afterId ORDER BY o.id")
+  List<Long> findIdsByStatusAndUpdatedAtBeforeAndIdGreaterThan(
+      @Param("status") OrderStatus status,
+      @Param("updatedBefore") LocalDateTime updatedBefore,
+      @Param("afterId") Long afterId,
+      Pageable pageable);
+
+  /**
+   * 查询创建时间早于指定时间的订单 ID（按创建时间升序）
+   *
+   * @param status 订单状态
+   * @param createdBefore 创建时间上限
+   * @param pageable 分页参数（用于限制批量大小）
+   * @return 订单 ID 列表
+   */
+  @Query(
+      "SELECT o.id FROM Order o WHERE o.status = :status AND o.createdAt < :createdBefore"
+          + " ORDER BY o.createdAt")
+  List<Long> findIdsByStatusAndCreatedAtBefore(
+      @Param("status") OrderStatus status,
+      @Param("createdBefore") LocalDateTime createdBefore,
+      Pageable pageable);
+
+  /**
+   * 查询创建时间早于指定时间、已发起支付的待支付订单（按创建时间升序）
+   *
+   * @param status 订单状态
+   * @param createdBefore 创建时间上限
+   * @param pageable 分页参数（用于限制批量大小）
+   * @return 订单 ID 与商户订单号列表
+   */
+  @Query(
+      "SELECT o.id AS id, o.outTradeNo AS outTradeNo FROM Order o"
+          + " WHERE o.status = :status AND o.outTradeNo IS NOT NULL"
+          + " AND o.createdAt <= :createdBefore ORDER BY o.createdAt")
+  List<OrderTrade> findTradesByStatusAndCreatedAtBefore(
+      @Param("status") OrderStatus status,
+      @Param("createdBefore") LocalDateTime createdBefore,
+      Pageable pageable);
+
+  /**
+   * 批量条件更新订单状态：仅当订单仍处于原状态时更新
+   *
+   * @param ids 订单 ID 集合
+   * @param from 原状态
+   * @param to 目标状态
+   * @param updatedAt 更新时间
+   * @return 更新的订单数
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE Order o SET o.status = :to, o.updatedAt = :updatedAt"
+          + " WHERE o.id IN :ids AND o.status = :from")
+  int updateStatusByIdIn(
+      @Param("ids") Collection<Long> ids,
+      @Param("from") OrderStatus from,
+      @Param("to") OrderStatus to,
+      @Param("updatedAt") LocalDateTime updatedAt);
+
   /**
    * 根据用户查询所有订单并按创建时间降序排序
    *
@@ -54,4 +254,83 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
    * @return 该用户的所有订单
    */
   List<Order> findByUserOrderByCreatedAtDesc(User user);
+
+  /** 订单 ID 与商户订单号投影 */
+  interface OrderTrade {
+    Long getId();
+
+    String getOutTradeNo();
+  }
+
+  /**
+   * 按支付方式与状态汇总一批订单
+   *
+   * @param ids 订单 ID 集合
+   * @return 订单汇总列表
+   */
+  @Query(
+      "SELECT o.paymentMethod AS paymentMethod, o.status AS status,"
+          + " COUNT(o) AS orderCount, SUM(o.totalAmount) AS totalAmount"
+          + " FROM Order o WHERE o.id IN :ids GROUP BY o.paymentMethod, o.status")
+  List<OrderTotals> sumTotalsByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * 按支付方式与状态汇总在指定时间段内进入指定状态的订单
+   *
+   * @param statuses 订单状态集合
+   * @param from 起始时间（含）
+   * @param to 结束时间（不含）
+   * @return 订单汇总列表
+   */
+  @Query(
+      "SELECT o.paymentMethod AS paymentMethod, o.status AS status,"
+          + " COUNT(o) AS orderCount, SUM(o.totalAmount) AS totalAmount"
+          + " FROM Order o WHERE o.status IN :statuses"
+          + " AND o.updatedAt >= :from AND o.updatedAt < :to"
+          + " GROUP BY o.paymentMethod, o.status")
+  List<OrderTotals> sumTotalsByStatusInAndUpdatedAtBetween(
+      @Param("statuses") Collection<OrderStatus> statuses,
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to);
+
+  /** 订单 ID 与创建时间投影 */
+  interface OrderCreatedAt {
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+  }
+
+  /** 按支付方式与状态的订单汇总投影 */
+  interface OrderTotals {
+    PaymentMethod getPaymentMethod();
+
+    OrderStatus getStatus();
+
+    Long getOrderCount();
+
+    BigDecimal getTotalAmount();
+  }
+
+  /** 订单导出行投影 */
+  interface OrderExportRow {
+    Long getId();
+
+    Long getUserId();
+
+    BigDecimal getTotalAmount();
+
+    PaymentMethod getPaymentMethod();
+
+    OrderStatus getStatus();
+
+    String getTradeNo();
+
+    String getOutTradeNo();
+
+    LocalDateTime getPaymentTime();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+  }
 }
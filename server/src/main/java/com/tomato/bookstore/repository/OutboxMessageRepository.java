@@ -0,0 +1,50 @@
+package com.tomato.bookstore.repository;
+
+import com.tomato.bookstore.model.OutboxMessage;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** 发件箱消息仓库 */
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+  /**
+   * 按 ID 升序查询未投递的消息，ID 顺序不代表提交顺序
+   *
+   * @param pageable 分页参数（用于限制批量大小）
+   * @return 消息列表
+   */
+  List<OutboxMessage> findByPublishedAtIsNullOrderByIdAsc(Pageable pageable);
+
+  /**
+   * 批量标记消息已投递
+   *
+   * @param ids 消息 ID
+   * @param publishedAt 投递时间
+   * @return 更新的行数
+   */
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE OutboxMessage m SET m.publishedAt = :publishedAt WHERE m.id IN :ids")
+  int markPublished(
+      @Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+  /**
+   * 查询投递时间早于指定时间的消息 ID
+   *
+   * @param publishedBefore 投递时间上限
+   * @param pageable 分页参数（用于限制批量大小）
+   * @return 消息 ID 列表
+   */
+  @Query(
+      "SELECT m.id FROM OutboxMessage m WHERE m.publishedAt < :publishedBefore ORDER BY m.id")
+  List<Long> findIdsPublishedBefore(
+      @Param("publishedBefore") LocalDateTime publishedBefore, Pageable pageable);
+}
@@ -0,0 +1,30 @@
+package com.tomato.bookstore.repository;
+
+import com.tomato.bookstore.constant.PaymentNotifyStatus;
+import com.tomato.bookstore.model.PaymentNotification;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/** 支付通知收件箱仓库 */
+@Repository
+public interface PaymentNotificationRepository extends JpaRepository<PaymentNotification, Long> {
+  /**
+   * 判断支付宝交易号的指定交易状态是否已记录
+   *
+   * @param tradeNo 支付宝交易号
+   * @param tradeStatus 交易状态
+   * @return 是否已记录
+   */
+  boolean existsByTradeNoAndTradeStatus(String tradeNo, String tradeStatus);
+
+  /**
+   * 按接收顺序查询指定状态的通知
+   *
+   * @param status 处理状态
+   * @param pageable 分页参数（用于限制批量大小）
+   * @return 通知列表
+   */
+  List<PaymentNotification> findByStatusOrderByIdAsc(PaymentNotifyStatus status, Pageable pageable);
+}
@@ -0,0 +1,112 @@
+package com.tomato.bookstore.repository;
+
+import com.tomato.bookstore.model.ProductCoPurchase;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/** 商品共同购买仓库 */
+@Repository
+public interface ProductCoPurchaseRepository extends JpaRepository<ProductCoPurchase, Long> {
+  /**
+   * 查询与指定商品共同购买次数最多的商品（按次数降序）
+   *
+   * @param productId 商品 ID
+   * @param pageable 分页参数（用于限制条数）
+   * @return 共同购买记录列表
+   */
+  List<ProductCoPurchase> findByProductIdOrderByCoPurchasesDescRelatedProductIdAsc(
+      Long productId, Pageable pageable);
+
+  /**
+   * 统计指定商品已记录的共同购买商品数
+   *
+   * @param productId 商品 ID
+   * @return 记录数
+   */
+  long countByProductId(Long productId);
+
+  /**
+   * 查询指定商品已有记录的共同购买商品
+   *
+   * @param productId 商品 ID
+   * @param relatedProductIds 共同购买商品 ID 集合
+   * @return 已有记录的共同购买商品 ID 列表
+   */
+  @Query(
+      "SELECT c.relatedProductId FROM ProductCoPurchase c"
+          + " WHERE c.productId = :productId AND c.relatedProductId IN :relatedProductIds")
+  List<Long> findRelatedProductIds(
+      @Param("productId") Long productId,
+      @Param("relatedProductIds") Collection<Long> relatedProductIds);
+
+  /**
+   * 在独立事务中创建次数为零的记录，并发创建时因唯一约束失败
+   *
+   * @param id 记录 ID
+   * @param productId 商品 ID
+   * @param relatedProductId 共同购买商品 ID
+   * @param updatedAt 创建时间
+   * @return 插入的行数
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  @Modifying
+  @Query(
+      "INSERT INTO ProductCoPurchase (id, productId, relatedProductId, coPurchases, updatedAt)"
+          + " VALUES (:id, :productId, :relatedProductId, 0, :updatedAt)")
+  int create(
+      @Param("id") Long id,
+      @Param("productId") Long productId,
+      @Param("relatedProductId") Long relatedProductId,
+      @Param("updatedAt") LocalDateTime updatedAt);
+
+  /**
+   * 共同购买次数加一，记录已由重建计入该订单时不累加
+   *
+   * @param productId 商品 ID
+   * @param relatedProductId 共同购买商品 ID
+   * @param paidAt 订单支付时间
+   * @param updatedAt 更新时间
+   * @return 更新的行数，0 表示记录不存在或已计入
+   */
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE ProductCoPurchase c SET c.coPurchases = c.coPurchases + 1, c.updatedAt = :updatedAt"
+          + " WHERE c.productId = :productId AND c.relatedProductId = :relatedProductId"
+          + " AND (c.countedBefore IS NULL OR c.countedBefore <= :paidAt)")
+  int increment(
+      @Param("productId") Long productId,
+      @Param("relatedProductId") Long relatedProductId,
+      @Param("paidAt") LocalDateTime paidAt,
+      @Param("updatedAt") LocalDateTime updatedAt);
+
+  /**
+   * 删除指定商品的所有记录
+   *
+   * @param productIds 商品 ID 集合
+   * @return 删除的行数
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM ProductCoPurchase c WHERE c.productId IN :productIds")
+  int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+  /**
+   * 删除早于指定时间更新的记录，即重建时未再出现的商品
+   *
+   * @param updatedBefore 更新时间上限
+   * @return 删除的行数
+   */
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM ProductCoPurchase c WHERE c.updatedAt < :updatedBefore")
+  int deleteByUpdatedAtBefore(@Param("updatedBefore") LocalDateTime updatedBefore);
+}
@@ -0,0 +1,76 @@
+package com.tomato.bookstore.repository;
+
+import com.tomato.bookstore.model.ProductDailySales;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** 商品每日销售汇总仓库 */
+@Repository
+public interface ProductDailySalesRepository extends JpaRepository<ProductDailySales, Long> {
+  /**
+   * 查询日期范围内的汇总（按日期、商品 ID 升序）
+   *
+   * @param from 起始日期（含）
+   * @param to 结束日期（含）
+   * @return 汇总列表
+   */
+  List<ProductDailySales> findBySalesDateBetweenOrderBySalesDateAscProductIdAsc(
+      LocalDate from, LocalDate to);
+
+  /**
+   * 查询指定商品在日期范围内的汇总（按日期升序）
+   *
+   * @param productId 商品 ID
+   * @param from 起始日期（含）
+   * @param to 结束日期（含）
+   * @return 汇总列表
+   */
+  List<ProductDailySales> findByProductIdAndSalesDateBetweenOrderBySalesDateAsc(
+      Long productId, LocalDate from, LocalDate to);
+
+  /**
+   * 累加汇总行，汇总行不存在时以本次的数值插入
+   *
+   * <p>依赖唯一约束 uk_product_daily_sales 在一条语句内完成插入或累加，随调用方的事务提交或回滚
+   *
+   * @param id 插入时使用的汇总行 ID
+   * @param salesDate 日期
+   * @param productId 商品 ID
+   * @param units 销售件数
+   * @param revenue 销售额
+   * @param orderCount 订单数
+   * @return 影响的行数
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      nativeQuery = true,
+      value =
+          "INSERT INTO product_daily_sales"
+              + " (id, sales_date, product_id, units, revenue, order_count)"
+              + " VALUES (:id, :salesDate, :productId, :units, :revenue, :orderCount)"
+              + " ON DUPLICATE KEY UPDATE units = units + :units,"
+              + " revenue = revenue + :revenue, order_count = order_count + :orderCount")
+  int upsert(
+      @Param("id") Long id,
+      @Param("salesDate") LocalDate salesDate,
+      @Param("productId") Long productId,
+      @Param("units") long units,
+      @Param("revenue") BigDecimal revenue,
+      @Param("orderCount") long orderCount);
+
+  /**
+   * 删除指定日期的所有汇总行
+   *
+   * @param salesDate 日期
+   * @return 删除的行数
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM ProductDailySales s WHERE s.salesDate = :salesDate")
+  int deleteBySalesDate(@Param("salesDate") LocalDate salesDate);
+}
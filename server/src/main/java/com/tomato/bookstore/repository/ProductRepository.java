@@ -1,8 +1,14 @@
 package com.tomato.bookstore.repository;
 
 import com.tomato.bookstore.model.Product;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /** 商品仓库接口 */
@@ -12,5 +18,151 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
   boolean existsByTitleAndIdNot(String title, Long id);
 
-  List<Product> findAllByOrderByCreatedAtDesc();
+  /**
+   * 查询商品列表接口所需的全部字段（按创建时间倒序），大文本字段随同一条查询读出，不逐个商品触发延迟加载
+   *
+   * @return 商品行列表
+   */
+  @Query(
+      "SELECT p.id AS id, p.title AS title, p.price AS price, p.rate AS rate,"
+          + " p.description AS description, p.cover AS cover, p.detail AS detail"
+          + " FROM Product p ORDER BY p.createdAt DESC")
+  List<ProductRow> findAllRows();
+
+  /**
+   * 查询商品列表页所需的字段（按创建时间倒序），不加载商品实体、大文本字段与规格
+   *
+   * @return 商品卡片列表
+   */
+  @Query(
+      "SELECT p.id AS id, p.title AS title, p.price AS price, p.rate AS rate, p.cover AS cover"
+          + " FROM Product p ORDER BY p.createdAt DESC")
+  List<ProductCard> findAllCards();
+
+  /**
+   * 查询指定商品的卡片字段
+   *
+   * @param ids 商品 ID 集合
+   * @return 商品卡片列表（无序）
+   */
+  @Query(
+      "SELECT p.id AS id, p.title AS title, p.price AS price, p.rate AS rate, p.cover AS cover"
+          + " FROM Product p WHERE p.id IN :ids")
+  List<ProductCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * 按 ID 游标分页查询建立搜索索引所需的文本字段（按 ID 升序）
+   *
+   * @param afterId 上一页最后一个商品 ID
+   * @param pageable 分页参数（用于限制批量大小）
+   * @return 商品搜索文本列表
+   */
+  @Query(
+      "SELECT p.id AS id, p.title AS title, p.description AS description, p.detail AS detail"
+          + " FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+  List<ProductSearchRow> findSearchRows(@Param("afterId") Long afterId, Pageable pageable);
+
+  /**
+   * 查询指定商品建立搜索索引所需的文本字段
+   *
+   * @param ids 商品 ID 集合
+   * @return 商品搜索文本列表（无序）
+   */
+  @Query(
+      "SELECT p.id AS id, p.title AS title, p.description AS description, p.detail AS detail"
+          + " FROM Product p WHERE p.id IN :ids")
+  List<ProductSearchRow> findSearchRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * 查询指定时间之后创建或修改过的商品 ID
+   *
+   * @param since 起始时间（包含）
+   * @return 商品 ID 列表
+   */
+  @Query("SELECT p.id FROM Product p WHERE COALESCE(p.updatedAt, p.createdAt) >= :since")
+  List<Long> findIdsModifiedSince(@Param("since") LocalDateTime since);
+
+  /**
+   * 按 ID 游标分页查询导出用的商品字段与库存（按 ID 升序）
+   *
+   * <p>库存为主库存行与所有分桶之和，分桶商品的主库存行只保存余量
+   *
+   * @param afterId 上一页最后一个商品 ID
+   * @param pageable 分页参数（用于限制批量大小）
+   * @return 商品导出行列表
+   */
+  @Query(
+      "SELECT p.id AS id, p.title AS title, p.price AS price, p.rate AS rate,"
+          + " p.description AS description, p.cover AS cover,"
+          + " s.amount + COALESCE((SELECT SUM(b.amount) FROM StockpileBucket b"
+          + " WHERE b.productId = p.id), 0L) AS amount,"
+          + " s.frozen + COALESCE((SELECT SUM(b.frozen) FROM StockpileBucket b"
+          + " WHERE b.productId = p.id), 0L) AS frozen,"
+          + " p.createdAt AS createdAt, p.updatedAt AS updatedAt"
+          + " FROM Product p LEFT JOIN p.stockpile s WHERE p.id > :afterId ORDER BY p.id")
+  List<ProductExportRow> findExportRows(@Param("afterId") Long afterId, Pageable pageable);
+
+  /** 商品行投影 */
+  interface ProductRow {
+    Long getId();
+
+    String getTitle();
+
+    BigDecimal getPrice();
+
+    Integer getRate();
+
+    String getDescription();
+
+    String getCover();
+
+    String getDetail();
+  }
+
+  /** 商品卡片投影 */
+  interface ProductCard {
+    Long getId();
+
+    String getTitle();
+
+    BigDecimal getPrice();
+
+    Integer getRate();
+
+    String getCover();
+  }
+
+  /** 商品搜索文本投影 */
+  interface ProductSearchRow {
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getDetail();
+  }
+
+  /** 商品导出行投影 */
+  interface ProductExportRow {
+    Long getId();
+
+    String getTitle();
+
+    BigDecimal getPrice();
+
+    Integer getRate();
+
+    String getDescription();
+
+    String getCover();
+
+    Long getAmount();
+
+    Long getFrozen();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+  }
 }
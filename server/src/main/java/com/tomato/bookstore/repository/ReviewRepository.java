@@ -1,8 +1,10 @@
 package com.tomato.bookstore.repository;
 
 import com.tomato.bookstore.model.Review;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -53,4 +55,34 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
    */
   @Query("SELECT AVG(r.rating) FROM Review r WHERE r.productId = :productId")
   Double calculateAverageRating(@Param("productId") Long productId);
+
+  /**
+   * 按 ID 游标分页查询导出用的评论字段（按 ID 升序）
+   *
+   * @param afterId 上一页最后一个评论 ID
+   * @param pageable 分页参数（用于限制批量大小）
+   * @return 评论导出行列表
+   */
+  @Query(
+      "SELECT r.id AS id, r.productId AS productId, r.userId AS userId, r.rating AS rating,"
+          + " r.content AS content, r.createdAt AS createdAt, r.updatedAt AS updatedAt"
+          + " FROM Review r WHERE r.id > :afterId ORDER BY r.id")
+  List<ReviewExportRow> findExportRows(@Param("afterId") Long afterId, Pageable pageable);
+
+  /** 评论导出行投影 */
+  interface ReviewExportRow {
+    Long getId();
+
+    Long getProductId();
+
+    Long getUserId();
+
+    Integer getRating();
+
+    String getContent();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+  }
 }
@@ -1,8 +1,11 @@
 package com.tomato.bookstore.repository;
 
 import com.tomato.bookstore.model.Specification;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /** 商品规格仓库接口 */
@@ -11,4 +14,44 @@ public interface SpecificationRepository extends JpaRepository<Specification, Lo
   List<Specification> findByProductId(Long productId);
 
   void deleteByProductId(Long productId);
+
+  /**
+   * 查询指定商品的规格值
+   *
+   * @param productIds 商品 ID 集合
+   * @return 规格值列表
+   */
+  @Query(
+      "SELECT s.product.id AS productId, s.value AS value FROM Specification s"
+          + " WHERE s.product.id IN :productIds")
+  List<SpecificationValue> findValuesByProductIdIn(
+      @Param("productIds") Collection<Long> productIds);
+
+  /**
+   * 查询所有商品的规格，用于商品列表一次性组装规格
+   *
+   * @return 规格行列表（按规格 ID 升序）
+   */
+  @Query(
+      "SELECT s.id AS id, s.product.id AS productId, s.item AS item, s.value AS value"
+          + " FROM Specification s ORDER BY s.id")
+  List<SpecificationRow> findAllRows();
+
+  /** 规格值投影 */
+  interface SpecificationValue {
+    Long getProductId();
+
+    String getValue();
+  }
+
+  /** 规格行投影 */
+  interface SpecificationRow {
+    Long getId();
+
+    Long getProductId();
+
+    String getItem();
+
+    String getValue();
+  }
 }
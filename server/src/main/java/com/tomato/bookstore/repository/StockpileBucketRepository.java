@@ -0,0 +1,115 @@
+package com.tomato.bookstore.repository;
+
+import com.tomato.bookstore.model.StockpileBucket;
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** 商品库存分桶仓库接口 */
+@Repository
+public interface StockpileBucketRepository extends JpaRepository<StockpileBucket, Long> {
+  /**
+   * 查询商品的所有库存分桶（快照读，不加锁）
+   *
+   * @param productId 商品 ID
+   * @return 按分桶号升序排列的分桶列表
+   */
+  List<StockpileBucket> findByProductIdOrderByBucketNo(Long productId);
+
+  /**
+   * 查询商品各分桶的库存（快照读，不加锁，也不把分桶实体放入持久化上下文）
+   *
+   * @param productId 商品 ID
+   * @return 按分桶号升序排列的分桶库存
+   */
+  @Query(
+      "SELECT b.bucketNo AS bucketNo, b.amount AS amount, b.frozen AS frozen"
+          + " FROM StockpileBucket b WHERE b.productId = :productId ORDER BY b.bucketNo")
+  List<BucketStock> findStocksByProductId(@Param("productId") Long productId);
+
+  /**
+   * 查询并锁定商品的所有库存分桶，用于重新分配库存或跨分桶锁定、解锁
+   *
+   * @param productId 商品 ID
+   * @return 按分桶号升序排列的分桶列表
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT b FROM StockpileBucket b WHERE b.productId = :productId ORDER BY b.bucketNo")
+  List<StockpileBucket> findForUpdateByProductId(@Param("productId") Long productId);
+
+  /**
+   * 删除商品的所有库存分桶
+   *
+   * @param productId 商品 ID
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM StockpileBucket b WHERE b.productId = :productId")
+  void deleteByProductId(@Param("productId") Long productId);
+
+  /**
+   * 条件锁定分桶库存：仅当该分桶可售库存充足时扣减
+   *
+   * @param productId 商品 ID
+   * @param bucketNo 分桶号
+   * @param quantity 锁定数量
+   * @return 受影响行数，0 表示该分桶库存不足
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE StockpileBucket b"
+          + " SET b.amount = b.amount - :quantity, b.frozen = b.frozen + :quantity"
+          + " WHERE b.productId = :productId AND b.bucketNo = :bucketNo AND b.amount >= :quantity")
+  int lockStock(
+      @Param("productId") Long productId,
+      @Param("bucketNo") Integer bucketNo,
+      @Param("quantity") Integer quantity);
+
+  /**
+   * 条件解锁分桶库存：仅当该分桶冻结库存充足时退回可售库存
+   *
+   * @param productId 商品 ID
+   * @param bucketNo 分桶号
+   * @param quantity 解锁数量
+   * @return 受影响行数，0 表示该分桶冻结库存不足
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE StockpileBucket b"
+          + " SET b.amount = b.amount + :quantity, b.frozen = b.frozen - :quantity"
+          + " WHERE b.productId = :productId AND b.bucketNo = :bucketNo AND b.frozen >= :quantity")
+  int unlockStock(
+      @Param("productId") Long productId,
+      @Param("bucketNo") Integer bucketNo,
+      @Param("quantity") Integer quantity);
+
+  /**
+   * 条件扣减分桶冻结库存：仅当该分桶冻结库存充足时扣减
+   *
+   * @param productId 商品 ID
+   * @param bucketNo 分桶号
+   * @param quantity 扣减数量
+   * @return 受影响行数，0 表示该分桶冻结库存不足
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE StockpileBucket b SET b.frozen = b.frozen - :quantity"
+          + " WHERE b.productId = :productId AND b.bucketNo = :bucketNo AND b.frozen >= :quantity")
+  int reduceFrozenStock(
+      @Param("productId") Long productId,
+      @Param("bucketNo") Integer bucketNo,
+      @Param("quantity") Integer quantity);
+
+  /** 分桶库存投影 */
+  interface BucketStock {
+    Integer getBucketNo();
+
+    Integer getAmount();
+
+    Integer getFrozen();
+  }
+}
@@ -1,8 +1,14 @@
 package com.tomato.bookstore.repository;
 
 import com.tomato.bookstore.model.Stockpile;
+import jakarta.persistence.LockModeType;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /** 商品库存仓库接口 */
@@ -11,4 +17,81 @@ public interface StockpileRepository extends JpaRepository<Stockpile, Long> {
   Optional<Stockpile> findByProductId(Long productId);
 
   void deleteByProductId(Long productId);
+
+  /**
+   * 查询并锁定商品库存记录，用于调整库存总量或分桶配置
+   *
+   * @param productId 商品 ID
+   * @return 库存记录
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT s FROM Stockpile s WHERE s.product.id = :productId")
+  Optional<Stockpile> findForUpdateByProductId(@Param("productId") Long productId);
+
+  /**
+   * 查询商品的库存分桶数
+   *
+   * @param productId 商品 ID
+   * @return 分桶数，库存记录不存在时为空
+   */
+  @Query("SELECT s.bucketCount FROM Stockpile s WHERE s.product.id = :productId")
+  Optional<Integer> findBucketCountByProductId(@Param("productId") Long productId);
+
+  /**
+   * 查询所有开启秒杀的商品 ID
+   *
+   * @return 商品 ID 列表
+   */
+  @Query("SELECT s.product.id FROM Stockpile s WHERE s.flashSale = true")
+  List<Long> findFlashSaleProductIds();
+
+  /**
+   * 设置商品是否开启秒杀
+   *
+   * @param productId 商品 ID
+   * @param flashSale 是否开启
+   * @return 受影响行数，0 表示库存记录不存在
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Stockpile s SET s.flashSale = :flashSale WHERE s.product.id = :productId")
+  int updateFlashSale(@Param("productId") Long productId, @Param("flashSale") Boolean flashSale);
+
+  /**
+   * 条件锁定库存：仅当可售库存充足时，将指定数量从可售库存转入冻结库存
+   *
+   * @param productId 商品 ID
+   * @param quantity 锁定数量
+   * @return 受影响行数，0 表示库存不足或库存记录不存在
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE Stockpile s SET s.amount = s.amount - :quantity, s.frozen = s.frozen + :quantity"
+          + " WHERE s.product.id = :productId AND s.amount >= :quantity")
+  int lockStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+
+  /**
+   * 条件解锁库存：仅当冻结库存充足时，将指定数量从冻结库存退回可售库存
+   *
+   * @param productId 商品 ID
+   * @param quantity 解锁数量
+   * @return 受影响行数，0 表示冻结库存不足或库存记录不存在
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE Stockpile s SET s.amount = s.amount + :quantity, s.frozen = s.frozen - :quantity"
+          + " WHERE s.product.id = :productId AND s.frozen >= :quantity")
+  int unlockStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+
+  /**
+   * 条件扣减冻结库存（支付成功后）：仅当冻结库存充足时扣减
+   *
+   * @param productId 商品 ID
+   * @param quantity 扣减数量
+   * @return 受影响行数，0 表示冻结库存不足或库存记录不存在
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE Stockpile s SET s.frozen = s.frozen - :quantity"
+          + " WHERE s.product.id = :productId AND s.frozen >= :quantity")
+  int reduceFrozenStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
 }
@@ -0,0 +1,32 @@
+package com.tomato.bookstore.service;
+
+import com.tomato.bookstore.constant.BestsellerWindow;
+import com.tomato.bookstore.dto.BestsellerDTO;
+import java.util.List;
+
+/**
+ * 畅销榜服务接口
+ *
+ * <p>榜单保存在内存中，订单支付时增量累加，查询只读取前若干名。启动时与每天零点后从已支付订单重建，持有快照租约的实例定期合并所有实例的
+ * 销售汇总并写入快照，其他实例从快照加载，多实例展示同一份榜单。
+ */
+public interface BestsellerService {
+  /**
+   * 获取畅销榜
+   *
+   * @param window 统计窗口
+   * @param limit 名次数，超过 app.bestseller.top-k 时按其计算
+   * @return 榜单
+   */
+  List<BestsellerDTO> getBestsellers(BestsellerWindow window, int limit);
+
+  /** 从已支付订单重建榜单 */
+  void rebuild();
+
+  /**
+   * 同步榜单：写入快照的实例合并最近的销售汇总后写入快照（跨天时先重建），其他实例从快照加载
+   *
+   * @param writingSnapshot 当前实例是否持有快照租约
+   */
+  void sync(boolean writingSnapshot);
+}
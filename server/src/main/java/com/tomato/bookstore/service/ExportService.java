@@ -0,0 +1,42 @@
+package com.tomato.bookstore.service;
+
+import com.tomato.bookstore.constant.ExportFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 数据导出服务接口
+ *
+ * <p>按 ID 游标分批读取并逐批写出，内存占用只与批量大小有关，与导出的总行数无关。
+ */
+public interface ExportService {
+  /**
+   * 导出所有订单
+   *
+   * @param format 文件格式
+   * @param out 输出流
+   * @return 导出的行数
+   * @throws IOException 写出失败（通常是客户端断开）
+   */
+  long exportOrders(ExportFormat format, OutputStream out) throws IOException;
+
+  /**
+   * 导出所有商品及其库存
+   *
+   * @param format 文件格式
+   * @param out 输出流
+   * @return 导出的行数
+   * @throws IOException 写出失败（通常是客户端断开）
+   */
+  long exportProducts(ExportFormat format, OutputStream out) throws IOException;
+
+  /**
+   * 导出所有评论
+   *
+   * @param format 文件格式
+   * @param out 输出流
+   * @return 导出的行数
+   * @throws IOException 写出失败（通常是客户端断开）
+   */
+  long exportReviews(ExportFormat format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,42 @@
+package com.tomato.bookstore.service;
+
+import com.tomato.bookstore.dto.CheckoutDTO;
+import com.tomato.bookstore.dto.FlashSaleConfigDTO;
+import com.tomato.bookstore.dto.FlashSaleTicketDTO;
+import com.tomato.bookstore.exception.BusinessException;
+
+/**
+ * 秒杀服务接口
+ *
+ * <p>秒杀商品的结算请求先经过内存闸门扣减名额，超出名额的请求立即拒绝；准入的请求进入有界队列异步下单，客户端凭排队凭证轮询结果。
+ */
+public interface FlashSaleService {
+  /**
+   * 提交秒杀结算请求
+   *
+   * @param checkoutDTO 结算信息
+   * @return 排队凭证
+   * @throws BusinessException 商品未开启秒杀、名额已售罄或排队已满
+   */
+  FlashSaleTicketDTO submit(CheckoutDTO checkoutDTO) throws BusinessException;
+
+  /**
+   * 查询排队凭证
+   *
+   * @param userId 用户 ID
+   * @param ticketId 凭证 ID
+   * @return 排队凭证
+   * @throws BusinessException 凭证不存在、已过期或不属于该用户
+   */
+  FlashSaleTicketDTO getTicket(Long userId, String ticketId) throws BusinessException;
+
+  /**
+   * 开启或关闭商品秒杀
+   *
+   * @param productId 商品 ID
+   * @param enabled 是否开启
+   * @return 秒杀配置及当前剩余名额
+   * @throws BusinessException 库存记录不存在
+   */
+  FlashSaleConfigDTO configure(Long productId, boolean enabled) throws BusinessException;
+}
@@ -0,0 +1,32 @@
+package com.tomato.bookstore.service;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 定时任务租约服务接口
+ *
+ * <p>多实例部署时，只需一个实例执行的定时任务在每次运行前获取以任务名区分的租约。持有者每次运行都会续期，持有者停止运行后租约到期，
+ * 由其他实例接管。不同任务的租约相互独立，可以分散在不同实例上。
+ */
+public interface JobLeaseService {
+  /**
+   * 获取或续期租约
+   *
+   * @param name 任务名
+   * @return 当前实例是否持有租约
+   */
+  boolean tryAcquire(String name);
+
+  /**
+   * 持有租约时执行可能超过租约时长的任务，执行期间在后台每隔租约时长的三分之一续期一次
+   *
+   * <p>续期失败（租约已被其他实例接管，或到期前一直无法续期）后，传给任务的检查返回 false，任务应在当前批次结束后停止，
+   * 避免与接管的实例同时运行。
+   *
+   * @param name 任务名
+   * @param job 任务，参数为是否仍持有租约的检查，任务在每批开始前调用
+   * @return 当前实例是否持有租约并执行了任务
+   */
+  boolean runWithLease(String name, Consumer<BooleanSupplier> job);
+}
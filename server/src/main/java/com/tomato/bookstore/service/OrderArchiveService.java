@@ -0,0 +1,28 @@
+package com.tomato.bookstore.service;
+
+import com.tomato.bookstore.dto.OrderDTO;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 订单归档服务接口
+ *
+ * <p>已取消、已超时的订单不会再变化，超过保留期后分批移入归档表，使订单表及其索引只包含近期订单。
+ */
+public interface OrderArchiveService {
+  /**
+   * 归档超过保留期的已取消、已超时订单，每批在独立事务中完成
+   *
+   * @param leaseHeld 是否仍持有任务租约，每批开始前检查，失去租约时停止
+   * @return 归档的订单数
+   */
+  int archive(BooleanSupplier leaseHeld);
+
+  /**
+   * 获取用户的归档订单
+   *
+   * @param userId 用户 ID
+   * @return 归档订单列表（按创建时间降序）
+   */
+  List<OrderDTO> getArchivedOrders(Long userId);
+}
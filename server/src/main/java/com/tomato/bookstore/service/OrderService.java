@@ -4,18 +4,28 @@ import com.tomato.bookstore.dto.CheckoutDTO;
 import com.tomato.bookstore.dto.OrderDTO;
 import com.tomato.bookstore.dto.PaymentDTO;
 import com.tomato.bookstore.dto.PaymentNotifyDTO;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 
 /** 订单服务接口 */
 public interface OrderService {
   /**
-   * 创建订单
+   * 创建订单（携带幂等键时，重复提交返回首次创建的订单，不再锁定库存）
    *
    * @param checkoutDTO 结账数据
    * @return 创建的订单
    */
   OrderDTO createOrder(CheckoutDTO checkoutDTO);
 
+  /**
+   * 创建秒杀订单（已通过秒杀准入闸门，不再拒绝秒杀商品）
+   *
+   * @param checkoutDTO 结账数据
+   * @return 创建的订单
+   */
+  OrderDTO createFlashSaleOrder(CheckoutDTO checkoutDTO);
+
   /**
    * 获取订单详情
    *
@@ -26,16 +36,17 @@ public interface OrderService {
   OrderDTO getOrder(Long userId, Long orderId);
 
   /**
-   * 支付订单
+   * 支付订单（携带幂等键时，重复请求返回首次生成的支付信息）
    *
    * @param userId 用户 ID
    * @param orderId 订单 ID
+   * @param idempotencyKey 幂等键，可为空
    * @return 支付表单
    */
-  PaymentDTO payOrder(Long userId, Long orderId);
+  PaymentDTO payOrder(Long userId, Long orderId, String idempotencyKey);
 
   /**
-   * 处理支付回调
+   * 处理支付回调（同一交易号的重复通知直接返回，不抛出异常）
    *
    * @param notifyDTO 支付通知数据
    * @return 处理结果
@@ -50,14 +61,33 @@ public interface OrderService {
    */
   void cancelOrder(Long userId, Long orderId);
 
-  /** 处理过期订单 */
-  void handleExpiredOrders();
+  /**
+   * 在一个事务内将一批到期的待支付订单标记为超时并解锁库存，已支付、已取消或尚未到期的订单跳过
+   *
+   * <p>订单状态以一条条件更新批量修改，释放的库存按商品汇总后每个商品只更新一次，调用方应控制每批的订单数。
+   *
+   * @param orderIds 到期的订单 ID
+   * @return 标记为超时的订单数
+   */
+  int handleExpiredOrders(Collection<Long> orderIds);
+
+  /**
+   * 将超过过期时间仍未关闭的待支付订单登记到本实例的时间轮，立即到期
+   *
+   * <p>每个实例的时间轮只登记本实例运行期间创建的订单，实例停止或重启后，其未关闭的订单由执行该任务的实例接管。
+   *
+   * @param grace 超过过期时间多久仍未关闭才视为遗漏
+   * @param limit 本次最多登记的订单数
+   * @return 登记的订单数
+   */
+  int scheduleOverdueOrders(Duration grace, int limit);
 
   /**
    * 获取用户订单列表
    *
    * @param userId 用户 ID
-   * @return 用户订单列表
+   * @param includeArchived 是否包含已归档的历史订单（需额外查询归档表）
+   * @return 用户订单列表（按创建时间降序）
    */
-  List<OrderDTO> getUserOrderList(Long userId);
+  List<OrderDTO> getUserOrderList(Long userId, boolean includeArchived);
 }
@@ -0,0 +1,31 @@
+package com.tomato.bookstore.service;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * 发件箱转发服务接口
+ *
+ * <p>订单事务内写入的发件箱消息由后台任务批量投递到下游，请求路径上只多一次插入，不做同步远程调用。
+ * 投递成功后标记已投递，超过保留时间的已投递消息定期清理。
+ *
+ * <p>不保证投递顺序：消息 ID 在插入时分配而不是在提交时分配，先分配 ID 的长事务可能晚于后分配 ID 的事务提交，
+ * 其消息会在更大 ID 的消息之后投递（不会丢失，每次都扫描全部未投递消息）。下游不能依赖消息 ID 或到达顺序判断先后，
+ * 同一聚合的多条消息需要按消息内容中的业务状态或版本自行处理乱序。
+ */
+public interface OutboxRelayService {
+  /**
+   * 批量投递未投递的消息，直到发件箱清空
+   *
+   * @param leaseHeld 是否仍持有任务租约，每批开始前检查，失去租约时停止
+   * @return 本次投递的消息数
+   */
+  int relay(BooleanSupplier leaseHeld);
+
+  /**
+   * 清理超过保留时间的已投递消息
+   *
+   * @param leaseHeld 是否仍持有任务租约，每批开始前检查，失去租约时停止
+   * @return 本次清理的消息数
+   */
+  int prune(BooleanSupplier leaseHeld);
+}
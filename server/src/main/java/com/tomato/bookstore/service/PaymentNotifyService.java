@@ -0,0 +1,25 @@
+package com.tomato.bookstore.service;
+
+import com.tomato.bookstore.dto.PaymentNotifyDTO;
+
+/**
+ * 支付通知服务接口
+ *
+ * <p>支付宝回调只写入收件箱即确认，不在回调线程中修改订单与库存；后台任务按接收顺序批量应用，重复通知按支付宝交易号去重。
+ */
+public interface PaymentNotifyService {
+  /**
+   * 记录支付通知
+   *
+   * @param notifyDTO 支付通知数据
+   * @return 是否为新通知，重复通知返回 false
+   */
+  boolean receive(PaymentNotifyDTO notifyDTO);
+
+  /**
+   * 批量应用已接收的支付通知
+   *
+   * @return 本次处理的通知数
+   */
+  int processPending();
+}
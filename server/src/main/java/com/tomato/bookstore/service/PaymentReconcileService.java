@@ -0,0 +1,16 @@
+package com.tomato.bookstore.service;
+
+/**
+ * 支付对账服务接口
+ *
+ * <p>支付通知丢失时，已付款的订单会一直冻结库存直到超时并被错误关闭。对账任务在订单临近过期时主动向支付宝查询交易状态，
+ * 已付款的交易直接按支付成功结算订单。
+ */
+public interface PaymentReconcileService {
+  /**
+   * 查询临近过期的待支付订单的交易状态，并结算已付款的订单
+   *
+   * @return 结算成功的订单数
+   */
+  int reconcile();
+}
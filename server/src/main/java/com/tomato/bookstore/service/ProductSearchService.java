@@ -0,0 +1,43 @@
+package com.tomato.bookstore.service;
+
+import com.tomato.bookstore.dto.ProductSearchDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.model.Product;
+
+/**
+ * 商品搜索服务接口
+ *
+ * <p>在进程内维护商品标题、描述、详情与规格值的倒排索引，按 BM25 相关度排序。索引在启动时从本地快照或数据库加载，随商品的增删改增量更新。
+ */
+public interface ProductSearchService {
+  /**
+   * 搜索商品，结果需同时包含关键词切分出的所有词
+   *
+   * @param keyword 关键词
+   * @param page 页码，从 0 开始
+   * @param size 每页条数
+   * @return 搜索结果，只返回相关度最高的 app.product-search.max-results 条以内的结果
+   * @throws BusinessException 索引尚未加载完成
+   */
+  ProductSearchDTO search(String keyword, int page, int size) throws BusinessException;
+
+  /**
+   * 在当前事务提交后以商品的最新内容更新索引
+   *
+   * @param product 商品实体（需包含规格）
+   */
+  void index(Product product);
+
+  /**
+   * 在当前事务提交后从索引中删除商品
+   *
+   * @param productId 商品 ID
+   */
+  void remove(Long productId);
+
+  /** 从本地快照加载索引，快照不存在或不可用时从数据库重建，再补齐快照之后修改过的商品 */
+  void load();
+
+  /** 补齐上次刷新之后（包括其他实例）修改过的商品，索引有变化时写出快照 */
+  void refresh();
+}
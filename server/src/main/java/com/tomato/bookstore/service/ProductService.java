@@ -1,5 +1,6 @@
 package com.tomato.bookstore.service;
 
+import com.tomato.bookstore.dto.ProductCardDTO;
 import com.tomato.bookstore.dto.ProductDTO;
 import com.tomato.bookstore.dto.StockpileDTO;
 import com.tomato.bookstore.exception.BusinessException;
@@ -14,6 +15,13 @@ public interface ProductService {
    */
   List<ProductDTO> getAllProducts();
 
+  /**
+   * 获取所有商品的卡片信息，用于商品列表页
+   *
+   * @return 商品卡片列表
+   */
+  List<ProductCardDTO> getProductCards();
+
   /**
    * 获取指定 ID 的商品
    *
@@ -49,6 +57,13 @@ public interface ProductService {
    */
   void deleteProduct(Long id) throws ResourceNotFoundException;
 
+  /**
+   * 商品在其他模块中被修改（如评论更新评分）后调用，在当前事务提交后使该商品与商品列表的缓存失效
+   *
+   * @param id 商品 ID
+   */
+  void evictProduct(Long id);
+
   /**
    * 获取指定商品的库存
    *
@@ -66,4 +81,14 @@ public interface ProductService {
    * @throws ResourceNotFoundException 商品不存在
    */
   void updateStockpile(Long productId, StockpileDTO stockpileDTO) throws ResourceNotFoundException;
+
+  /**
+   * 调整商品库存分桶数
+   *
+   * @param productId 商品 ID
+   * @param bucketCount 分桶数，0 或 1 表示关闭分桶
+   * @throws ResourceNotFoundException 商品不存在
+   */
+  void configureStockpileBuckets(Long productId, Integer bucketCount)
+      throws ResourceNotFoundException;
 }
@@ -0,0 +1,28 @@
+package com.tomato.bookstore.service;
+
+import com.tomato.bookstore.dto.ProductRecommendationDTO;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 共同购买推荐服务接口
+ *
+ * <p>“购买了该商品的顾客还买了”：按两个商品出现在同一笔已支付订单中的次数推荐，每个商品的推荐列表预先算好存储，查询只读取一个商品的记录。
+ */
+public interface RecommendationService {
+  /**
+   * 获取与指定商品共同购买次数最多的商品
+   *
+   * @param productId 商品 ID
+   * @param limit 条数，超过 app.recommendation.top-n 时按其计算
+   * @return 推荐列表（按共同购买次数降序）
+   */
+  List<ProductRecommendationDTO> getRecommendations(Long productId, int limit);
+
+  /**
+   * 分批读取所有已支付订单，按商品分片并行统计共同购买次数并重建推荐列表，统计期间支付的订单不丢失也不重复计数
+   *
+   * @param leaseHeld 是否仍持有任务租约，每批开始前检查，失去租约时放弃本次重建
+   */
+  void rebuild(BooleanSupplier leaseHeld);
+}
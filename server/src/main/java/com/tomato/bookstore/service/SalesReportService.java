@@ -0,0 +1,51 @@
+package com.tomato.bookstore.service;
+
+import com.tomato.bookstore.dto.DailyOrderStatsDTO;
+import com.tomato.bookstore.dto.ProductDailySalesDTO;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 销售报表服务接口
+ *
+ * <p>订单支付、取消或超时时，在同一事务内把变化累加到按天汇总的报表表中，报表查询只读取汇总行，不再扫描订单表。
+ * 汇总行可以按天从订单表重建，用于首次上线时回填历史数据与每日校准。
+ */
+public interface SalesReportService {
+  /**
+   * 将一批刚进入终态的订单累加到指定日期的汇总中
+   *
+   * @param orderIds 订单 ID 集合
+   * @param date 订单进入终态的日期
+   */
+  void recordOrders(Collection<Long> orderIds, LocalDate date);
+
+  /**
+   * 查询商品每日销售汇总
+   *
+   * @param from 起始日期（含）
+   * @param to 结束日期（含）
+   * @param productId 商品 ID，为空时查询所有商品
+   * @return 汇总列表
+   */
+  List<ProductDailySalesDTO> getProductDailySales(LocalDate from, LocalDate to, Long productId);
+
+  /**
+   * 查询每日订单汇总
+   *
+   * @param from 起始日期（含）
+   * @param to 结束日期（含）
+   * @return 汇总列表
+   */
+  List<DailyOrderStatsDTO> getDailyOrderStats(LocalDate from, LocalDate to);
+
+  /**
+   * 按天从订单表重建汇总，每天在独立事务中执行
+   *
+   * @param from 起始日期（含）
+   * @param to 结束日期（含），须早于今天
+   * @return 重建的天数
+   */
+  int backfill(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,66 @@
+package com.tomato.bookstore.service;
+
+import com.tomato.bookstore.dto.StockpileDTO;
+import com.tomato.bookstore.exception.BusinessException;
+
+/**
+ * 库存服务接口
+ *
+ * <p>统一封装库存的锁定、解锁与扣减。普通商品直接对 stockpiles 行做条件更新；开启分桶的热销商品将库存分散到多个分桶行，
+ * 并发结算各自命中不同的行，调用方无需关心库存的实际存放方式。
+ */
+public interface StockService {
+  /**
+   * 获取商品库存（分桶商品返回所有分桶与主库存行的合计）
+   *
+   * @param productId 商品 ID
+   * @return 商品库存信息
+   * @throws BusinessException 库存记录不存在
+   */
+  StockpileDTO getStockpile(Long productId) throws BusinessException;
+
+  /**
+   * 设置商品库存总量，分桶商品会将库存重新平均分配到各分桶
+   *
+   * @param productId 商品 ID
+   * @param amount 可售库存量
+   * @param frozen 冻结库存量
+   */
+  void updateStockpile(Long productId, Integer amount, Integer frozen);
+
+  /**
+   * 设置商品库存分桶数并重新平衡库存
+   *
+   * @param productId 商品 ID
+   * @param bucketCount 分桶数，0 或 1 表示关闭分桶
+   * @throws BusinessException 库存记录不存在
+   */
+  void configureBuckets(Long productId, Integer bucketCount) throws BusinessException;
+
+  /**
+   * 锁定库存：可售库存充足时转入冻结库存
+   *
+   * @param productId 商品 ID
+   * @param quantity 锁定数量
+   * @return 是否锁定成功，库存不足或库存记录不存在时返回 false 且不改变任何库存
+   */
+  boolean lockStock(Long productId, Integer quantity);
+
+  /**
+   * 解锁库存：将冻结库存退回可售库存
+   *
+   * @param productId 商品 ID
+   * @param quantity 解锁数量
+   * @throws BusinessException 库存记录不存在，或冻结库存合计不足（此时不改变任何库存）
+   */
+  void unlockStock(Long productId, Integer quantity) throws BusinessException;
+
+  /**
+   * 扣减冻结库存（支付成功后）
+   *
+   * @param productId 商品 ID
+   * @param quantity 扣减数量
+   * @throws BusinessException 库存记录不存在，或冻结库存合计不足（此时不改变任何库存）
+   */
+  void reduceFrozenStock(Long productId, Integer quantity) throws BusinessException;
+}
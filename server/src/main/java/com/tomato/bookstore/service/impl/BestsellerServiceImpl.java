@@ -0,0 +1,194 @@
+package com.tomato.bookstore.service.impl;
+
+import com.tomato.bookstore.constant.BestsellerWindow;
+import com.tomato.bookstore.dto.BestsellerDTO;
+import com.tomato.bookstore.event.OrderEvent;
+import com.tomato.bookstore.event.OrderEventListener;
+import com.tomato.bookstore.event.OrderPaidEvent;
+import com.tomato.bookstore.model.BestsellerRanking;
+import com.tomato.bookstore.model.ProductDailySales;
+import com.tomato.bookstore.repository.BestsellerRankingRepository;
+import com.tomato.bookstore.repository.OrderLineRepository;
+import com.tomato.bookstore.repository.ProductDailySalesRepository;
+import com.tomato.bookstore.service.BestsellerService;
+import com.tomato.bookstore.util.RankingBoard;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 畅销榜服务实现
+ *
+ * <p>最近 7 天为含当天在内的 7 个自然日，跨天时整体重建而不是逐日扣减。支付时间取订单的更新时间，与销售汇总口径一致。
+ *
+ * <p>重建时从订单表统计昨天零点之前的件数作为基线，最近两天的件数取自商品每日销售汇总。销售汇总由各实例在订单事务中累加，写入快照的实例每次同步时
+ * 在基线上重新叠加这两天的汇总，因此其他实例处理的支付（包括对账补单）也会计入榜单；昨天留作余量，跨天前开始、跨天后才提交的支付不会遗漏。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BestsellerServiceImpl implements BestsellerService, OrderEventListener {
+  private static final int RECENT_DAYS = 7;
+
+  /** 从销售汇总读取的最近天数（含当天） */
+  private static final int ROLLUP_DAYS = 2;
+
+  private final Clock clock;
+  private final TransactionTemplate transactionTemplate;
+  private final OrderLineRepository orderLineRepository;
+  private final BestsellerRankingRepository bestsellerRankingRepository;
+  private final ProductDailySalesRepository productDailySalesRepository;
+
+  @Value("${app.bestseller.top-k:50}")
+  private int topK;
+
+  @Value("${app.bestseller.capacity:1000}")
+  private int capacity;
+
+  /** 各窗口的榜单，重建、同步与加载时整体替换 */
+  private volatile Map<BestsellerWindow, RankingBoard<Long>> boards =
+      new EnumMap<>(BestsellerWindow.class);
+
+  /** 各窗口截至重建日期前一天零点的基线 */
+  private Map<BestsellerWindow, RankingBoard<Long>> baselines =
+      new EnumMap<>(BestsellerWindow.class);
+
+  /** 最近一次重建的日期，未重建时为空 */
+  private volatile LocalDate builtOn;
+
+  @Override
+  public List<BestsellerDTO> getBestsellers(BestsellerWindow window, int limit) {
+    RankingBoard<Long> board = boards.get(window);
+    if (board == null) {
+      return List.of();
+    }
+    List<Map.Entry<Long, Long>> top = board.top(Math.min(limit, topK));
+    List<BestsellerDTO> bestsellers = new ArrayList<>(top.size());
+    for (Map.Entry<Long, Long> entry : top) {
+      bestsellers.add(
+          BestsellerDTO.builder()
+              .rank(bestsellers.size() + 1)
+              .productId(entry.getKey())
+              .units(entry.getValue())
+              .build());
+    }
+    return bestsellers;
+  }
+
+  @Override
+  public void onOrderEvent(OrderEvent event) {
+    if (event instanceof OrderPaidEvent paid) {
+      Map<BestsellerWindow, RankingBoard<Long>> current = boards;
+      paid.getQuantities()
+          .forEach(
+              (productId, quantity) ->
+                  current.values().forEach(board -> board.add(productId, quantity)));
+    }
+  }
+
+  @Override
+  public synchronized void rebuild() {
+    LocalDate today = LocalDate.now(clock);
+    LocalDateTime rollupStart = today.minusDays(ROLLUP_DAYS - 1).atStartOfDay();
+    Map<BestsellerWindow, RankingBoard<Long>> rebuilt = new EnumMap<>(BestsellerWindow.class);
+
+    RankingBoard<Long> allTime = new RankingBoard<>(capacity);
+    orderLineRepository
+        .sumPaidQuantityByProductBefore(rollupStart)
+        .forEach(item -> allTime.add(item.getProductId(), item.getQuantity()));
+    rebuilt.put(BestsellerWindow.ALL_TIME, allTime);
+
+    RankingBoard<Long> recent = new RankingBoard<>(capacity);
+    orderLineRepository
+        .sumPaidSalesByProductBetween(
+            today.minusDays(RECENT_DAYS - 1).atStartOfDay(), rollupStart)
+        .forEach(sales -> recent.add(sales.getProductId(), sales.getUnits()));
+    rebuilt.put(BestsellerWindow.LAST_7_DAYS, recent);
+
+    baselines = rebuilt;
+    builtOn = today;
+    boards = withRecentSales(today);
+    log.info("畅销榜已重建：allTime={}, last7Days={}", allTime.size(), recent.size());
+  }
+
+  @Override
+  public synchronized void sync(boolean writingSnapshot) {
+    if (!writingSnapshot) {
+      reload();
+      return;
+    }
+    LocalDate today = LocalDate.now(clock);
+    if (today.equals(builtOn)) {
+      boards = withRecentSales(today);
+    } else {
+      rebuild();
+    }
+    persist();
+  }
+
+  /**
+   * 在基线上叠加销售汇总中最近两天的件数
+   *
+   * @param today 当天
+   * @return 各窗口的榜单
+   */
+  private Map<BestsellerWindow, RankingBoard<Long>> withRecentSales(LocalDate today) {
+    List<ProductDailySales> rows =
+        productDailySalesRepository.findBySalesDateBetweenOrderBySalesDateAscProductIdAsc(
+            today.minusDays(ROLLUP_DAYS - 1), today);
+    Map<BestsellerWindow, RankingBoard<Long>> merged = new EnumMap<>(BestsellerWindow.class);
+    baselines.forEach(
+        (window, baseline) -> {
+          RankingBoard<Long> board = new RankingBoard<>(capacity);
+          baseline.top(capacity).forEach(entry -> board.add(entry.getKey(), entry.getValue()));
+          rows.forEach(row -> board.add(row.getProductId(), row.getUnits()));
+          merged.put(window, board);
+        });
+    return merged;
+  }
+
+  /** 将各窗口的前 top-k 名写入快照表 */
+  private void persist() {
+    LocalDateTime now = LocalDateTime.now(clock);
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          for (BestsellerWindow window : BestsellerWindow.values()) {
+            bestsellerRankingRepository.deleteByRankingWindow(window);
+            List<BestsellerRanking> rows = new ArrayList<>();
+            for (BestsellerDTO bestseller : getBestsellers(window, topK)) {
+              rows.add(
+                  BestsellerRanking.builder()
+                      .rankingWindow(window)
+                      .rankNo(bestseller.getRank())
+                      .productId(bestseller.getProductId())
+                      .units(bestseller.getUnits())
+                      .updatedAt(now)
+                      .build());
+            }
+            bestsellerRankingRepository.saveAll(rows);
+          }
+        });
+  }
+
+  /** 从快照表加载榜单 */
+  private void reload() {
+    Map<BestsellerWindow, RankingBoard<Long>> loaded = new EnumMap<>(BestsellerWindow.class);
+    for (BestsellerWindow window : BestsellerWindow.values()) {
+      RankingBoard<Long> board = new RankingBoard<>(capacity);
+      bestsellerRankingRepository
+          .findByRankingWindowOrderByRankNoAsc(window)
+          .forEach(row -> board.add(row.getProductId(), row.getUnits()));
+      loaded.put(window, board);
+    }
+    boards = loaded;
+  }
+}
@@ -4,17 +4,17 @@ import com.tomato.bookstore.constant.BusinessErrorCode;
 import com.tomato.bookstore.constant.ExceptionMessages;
 import com.tomato.bookstore.dto.CartDTO;
 import com.tomato.bookstore.dto.CartListDTO;
+import com.tomato.bookstore.dto.StockpileDTO;
 import com.tomato.bookstore.exception.BusinessException;
 import com.tomato.bookstore.exception.ResourceNotFoundException;
 import com.tomato.bookstore.model.Cart;
 import com.tomato.bookstore.model.Product;
-import com.tomato.bookstore.model.Stockpile;
 import com.tomato.bookstore.model.User;
 import com.tomato.bookstore.repository.CartRepository;
 import com.tomato.bookstore.repository.ProductRepository;
-import com.tomato.bookstore.repository.StockpileRepository;
 import com.tomato.bookstore.repository.UserRepository;
 import com.tomato.bookstore.service.CartService;
+import com.tomato.bookstore.service.StockService;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,7 +32,7 @@ public class CartServiceImpl implements CartService {
   private final CartRepository cartRepository;
   private final UserRepository userRepository;
   private final ProductRepository productRepository;
-  private final StockpileRepository stockpileRepository;
+  private final StockService stockService;
 
   @Override
   @Transactional
@@ -47,7 +47,7 @@ public class CartServiceImpl implements CartService {
     Product product = findProduct(cartDTO.getProductId());
 
     // 检查商品库存是否充足
-    Stockpile stockpile = findStockpile(product.getId());
+    StockpileDTO stockpile = stockService.getStockpile(product.getId());
     if (stockpile.getAmount() < cartDTO.getQuantity()) {
       log.warn(
           "商品库存不足：productId={}, 库存={}, 请求数量={}",
@@ -144,7 +144,7 @@ public class CartServiceImpl implements CartService {
                 });
 
     // 检查库存
-    Stockpile stockpile = findStockpile(cart.getProduct().getId());
+    StockpileDTO stockpile = stockService.getStockpile(cart.getProduct().getId());
     if (quantity > stockpile.getAmount()) {
       log.warn(
           "请求数量超过库存：productId={}, 库存={}, 请求数量={}",
@@ -234,24 +234,6 @@ public class CartServiceImpl implements CartService {
             });
   }
 
-  /**
-   * 找到商品库存
-   *
-   * @param productId 商品 ID
-   * @return Stockpile 商品库存对象
-   */
-  private Stockpile findStockpile(Long productId) {
-    return stockpileRepository
-        .findByProductId(productId)
-        .orElseThrow(
-            () -> {
-              log.warn("商品库存记录不存在：productId={}", productId);
-              return new BusinessException(
-                  BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND,
-                  String.format(ExceptionMessages.PRODUCT_STOCK_NOT_FOUND, productId));
-            });
-  }
-
   /**
    * 转换为 CartDTO
    *
@@ -265,9 +247,7 @@ public class CartServiceImpl implements CartService {
         .productId(product.getId())
         .title(product.getTitle())
         .price(product.getPrice())
-        .description(product.getDescription())
         .cover(product.getCover())
-        .detail(product.getDetail())
         .quantity(cart.getQuantity())
         .build();
   }
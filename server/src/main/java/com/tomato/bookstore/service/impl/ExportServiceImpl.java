@@ -0,0 +1,179 @@
+package com.tomato.bookstore.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tomato.bookstore.constant.ExportFormat;
+import com.tomato.bookstore.repository.OrderRepository;
+import com.tomato.bookstore.repository.OrderRepository.OrderExportRow;
+import com.tomato.bookstore.repository.ProductRepository;
+import com.tomato.bookstore.repository.ProductRepository.ProductExportRow;
+import com.tomato.bookstore.repository.ReviewRepository;
+import com.tomato.bookstore.repository.ReviewRepository.ReviewExportRow;
+import com.tomato.bookstore.service.ExportService;
+import com.tomato.bookstore.util.ExportWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * 数据导出服务实现
+ *
+ * <p>每批是一次独立的投影查询，不开启跨批次的事务：查询结果不进入持久化上下文，也不在整个导出期间占用数据库连接。
+ * 游标取自上一批最后一行的 ID，翻页开销与偏移量无关；导出期间新增的行只要 ID 更大就会被导出。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+  private static final List<String> ORDER_COLUMNS =
+      List.of(
+          "orderId",
+          "userId",
+          "totalAmount",
+          "paymentMethod",
+          "status",
+          "tradeNo",
+          "outTradeNo",
+          "paymentTime",
+          "createTime",
+          "updateTime");
+
+  private static final List<String> PRODUCT_COLUMNS =
+      List.of(
+          "productId",
+          "title",
+          "price",
+          "rate",
+          "description",
+          "cover",
+          "amount",
+          "frozen",
+          "createTime",
+          "updateTime");
+
+  private static final List<String> REVIEW_COLUMNS =
+      List.of(
+          "reviewId", "productId", "userId", "rating", "content", "createTime", "updateTime");
+
+  private final ObjectMapper objectMapper;
+  private final OrderRepository orderRepository;
+  private final ProductRepository productRepository;
+  private final ReviewRepository reviewRepository;
+
+  @Value("${app.export.batch-size:1000}")
+  private int batchSize;
+
+  @Override
+  public long exportOrders(ExportFormat format, OutputStream out) throws IOException {
+    return export(
+        "orders",
+        format,
+        out,
+        ORDER_COLUMNS,
+        afterId -> orderRepository.findExportRows(afterId, PageRequest.of(0, batchSize)),
+        OrderExportRow::getId,
+        row ->
+            Arrays.asList(
+                row.getId(),
+                row.getUserId(),
+                row.getTotalAmount(),
+                row.getPaymentMethod(),
+                row.getStatus(),
+                row.getTradeNo(),
+                row.getOutTradeNo(),
+                row.getPaymentTime(),
+                row.getCreatedAt(),
+                row.getUpdatedAt()));
+  }
+
+  @Override
+  public long exportProducts(ExportFormat format, OutputStream out) throws IOException {
+    return export(
+        "products",
+        format,
+        out,
+        PRODUCT_COLUMNS,
+        afterId -> productRepository.findExportRows(afterId, PageRequest.of(0, batchSize)),
+        ProductExportRow::getId,
+        row ->
+            Arrays.asList(
+                row.getId(),
+                row.getTitle(),
+                row.getPrice(),
+                row.getRate(),
+                row.getDescription(),
+                row.getCover(),
+                row.getAmount(),
+                row.getFrozen(),
+                row.getCreatedAt(),
+                row.getUpdatedAt()));
+  }
+
+  @Override
+  public long exportReviews(ExportFormat format, OutputStream out) throws IOException {
+    return export(
+        "reviews",
+        format,
+        out,
+        REVIEW_COLUMNS,
+        afterId -> reviewRepository.findExportRows(afterId, PageRequest.of(0, batchSize)),
+        ReviewExportRow::getId,
+        row ->
+            Arrays.asList(
+                row.getId(),
+                row.getProductId(),
+                row.getUserId(),
+                row.getRating(),
+                row.getContent(),
+                row.getCreatedAt(),
+                row.getUpdatedAt()));
+  }
+
+  /**
+   * 按 ID 游标分批读取并写出
+   *
+   * @param name 导出名称，用于日志
+   * @param format 文件格式
+   * @param out 输出流
+   * @param columns 列名
+   * @param fetchAfter 查询 ID 大于游标的一批行
+   * @param idOf 行的 ID
+   * @param valuesOf 行的各列值
+   * @param <T> 行类型
+   * @return 导出的行数
+   * @throws IOException 写出失败
+   */
+  private <T> long export(
+      String name,
+      ExportFormat format,
+      OutputStream out,
+      List<String> columns,
+      Function<Long, List<T>> fetchAfter,
+      Function<T, Long> idOf,
+      Function<T, List<?>> valuesOf)
+      throws IOException {
+    ExportWriter writer = new ExportWriter(out, format, columns, objectMapper);
+    long count = 0;
+    Long afterId = 0L;
+    while (true) {
+      List<T> rows = fetchAfter.apply(afterId);
+      for (T row : rows) {
+        writer.write(valuesOf.apply(row));
+      }
+      writer.flush();
+      count += rows.size();
+      if (rows.size() < batchSize) {
+        break;
+      }
+      afterId = idOf.apply(rows.getLast());
+    }
+    log.info("导出完成：name={}, format={}, rows={}", name, format, count);
+    return count;
+  }
+}
@@ -0,0 +1,262 @@
+package com.tomato.bookstore.service.impl;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.constant.ExceptionMessages;
+import com.tomato.bookstore.constant.FlashSaleTicketStatus;
+import com.tomato.bookstore.dto.CheckoutDTO;
+import com.tomato.bookstore.dto.FlashSaleConfigDTO;
+import com.tomato.bookstore.dto.FlashSaleTicketDTO;
+import com.tomato.bookstore.dto.OrderDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.exception.StockInsufficientException;
+import com.tomato.bookstore.model.Cart;
+import com.tomato.bookstore.repository.CartRepository;
+import com.tomato.bookstore.repository.StockpileRepository;
+import com.tomato.bookstore.repository.UserRepository;
+import com.tomato.bookstore.service.FlashSaleService;
+import com.tomato.bookstore.service.OrderService;
+import com.tomato.bookstore.service.StockService;
+import com.tomato.bookstore.util.AdmissionGate;
+import com.tomato.bookstore.util.ExpiringCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 秒杀服务实现
+ *
+ * <p>闸门名额在启动时与开启秒杀时按数据库可售库存初始化，并定期校准（订单取消、超时退回的库存会重新放出名额）。
+ * 闸门只负责削峰，最终是否下单成功仍以数据库的条件扣减为准。多实例部署时每个实例各自持有完整名额，
+ * 数据库看到的下单尝试数不超过实例数乘以库存。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FlashSaleServiceImpl implements FlashSaleService {
+  private final Clock clock;
+  private final AdmissionGate flashSaleGate;
+  private final OrderService orderService;
+  private final StockService stockService;
+  private final CartRepository cartRepository;
+  private final UserRepository userRepository;
+  private final StockpileRepository stockpileRepository;
+
+  @Value("${app.flash-sale.workers:4}")
+  private int workers;
+
+  @Value("${app.flash-sale.queue-capacity:1000}")
+  private int queueCapacity;
+
+  @Value("${app.flash-sale.ticket-ttl-minutes:30}")
+  private int ticketTtlMinutes;
+
+  private ThreadPoolExecutor executor;
+  private ExpiringCache<String, FlashSaleTicketDTO> tickets;
+
+  @PostConstruct
+  void init() {
+    AtomicInteger threadCount = new AtomicInteger();
+    executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "flash-sale-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    // 凭证数上限：排队中的请求加上最近完成、尚待客户端轮询的请求
+    tickets =
+        new ExpiringCache<>(
+            Duration.ofMinutes(ticketTtlMinutes), Math.max(queueCapacity, 1) * 10, clock);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  @Override
+  public FlashSaleTicketDTO submit(CheckoutDTO checkoutDTO) {
+    log.info(
+        "秒杀结算：userId={}, cartItemIds={}", checkoutDTO.getUserId(), checkoutDTO.getCartItemIds());
+
+    List<Cart> cartItems =
+        cartRepository.findByUserAndIdIn(
+            userRepository.getReferenceById(checkoutDTO.getUserId()),
+            checkoutDTO.getCartItemIds());
+    if (cartItems.isEmpty()) {
+      throw new BusinessException(BusinessErrorCode.CART_ITEM_NOT_FOUND, "未找到选择的购物车商品");
+    }
+
+    SortedMap<Long, Integer> quantities = new TreeMap<>();
+    for (Cart cart : cartItems) {
+      Long productId = cart.getProduct().getId();
+      if (flashSaleGate.isGated(productId)) {
+        quantities.merge(productId, cart.getQuantity(), Integer::sum);
+      }
+    }
+    if (quantities.isEmpty()) {
+      throw new BusinessException(
+          BusinessErrorCode.FLASH_SALE_NOT_ACTIVE, ExceptionMessages.FLASH_SALE_NOT_ACTIVE);
+    }
+
+    // 名额不足时立即拒绝，不占用数据库连接
+    if (!flashSaleGate.tryAcquire(quantities)) {
+      log.info("秒杀名额不足：userId={}, quantities={}", checkoutDTO.getUserId(), quantities);
+      throw new BusinessException(
+          BusinessErrorCode.FLASH_SALE_SOLD_OUT, ExceptionMessages.FLASH_SALE_SOLD_OUT);
+    }
+
+    LocalDateTime now = LocalDateTime.now(clock);
+    FlashSaleTicketDTO ticket =
+        FlashSaleTicketDTO.builder()
+            .ticketId(UUID.randomUUID().toString())
+            .status(FlashSaleTicketStatus.QUEUED)
+            .userId(checkoutDTO.getUserId())
+            .createdAt(now)
+            .updatedAt(now)
+            .build();
+    tickets.put(ticket.getTicketId(), ticket);
+
+    try {
+      executor.execute(() -> createOrder(ticket.getTicketId(), checkoutDTO, quantities));
+    } catch (RejectedExecutionException e) {
+      flashSaleGate.complete(quantities, false);
+      tickets.remove(ticket.getTicketId());
+      log.warn("秒杀排队已满：userId={}", checkoutDTO.getUserId());
+      throw new BusinessException(
+          BusinessErrorCode.FLASH_SALE_BUSY, ExceptionMessages.FLASH_SALE_BUSY);
+    }
+
+    log.info("秒杀请求已排队：ticketId={}, userId={}", ticket.getTicketId(), ticket.getUserId());
+    return ticket;
+  }
+
+  @Override
+  public FlashSaleTicketDTO getTicket(Long userId, String ticketId) {
+    FlashSaleTicketDTO ticket = tickets.get(ticketId);
+    if (ticket == null || !ticket.getUserId().equals(userId)) {
+      throw new BusinessException(
+          BusinessErrorCode.FLASH_SALE_TICKET_NOT_FOUND,
+          String.format(ExceptionMessages.FLASH_SALE_TICKET_NOT_FOUND, ticketId));
+    }
+    return ticket;
+  }
+
+  @Override
+  @Transactional
+  public FlashSaleConfigDTO configure(Long productId, boolean enabled) {
+    log.info("调整商品秒杀：productId={}, enabled={}", productId, enabled);
+    if (stockpileRepository.updateFlashSale(productId, enabled) == 0) {
+      log.warn("商品库存记录不存在：productId={}", productId);
+      throw new BusinessException(
+          BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND,
+          String.format(ExceptionMessages.PRODUCT_STOCK_NOT_FOUND, productId));
+    }
+
+    if (enabled) {
+      flashSaleGate.open(productId, stockService.getStockpile(productId).getAmount());
+    } else {
+      flashSaleGate.close(productId);
+    }
+    return FlashSaleConfigDTO.builder()
+        .enabled(enabled)
+        .remaining(enabled ? flashSaleGate.remaining(productId) : null)
+        .build();
+  }
+
+  /** 启动时为所有开启秒杀的商品打开闸门 */
+  @EventListener(ApplicationReadyEvent.class)
+  public void openGates() {
+    List<Long> productIds = stockpileRepository.findFlashSaleProductIds();
+    for (Long productId : productIds) {
+      flashSaleGate.open(productId, stockService.getStockpile(productId).getAmount());
+    }
+    if (!productIds.isEmpty()) {
+      log.info("秒杀闸门已打开：productIds={}", productIds);
+    }
+  }
+
+  /** 定期以数据库可售库存校准闸门名额，并清理过期凭证 */
+  @Scheduled(fixedDelayString = "${app.flash-sale.sync-interval-ms:5000}")
+  public void syncGates() {
+    for (Long productId : flashSaleGate.gatedProductIds()) {
+      try {
+        flashSaleGate.sync(productId, stockService.getStockpile(productId).getAmount());
+      } catch (BusinessException e) {
+        log.warn("秒杀商品库存记录不存在，关闭闸门：productId={}", productId);
+        flashSaleGate.close(productId);
+      }
+    }
+    tickets.purgeExpired();
+  }
+
+  /**
+   * 异步创建秒杀订单并更新凭证状态
+   *
+   * @param ticketId 凭证 ID
+   * @param checkoutDTO 结算信息
+   * @param quantities 已获取的闸门名额
+   */
+  private void createOrder(
+      String ticketId, CheckoutDTO checkoutDTO, SortedMap<Long, Integer> quantities) {
+    boolean consumed = false;
+    try {
+      OrderDTO order = orderService.createFlashSaleOrder(checkoutDTO);
+      consumed = true;
+      updateTicket(ticketId, FlashSaleTicketStatus.SUCCESS, order.getOrderId(), null);
+      log.info("秒杀下单成功：ticketId={}, orderId={}", ticketId, order.getOrderId());
+    } catch (StockInsufficientException e) {
+      // 数据库库存确已不足，名额不再退回，等待下次校准
+      consumed = true;
+      updateTicket(ticketId, FlashSaleTicketStatus.FAILED, null, e.getMessage());
+      log.info("秒杀下单失败，库存不足：ticketId={}", ticketId);
+    } catch (BusinessException e) {
+      updateTicket(ticketId, FlashSaleTicketStatus.FAILED, null, e.getMessage());
+      log.warn("秒杀下单失败：ticketId={}, 原因：{}", ticketId, e.getMessage());
+    } catch (RuntimeException e) {
+      String message = BusinessErrorCode.SYSTEM_ERROR.getMessage();
+      updateTicket(ticketId, FlashSaleTicketStatus.FAILED, null, message);
+      log.error("秒杀下单异常：ticketId={}", ticketId, e);
+    } finally {
+      flashSaleGate.complete(quantities, consumed);
+    }
+  }
+
+  private void updateTicket(
+      String ticketId, FlashSaleTicketStatus status, Long orderId, String message) {
+    tickets.computeIfPresent(
+        ticketId,
+        ticket ->
+            ticket.toBuilder()
+                .status(status)
+                .orderId(orderId)
+                .message(message)
+                .updatedAt(LocalDateTime.now(clock))
+                .build());
+  }
+}
@@ -0,0 +1,160 @@
+package com.tomato.bookstore.service.impl;
+
+import com.tomato.bookstore.repository.JobLeaseRepository;
+import com.tomato.bookstore.service.JobLeaseService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+/**
+ * 定时任务租约服务实现
+ *
+ * <p>不开启事务：续期与创建各自提交，创建时的主键冲突不会让外层事务回滚。租约时间以应用时钟计算，各实例的时钟偏差应远小于租约时长。
+ *
+ * <p>长任务的续期由单个后台线程执行，与任务所在的调度线程互不阻塞。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobLeaseServiceImpl implements JobLeaseService {
+  private final Clock clock;
+  private final JobLeaseRepository jobLeaseRepository;
+
+  @Value("${app.scheduling.lease-ms:30000}")
+  private long leaseMillis;
+
+  @Value("${app.scheduling.node-name:}")
+  private String nodeName;
+
+  private String owner;
+
+  private ScheduledExecutorService heartbeat;
+
+  @PostConstruct
+  void init() {
+    String host = nodeName;
+    if (!StringUtils.hasText(host)) {
+      try {
+        host = InetAddress.getLocalHost().getHostName();
+      } catch (UnknownHostException e) {
+        host = "unknown";
+      }
+    }
+    // 同一主机上的多个进程也需区分
+    owner = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    log.info("定时任务租约实例标识：{}", owner);
+
+    heartbeat =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "job-lease-heartbeat");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @PreDestroy
+  void releaseAll() {
+    heartbeat.shutdownNow();
+    try {
+      int released = jobLeaseRepository.releaseAll(owner, LocalDateTime.now(clock));
+      if (released > 0) {
+        log.info("已释放定时任务租约：owner={}, count={}", owner, released);
+      }
+    } catch (DataAccessException e) {
+      log.warn("释放定时任务租约失败，等待租约自然到期：owner={}", owner, e);
+    }
+  }
+
+  @Override
+  public boolean tryAcquire(String name) {
+    LocalDateTime now = LocalDateTime.now(clock);
+    LocalDateTime expiresAt = now.plusNanos(leaseMillis * 1_000_000);
+    if (jobLeaseRepository.renew(name, owner, expiresAt, now) > 0) {
+      return true;
+    }
+    if (jobLeaseRepository.existsById(name)) {
+      return false;
+    }
+    try {
+      jobLeaseRepository.create(name, owner, expiresAt, now);
+      log.info("获得定时任务租约：name={}, owner={}", name, owner);
+      return true;
+    } catch (DataIntegrityViolationException e) {
+      // 其他实例同时创建了租约
+      return false;
+    }
+  }
+
+  @Override
+  public boolean runWithLease(String name, Consumer<BooleanSupplier> job) {
+    if (!tryAcquire(name)) {
+      return false;
+    }
+
+    AtomicBoolean held = new AtomicBoolean(true);
+    AtomicReference<LocalDateTime> expiresAt =
+        new AtomicReference<>(LocalDateTime.now(clock).plusNanos(leaseMillis * 1_000_000));
+    long interval = Math.max(leaseMillis / 3, 1);
+    ScheduledFuture<?> renewal =
+        heartbeat.scheduleWithFixedDelay(
+            () -> renew(name, held, expiresAt), interval, interval, TimeUnit.MILLISECONDS);
+    try {
+      job.accept(held::get);
+    } finally {
+      renewal.cancel(false);
+    }
+    return true;
+  }
+
+  /**
+   * 续期长任务持有的租约，失去租约后不再续期
+   *
+   * @param name 任务名
+   * @param held 是否仍持有租约
+   * @param expiresAt 最近一次成功续期后的到期时间
+   */
+  private void renew(String name, AtomicBoolean held, AtomicReference<LocalDateTime> expiresAt) {
+    if (!held.get()) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now(clock);
+    // 已经到期的租约可能已被其他实例接管并运行过，即使重新取得也不能继续
+    if (!now.isBefore(expiresAt.get())) {
+      held.set(false);
+      log.warn("定时任务租约已到期，任务将在当前批次后停止：name={}, owner={}", name, owner);
+      return;
+    }
+    LocalDateTime renewedUntil = now.plusNanos(leaseMillis * 1_000_000);
+    try {
+      if (jobLeaseRepository.renew(name, owner, renewedUntil, now) > 0) {
+        expiresAt.set(renewedUntil);
+      } else {
+        held.set(false);
+        log.warn("定时任务租约已被其他实例接管，任务将在当前批次后停止：name={}, owner={}", name, owner);
+      }
+    } catch (DataAccessException e) {
+      // 到期前继续重试
+      log.warn("定时任务租约续期失败：name={}, owner={}", name, owner, e);
+    }
+  }
+}
@@ -215,8 +215,8 @@ public class NoteServiceImpl implements NoteService {
   @Override
   @Transactional
   public NoteDTO addOrUpdateFeedback(Long noteId, Long userId, FeedbackType feedbackType) {
-    // 确认笔记存在
-    getNoteEntityById(noteId);
+    // 确认笔记存在，只需判断存在性，不加载笔记正文
+    ensureNoteExists(noteId);
 
     // 确认用户存在
     getUserById(userId);
@@ -267,8 +267,8 @@ public class NoteServiceImpl implements NoteService {
 
   @Override
   public List<NoteCommentDTO> getNoteComments(Long noteId) {
-    // 确认笔记存在
-    getNoteEntityById(noteId);
+    // 确认笔记存在，只需判断存在性，不加载笔记正文
+    ensureNoteExists(noteId);
 
     List<NoteComment> comments = noteCommentRepository.findByNoteIdOrderByCreatedAtDesc(noteId);
 
@@ -291,8 +291,8 @@ public class NoteServiceImpl implements NoteService {
   @Transactional
   public NoteCommentDTO addComment(
       Long noteId, Long userId, NoteCommentCreateDTO commentCreateDTO) {
-    // 确认笔记存在
-    getNoteEntityById(noteId);
+    // 确认笔记存在，只需判断存在性，不加载笔记正文
+    ensureNoteExists(noteId);
 
     // 确认用户存在
     User user = getUserById(userId);
@@ -633,6 +633,17 @@ public class NoteServiceImpl implements NoteService {
         .orElseThrow(() -> ResourceNotFoundException.create("读书笔记", "id", noteId));
   }
 
+  /**
+   * 确认笔记存在
+   *
+   * @param noteId 笔记 ID
+   */
+  private void ensureNoteExists(Long noteId) {
+    if (!noteRepository.existsById(noteId)) {
+      throw ResourceNotFoundException.create("读书笔记", "id", noteId);
+    }
+  }
+
   /**
    * 获取评论实体
    *
@@ -0,0 +1,151 @@
+package com.tomato.bookstore.service.impl;
+
+import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.dto.CartDTO;
+import com.tomato.bookstore.dto.OrderDTO;
+import com.tomato.bookstore.model.ArchivedOrder;
+import com.tomato.bookstore.model.ArchivedOrderLine;
+import com.tomato.bookstore.repository.ArchivedOrderLineRepository;
+import com.tomato.bookstore.repository.ArchivedOrderRepository;
+import com.tomato.bookstore.repository.CartsOrdersRelationRepository;
+import com.tomato.bookstore.repository.OrderLineRepository;
+import com.tomato.bookstore.repository.OrderRepository;
+import com.tomato.bookstore.service.OrderArchiveService;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 订单归档服务实现
+ *
+ * <p>每批订单在一个短事务中复制订单与订单行到归档表，再从原表删除，锁定的行数不超过 app.order-archive.batch-size。
+ * 购物车商品与订单关联只用于追溯，订单行已记录购物车商品 ID 与数量，因此直接删除不归档。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+  /** 不会再变化、可以归档的订单状态 */
+  private static final Set<OrderStatus> ARCHIVABLE_STATUSES =
+      Set.of(OrderStatus.CANCELLED, OrderStatus.TIMEOUT);
+
+  private final Clock clock;
+  private final TransactionTemplate transactionTemplate;
+  private final OrderRepository orderRepository;
+  private final OrderLineRepository orderLineRepository;
+  private final CartsOrdersRelationRepository relationRepository;
+  private final ArchivedOrderRepository archivedOrderRepository;
+  private final ArchivedOrderLineRepository archivedOrderLineRepository;
+
+  @Value("${app.order-archive.retention-days:90}")
+  private int retentionDays;
+
+  @Value("${app.order-archive.batch-size:500}")
+  private int batchSize;
+
+  @Override
+  public int archive(BooleanSupplier leaseHeld) {
+    LocalDateTime before = LocalDateTime.now(clock).minusDays(retentionDays);
+    int total = 0;
+    while (leaseHeld.getAsBoolean()) {
+      Integer archived = transactionTemplate.execute(status -> archiveBatch(before));
+      total += archived;
+      if (archived < batchSize) {
+        break;
+      }
+    }
+    if (total > 0) {
+      log.info("已归档订单：count={}, updatedBefore={}", total, before);
+    }
+    return total;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<OrderDTO> getArchivedOrders(Long userId) {
+    List<ArchivedOrder> orders = archivedOrderRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    if (orders.isEmpty()) {
+      return List.of();
+    }
+
+    Map<Long, List<ArchivedOrderLine>> linesByOrder =
+        archivedOrderLineRepository
+            .findByOrderIdInOrderById(orders.stream().map(ArchivedOrder::getId).toList())
+            .stream()
+            .collect(Collectors.groupingBy(ArchivedOrderLine::getOrderId));
+
+    return orders.stream()
+        .map(order -> convertToOrderDTO(order, linesByOrder.getOrDefault(order.getId(), List.of())))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * 归档一批订单
+   *
+   * @param before 更新时间上限
+   * @return 归档的订单数
+   */
+  private int archiveBatch(LocalDateTime before) {
+    List<Long> orderIds =
+        orderRepository.findIdsByStatusInAndUpdatedAtBefore(
+            ARCHIVABLE_STATUSES, before, PageRequest.of(0, batchSize));
+    if (orderIds.isEmpty()) {
+      return 0;
+    }
+
+    archivedOrderRepository.copyFromOrders(orderIds);
+    archivedOrderLineRepository.copyFromOrderLines(orderIds);
+    relationRepository.deleteByOrderIdIn(orderIds);
+    orderLineRepository.deleteByOrderIdIn(orderIds);
+    orderRepository.deleteByIdInAndStatusIn(orderIds, ARCHIVABLE_STATUSES);
+    return orderIds.size();
+  }
+
+  /**
+   * 转换为 OrderDTO，与订单服务的转换保持一致
+   *
+   * @param order 归档订单
+   * @param orderLines 归档订单行
+   * @return OrderDTO 对象
+   */
+  private OrderDTO convertToOrderDTO(ArchivedOrder order, List<ArchivedOrderLine> orderLines) {
+    List<CartDTO> orderItems =
+        orderLines.stream()
+            .map(
+                line ->
+                    CartDTO.builder()
+                        .cartItemId(line.getCartItemId())
+                        .productId(line.getProductId())
+                        .title(line.getTitle())
+                        .price(line.getPrice())
+                        .cover(line.getCover())
+                        .quantity(line.getQuantity())
+                        .build())
+            .collect(Collectors.toList());
+
+    return OrderDTO.builder()
+        .orderId(order.getId())
+        .userId(order.getUserId())
+        .totalAmount(order.getTotalAmount())
+        .paymentMethod(order.getPaymentMethod())
+        .status(order.getStatus())
+        .shippingAddress(order.getShippingAddress())
+        .tradeNo(order.getTradeNo())
+        .paymentTime(order.getPaymentTime())
+        .createTime(order.getCreatedAt())
+        .updateTime(order.getUpdatedAt())
+        .orderItems(orderItems)
+        .build();
+  }
+}
@@ -7,38 +7,67 @@ import com.alipay.api.response.AlipayTradePagePayResponse;
 import com.tomato.bookstore.config.AlipayConfig;
 import com.tomato.bookstore.constant.BusinessErrorCode;
 import com.tomato.bookstore.constant.ExceptionMessages;
+import com.tomato.bookstore.constant.OrderConstants;
 import com.tomato.bookstore.constant.OrderStatus;
 import com.tomato.bookstore.dto.CartDTO;
 import com.tomato.bookstore.dto.CheckoutDTO;
 import com.tomato.bookstore.dto.OrderDTO;
 import com.tomato.bookstore.dto.PaymentDTO;
 import com.tomato.bookstore.dto.PaymentNotifyDTO;
+import com.tomato.bookstore.dto.StockShortageDTO;
+import com.tomato.bookstore.event.CheckoutFailedEvent;
+import com.tomato.bookstore.event.OrderCancelledEvent;
+import com.tomato.bookstore.event.OrderCreatedEvent;
+import com.tomato.bookstore.event.OrderPaidEvent;
+import com.tomato.bookstore.event.OrderTimedOutEvent;
 import com.tomato.bookstore.exception.BusinessException;
 import com.tomato.bookstore.exception.ResourceNotFoundException;
+import com.tomato.bookstore.exception.StockInsufficientException;
 import com.tomato.bookstore.model.Cart;
 import com.tomato.bookstore.model.CartsOrdersRelation;
 import com.tomato.bookstore.model.Order;
+import com.tomato.bookstore.model.OrderLine;
 import com.tomato.bookstore.model.Product;
-import com.tomato.bookstore.model.Stockpile;
 import com.tomato.bookstore.model.User;
 import com.tomato.bookstore.repository.CartRepository;
 import com.tomato.bookstore.repository.CartsOrdersRelationRepository;
+import com.tomato.bookstore.repository.OrderLineRepository;
 import com.tomato.bookstore.repository.OrderRepository;
-import com.tomato.bookstore.repository.StockpileRepository;
 import com.tomato.bookstore.repository.UserRepository;
+import com.tomato.bookstore.service.OrderArchiveService;
 import com.tomato.bookstore.service.OrderService;
+import com.tomato.bookstore.service.StockService;
+import com.tomato.bookstore.util.AdmissionGate;
+import com.tomato.bookstore.util.ExpiringCache;
+import com.tomato.bookstore.util.SnowflakeIdGenerator;
+import com.tomato.bookstore.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
 /** 订单服务实现 */
 @Service
@@ -50,16 +79,86 @@ public class OrderServiceImpl implements OrderService {
   private final UserRepository userRepository;
   private final CartRepository cartRepository;
   private final CartsOrdersRelationRepository relationRepository;
-  private final StockpileRepository stockpileRepository;
+  private final OrderLineRepository orderLineRepository;
+  private final OrderArchiveService orderArchiveService;
+  private final StockService stockService;
+  private final AdmissionGate flashSaleGate;
+  private final TimingWheel<Long> orderExpiryWheel;
+  private final SnowflakeIdGenerator idGenerator;
+  private final ApplicationEventPublisher eventPublisher;
   private final AlipayClient alipayClient;
   private final AlipayConfig alipayConfig;
 
-  // 订单过期时间：30 分钟
-  private static int ORDER_EXPIRATION_MINUTES = 30;
+  @Value("${app.order.payment-concurrency:8}")
+  private int paymentConcurrency;
+
+  @Value("${app.order.payment-wait-ms:2000}")
+  private long paymentWaitMillis;
+
+  @Value("${app.order.payment-form-cache-size:10000}")
+  private int paymentFormCacheSize;
+
+  @Value("${app.order.idempotency-cache-size:10000}")
+  private int idempotencyCacheSize;
+
+  /** 限制同时调用支付宝接口的请求数，避免签名与网络调用耗尽请求线程 */
+  private Semaphore paymentBulkhead;
+
+  /** 按订单缓存已生成的支付表单，存活到订单过期为止 */
+  private ExpiringCache<Long, String> paymentForms;
+
+  /** 按「用户 ID:幂等键」缓存的结算结果，未命中时以订单表的唯一约束为准 */
+  private ExpiringCache<String, OrderDTO> checkoutResults;
+
+  /** 按「用户 ID:幂等键」缓存的支付结果 */
+  private ExpiringCache<String, PaymentDTO> paymentResults;
+
+  @PostConstruct
+  void init() {
+    Duration orderTtl = Duration.ofMinutes(OrderConstants.ORDER_EXPIRATION_MINUTES);
+    paymentBulkhead = new Semaphore(paymentConcurrency);
+    paymentForms = new ExpiringCache<>(orderTtl, paymentFormCacheSize, clock);
+    checkoutResults = new ExpiringCache<>(orderTtl, idempotencyCacheSize, clock);
+    paymentResults = new ExpiringCache<>(orderTtl, idempotencyCacheSize, clock);
+  }
 
   @Override
   @Transactional
   public OrderDTO createOrder(CheckoutDTO checkoutDTO) {
+    return createOrder(checkoutDTO, false);
+  }
+
+  @Override
+  @Transactional
+  public OrderDTO createFlashSaleOrder(CheckoutDTO checkoutDTO) {
+    return createOrder(checkoutDTO, true);
+  }
+
+  /**
+   * 创建订单
+   *
+   * @param checkoutDTO 结账数据
+   * @param admitted 是否已通过秒杀准入闸门
+   * @return 创建的订单
+   */
+  private OrderDTO createOrder(CheckoutDTO checkoutDTO, boolean admitted) {
+    try {
+      return placeOrder(checkoutDTO, admitted);
+    } catch (BusinessException e) {
+      eventPublisher.publishEvent(
+          new CheckoutFailedEvent(e.getErrorCode(), LocalDateTime.now(clock)));
+      throw e;
+    }
+  }
+
+  /**
+   * 校验结算数据、锁定库存并保存订单
+   *
+   * @param checkoutDTO 结账数据
+   * @param admitted 是否已通过秒杀准入闸门
+   * @return 创建的订单
+   */
+  private OrderDTO placeOrder(CheckoutDTO checkoutDTO, boolean admitted) {
     log.info(
         "创建订单：userId={}, cartItemIds={}", checkoutDTO.getUserId(), checkoutDTO.getCartItemIds());
 
@@ -70,48 +169,43 @@ public class OrderServiceImpl implements OrderService {
 
     User user = findUser(checkoutDTO.getUserId());
 
+    // 重复提交直接返回首次创建的订单，不再锁定库存
+    String idempotencyKey = checkIdempotencyKey(checkoutDTO.getIdempotencyKey());
+    String resultKey = idempotencyKey == null ? null : resultKey(user.getId(), idempotencyKey);
+    if (idempotencyKey != null) {
+      OrderDTO existing = findCheckoutResult(user, resultKey, idempotencyKey);
+      if (existing != null) {
+        log.info("重复的结算请求，返回已创建的订单：orderId={}", existing.getOrderId());
+        return existing;
+      }
+    }
+
     // 获取待结算的购物车商品
     List<Cart> cartItems = cartRepository.findByUserAndIdIn(user, checkoutDTO.getCartItemIds());
     if (cartItems.isEmpty()) {
       throw new BusinessException(BusinessErrorCode.CART_ITEM_NOT_FOUND, "未找到选择的购物车商品");
     }
 
+    // 秒杀商品必须经过准入闸门排队下单，不能绕过闸门直接占用数据库
+    if (!admitted) {
+      for (Cart cart : cartItems) {
+        Product product = cart.getProduct();
+        if (flashSaleGate.isGated(product.getId())) {
+          throw new BusinessException(
+              BusinessErrorCode.FLASH_SALE_CHECKOUT_REQUIRED,
+              String.format(ExceptionMessages.FLASH_SALE_CHECKOUT_REQUIRED, product.getTitle()));
+        }
+      }
+    }
+
     // 计算订单总金额
     BigDecimal totalAmount = calculateTotalAmount(cartItems);
 
-    // 预先检查所有库存，确保在创建订单前所有商品都有足够库存
-    for (Cart cart : cartItems) {
-      Stockpile stockpile =
-          stockpileRepository
-              .findByProductId(cart.getProduct().getId())
-              .orElseThrow(
-                  () -> {
-                    log.warn("商品库存记录不存在：productId={}", cart.getProduct().getId());
-                    return new BusinessException(
-                        BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND,
-                        String.format(
-                            ExceptionMessages.PRODUCT_STOCK_NOT_FOUND, cart.getProduct().getId()));
-                  });
-
-      // 检查可用库存
-      if (stockpile.getAmount() < cart.getQuantity()) {
-        Product product = stockpile.getProduct();
-        log.warn(
-            "商品库存不足：productId={}, title={}, 库存={}, 需要={}",
-            product.getId(),
-            product.getTitle(),
-            stockpile.getAmount(),
-            cart.getQuantity());
-        throw new BusinessException(
-            BusinessErrorCode.PRODUCT_STOCK_INSUFFICIENT,
-            String.format(
-                "商品「%s」库存不足，当前库存：%d，需要数量：%d",
-                product.getTitle(), stockpile.getAmount(), cart.getQuantity()));
-      }
-    }
+    // 按商品汇总购买数量并锁定库存，失败时整个事务回滚
+    lockStock(cartItems);
 
     // 创建订单
-    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime now = LocalDateTime.now(clock);
     Order order =
         Order.builder()
             .user(user)
@@ -121,18 +215,16 @@ public class OrderServiceImpl implements OrderService {
             .shippingAddress(checkoutDTO.getShippingAddress())
             .createdAt(now)
             .updatedAt(now)
+            .idempotencyKey(idempotencyKey)
             .orderItems(new ArrayList<>())
             .build();
 
-    Order savedOrder = orderRepository.save(order);
+    Order savedOrder = saveOrder(order);
 
-    // 创建订单项关联并锁定库存
+    // 创建订单项关联
     List<CartsOrdersRelation> orderItems = new ArrayList<>();
+    List<OrderLine> orderLines = new ArrayList<>();
     for (Cart cart : cartItems) {
-      // 锁定库存
-      lockStock(cart.getProduct().getId(), cart.getQuantity());
-
-      // 创建关联
       CartsOrdersRelation relation =
           CartsOrdersRelation.builder()
               .cart(cart)
@@ -140,14 +232,39 @@ public class OrderServiceImpl implements OrderService {
               .quantity(cart.getQuantity())
               .build();
       orderItems.add(relation);
+
+      // 记录下单时的商品快照，之后商品改价或购物车变动不影响订单展示
+      Product product = cart.getProduct();
+      orderLines.add(
+          OrderLine.builder()
+              .orderId(savedOrder.getId())
+              .productId(product.getId())
+              .cartItemId(cart.getId())
+              .title(product.getTitle())
+              .price(product.getPrice())
+              .cover(product.getCover())
+              .quantity(cart.getQuantity())
+              .build());
     }
 
-    // 保存关联
+    // 保存关联与订单行快照
     relationRepository.saveAll(orderItems);
+    orderLineRepository.saveAll(orderLines);
     savedOrder.setOrderItems(orderItems);
 
+    // 登记过期时间，到期后由超时任务关闭订单并解锁库存
+    orderExpiryWheel.schedule(savedOrder.getId(), expiryMillis(savedOrder.getCreatedAt()));
+
+    eventPublisher.publishEvent(
+        new OrderCreatedEvent(savedOrder.getId(), user.getId(), totalAmount, now));
+
+    OrderDTO result = convertToOrderDTO(savedOrder, orderLines);
+    if (resultKey != null) {
+      afterCommit(() -> checkoutResults.put(resultKey, result));
+    }
+
     log.info("订单创建成功：orderId={}, totalAmount={}", savedOrder.getId(), totalAmount);
-    return convertToOrderDTO(savedOrder);
+    return result;
   }
 
   @Override
@@ -155,23 +272,68 @@ public class OrderServiceImpl implements OrderService {
   public OrderDTO getOrder(Long userId, Long orderId) {
     log.info("获取订单详情：userId={}, orderId={}", userId, orderId);
     Order order = findOrderByUserAndId(userId, orderId);
-    return convertToOrderDTO(order);
+    return convertToOrderDTO(order, orderLineRepository.findByOrderIdOrderById(orderId));
   }
 
   @Override
   @Transactional(readOnly = true)
-  public List<OrderDTO> getUserOrderList(Long userId) {
-    log.info("获取用户订单列表：userId={}", userId);
+  public List<OrderDTO> getUserOrderList(Long userId, boolean includeArchived) {
+    log.info("获取用户订单列表：userId={}, includeArchived={}", userId, includeArchived);
     User user = findUser(userId);
     List<Order> orders = orderRepository.findByUserOrderByCreatedAtDesc(user);
+    List<OrderDTO> result = List.of();
+    if (!orders.isEmpty()) {
+      // 一次查询取回所有订单的订单行，避免逐个订单查询
+      Map<Long, List<OrderLine>> linesByOrder =
+          orderLineRepository
+              .findByOrderIdInOrderById(orders.stream().map(Order::getId).toList())
+              .stream()
+              .collect(Collectors.groupingBy(OrderLine::getOrderId));
+      result =
+          orders.stream()
+              .map(
+                  order ->
+                      convertToOrderDTO(order, linesByOrder.getOrDefault(order.getId(), List.of())))
+              .collect(Collectors.toList());
+    }
+    if (!includeArchived) {
+      return result;
+    }
 
-    return orders.stream().map(this::convertToOrderDTO).collect(Collectors.toList());
+    List<OrderDTO> archived = orderArchiveService.getArchivedOrders(userId);
+    if (archived.isEmpty()) {
+      return result;
+    }
+    List<OrderDTO> merged = new ArrayList<>(result);
+    merged.addAll(archived);
+    merged.sort(Comparator.comparing(OrderDTO::getCreateTime).reversed());
+    return merged;
   }
 
+  /**
+   * 支付订单
+   *
+   * <p>不开启事务：订单查询各自使用短事务，调用支付宝接口期间不占用数据库连接。生成的表单按订单缓存到订单过期为止，重复点击支付不再重复签名。
+   * 携带幂等键的重试直接返回首次的支付信息，即使订单状态已经变化。
+   */
   @Override
-  @Transactional
-  public PaymentDTO payOrder(Long userId, Long orderId) {
+  public PaymentDTO payOrder(Long userId, Long orderId, String idempotencyKey) {
     log.info("支付订单：userId={}, orderId={}", userId, orderId);
+    String key = checkIdempotencyKey(idempotencyKey);
+    String resultKey = key == null ? null : resultKey(userId, key);
+    if (resultKey != null) {
+      PaymentDTO existing = paymentResults.get(resultKey);
+      if (existing != null) {
+        if (!existing.getOrderId().equals(orderId)) {
+          throw new BusinessException(
+              BusinessErrorCode.ORDER_IDEMPOTENCY_KEY_INVALID,
+              String.format(ExceptionMessages.ORDER_IDEMPOTENCY_KEY_REUSED, existing.getOrderId()));
+        }
+        log.info("重复的支付请求，返回首次的支付信息：orderId={}", orderId);
+        return existing;
+      }
+    }
+
     Order order = findOrderByUserAndId(userId, orderId);
 
     // 检查订单状态
@@ -183,21 +345,37 @@ public class OrderServiceImpl implements OrderService {
               ExceptionMessages.ORDER_STATUS_ERROR, order.getStatus(), OrderStatus.PENDING));
     }
 
-    try {
-      // 创建支付宝支付表单
-      String paymentForm = createAlipayForm(order);
+    // 已到期但尚未被超时任务关闭的订单不再生成支付表单
+    long remainingMillis = expiryMillis(order.getCreatedAt()) - clock.millis();
+    if (remainingMillis <= 0) {
+      log.warn("订单已过期：orderId={}", orderId);
+      throw new BusinessException(
+          BusinessErrorCode.ORDER_EXPIRED, String.format(ExceptionMessages.ORDER_EXPIRED, orderId));
+    }
 
+    String paymentForm = paymentForms.get(orderId);
+    if (paymentForm == null) {
+      if (order.getOutTradeNo() == null) {
+        order.setOutTradeNo(assignOutTradeNo(orderId));
+      }
+      paymentForm = createAlipayFormWithinBulkhead(order);
+      paymentForms.put(orderId, paymentForm, Duration.ofMillis(remainingMillis));
       log.info("生成支付表单成功：orderId={}", orderId);
-      return PaymentDTO.builder()
-          .paymentForm(paymentForm)
-          .orderId(orderId)
-          .totalAmount(order.getTotalAmount())
-          .paymentMethod(order.getPaymentMethod())
-          .build();
-    } catch (AlipayApiException e) {
-      log.error("生成支付表单失败：orderId={}, error={}", orderId, e.getMessage(), e);
-      throw new BusinessException(BusinessErrorCode.ORDER_PAY_FAILED, "创建支付表单失败：" + e.getMessage());
+    } else {
+      log.info("使用已缓存的支付表单：orderId={}", orderId);
     }
+
+    PaymentDTO result =
+        PaymentDTO.builder()
+            .paymentForm(paymentForm)
+            .orderId(orderId)
+            .totalAmount(order.getTotalAmount())
+            .paymentMethod(order.getPaymentMethod())
+            .build();
+    if (resultKey != null) {
+      paymentResults.put(resultKey, result, Duration.ofMillis(remainingMillis));
+    }
+    return result;
   }
 
   @Override
@@ -209,46 +387,39 @@ public class OrderServiceImpl implements OrderService {
         notifyDTO.getStatus(),
         notifyDTO.getTradeNo());
 
-    Order order =
-        orderRepository
-            .findById(notifyDTO.getOrderId())
-            .orElseThrow(
-                () -> {
-                  log.warn("订单不存在：orderId={}", notifyDTO.getOrderId());
-                  return new ResourceNotFoundException(
-                      String.format(ExceptionMessages.ORDER_NOT_FOUND, notifyDTO.getOrderId()));
-                });
-
-    // 检查订单状态
-    if (order.getStatus() != OrderStatus.PENDING) {
-      log.warn("订单状态错误：orderId={}, status={}", notifyDTO.getOrderId(), order.getStatus());
-      throw new BusinessException(
-          BusinessErrorCode.ORDER_STATUS_ERROR,
-          String.format(
-              ExceptionMessages.ORDER_STATUS_ERROR, order.getStatus(), OrderStatus.PENDING));
-    }
-
-    // 验证支付金额
-    if (order.getTotalAmount().compareTo(notifyDTO.getTotalAmount()) != 0) {
-      log.warn(
-          "支付金额不匹配：orderId={}, 订单金额={}, 支付金额={}",
-          notifyDTO.getOrderId(),
-          order.getTotalAmount(),
-          notifyDTO.getTotalAmount());
-      throw new BusinessException(BusinessErrorCode.ORDER_PAYMENT_AMOUNT_ERROR, "支付金额与订单金额不匹配");
+    // 条件更新决定并发的支付通知、取消与超时中谁生效，成功路径不再先查询订单
+    LocalDateTime now = LocalDateTime.now(clock);
+    int updated =
+        orderRepository.markPaid(
+            notifyDTO.getOrderId(),
+            notifyDTO.getTotalAmount(),
+            notifyDTO.getTradeNo(),
+            notifyDTO.getPaymentTime(),
+            now);
+    if (updated == 0) {
+      Order order = orderRepository.findById(notifyDTO.getOrderId()).orElse(null);
+      // 同一笔交易的重复通知直接确认，避免支付宝持续重试
+      if (order != null
+          && order.getStatus() == OrderStatus.PAID
+          && notifyDTO.getTradeNo().equals(order.getTradeNo())) {
+        log.info("订单已支付，忽略重复通知：orderId={}, tradeNo={}", order.getId(), order.getTradeNo());
+        return notifyDTO;
+      }
+      throw paymentRejected(order, notifyDTO);
     }
-
-    // 更新订单状态
-    order.setStatus(OrderStatus.PAID);
-    order.setTradeNo(notifyDTO.getTradeNo());
-    order.setPaymentTime(notifyDTO.getPaymentTime());
-    order.setUpdatedAt(LocalDateTime.now());
-    orderRepository.save(order);
+    cancelExpiry(notifyDTO.getOrderId());
 
     // 减少商品库存
-    reduceStock(order);
-
-    log.info("订单支付成功：orderId={}, tradeNo={}", order.getId(), notifyDTO.getTradeNo());
+    Map<Long, Integer> quantities = reduceStock(List.of(notifyDTO.getOrderId()));
+    eventPublisher.publishEvent(
+        new OrderPaidEvent(
+            notifyDTO.getOrderId(),
+            notifyDTO.getTradeNo(),
+            notifyDTO.getTotalAmount(),
+            Map.copyOf(quantities),
+            now));
+
+    log.info("订单支付成功：orderId={}, tradeNo={}", notifyDTO.getOrderId(), notifyDTO.getTradeNo());
     return notifyDTO;
   }
 
@@ -256,58 +427,201 @@ public class OrderServiceImpl implements OrderService {
   @Transactional
   public void cancelOrder(Long userId, Long orderId) {
     log.info("取消订单：userId={}, orderId={}", userId, orderId);
-    Order order = findOrderByUserAndId(userId, orderId);
 
-    // 检查订单状态
-    if (order.getStatus() != OrderStatus.PENDING) {
+    // 条件更新订单状态，仅在失败时查询订单以区分原因
+    LocalDateTime now = LocalDateTime.now(clock);
+    int updated =
+        orderRepository.updateStatusByIdAndUserId(
+            orderId, userId, OrderStatus.PENDING, OrderStatus.CANCELLED, now);
+    if (updated == 0) {
+      Order order = findOrderByUserAndId(userId, orderId);
       log.warn("订单状态错误，不可取消：orderId={}, status={}", orderId, order.getStatus());
       throw new BusinessException(BusinessErrorCode.ORDER_CANNOT_CANCEL, "非待支付状态的订单无法取消");
     }
-
-    // 更新订单状态
-    order.setStatus(OrderStatus.CANCELLED);
-    order.setUpdatedAt(LocalDateTime.now());
-    orderRepository.save(order);
+    cancelExpiry(orderId);
 
     // 解锁库存
-    unlockStock(order);
+    unlockStock(List.of(orderId));
+    eventPublisher.publishEvent(new OrderCancelledEvent(orderId, userId, now));
 
     log.info("订单已取消：orderId={}", orderId);
   }
 
   @Override
-  @Scheduled(fixedRate = 60000) // 每分钟执行一次
   @Transactional
-  public void handleExpiredOrders() {
-    log.info("处理过期订单");
+  public int handleExpiredOrders(Collection<Long> orderIds) {
+    log.info("处理过期订单：count={}", orderIds.size());
+
+    // 锁定仍待支付的订单，到期前已支付或取消的订单不会被选中
+    long now = clock.millis();
+    List<Long> expiredOrderIds = new ArrayList<>();
+    for (OrderRepository.OrderCreatedAt order :
+        orderRepository.findCreatedAtForUpdateByIdInAndStatus(orderIds, OrderStatus.PENDING)) {
+      // 时钟回拨等原因导致提前到期时重新登记
+      long expiryMillis = expiryMillis(order.getCreatedAt());
+      if (expiryMillis > now) {
+        orderExpiryWheel.schedule(order.getId(), expiryMillis);
+      } else {
+        expiredOrderIds.add(order.getId());
+      }
+    }
+    if (expiredOrderIds.isEmpty()) {
+      log.info("没有过期订单需要处理");
+      return 0;
+    }
 
-    // 查找过期的待支付订单
-    LocalDateTime expiredTime = LocalDateTime.now(clock).minusMinutes(ORDER_EXPIRATION_MINUTES);
-    List<Order> expiredOrders =
-        orderRepository.findByStatusAndCreatedAtBefore(OrderStatus.PENDING, expiredTime);
+    // 一条条件更新批量标记超时
+    LocalDateTime closedAt = LocalDateTime.now(clock);
+    int updated =
+        orderRepository.updateStatusByIdIn(
+            expiredOrderIds, OrderStatus.PENDING, OrderStatus.TIMEOUT, closedAt);
 
-    if (expiredOrders.isEmpty()) {
-      log.info("没有过期订单需要处理");
-      return;
+    // 按商品汇总后每个商品只解锁一次
+    int products = unlockStock(expiredOrderIds);
+    eventPublisher.publishEvent(
+        new OrderTimedOutEvent(List.copyOf(expiredOrderIds), closedAt));
+
+    log.info("过期订单处理完成：orders={}, products={}", updated, products);
+    return updated;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public int scheduleOverdueOrders(Duration grace, int limit) {
+    LocalDateTime createdBefore =
+        LocalDateTime.now(clock)
+            .minusMinutes(OrderConstants.ORDER_EXPIRATION_MINUTES)
+            .minus(grace);
+    List<Long> orderIds =
+        orderRepository.findIdsByStatusAndCreatedAtBefore(
+            OrderStatus.PENDING, createdBefore, PageRequest.of(0, limit));
+    long now = clock.millis();
+    orderIds.forEach(orderId -> orderExpiryWheel.schedule(orderId, now));
+    if (!orderIds.isEmpty()) {
+      log.warn("接管遗漏的过期订单：count={}", orderIds.size());
     }
+    return orderIds.size();
+  }
 
-    log.info("发现 {} 个过期订单", expiredOrders.size());
+  /**
+   * 订单离开待支付状态：从时间轮移除并丢弃缓存的支付表单，事务提交后才执行，回滚时订单仍按原时间过期
+   *
+   * @param orderId 订单 ID
+   */
+  private void cancelExpiry(Long orderId) {
+    afterCommit(
+        () -> {
+          orderExpiryWheel.cancel(orderId);
+          paymentForms.remove(orderId);
+        });
+  }
 
-    for (Order order : expiredOrders) {
-      // 更新订单状态
-      order.setStatus(OrderStatus.TIMEOUT);
-      order.setUpdatedAt(LocalDateTime.now());
+  /**
+   * 在当前事务提交后执行，没有事务时立即执行
+   *
+   * @param action 待执行的操作
+   */
+  private void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
 
-      // 解锁库存
-      unlockStock(order);
+  /**
+   * 校验幂等键
+   *
+   * @param idempotencyKey 请求携带的幂等键
+   * @return 去除首尾空白后的幂等键，未携带时返回 null
+   */
+  private String checkIdempotencyKey(String idempotencyKey) {
+    if (!StringUtils.hasText(idempotencyKey)) {
+      return null;
+    }
+    String key = idempotencyKey.strip();
+    if (key.length() > OrderConstants.IDEMPOTENCY_KEY_MAX_LENGTH) {
+      throw new BusinessException(
+          BusinessErrorCode.ORDER_IDEMPOTENCY_KEY_INVALID,
+          String.format(
+              ExceptionMessages.ORDER_IDEMPOTENCY_KEY_TOO_LONG,
+              OrderConstants.IDEMPOTENCY_KEY_MAX_LENGTH));
+    }
+    return key;
+  }
+
+  private String resultKey(Long userId, String idempotencyKey) {
+    return userId + ":" + idempotencyKey;
+  }
 
-      log.info("订单已标记为超时：orderId={}", order.getId());
+  /**
+   * 查找幂等键对应的已创建订单，先查缓存，未命中时查订单表（缓存过期或其他实例创建的订单）
+   *
+   * @param user 用户
+   * @param resultKey 缓存键
+   * @param idempotencyKey 幂等键
+   * @return 订单，不存在时返回 null
+   */
+  private OrderDTO findCheckoutResult(User user, String resultKey, String idempotencyKey) {
+    OrderDTO cached = checkoutResults.get(resultKey);
+    if (cached != null) {
+      return cached;
     }
+    return orderRepository
+        .findByUserAndIdempotencyKey(user, idempotencyKey)
+        .map(
+            order -> {
+              OrderDTO result =
+                  convertToOrderDTO(
+                      order, orderLineRepository.findByOrderIdOrderById(order.getId()));
+              checkoutResults.put(resultKey, result);
+              return result;
+            })
+        .orElse(null);
+  }
 
-    // 批量保存订单状态
-    orderRepository.saveAll(expiredOrders);
+  /**
+   * 保存新订单，相同幂等键的并发请求由唯一约束拦下，当前事务回滚并释放已锁定的库存
+   *
+   * <p>主键在插入前生成，插入语句默认推迟到提交时批量执行；携带幂等键时立即写入，以便在此处识别唯一约束冲突。
+   *
+   * @param order 订单
+   * @return 保存后的订单
+   */
+  private Order saveOrder(Order order) {
+    if (order.getIdempotencyKey() == null) {
+      return orderRepository.save(order);
+    }
+    try {
+      return orderRepository.saveAndFlush(order);
+    } catch (DataIntegrityViolationException e) {
+      log.warn(
+          "相同幂等键的结算请求并发提交：userId={}, idempotencyKey={}",
+          order.getUser().getId(),
+          order.getIdempotencyKey());
+      throw new BusinessException(
+          BusinessErrorCode.ORDER_DUPLICATE_REQUEST, ExceptionMessages.ORDER_DUPLICATE_REQUEST);
+    }
+  }
 
-    log.info("过期订单处理完成");
+  /**
+   * 根据创建时间计算订单过期时间
+   *
+   * @param createdAt 订单创建时间
+   * @return 过期时间（毫秒时间戳）
+   */
+  private long expiryMillis(LocalDateTime createdAt) {
+    return createdAt
+        .plusMinutes(OrderConstants.ORDER_EXPIRATION_MINUTES)
+        .atZone(clock.getZone())
+        .toInstant()
+        .toEpochMilli();
   }
 
   /**
@@ -322,6 +636,52 @@ public class OrderServiceImpl implements OrderService {
         .reduce(BigDecimal.ZERO, BigDecimal::add);
   }
 
+  /**
+   * 为订单分配商户订单号，并发分配时以先写入者为准
+   *
+   * @param orderId 订单 ID
+   * @return 商户订单号
+   */
+  private String assignOutTradeNo(Long orderId) {
+    // 格式仍为「序号_订单ID」，回调据此解析订单 ID；序号按时间递增且带节点号，多实例同时分配或数据库重置后都不会重复
+    String outTradeNo = idGenerator.nextId() + "_" + orderId;
+    if (orderRepository.assignOutTradeNo(orderId, outTradeNo) == 0) {
+      outTradeNo =
+          orderRepository.findById(orderId).map(Order::getOutTradeNo).orElse(outTradeNo);
+    }
+    return outTradeNo;
+  }
+
+  /**
+   * 在舱壁内创建支付宝支付表单，等待超时后拒绝请求
+   *
+   * @param order 订单对象
+   * @return 支付表单字符串
+   */
+  private String createAlipayFormWithinBulkhead(Order order) {
+    boolean acquired;
+    try {
+      acquired = paymentBulkhead.tryAcquire(paymentWaitMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      log.warn("支付请求繁忙：orderId={}", order.getId());
+      throw new BusinessException(
+          BusinessErrorCode.ORDER_PAY_BUSY, ExceptionMessages.ORDER_PAY_BUSY);
+    }
+
+    try {
+      return createAlipayForm(order);
+    } catch (AlipayApiException e) {
+      log.error("生成支付表单失败：orderId={}, error={}", order.getId(), e.getMessage(), e);
+      throw new BusinessException(BusinessErrorCode.ORDER_PAY_FAILED, "创建支付表单失败：" + e.getMessage());
+    } finally {
+      paymentBulkhead.release();
+    }
+  }
+
   /**
    * 创建支付宝支付表单
    *
@@ -336,8 +696,7 @@ public class OrderServiceImpl implements OrderService {
 
     // 构建请求参数
     String subject = "番茄书店订单-" + order.getId();
-    // 使用时间戳 + 订单 ID 确保商户订单号唯一性，避免数据库重置后的重复问题
-    String outTradeNo = System.currentTimeMillis() + "_" + order.getId();
+    String outTradeNo = order.getOutTradeNo();
     String totalAmount = order.getTotalAmount().toString();
 
     StringBuilder builder = new StringBuilder();
@@ -369,124 +728,174 @@ public class OrderServiceImpl implements OrderService {
   }
 
   /**
-   * 锁定商品库存
+   * 锁定购物车商品库存
+   *
+   * <p>每个商品只执行一条条件更新（可售库存充足时才扣减），并按商品 ID 升序执行，使并发的多商品订单以相同顺序获取行锁，避免死锁。
+   * 条件更新失败的商品一律视为库存不足；首个商品锁定失败后，剩余商品只做只读检查，以便一次性报告所有库存不足的商品。
+   *
+   * @param cartItems 购物车商品列表
+   * @throws StockInsufficientException 当任一商品库存不足或库存记录不存在时抛出
+   */
+  private void lockStock(List<Cart> cartItems) {
+    Map<Long, Integer> quantities = new TreeMap<>();
+    Map<Long, Product> products = new HashMap<>();
+    for (Cart cart : cartItems) {
+      Product product = cart.getProduct();
+      quantities.merge(product.getId(), cart.getQuantity(), Integer::sum);
+      products.put(product.getId(), product);
+    }
+
+    List<StockShortageDTO> shortages = new ArrayList<>();
+    for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+      Long productId = entry.getKey();
+      Integer quantity = entry.getValue();
+
+      boolean attempted = shortages.isEmpty();
+      if (attempted && stockService.lockStock(productId, quantity)) {
+        log.info("商品库存已锁定：productId={}, quantity={}", productId, quantity);
+        continue;
+      }
+
+      // 仅在失败路径上读取库存。条件更新失败即视为库存不足，读到的库存只用于说明原因，不能据此放行；
+      // 未尝试锁定的后续商品才按读到的库存判断是否一并报告
+      Integer available = findAvailableStock(productId);
+      if (!attempted && available != null && available >= quantity) {
+        continue;
+      }
+
+      String title = products.get(productId).getTitle();
+      if (available == null) {
+        log.warn("商品库存记录不存在：productId={}", productId);
+      } else {
+        log.warn(
+            "商品库存不足：productId={}, title={}, 库存={}, 需要={}", productId, title, available, quantity);
+      }
+      shortages.add(
+          StockShortageDTO.builder()
+              .productId(productId)
+              .title(title)
+              .available(available)
+              .requested(quantity)
+              .build());
+    }
+
+    if (shortages.isEmpty()) {
+      return;
+    }
+
+    String message =
+        shortages.stream()
+            .map(
+                shortage ->
+                    shortage.getAvailable() == null
+                        ? String.format(
+                            ExceptionMessages.PRODUCT_STOCK_NOT_FOUND, shortage.getProductId())
+                        : String.format(
+                            ExceptionMessages.PRODUCT_STOCK_INSUFFICIENT,
+                            shortage.getTitle(),
+                            shortage.getAvailable(),
+                            shortage.getRequested()))
+            .collect(Collectors.joining("；"));
+    BusinessErrorCode errorCode =
+        shortages.stream().allMatch(shortage -> shortage.getAvailable() == null)
+            ? BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND
+            : BusinessErrorCode.PRODUCT_STOCK_INSUFFICIENT;
+    throw new StockInsufficientException(errorCode, message, shortages);
+  }
+
+  /**
+   * 查询商品当前可售库存
    *
    * @param productId 商品 ID
-   * @param quantity 锁定数量
+   * @return 可售库存量，库存记录不存在时返回 null
    */
-  private void lockStock(Long productId, Integer quantity) {
-    Stockpile stockpile =
-        stockpileRepository
-            .findByProductId(productId)
-            .orElseThrow(
-                () -> {
-                  log.warn("商品库存记录不存在：productId={}", productId);
-                  return new BusinessException(
-                      BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND,
-                      String.format(ExceptionMessages.PRODUCT_STOCK_NOT_FOUND, productId));
-                });
-
-    // 检查可用库存
-    if (stockpile.getAmount() < quantity) {
-      Product product = stockpile.getProduct();
-      log.warn(
-          "商品库存不足：productId={}, title={}, 库存={}, 需要={}",
-          productId,
-          product.getTitle(),
-          stockpile.getAmount(),
-          quantity);
-      throw new BusinessException(
-          BusinessErrorCode.PRODUCT_STOCK_INSUFFICIENT,
+  private Integer findAvailableStock(Long productId) {
+    try {
+      return stockService.getStockpile(productId).getAmount();
+    } catch (BusinessException e) {
+      return null;
+    }
+  }
+
+  /**
+   * 判断支付通知被拒绝的原因
+   *
+   * @param order 订单对象，不存在时为 null
+   * @param notifyDTO 支付通知数据
+   * @return 对应的异常
+   */
+  private RuntimeException paymentRejected(Order order, PaymentNotifyDTO notifyDTO) {
+    if (order == null) {
+      log.warn("订单不存在：orderId={}", notifyDTO.getOrderId());
+      return new ResourceNotFoundException(
+          String.format(ExceptionMessages.ORDER_NOT_FOUND, notifyDTO.getOrderId()));
+    }
+
+    // 检查订单状态
+    if (order.getStatus() != OrderStatus.PENDING) {
+      log.warn("订单状态错误：orderId={}, status={}", notifyDTO.getOrderId(), order.getStatus());
+      return new BusinessException(
+          BusinessErrorCode.ORDER_STATUS_ERROR,
           String.format(
-              "商品「%s」库存不足，当前库存：%d，需要数量：%d", product.getTitle(), stockpile.getAmount(), quantity));
+              ExceptionMessages.ORDER_STATUS_ERROR, order.getStatus(), OrderStatus.PENDING));
     }
 
-    // 锁定库存
-    stockpile.setFrozen(stockpile.getFrozen() + quantity);
-    stockpile.setAmount(stockpile.getAmount() - quantity);
-    stockpileRepository.save(stockpile);
+    log.warn(
+        "支付金额不匹配：orderId={}, 订单金额={}, 支付金额={}",
+        notifyDTO.getOrderId(),
+        order.getTotalAmount(),
+        notifyDTO.getTotalAmount());
+    return new BusinessException(BusinessErrorCode.ORDER_PAYMENT_AMOUNT_ERROR, "支付金额与订单金额不匹配");
+  }
 
-    log.info(
-        "商品库存已锁定：productId={}, quantity={}, 剩余库存={}, 冻结库存={}",
-        productId,
-        quantity,
-        stockpile.getAmount(),
-        stockpile.getFrozen());
+  /**
+   * 解锁一批订单的商品库存
+   *
+   * <p>按商品汇总购买数量后每个商品只更新一次，并按商品 ID 升序执行，与锁定库存的顺序一致。
+   *
+   * @param orderIds 订单 ID 集合
+   * @return 解锁的商品数
+   */
+  private int unlockStock(Collection<Long> orderIds) {
+    Map<Long, Integer> quantities = sumQuantityByProduct(orderIds);
+    quantities.forEach(
+        (productId, quantity) -> {
+          stockService.unlockStock(productId, quantity);
+          log.info("商品库存已解锁：productId={}, quantity={}", productId, quantity);
+        });
+    return quantities.size();
   }
 
   /**
-   * 解锁商品库存
+   * 减少一批订单的商品库存（支付成功后）
    *
-   * @param order 订单对象
+   * @param orderIds 订单 ID 集合
+   * @return 商品 ID 到减少数量的映射
    */
-  private void unlockStock(Order order) {
-    List<CartsOrdersRelation> relations = relationRepository.findByOrder(order);
-
-    for (CartsOrdersRelation relation : relations) {
-      Cart cart = relation.getCart();
-      Long productId = cart.getProduct().getId();
-      Integer quantity = relation.getQuantity();
-
-      Stockpile stockpile =
-          stockpileRepository
-              .findByProductId(productId)
-              .orElseThrow(
-                  () -> {
-                    log.warn("商品库存记录不存在：productId={}", productId);
-                    return new BusinessException(
-                        BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND,
-                        String.format(ExceptionMessages.PRODUCT_STOCK_NOT_FOUND, productId));
-                  });
-
-      // 解锁库存
-      stockpile.setFrozen(Math.max(0, stockpile.getFrozen() - quantity));
-      stockpile.setAmount(stockpile.getAmount() + quantity);
-      stockpileRepository.save(stockpile);
-
-      log.info(
-          "商品库存已解锁：productId={}, quantity={}, 剩余库存={}, 冻结库存={}",
-          productId,
-          quantity,
-          stockpile.getAmount(),
-          stockpile.getFrozen());
-    }
+  private Map<Long, Integer> reduceStock(Collection<Long> orderIds) {
+    Map<Long, Integer> quantities = sumQuantityByProduct(orderIds);
+    quantities.forEach(
+        (productId, quantity) -> {
+          // 减少冻结的库存
+          stockService.reduceFrozenStock(productId, quantity);
+          log.info("商品库存已减少：productId={}, quantity={}", productId, quantity);
+        });
+    return quantities;
   }
 
   /**
-   * 减少商品库存（支付成功后）
+   * 按商品汇总一批订单的购买数量
    *
-   * @param order 订单对象
+   * @param orderIds 订单 ID 集合
+   * @return 商品 ID（升序）到购买数量的映射
    */
-  private void reduceStock(Order order) {
-    List<CartsOrdersRelation> relations = relationRepository.findByOrder(order);
-
-    for (CartsOrdersRelation relation : relations) {
-      Cart cart = relation.getCart();
-      Long productId = cart.getProduct().getId();
-      Integer quantity = relation.getQuantity();
-
-      Stockpile stockpile =
-          stockpileRepository
-              .findByProductId(productId)
-              .orElseThrow(
-                  () -> {
-                    log.warn("商品库存记录不存在：productId={}", productId);
-                    return new BusinessException(
-                        BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND,
-                        String.format(ExceptionMessages.PRODUCT_STOCK_NOT_FOUND, productId));
-                  });
-
-      // 减少冻结的库存
-      stockpile.setFrozen(Math.max(0, stockpile.getFrozen() - quantity));
-      stockpileRepository.save(stockpile);
-
-      log.info(
-          "商品库存已减少：productId={}, quantity={}, 剩余库存={}, 冻结库存={}",
-          productId,
-          quantity,
-          stockpile.getAmount(),
-          stockpile.getFrozen());
+  private Map<Long, Integer> sumQuantityByProduct(Collection<Long> orderIds) {
+    Map<Long, Integer> quantities = new TreeMap<>();
+    for (OrderLineRepository.ProductQuantity item :
+        orderLineRepository.sumQuantityByProductForOrders(orderIds)) {
+      quantities.merge(item.getProductId(), item.getQuantity().intValue(), Integer::sum);
     }
+    return quantities;
   }
 
   /**
@@ -524,28 +933,25 @@ public class OrderServiceImpl implements OrderService {
   }
 
   /**
-   * 转换为 OrderDTO
+   * 转换为 OrderDTO，订单项取自订单行快照
    *
    * @param order 订单对象
+   * @param orderLines 订单行快照
    * @return OrderDTO 对象
    */
-  private OrderDTO convertToOrderDTO(Order order) {
+  private OrderDTO convertToOrderDTO(Order order, List<OrderLine> orderLines) {
     List<CartDTO> orderItems =
-        order.getOrderItems().stream()
+        orderLines.stream()
             .map(
-                relation -> {
-                  Cart cart = relation.getCart();
-                  Product product = cart.getProduct();
-                  return CartDTO.builder()
-                      .cartItemId(cart.getId())
-                      .productId(product.getId())
-                      .title(product.getTitle())
-                      .price(product.getPrice())
-                      .description(product.getDescription())
-                      .cover(product.getCover())
-                      .quantity(relation.getQuantity())
-                      .build();
-                })
+                line ->
+                    CartDTO.builder()
+                        .cartItemId(line.getCartItemId())
+                        .productId(line.getProductId())
+                        .title(line.getTitle())
+                        .price(line.getPrice())
+                        .cover(line.getCover())
+                        .quantity(line.getQuantity())
+                        .build())
             .collect(Collectors.toList());
 
     return OrderDTO.builder()
@@ -0,0 +1,89 @@
+package com.tomato.bookstore.service.impl;
+
+import com.tomato.bookstore.event.OutboxSink;
+import com.tomato.bookstore.model.OutboxMessage;
+import com.tomato.bookstore.repository.OutboxMessageRepository;
+import com.tomato.bookstore.service.OutboxRelayService;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * 发件箱转发服务实现
+ *
+ * <p>先投递再标记，标记前宕机的批次会在下次运行时重新投递（至少一次），下游以消息 ID 去重。
+ * 投递失败时整批保留，下次运行从同一位置重试。
+ *
+ * <p>每批按 ID 升序读取未投递消息，只是为了分页稳定，并不代表提交顺序；不使用“已投递的最大 ID”作为游标，
+ * 否则晚提交的较小 ID 会被跳过。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelayServiceImpl implements OutboxRelayService {
+  private final Clock clock;
+  private final OutboxMessageRepository outboxMessageRepository;
+  private final OutboxSink outboxSink;
+
+  @Value("${app.outbox.batch-size:500}")
+  private int batchSize;
+
+  @Value("${app.outbox.retention-hours:24}")
+  private int retentionHours;
+
+  @Override
+  public int relay(BooleanSupplier leaseHeld) {
+    int relayed = 0;
+    while (leaseHeld.getAsBoolean()) {
+      List<OutboxMessage> batch =
+          outboxMessageRepository.findByPublishedAtIsNullOrderByIdAsc(
+              PageRequest.of(0, batchSize));
+      if (batch.isEmpty()) {
+        break;
+      }
+
+      outboxSink.publish(batch);
+      outboxMessageRepository.markPublished(
+          batch.stream().map(OutboxMessage::getId).toList(), LocalDateTime.now(clock));
+      relayed += batch.size();
+      if (batch.size() < batchSize) {
+        break;
+      }
+    }
+
+    if (relayed > 0) {
+      log.info("发件箱消息已投递：count={}", relayed);
+    }
+    return relayed;
+  }
+
+  @Override
+  public int prune(BooleanSupplier leaseHeld) {
+    LocalDateTime cutoff = LocalDateTime.now(clock).minusHours(retentionHours);
+    int pruned = 0;
+    while (leaseHeld.getAsBoolean()) {
+      List<Long> ids =
+          outboxMessageRepository.findIdsPublishedBefore(cutoff, PageRequest.of(0, batchSize));
+      if (ids.isEmpty()) {
+        break;
+      }
+
+      outboxMessageRepository.deleteAllByIdInBatch(ids);
+      pruned += ids.size();
+      if (ids.size() < batchSize) {
+        break;
+      }
+    }
+
+    if (pruned > 0) {
+      log.info("已清理投递过的发件箱消息：count={}", pruned);
+    }
+    return pruned;
+  }
+}
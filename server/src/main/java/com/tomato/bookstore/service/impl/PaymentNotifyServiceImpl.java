@@ -0,0 +1,156 @@
+package com.tomato.bookstore.service.impl;
+
+import com.tomato.bookstore.constant.PaymentNotifyStatus;
+import com.tomato.bookstore.dto.PaymentNotifyDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.exception.ResourceNotFoundException;
+import com.tomato.bookstore.model.PaymentNotification;
+import com.tomato.bookstore.repository.PaymentNotificationRepository;
+import com.tomato.bookstore.service.OrderService;
+import com.tomato.bookstore.service.PaymentNotifyService;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * 支付通知服务实现
+ *
+ * <p>每条通知在独立事务中应用到订单，单条失败不影响同批其他通知；处理结果在批末统一保存。业务校验失败（金额不符、订单状态错误等）
+ * 记为失败不再重试，数据库异常等临时错误保留在收件箱中，超过最大重试次数后记为失败。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentNotifyServiceImpl implements PaymentNotifyService {
+  /** 表示买家已付款的交易状态 */
+  private static final Set<String> PAID_TRADE_STATUSES = Set.of("TRADE_SUCCESS", "TRADE_FINISHED");
+
+  /** 失败原因的最大保存长度 */
+  private static final int MAX_ERROR_LENGTH = 500;
+
+  private final Clock clock;
+  private final PaymentNotificationRepository notificationRepository;
+  private final OrderService orderService;
+
+  @Value("${app.payment.notify-batch-size:100}")
+  private int batchSize;
+
+  @Value("${app.payment.notify-max-attempts:5}")
+  private int maxAttempts;
+
+  @Override
+  public boolean receive(PaymentNotifyDTO notifyDTO) {
+    // 按交易号与交易状态去重，先到的非支付状态通知不能挡住之后的支付成功通知
+    if (notificationRepository.existsByTradeNoAndTradeStatus(
+        notifyDTO.getTradeNo(), notifyDTO.getStatus())) {
+      log.info("重复的支付通知：tradeNo={}, status={}", notifyDTO.getTradeNo(), notifyDTO.getStatus());
+      return false;
+    }
+
+    PaymentNotification notification =
+        PaymentNotification.builder()
+            .tradeNo(notifyDTO.getTradeNo())
+            .orderId(notifyDTO.getOrderId())
+            .tradeStatus(notifyDTO.getStatus())
+            .totalAmount(notifyDTO.getTotalAmount())
+            .paymentTime(notifyDTO.getPaymentTime())
+            .receivedAt(LocalDateTime.now(clock))
+            .build();
+    try {
+      notificationRepository.save(notification);
+    } catch (DataIntegrityViolationException e) {
+      // 并发重试的通知由唯一约束去重
+      log.info("重复的支付通知：tradeNo={}, status={}", notifyDTO.getTradeNo(), notifyDTO.getStatus());
+      return false;
+    }
+
+    log.info(
+        "支付通知已记录：orderId={}, tradeNo={}, status={}",
+        notifyDTO.getOrderId(),
+        notifyDTO.getTradeNo(),
+        notifyDTO.getStatus());
+    return true;
+  }
+
+  @Override
+  public int processPending() {
+    List<PaymentNotification> notifications =
+        notificationRepository.findByStatusOrderByIdAsc(
+            PaymentNotifyStatus.RECEIVED, PageRequest.of(0, batchSize));
+    if (notifications.isEmpty()) {
+      return 0;
+    }
+
+    for (PaymentNotification notification : notifications) {
+      process(notification);
+    }
+    notificationRepository.saveAll(notifications);
+
+    log.info("支付通知批量处理完成：count={}", notifications.size());
+    return notifications.size();
+  }
+
+  /**
+   * 应用单条支付通知并记录处理结果
+   *
+   * @param notification 支付通知
+   */
+  private void process(PaymentNotification notification) {
+    notification.setAttempts(notification.getAttempts() + 1);
+
+    if (!PAID_TRADE_STATUSES.contains(notification.getTradeStatus())) {
+      log.info(
+          "忽略非支付成功的通知：tradeNo={}, status={}",
+          notification.getTradeNo(),
+          notification.getTradeStatus());
+      complete(notification, PaymentNotifyStatus.IGNORED, null);
+      return;
+    }
+
+    try {
+      orderService.handlePaymentNotify(
+          PaymentNotifyDTO.builder()
+              .orderId(notification.getOrderId())
+              .status(notification.getTradeStatus())
+              .tradeNo(notification.getTradeNo())
+              .totalAmount(notification.getTotalAmount())
+              .paymentTime(notification.getPaymentTime())
+              .build());
+      complete(notification, PaymentNotifyStatus.PROCESSED, null);
+    } catch (BusinessException | ResourceNotFoundException e) {
+      log.warn("支付通知处理失败：tradeNo={}, 原因：{}", notification.getTradeNo(), e.getMessage());
+      complete(notification, PaymentNotifyStatus.FAILED, e.getMessage());
+    } catch (RuntimeException e) {
+      log.error(
+          "支付通知处理异常：tradeNo={}, attempts={}",
+          notification.getTradeNo(),
+          notification.getAttempts(),
+          e);
+      if (notification.getAttempts() >= maxAttempts) {
+        complete(notification, PaymentNotifyStatus.FAILED, e.getMessage());
+      } else {
+        notification.setLastError(truncate(e.getMessage()));
+      }
+    }
+  }
+
+  private void complete(
+      PaymentNotification notification, PaymentNotifyStatus status, String error) {
+    notification.setStatus(status);
+    notification.setLastError(truncate(error));
+    notification.setProcessedAt(LocalDateTime.now(clock));
+  }
+
+  private static String truncate(String error) {
+    return error == null || error.length() <= MAX_ERROR_LENGTH
+        ? error
+        : error.substring(0, MAX_ERROR_LENGTH);
+  }
+}
@@ -0,0 +1,164 @@
+package com.tomato.bookstore.service.impl;
+
+import com.alipay.api.AlipayApiException;
+import com.alipay.api.AlipayClient;
+import com.alipay.api.request.AlipayTradeQueryRequest;
+import com.alipay.api.response.AlipayTradeQueryResponse;
+import com.tomato.bookstore.constant.OrderConstants;
+import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.dto.PaymentNotifyDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.exception.ResourceNotFoundException;
+import com.tomato.bookstore.repository.OrderRepository;
+import com.tomato.bookstore.service.OrderService;
+import com.tomato.bookstore.service.PaymentReconcileService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * 支付对账服务实现
+ *
+ * <p>只查询已发起支付（已分配商户订单号）且剩余有效期不足提前量的订单，查询并发数有上限。确认已付款的交易直接按支付成功结算订单，
+ * 不经过支付通知收件箱，避免被同一交易号先到的其他通知去重，也不必等待下一批收件箱处理；与回调并发结算时由订单的条件更新保证只生效一次。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReconcileServiceImpl implements PaymentReconcileService {
+  /** 表示买家已付款的交易状态 */
+  private static final Set<String> PAID_TRADE_STATUSES = Set.of("TRADE_SUCCESS", "TRADE_FINISHED");
+
+  private final Clock clock;
+  private final OrderRepository orderRepository;
+  private final OrderService orderService;
+  private final AlipayClient alipayClient;
+
+  @Value("${app.payment.reconcile-lead-minutes:5}")
+  private int leadMinutes;
+
+  @Value("${app.payment.reconcile-batch-size:200}")
+  private int batchSize;
+
+  @Value("${app.payment.reconcile-concurrency:4}")
+  private int concurrency;
+
+  private ExecutorService executor;
+
+  @PostConstruct
+  void init() {
+    AtomicInteger threadCount = new AtomicInteger();
+    executor =
+        Executors.newFixedThreadPool(
+            concurrency,
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "payment-reconcile-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  @Override
+  public int reconcile() {
+    LocalDateTime createdBefore =
+        LocalDateTime.now(clock)
+            .minusMinutes(OrderConstants.ORDER_EXPIRATION_MINUTES - leadMinutes);
+    List<OrderRepository.OrderTrade> trades =
+        orderRepository.findTradesByStatusAndCreatedAtBefore(
+            OrderStatus.PENDING, createdBefore, PageRequest.of(0, batchSize));
+    if (trades.isEmpty()) {
+      return 0;
+    }
+
+    log.info("开始支付对账：count={}", trades.size());
+    AtomicInteger paid = new AtomicInteger();
+    CompletableFuture.allOf(
+            trades.stream()
+                .map(
+                    trade ->
+                        CompletableFuture.runAsync(
+                            () -> {
+                              if (reconcile(trade)) {
+                                paid.incrementAndGet();
+                              }
+                            },
+                            executor))
+                .toArray(CompletableFuture[]::new))
+        .join();
+
+    log.info("支付对账完成：count={}, paid={}", trades.size(), paid.get());
+    return paid.get();
+  }
+
+  /**
+   * 查询单个订单的交易状态，已付款时结算订单
+   *
+   * @param trade 订单 ID 与商户订单号
+   * @return 是否已结算
+   */
+  private boolean reconcile(OrderRepository.OrderTrade trade) {
+    AlipayTradeQueryRequest request = new AlipayTradeQueryRequest();
+    request.setBizContent("{\"out_trade_no\":\"" + trade.getOutTradeNo() + "\"}");
+
+    AlipayTradeQueryResponse response;
+    try {
+      response = alipayClient.execute(request);
+    } catch (AlipayApiException | RuntimeException e) {
+      log.warn("查询交易状态失败：orderId={}, error={}", trade.getId(), e.getMessage());
+      return false;
+    }
+
+    // 买家尚未扫码时支付宝返回交易不存在
+    if (!response.isSuccess() || !PAID_TRADE_STATUSES.contains(response.getTradeStatus())) {
+      log.debug(
+          "交易未付款：orderId={}, code={}, status={}",
+          trade.getId(),
+          response.getSubCode(),
+          response.getTradeStatus());
+      return false;
+    }
+
+    log.info("对账发现已付款交易：orderId={}, tradeNo={}", trade.getId(), response.getTradeNo());
+    try {
+      orderService.handlePaymentNotify(
+          PaymentNotifyDTO.builder()
+              .orderId(trade.getId())
+              .status(response.getTradeStatus())
+              .tradeNo(response.getTradeNo())
+              .totalAmount(new BigDecimal(response.getTotalAmount()))
+              .paymentTime(
+                  response.getSendPayDate() == null
+                      ? null
+                      : LocalDateTime.ofInstant(
+                          response.getSendPayDate().toInstant(), clock.getZone()))
+              .build());
+    } catch (BusinessException | ResourceNotFoundException e) {
+      log.warn("对账结算订单失败：orderId={}, 原因：{}", trade.getId(), e.getMessage());
+      return false;
+    } catch (RuntimeException e) {
+      // 临时错误留给下一轮对账重试
+      log.error("对账结算订单异常：orderId={}", trade.getId(), e);
+      return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,398 @@
+package com.tomato.bookstore.service.impl;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.constant.ExceptionMessages;
+import com.tomato.bookstore.dto.ProductCardDTO;
+import com.tomato.bookstore.dto.ProductSearchDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.model.Product;
+import com.tomato.bookstore.model.Specification;
+import com.tomato.bookstore.repository.ProductRepository;
+import com.tomato.bookstore.repository.ProductRepository.ProductCard;
+import com.tomato.bookstore.repository.ProductRepository.ProductSearchRow;
+import com.tomato.bookstore.repository.SpecificationRepository;
+import com.tomato.bookstore.repository.SpecificationRepository.SpecificationValue;
+import com.tomato.bookstore.service.ProductSearchService;
+import com.tomato.bookstore.util.SearchIndex;
+import com.tomato.bookstore.util.SearchTokenizer;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 商品搜索服务实现
+ *
+ * <p>标题按中日韩二元词加一元词切分，词频乘以 {@link #TITLE_WEIGHT}，使标题命中排在正文命中之前；描述、去掉 HTML 标记的详情与规格值只按二元词切分。
+ *
+ * <p>本实例的修改在事务提交后立即更新索引；其他实例的修改由定期刷新按商品修改时间补齐。其他实例删除的商品在出现在搜索结果中时从索引移除。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchServiceImpl implements ProductSearchService {
+  private static final double BM25_K1 = 1.2;
+  private static final double BM25_B = 0.75;
+  private static final int TITLE_WEIGHT = 3;
+
+  /** 补齐修改时向前多看的时间，覆盖写入修改时间与事务提交之间的间隔 */
+  private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+
+  private static final Pattern HTML_MARKUP = Pattern.compile("<[^>]*>|&#?[a-zA-Z0-9]+;");
+
+  private final Clock clock;
+  private final ProductRepository productRepository;
+  private final SpecificationRepository specificationRepository;
+
+  @Value("${app.product-search.snapshot-path:}")
+  private String snapshotPath;
+
+  @Value("${app.product-search.batch-size:1000}")
+  private int batchSize;
+
+  @Value("${app.product-search.max-results:1000}")
+  private int maxResults;
+
+  @Value("${app.product-search.snapshot-interval-ms:600000}")
+  private long snapshotIntervalMs;
+
+  /** 加载完成前为 null */
+  private volatile SearchIndex index;
+
+  private final AtomicBoolean dirty = new AtomicBoolean();
+
+  /** 下次刷新补齐的起始修改时间 */
+  private LocalDateTime refreshSince;
+
+  private LocalDateTime lastSnapshotAt;
+
+  @Override
+  public ProductSearchDTO search(String keyword, int page, int size) {
+    SearchIndex current = index;
+    if (current == null) {
+      throw new BusinessException(
+          BusinessErrorCode.PRODUCT_SEARCH_UNAVAILABLE,
+          ExceptionMessages.PRODUCT_SEARCH_UNAVAILABLE);
+    }
+
+    List<String> terms = SearchTokenizer.tokenize(keyword, false);
+    int offset = (int) Math.min((long) page * size, maxResults);
+    int limit = Math.min(size, maxResults - offset);
+    SearchIndex.Result result =
+        terms.isEmpty()
+            ? new SearchIndex.Result(0, List.of())
+            : current.search(terms, offset, limit);
+    log.info("搜索商品：keyword={}, page={}, total={}", keyword, page, result.total());
+
+    return ProductSearchDTO.builder()
+        .total(result.total())
+        .page(page)
+        .size(size)
+        .items(loadCards(current, result.docIds()))
+        .build();
+  }
+
+  @Override
+  public void index(Product product) {
+    Long productId = product.getId();
+    List<String> specificationValues = new ArrayList<>();
+    if (product.getSpecifications() != null) {
+      product.getSpecifications().stream()
+          .map(Specification::getValue)
+          .forEach(specificationValues::add);
+    }
+    // 在事务内读取商品内容，提交后再写入索引，回滚的修改不会进入索引
+    Map<String, Integer> document =
+        document(
+            product.getTitle(), product.getDescription(), product.getDetail(), specificationValues);
+    afterCommit(() -> apply(current -> current.put(productId, document)));
+  }
+
+  @Override
+  public void remove(Long productId) {
+    afterCommit(() -> apply(current -> current.remove(productId)));
+  }
+
+  @Override
+  public synchronized void load() {
+    LocalDateTime startedAt = LocalDateTime.now(clock);
+    Snapshot snapshot = readSnapshot();
+    if (snapshot != null) {
+      // 快照记录的是写出时的补齐起点，已含提前量，直接从该时间补齐
+      index = snapshot.index();
+      refreshSince = snapshot.refreshSince();
+      lastSnapshotAt = startedAt;
+      log.info("商品搜索索引已从快照加载：products={}", snapshot.index().size());
+    } else {
+      index = rebuild();
+      refreshSince = startedAt.minus(CATCH_UP_MARGIN);
+      dirty.set(true);
+      log.info(
+          "商品搜索索引已从数据库重建：products={}, 耗时 {} ms",
+          index.size(),
+          Duration.between(startedAt, LocalDateTime.now(clock)).toMillis());
+    }
+    refresh();
+  }
+
+  @Override
+  public synchronized void refresh() {
+    SearchIndex current = index;
+    if (current == null) {
+      return;
+    }
+
+    LocalDateTime startedAt = LocalDateTime.now(clock);
+    List<Long> productIds = productRepository.findIdsModifiedSince(refreshSince);
+    for (int from = 0; from < productIds.size(); from += batchSize) {
+      reindex(current, productIds.subList(from, Math.min(from + batchSize, productIds.size())));
+    }
+    refreshSince = startedAt.minus(CATCH_UP_MARGIN);
+    if (!productIds.isEmpty()) {
+      dirty.set(true);
+      log.debug("商品搜索索引已补齐：products={}", productIds.size());
+    }
+
+    if (lastSnapshotAt == null
+        || !startedAt.isBefore(lastSnapshotAt.plus(Duration.ofMillis(snapshotIntervalMs)))) {
+      writeSnapshotIfDirty(current, startedAt);
+    }
+  }
+
+  /** 停止前写出尚未保存的修改 */
+  @PreDestroy
+  synchronized void shutdown() {
+    SearchIndex current = index;
+    if (current != null) {
+      writeSnapshotIfDirty(current, LocalDateTime.now(clock));
+    }
+  }
+
+  /**
+   * 按商品 ID 游标分批读取所有商品，建立新的索引
+   *
+   * @return 索引
+   */
+  private SearchIndex rebuild() {
+    SearchIndex rebuilt = new SearchIndex(BM25_K1, BM25_B);
+    long afterId = 0;
+    while (true) {
+      List<ProductSearchRow> rows =
+          productRepository.findSearchRows(afterId, PageRequest.of(0, batchSize));
+      if (rows.isEmpty()) {
+        break;
+      }
+      putRows(rebuilt, rows);
+      afterId = rows.get(rows.size() - 1).getId();
+      if (rows.size() < batchSize) {
+        break;
+      }
+    }
+    return rebuilt;
+  }
+
+  /**
+   * 以数据库中的最新内容更新一批商品，已不存在的商品从索引中移除
+   *
+   * @param current 索引
+   * @param productIds 商品 ID
+   */
+  private void reindex(SearchIndex current, List<Long> productIds) {
+    List<ProductSearchRow> rows = productRepository.findSearchRowsByIdIn(productIds);
+    putRows(current, rows);
+    if (rows.size() < productIds.size()) {
+      Map<Long, ProductSearchRow> found =
+          rows.stream().collect(Collectors.toMap(ProductSearchRow::getId, Function.identity()));
+      productIds.stream().filter(id -> !found.containsKey(id)).forEach(current::remove);
+    }
+  }
+
+  private void putRows(SearchIndex target, List<ProductSearchRow> rows) {
+    Map<Long, List<String>> specificationValues = new HashMap<>();
+    for (SpecificationValue value :
+        specificationRepository.findValuesByProductIdIn(
+            rows.stream().map(ProductSearchRow::getId).toList())) {
+      specificationValues
+          .computeIfAbsent(value.getProductId(), id -> new ArrayList<>())
+          .add(value.getValue());
+    }
+    for (ProductSearchRow row : rows) {
+      target.put(
+          row.getId(),
+          document(
+              row.getTitle(),
+              row.getDescription(),
+              row.getDetail(),
+              specificationValues.getOrDefault(row.getId(), List.of())));
+    }
+  }
+
+  /**
+   * 将商品内容切分为词频映射
+   *
+   * @param title 标题
+   * @param description 描述
+   * @param detail 详情（HTML）
+   * @param specificationValues 规格值
+   * @return 词到词频的映射
+   */
+  private Map<String, Integer> document(
+      String title, String description, String detail, Collection<String> specificationValues) {
+    Map<String, Integer> frequencies = new HashMap<>();
+    for (String term : SearchTokenizer.tokenize(title, true)) {
+      frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+    }
+    List<String> bodies = new ArrayList<>(specificationValues);
+    bodies.add(description);
+    bodies.add(detail == null ? null : HTML_MARKUP.matcher(detail).replaceAll(" "));
+    for (String body : bodies) {
+      for (String term : SearchTokenizer.tokenize(body, false)) {
+        frequencies.merge(term, 1, Integer::sum);
+      }
+    }
+    return frequencies;
+  }
+
+  /**
+   * 按搜索结果的顺序读取商品卡片，已被删除的商品从索引中移除
+   *
+   * @param current 索引
+   * @param productIds 商品 ID（按相关度降序）
+   * @return 商品卡片列表
+   */
+  private List<ProductCardDTO> loadCards(SearchIndex current, List<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return List.of();
+    }
+    Map<Long, ProductCard> cards =
+        productRepository.findCardsByIdIn(productIds).stream()
+            .collect(Collectors.toMap(ProductCard::getId, Function.identity()));
+    List<ProductCardDTO> items = new ArrayList<>(productIds.size());
+    for (Long productId : productIds) {
+      ProductCard card = cards.get(productId);
+      if (card == null) {
+        log.debug("搜索结果中的商品已被删除，移出索引：productId={}", productId);
+        current.remove(productId);
+        dirty.set(true);
+        continue;
+      }
+      items.add(
+          ProductCardDTO.builder()
+              .id(card.getId())
+              .title(card.getTitle())
+              .price(card.getPrice())
+              .rate(card.getRate())
+              .cover(card.getCover())
+              .build());
+    }
+    return items;
+  }
+
+  /**
+   * 修改当前索引，加载完成前的修改由加载后的补齐覆盖
+   *
+   * @param action 修改操作
+   */
+  private void apply(Consumer<SearchIndex> action) {
+    SearchIndex current = index;
+    if (current != null) {
+      action.accept(current);
+      dirty.set(true);
+    }
+  }
+
+  private Snapshot readSnapshot() {
+    if (snapshotPath == null || snapshotPath.isBlank()) {
+      return null;
+    }
+    Path path = Path.of(snapshotPath);
+    if (!Files.exists(path)) {
+      return null;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      LocalDateTime since = LocalDateTime.parse(in.readUTF());
+      return new Snapshot(SearchIndex.readFrom(in, BM25_K1, BM25_B), since);
+    } catch (IOException | RuntimeException e) {
+      log.warn("商品搜索索引快照不可用，从数据库重建：path={}", path, e);
+      return null;
+    }
+  }
+
+  /**
+   * 索引有变化时写出快照，先写临时文件再原子替换，写出中途失败不会破坏旧快照
+   *
+   * <p>快照记录当前的补齐起点而不是写出时间：上次刷新之后其他实例的修改不在索引中，加载快照后必须从该起点补齐。
+   *
+   * @param current 索引
+   * @param writtenAt 写出时间，只用于控制写出间隔
+   */
+  private void writeSnapshotIfDirty(SearchIndex current, LocalDateTime writtenAt) {
+    if (snapshotPath == null || snapshotPath.isBlank() || !dirty.getAndSet(false)) {
+      return;
+    }
+    Path path = Path.of(snapshotPath).toAbsolutePath();
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(path.getParent());
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        out.writeUTF(refreshSince.toString());
+        current.writeTo(out);
+      }
+      Files.move(
+          temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      lastSnapshotAt = writtenAt;
+      log.info("商品搜索索引快照已写出：path={}, products={}", path, current.size());
+    } catch (IOException e) {
+      dirty.set(true);
+      log.warn("写出商品搜索索引快照失败：path={}", path, e);
+    }
+  }
+
+  /**
+   * 在当前事务提交后执行，没有事务时立即执行
+   *
+   * @param action 待执行的操作
+   */
+  private void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+
+  private record Snapshot(SearchIndex index, LocalDateTime refreshSince) {}
+}
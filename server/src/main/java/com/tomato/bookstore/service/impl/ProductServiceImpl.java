@@ -2,6 +2,7 @@ package com.tomato.bookstore.service.impl;
 
 import com.tomato.bookstore.constant.BusinessErrorCode;
 import com.tomato.bookstore.constant.ExceptionMessages;
+import com.tomato.bookstore.dto.ProductCardDTO;
 import com.tomato.bookstore.dto.ProductDTO;
 import com.tomato.bookstore.dto.SpecificationDTO;
 import com.tomato.bookstore.dto.StockpileDTO;
@@ -12,8 +13,18 @@ import com.tomato.bookstore.model.Specification;
 import com.tomato.bookstore.model.Stockpile;
 import com.tomato.bookstore.repository.ProductRepository;
 import com.tomato.bookstore.repository.SpecificationRepository;
+import com.tomato.bookstore.repository.StockpileBucketRepository;
 import com.tomato.bookstore.repository.StockpileRepository;
+import com.tomato.bookstore.service.ProductSearchService;
 import com.tomato.bookstore.service.ProductService;
+import com.tomato.bookstore.service.StockService;
+import com.tomato.bookstore.util.LoadingCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -22,31 +33,139 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
 
+/**
+ * 商品服务实现
+ *
+ * <p>商品列表与商品详情缓存在内存中，命中时不占用数据库连接。商品的增删改与评分变化在事务提交后使缓存失效，
+ * 多实例部署时其他实例最多在存活时间内读到旧值。
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductServiceImpl implements ProductService {
+  private static final String ALL_PRODUCTS_KEY = "all";
+
+  private final Clock clock;
+  private final MeterRegistry meterRegistry;
+  private final PlatformTransactionManager transactionManager;
   private final ProductRepository productRepository;
   private final SpecificationRepository specificationRepository;
   private final StockpileRepository stockpileRepository;
+  private final StockpileBucketRepository stockpileBucketRepository;
+  private final StockService stockService;
+  private final ProductSearchService productSearchService;
+
+  @Value("${app.product-cache.ttl-seconds:60}")
+  private long cacheTtlSeconds;
+
+  @Value("${app.product-cache.max-size:10000}")
+  private int cacheMaxSize;
+
+  /** 回源查询使用的只读事务 */
+  private TransactionTemplate readOnlyTransaction;
+
+  private LoadingCache<Long, ProductDTO> productCache;
+  private LoadingCache<String, List<ProductDTO>> productListCache;
+  private LoadingCache<String, List<ProductCardDTO>> productCardCache;
+
+  @PostConstruct
+  void init() {
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+    Duration ttl = Duration.ofSeconds(cacheTtlSeconds);
+    productCache = new LoadingCache<>(ttl, cacheMaxSize, clock);
+    productListCache = new LoadingCache<>(ttl, 1, clock);
+    productCardCache = new LoadingCache<>(ttl, 1, clock);
+    registerMetrics("detail", productCache);
+    registerMetrics("list", productListCache);
+    registerMetrics("card", productCardCache);
+  }
 
   @Override
-  @Transactional(readOnly = true)
   public List<ProductDTO> getAllProducts() {
     log.info("获取所有商品");
-    List<Product> products = productRepository.findAllByOrderByCreatedAtDesc();
-    return products.stream().map(this::convertToDTO).collect(Collectors.toList());
+    // 商品与规格各用一条投影查询读取，避免逐个商品延迟加载大文本字段与规格
+    return productListCache.get(
+        ALL_PRODUCTS_KEY,
+        key ->
+            readOnlyTransaction.execute(
+                status -> {
+                  Map<Long, List<SpecificationDTO>> specifications =
+                      specificationRepository.findAllRows().stream()
+                          .collect(
+                              Collectors.groupingBy(
+                                  SpecificationRepository.SpecificationRow::getProductId,
+                                  Collectors.mapping(
+                                      row ->
+                                          SpecificationDTO.builder()
+                                              .id(row.getId())
+                                              .item(row.getItem())
+                                              .value(row.getValue())
+                                              .productId(row.getProductId())
+                                              .build(),
+                                      Collectors.toList())));
+                  return productRepository.findAllRows().stream()
+                      .map(
+                          row ->
+                              ProductDTO.builder()
+                                  .id(row.getId())
+                                  .title(row.getTitle())
+                                  .price(row.getPrice())
+                                  .rate(row.getRate())
+                                  .description(row.getDescription())
+                                  .cover(row.getCover())
+                                  .detail(row.getDetail())
+                                  .specifications(
+                                      specifications.getOrDefault(row.getId(), new ArrayList<>()))
+                                  .build())
+                      .toList();
+                }));
+  }
+
+  @Override
+  public List<ProductCardDTO> getProductCards() {
+    log.info("获取商品卡片列表");
+    // 投影查询只读取卡片字段，不加载实体，也无需事务保持会话
+    return productCardCache.get(
+        ALL_PRODUCTS_KEY,
+        key ->
+            productRepository.findAllCards().stream()
+                .map(
+                    card ->
+                        ProductCardDTO.builder()
+                            .id(card.getId())
+                            .title(card.getTitle())
+                            .price(card.getPrice())
+                            .rate(card.getRate())
+                            .cover(card.getCover())
+                            .build())
+                .toList());
   }
 
   @Override
-  @Transactional(readOnly = true)
   public ProductDTO getProductById(Long id) {
     log.info("获取商品 id={}", id);
-    return convertToDTO(findProductById(id));
+    return productCache.get(
+        id, key -> readOnlyTransaction.execute(status -> convertToDTO(findProductById(key))));
+  }
+
+  @Override
+  public void evictProduct(Long id) {
+    afterCommit(
+        () -> {
+          productCache.invalidate(id);
+          productListCache.invalidateAll();
+          productCardCache.invalidateAll();
+        });
   }
 
   @Override
@@ -101,6 +220,8 @@ public class ProductServiceImpl implements ProductService {
     savedProduct.setStockpile(stockpileRepository.save(stockpile));
     log.debug("商品库存已初始化");
 
+    evictProduct(savedProduct.getId());
+    productSearchService.index(savedProduct);
     log.info("商品创建成功，ID：{}", savedProduct.getId());
     return convertToDTO(savedProduct);
   }
@@ -132,6 +253,8 @@ public class ProductServiceImpl implements ProductService {
 
     // 保存商品
     productRepository.save(product);
+    evictProduct(product.getId());
+    productSearchService.index(product);
     log.info("商品更新成功 id={}", product.getId());
   }
 
@@ -145,10 +268,13 @@ public class ProductServiceImpl implements ProductService {
     try {
       // 删除关联的规格和库存
       specificationRepository.deleteByProductId(id);
+      stockpileBucketRepository.deleteByProductId(id);
       stockpileRepository.deleteByProductId(id);
 
       // 删除商品
       productRepository.deleteById(id);
+      evictProduct(id);
+      productSearchService.remove(id);
       log.info("商品已删除 id={}", id);
     } catch (Exception e) {
       log.error("删除商品失败 id={}，原因：{}", id, e.getMessage());
@@ -163,18 +289,7 @@ public class ProductServiceImpl implements ProductService {
     // 检查商品是否存在
     findProductById(productId);
 
-    // 获取库存信息
-    Stockpile stockpile =
-        stockpileRepository
-            .findByProductId(productId)
-            .orElseThrow(
-                () -> {
-                  log.warn("商品库存记录不存在 productId={}", productId);
-                  return new BusinessException(
-                      BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND, "商品库存记录不存在");
-                });
-
-    return convertToStockpileDTO(stockpile);
+    return stockService.getStockpile(productId);
   }
 
   @Override
@@ -189,18 +304,60 @@ public class ProductServiceImpl implements ProductService {
     // 检查商品是否存在
     findProductById(productId);
 
-    // 获取并更新库存
-    Stockpile stockpile =
-        stockpileRepository
-            .findByProductId(productId)
-            .orElseGet(() -> createNewStockpile(productId));
-
-    stockpile.setAmount(stockpileDTO.getAmount());
-    stockpile.setFrozen(stockpileDTO.getFrozen());
-    stockpileRepository.save(stockpile);
+    stockService.updateStockpile(productId, stockpileDTO.getAmount(), stockpileDTO.getFrozen());
     log.info("商品库存更新成功 productId={}", productId);
   }
 
+  @Override
+  @Transactional
+  public void configureStockpileBuckets(Long productId, Integer bucketCount) {
+    log.info("调整商品库存分桶（productId={}, bucketCount={}）", productId, bucketCount);
+
+    // 检查商品是否存在
+    findProductById(productId);
+
+    stockService.configureBuckets(productId, bucketCount);
+  }
+
+  /**
+   * 注册缓存的命中与未命中计数
+   *
+   * @param name 缓存名称
+   * @param cache 缓存
+   */
+  private void registerMetrics(String name, LoadingCache<?, ?> cache) {
+    FunctionCounter.builder("product.cache.requests", cache, LoadingCache::hits)
+        .tag("cache", name)
+        .tag("result", "hit")
+        .register(meterRegistry);
+    FunctionCounter.builder("product.cache.requests", cache, LoadingCache::misses)
+        .tag("cache", name)
+        .tag("result", "miss")
+        .register(meterRegistry);
+    Gauge.builder("product.cache.size", cache, LoadingCache::size)
+        .tag("cache", name)
+        .register(meterRegistry);
+  }
+
+  /**
+   * 在当前事务提交后执行，没有事务时立即执行
+   *
+   * @param action 待执行的操作
+   */
+  private void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+
   /**
    * 更新商品规格
    *
@@ -285,18 +442,6 @@ public class ProductServiceImpl implements ProductService {
             });
   }
 
-  /**
-   * 创建新的库存记录
-   *
-   * @param productId 商品 ID
-   * @return 新的库存记录
-   */
-  private Stockpile createNewStockpile(Long productId) {
-    log.debug("商品库存记录不存在，创建新的记录 productId={}", productId);
-    Product product = productRepository.getReferenceById(productId);
-    return Stockpile.builder().product(product).amount(0).frozen(0).build();
-  }
-
   /**
    * 将 Product 实体转换为 ProductDTO
    *
@@ -344,19 +489,4 @@ public class ProductServiceImpl implements ProductService {
         .productId(specification.getProduct().getId())
         .build();
   }
-
-  /**
-   * 将 Stockpile 实体转换为 StockpileDTO
-   *
-   * @param stockpile 商品库存实体
-   * @return 商品库存 DTO
-   */
-  private StockpileDTO convertToStockpileDTO(Stockpile stockpile) {
-    return StockpileDTO.builder()
-        .id(stockpile.getId())
-        .amount(stockpile.getAmount())
-        .frozen(stockpile.getFrozen())
-        .productId(stockpile.getProduct().getId())
-        .build();
-  }
 }
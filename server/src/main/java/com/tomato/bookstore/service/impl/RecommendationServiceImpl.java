@@ -0,0 +1,351 @@
+package com.tomato.bookstore.service.impl;
+
+import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.dto.ProductRecommendationDTO;
+import com.tomato.bookstore.event.OrderEvent;
+import com.tomato.bookstore.event.OrderEventListener;
+import com.tomato.bookstore.event.OrderPaidEvent;
+import com.tomato.bookstore.model.ProductCoPurchase;
+import com.tomato.bookstore.repository.OrderLineRepository;
+import com.tomato.bookstore.repository.OrderLineRepository.OrderProduct;
+import com.tomato.bookstore.repository.OrderRepository;
+import com.tomato.bookstore.repository.ProductCoPurchaseRepository;
+import com.tomato.bookstore.service.RecommendationService;
+import com.tomato.bookstore.util.SnowflakeIdGenerator;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 共同购买推荐服务实现
+ *
+ * <p>重建时按订单 ID 游标分批读取重建开始前支付的订单的商品，每批在独立的 ForkJoinPool 中并行统计商品对：每个并行分区精确计数到自己的
+ * 计数表，分区结束后合并，计数无需加锁也没有近似误差。商品按 ID 取模分片统计，一个分片的商品对数超过 app.recommendation.max-pairs
+ * 时拆成两个分片重新统计，内存占用因此有上限，代价是多扫描几遍订单；只剩一个商品的分片无法再拆，候选数最多为商品总数。每个分片统计
+ * 完成后，每个商品只保留次数最多的前 top-n 名写入。
+ *
+ * <p>订单支付后增量累加已有记录，商品的记录数不足推荐条数时补充新记录，其余新组合等下次重建再计入。重建写入时补上重建开始后支付的
+ * 订单，并把写入时间记为统计截止时间，截止时间之前支付的订单不再累加，重建期间的支付因此既不丢失也不重复计数；支付事务在重建读取
+ * 之后才提交的订单可能漏计，由下次重建修正。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationServiceImpl implements RecommendationService, OrderEventListener {
+  private final Clock clock;
+  private final SnowflakeIdGenerator idGenerator;
+  private final TransactionTemplate transactionTemplate;
+  private final OrderRepository orderRepository;
+  private final OrderLineRepository orderLineRepository;
+  private final ProductCoPurchaseRepository productCoPurchaseRepository;
+
+  @Value("${app.recommendation.top-n:10}")
+  private int topN;
+
+  @Value("${app.recommendation.max-order-items:50}")
+  private int maxOrderItems;
+
+  @Value("${app.recommendation.batch-size:2000}")
+  private int batchSize;
+
+  @Value("${app.recommendation.parallelism:0}")
+  private int parallelism;
+
+  @Value("${app.recommendation.max-pairs:1000000}")
+  private long maxPairs;
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<ProductRecommendationDTO> getRecommendations(Long productId, int limit) {
+    return productCoPurchaseRepository
+        .findByProductIdOrderByCoPurchasesDescRelatedProductIdAsc(
+            productId, PageRequest.of(0, Math.min(limit, topN)))
+        .stream()
+        .map(
+            coPurchase ->
+                ProductRecommendationDTO.builder()
+                    .productId(coPurchase.getRelatedProductId())
+                    .coPurchases(coPurchase.getCoPurchases())
+                    .build())
+        .toList();
+  }
+
+  @Override
+  public void rebuild(BooleanSupplier leaseHeld) {
+    LocalDateTime startedAt = LocalDateTime.now(clock);
+    int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    Deque<Shard> shards = new ArrayDeque<>();
+    shards.push(new Shard(0, 1));
+    int shardCount = 0;
+    int productCount = 0;
+    try {
+      while (!shards.isEmpty()) {
+        Shard shard = shards.pop();
+        Map<Long, Map<Long, Long>> coPurchases = new HashMap<>();
+        if (!count(shard, startedAt, coPurchases, pool, leaseHeld)) {
+          if (!leaseHeld.getAsBoolean()) {
+            log.warn("共同购买推荐重建中止：已失去任务租约，products={}", productCount);
+            return;
+          }
+          log.info("共同购买商品对超过上限，拆分分片重新统计：shard={}", shard);
+          shards.push(shard.half(1));
+          shards.push(shard.half(0));
+          continue;
+        }
+
+        List<Long> productIds = new ArrayList<>(coPurchases.keySet());
+        for (int from = 0; from < productIds.size(); from += batchSize) {
+          if (!leaseHeld.getAsBoolean()) {
+            log.warn("共同购买推荐重建中止：已失去任务租约，products={}", productCount + from);
+            return;
+          }
+          List<Long> batch =
+              productIds.subList(from, Math.min(from + batchSize, productIds.size()));
+          transactionTemplate.executeWithoutResult(
+              status -> replace(batch, coPurchases, startedAt));
+        }
+        shardCount++;
+        productCount += productIds.size();
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    int removed = productCoPurchaseRepository.deleteByUpdatedAtBefore(startedAt);
+    log.info(
+        "共同购买推荐已重建：shards={}, products={}, removed={}", shardCount, productCount, removed);
+  }
+
+  @Override
+  public void onOrderEvent(OrderEvent event) {
+    if (!(event instanceof OrderPaidEvent paid)) {
+      return;
+    }
+    Set<Long> basket = paid.getQuantities().keySet();
+    if (basket.size() < 2 || basket.size() > maxOrderItems) {
+      return;
+    }
+
+    LocalDateTime paidAt = paid.getOccurredAt();
+    LocalDateTime now = LocalDateTime.now(clock);
+    // 先在独立事务中补齐缺少的记录，再逐条累加，累加语句只锁定已存在的行
+    Map<Long, List<Long>> present = new HashMap<>();
+    for (Long productId : basket) {
+      List<Long> related = basket.stream().filter(id -> !id.equals(productId)).toList();
+      Set<Long> existing =
+          new HashSet<>(productCoPurchaseRepository.findRelatedProductIds(productId, related));
+      long free = topN - productCoPurchaseRepository.countByProductId(productId);
+      for (Long relatedProductId : related) {
+        if (!existing.contains(relatedProductId) && free-- > 0) {
+          createRow(productId, relatedProductId, now);
+          existing.add(relatedProductId);
+        }
+      }
+      present.put(productId, related.stream().filter(existing::contains).toList());
+    }
+    present.forEach(
+        (productId, related) ->
+            related.forEach(
+                relatedProductId ->
+                    productCoPurchaseRepository.increment(
+                        productId, relatedProductId, paidAt, now)));
+  }
+
+  /**
+   * 统计重建开始前支付的订单中一个分片内商品的共同购买次数
+   *
+   * @param shard 商品分片
+   * @param paidBefore 重建开始时间
+   * @param coPurchases 商品 ID 到候选商品共同购买次数的映射
+   * @param pool 统计线程池
+   * @param leaseHeld 是否仍持有任务租约
+   * @return 是否统计完成，商品对数超过上限或失去租约时返回 false
+   */
+  private boolean count(
+      Shard shard,
+      LocalDateTime paidBefore,
+      Map<Long, Map<Long, Long>> coPurchases,
+      ForkJoinPool pool,
+      BooleanSupplier leaseHeld) {
+    long pairs = 0;
+    Long afterId = 0L;
+    while (true) {
+      if (!leaseHeld.getAsBoolean()) {
+        return false;
+      }
+      List<Long> orderIds =
+          orderRepository.findIdsByStatusAndUpdatedAtBeforeAndIdGreaterThan(
+              OrderStatus.PAID, paidBefore, afterId, PageRequest.of(0, batchSize));
+      if (orderIds.isEmpty()) {
+        return true;
+      }
+      Collection<Set<Long>> baskets =
+          baskets(orderLineRepository.findOrderProductsByOrderIdIn(orderIds));
+      Map<Long, Map<Long, Long>> counted =
+          pool.submit(
+                  () ->
+                      baskets.parallelStream()
+                          .collect(
+                              HashMap<Long, Map<Long, Long>>::new,
+                              (partial, basket) -> count(partial, basket, shard::contains),
+                              RecommendationServiceImpl::merge))
+              .join();
+      pairs += merge(coPurchases, counted);
+      // 只剩一个商品时无法再拆分，它的候选数最多为商品总数
+      if (pairs > maxPairs && coPurchases.size() > 1) {
+        return false;
+      }
+      afterId = orderIds.getLast();
+      if (orderIds.size() < batchSize) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * 统计一笔订单中的商品对
+   *
+   * @param coPurchases 商品 ID 到候选商品共同购买次数的映射
+   * @param basket 订单包含的商品 ID
+   * @param counted 需要统计的商品
+   */
+  private void count(
+      Map<Long, Map<Long, Long>> coPurchases, Set<Long> basket, Predicate<Long> counted) {
+    // 整批采购的大订单几乎不反映关联，且商品对数随商品数平方增长
+    if (basket.size() < 2 || basket.size() > maxOrderItems) {
+      return;
+    }
+    for (Long productId : basket) {
+      if (!counted.test(productId)) {
+        continue;
+      }
+      Map<Long, Long> counts = coPurchases.computeIfAbsent(productId, id -> new HashMap<>());
+      for (Long relatedProductId : basket) {
+        if (!relatedProductId.equals(productId)) {
+          counts.merge(relatedProductId, 1L, Long::sum);
+        }
+      }
+    }
+  }
+
+  /** 按订单分组商品 */
+  private static Collection<Set<Long>> baskets(List<OrderProduct> orderProducts) {
+    return orderProducts.stream()
+        .collect(
+            Collectors.groupingBy(
+                OrderProduct::getOrderId,
+                Collectors.mapping(OrderProduct::getProductId, Collectors.toSet())))
+        .values();
+  }
+
+  /**
+   * 把一个分区的计数合并到目标计数表
+   *
+   * @return 目标计数表新增的商品对数
+   */
+  private static long merge(
+      Map<Long, Map<Long, Long>> target, Map<Long, Map<Long, Long>> source) {
+    long added = 0;
+    for (Map.Entry<Long, Map<Long, Long>> entry : source.entrySet()) {
+      Map<Long, Long> merged = target.putIfAbsent(entry.getKey(), entry.getValue());
+      if (merged == null) {
+        added += entry.getValue().size();
+      } else {
+        int before = merged.size();
+        entry
+            .getValue()
+            .forEach((relatedProductId, n) -> merged.merge(relatedProductId, n, Long::sum));
+        added += merged.size() - before;
+      }
+    }
+    return added;
+  }
+
+  /**
+   * 以重建结果替换一批商品的记录
+   *
+   * <p>重建开始后支付的订单已累加在被删除的旧记录上，在此补上；新记录以写入时间为统计截止时间，之后支付的订单由支付事件累加。
+   */
+  private void replace(
+      List<Long> productIds, Map<Long, Map<Long, Long>> coPurchases, LocalDateTime startedAt) {
+    LocalDateTime now = LocalDateTime.now(clock);
+    Set<Long> batch = new HashSet<>(productIds);
+    Map<Long, Map<Long, Long>> recent = new HashMap<>();
+    baskets(orderLineRepository.findPaidOrderProductsBetween(startedAt, now))
+        .forEach(basket -> count(recent, basket, batch::contains));
+
+    productCoPurchaseRepository.deleteByProductIdIn(productIds);
+    List<ProductCoPurchase> rows = new ArrayList<>();
+    for (Long productId : productIds) {
+      Map<Long, Long> counts = new HashMap<>(coPurchases.get(productId));
+      recent
+          .getOrDefault(productId, Map.of())
+          .forEach((relatedProductId, n) -> counts.merge(relatedProductId, n, Long::sum));
+      // 次数相同按商品 ID 升序，与查询推荐的排序一致
+      counts.entrySet().stream()
+          .sorted(
+              Map.Entry.<Long, Long>comparingByValue()
+                  .reversed()
+                  .thenComparing(Map.Entry.comparingByKey()))
+          .limit(topN)
+          .forEach(
+              entry ->
+                  rows.add(
+                      ProductCoPurchase.builder()
+                          .productId(productId)
+                          .relatedProductId(entry.getKey())
+                          .coPurchases(entry.getValue())
+                          .countedBefore(now)
+                          .updatedAt(now)
+                          .build()));
+    }
+    productCoPurchaseRepository.saveAll(rows);
+  }
+
+  private void createRow(Long productId, Long relatedProductId, LocalDateTime now) {
+    try {
+      productCoPurchaseRepository.create(idGenerator.nextId(), productId, relatedProductId, now);
+    } catch (DataIntegrityViolationException e) {
+      // 并发的支付事件已创建
+      log.debug("共同购买记录已存在：productId={}, relatedProductId={}", productId, relatedProductId);
+    }
+  }
+
+  /**
+   * 按商品 ID 取模划分的商品分片
+   *
+   * @param remainder 余数
+   * @param modulus 模
+   */
+  private record Shard(long remainder, long modulus) {
+    boolean contains(Long productId) {
+      return Math.floorMod(productId, modulus) == remainder;
+    }
+
+    /** 拆成两个分片之一，half 为 0 或 1 */
+    Shard half(int half) {
+      return new Shard(remainder + half * modulus, modulus * 2);
+    }
+  }
+}
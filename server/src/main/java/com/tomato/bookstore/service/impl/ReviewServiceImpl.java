@@ -12,6 +12,7 @@ import com.tomato.bookstore.model.User;
 import com.tomato.bookstore.repository.ProductRepository;
 import com.tomato.bookstore.repository.ReviewRepository;
 import com.tomato.bookstore.repository.UserRepository;
+import com.tomato.bookstore.service.ProductService;
 import com.tomato.bookstore.service.ReviewService;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -35,6 +36,7 @@ public class ReviewServiceImpl implements ReviewService {
   private final ReviewRepository reviewRepository;
   private final UserRepository userRepository;
   private final ProductRepository productRepository;
+  private final ProductService productService;
 
   @Override
   public List<ReviewDTO> getReviewsByProductId(Long productId) {
@@ -322,6 +324,7 @@ public class ReviewServiceImpl implements ReviewService {
       product.setRate(BASE_RATING);
     }
     productRepository.save(product);
+    productService.evictProduct(product.getId());
     log.info("更新商品 {} 评分为 {}", product.getId(), product.getRate());
   }
 }
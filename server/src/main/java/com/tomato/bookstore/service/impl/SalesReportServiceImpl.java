@@ -0,0 +1,195 @@
+package com.tomato.bookstore.service.impl;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.constant.ExceptionMessages;
+import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.dto.DailyOrderStatsDTO;
+import com.tomato.bookstore.dto.ProductDailySalesDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.model.DailyOrderStats;
+import com.tomato.bookstore.model.ProductDailySales;
+import com.tomato.bookstore.repository.DailyOrderStatsRepository;
+import com.tomato.bookstore.repository.OrderLineRepository;
+import com.tomato.bookstore.repository.OrderLineRepository.ProductSales;
+import com.tomato.bookstore.repository.OrderRepository;
+import com.tomato.bookstore.repository.OrderRepository.OrderTotals;
+import com.tomato.bookstore.repository.ProductDailySalesRepository;
+import com.tomato.bookstore.service.SalesReportService;
+import com.tomato.bookstore.util.SnowflakeIdGenerator;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 销售报表服务实现
+ *
+ * <p>汇总的日期取订单进入终态的时间（订单的更新时间），增量累加与按天重建使用同一口径。增量累加在订单事务中以插入或累加的方式写入汇总行，
+ * 随订单事务一同提交或回滚。同一事务内按商品 ID 顺序累加，避免并发事务互相死锁。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesReportServiceImpl implements SalesReportService {
+  /** 计入每日订单汇总的订单状态 */
+  private static final Set<OrderStatus> ROLLUP_STATUSES =
+      EnumSet.of(OrderStatus.PAID, OrderStatus.CANCELLED, OrderStatus.TIMEOUT);
+
+  private final Clock clock;
+  private final SnowflakeIdGenerator idGenerator;
+  private final TransactionTemplate transactionTemplate;
+  private final OrderRepository orderRepository;
+  private final OrderLineRepository orderLineRepository;
+  private final ProductDailySalesRepository productDailySalesRepository;
+  private final DailyOrderStatsRepository dailyOrderStatsRepository;
+
+  @Value("${app.report.max-days:366}")
+  private int maxDays;
+
+  @Override
+  @Transactional
+  public void recordOrders(Collection<Long> orderIds, LocalDate date) {
+    for (ProductSales sales : orderLineRepository.sumPaidSalesByProductForOrders(orderIds)) {
+      productDailySalesRepository.upsert(
+          idGenerator.nextId(),
+          date,
+          sales.getProductId(),
+          sales.getUnits(),
+          sales.getRevenue(),
+          sales.getOrderCount());
+    }
+
+    for (OrderTotals totals : orderRepository.sumTotalsByIdIn(orderIds)) {
+      if (!ROLLUP_STATUSES.contains(totals.getStatus())) {
+        continue;
+      }
+      dailyOrderStatsRepository.upsert(
+          idGenerator.nextId(),
+          date,
+          totals.getPaymentMethod().name(),
+          totals.getStatus().name(),
+          totals.getOrderCount(),
+          totals.getTotalAmount());
+    }
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<ProductDailySalesDTO> getProductDailySales(
+      LocalDate from, LocalDate to, Long productId) {
+    checkDateRange(from, to);
+    List<ProductDailySales> rows =
+        productId == null
+            ? productDailySalesRepository.findBySalesDateBetweenOrderBySalesDateAscProductIdAsc(
+                from, to)
+            : productDailySalesRepository.findByProductIdAndSalesDateBetweenOrderBySalesDateAsc(
+                productId, from, to);
+    return rows.stream()
+        .map(
+            row ->
+                ProductDailySalesDTO.builder()
+                    .salesDate(row.getSalesDate())
+                    .productId(row.getProductId())
+                    .units(row.getUnits())
+                    .revenue(row.getRevenue())
+                    .orderCount(row.getOrderCount())
+                    .build())
+        .toList();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<DailyOrderStatsDTO> getDailyOrderStats(LocalDate from, LocalDate to) {
+    checkDateRange(from, to);
+    return dailyOrderStatsRepository
+        .findByStatsDateBetweenOrderByStatsDateAscPaymentMethodAscStatusAsc(from, to)
+        .stream()
+        .map(
+            row ->
+                DailyOrderStatsDTO.builder()
+                    .statsDate(row.getStatsDate())
+                    .paymentMethod(row.getPaymentMethod())
+                    .status(row.getStatus())
+                    .orderCount(row.getOrderCount())
+                    .totalAmount(row.getTotalAmount())
+                    .build())
+        .toList();
+  }
+
+  @Override
+  public int backfill(LocalDate from, LocalDate to) {
+    checkDateRange(from, to);
+    // 当天的汇总仍在增量累加，重建会与之相互覆盖
+    LocalDate today = LocalDate.now(clock);
+    if (!to.isBefore(today)) {
+      throw new BusinessException(
+          BusinessErrorCode.REPORT_INVALID_DATE_RANGE,
+          String.format(ExceptionMessages.REPORT_BACKFILL_NOT_CLOSED, today));
+    }
+
+    log.info("重建销售汇总：from={}, to={}", from, to);
+    int days = 0;
+    for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+      LocalDate day = date;
+      transactionTemplate.executeWithoutResult(status -> rebuildDay(day));
+      days++;
+    }
+    log.info("销售汇总重建完成：days={}", days);
+    return days;
+  }
+
+  /**
+   * 从订单表重建指定日期的汇总
+   *
+   * @param date 日期
+   */
+  private void rebuildDay(LocalDate date) {
+    LocalDateTime start = date.atStartOfDay();
+    LocalDateTime end = date.plusDays(1).atStartOfDay();
+    productDailySalesRepository.deleteBySalesDate(date);
+    dailyOrderStatsRepository.deleteByStatsDate(date);
+
+    productDailySalesRepository.saveAll(
+        orderLineRepository.sumPaidSalesByProductBetween(start, end).stream()
+            .map(
+                sales ->
+                    ProductDailySales.builder()
+                        .salesDate(date)
+                        .productId(sales.getProductId())
+                        .units(sales.getUnits())
+                        .revenue(sales.getRevenue())
+                        .orderCount(sales.getOrderCount())
+                        .build())
+            .toList());
+    dailyOrderStatsRepository.saveAll(
+        orderRepository.sumTotalsByStatusInAndUpdatedAtBetween(ROLLUP_STATUSES, start, end).stream()
+            .map(
+                totals ->
+                    DailyOrderStats.builder()
+                        .statsDate(date)
+                        .paymentMethod(totals.getPaymentMethod())
+                        .status(totals.getStatus())
+                        .orderCount(totals.getOrderCount())
+                        .totalAmount(totals.getTotalAmount())
+                        .build())
+            .toList());
+  }
+
+  private void checkDateRange(LocalDate from, LocalDate to) {
+    if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= maxDays) {
+      throw new BusinessException(
+          BusinessErrorCode.REPORT_INVALID_DATE_RANGE,
+          String.format(ExceptionMessages.REPORT_INVALID_DATE_RANGE, from, to, maxDays));
+    }
+  }
+}
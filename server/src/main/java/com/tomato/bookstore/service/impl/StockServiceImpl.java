@@ -0,0 +1,328 @@
+package com.tomato.bookstore.service.impl;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.constant.ExceptionMessages;
+import com.tomato.bookstore.dto.StockpileDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.model.Stockpile;
+import com.tomato.bookstore.model.StockpileBucket;
+import com.tomato.bookstore.repository.ProductRepository;
+import com.tomato.bookstore.repository.StockpileBucketRepository;
+import com.tomato.bookstore.repository.StockpileRepository;
+import com.tomato.bookstore.service.StockService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 库存服务实现
+ *
+ * <p>分桶商品的库存存放在 stockpile_buckets 中，stockpiles 行只保存未归入分桶的余量（重新分配后为 0）。锁定库存先读取分桶数：未分桶商品对主库存行
+ * 执行一条条件更新；分桶商品不碰主库存行，从随机分桶开始尝试，使并发结算分散到不同的行锁上。单个分桶不足时才锁定主库存行与所有分桶，按最新库存
+ * 跨分桶凑足数量。
+ *
+ * <p>解锁与扣减冻结库存按同样的方式尝试主库存行或单个分桶，不足时锁定主库存行与所有分桶按最新冻结库存扣除，合计不足时抛出异常，不会把冻结库存截断为 0。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockServiceImpl implements StockService {
+  private final StockpileRepository stockpileRepository;
+  private final StockpileBucketRepository stockpileBucketRepository;
+  private final ProductRepository productRepository;
+
+  @Override
+  @Transactional(readOnly = true)
+  public StockpileDTO getStockpile(Long productId) {
+    Stockpile stockpile = findStockpile(productId);
+    int amount = stockpile.getAmount();
+    int frozen = stockpile.getFrozen();
+    if (isBucketed(stockpile)) {
+      for (StockpileBucket bucket :
+          stockpileBucketRepository.findByProductIdOrderByBucketNo(productId)) {
+        amount += bucket.getAmount();
+        frozen += bucket.getFrozen();
+      }
+    }
+
+    return StockpileDTO.builder()
+        .id(stockpile.getId())
+        .amount(amount)
+        .frozen(frozen)
+        .bucketCount(stockpile.getBucketCount())
+        .flashSale(stockpile.getFlashSale())
+        .productId(productId)
+        .build();
+  }
+
+  @Override
+  @Transactional
+  public void updateStockpile(Long productId, Integer amount, Integer frozen) {
+    Stockpile stockpile =
+        stockpileRepository
+            .findForUpdateByProductId(productId)
+            .orElseGet(
+                () -> {
+                  log.debug("商品库存记录不存在，创建新的记录 productId={}", productId);
+                  return Stockpile.builder()
+                      .product(productRepository.getReferenceById(productId))
+                      .amount(0)
+                      .frozen(0)
+                      .build();
+                });
+
+    rebalance(stockpile, stockpile.getBucketCount(), amount, frozen);
+  }
+
+  @Override
+  @Transactional
+  public void configureBuckets(Long productId, Integer bucketCount) {
+    Stockpile stockpile =
+        stockpileRepository
+            .findForUpdateByProductId(productId)
+            .orElseThrow(() -> stockNotFound(productId));
+
+    int amount = stockpile.getAmount();
+    int frozen = stockpile.getFrozen();
+    for (StockpileBucket bucket : stockpileBucketRepository.findForUpdateByProductId(productId)) {
+      amount += bucket.getAmount();
+      frozen += bucket.getFrozen();
+    }
+
+    rebalance(stockpile, bucketCount, amount, frozen);
+    log.info(
+        "商品库存分桶已调整：productId={}, bucketCount={}, amount={}, frozen={}",
+        productId,
+        bucketCount,
+        amount,
+        frozen);
+  }
+
+  @Override
+  @Transactional
+  public boolean lockStock(Long productId, Integer quantity) {
+    // 未分桶商品一条条件更新即可完成
+    if (!isBucketed(productId)) {
+      return stockpileRepository.lockStock(productId, quantity) > 0;
+    }
+
+    // 分桶商品的主库存行已清零，不对其发起条件更新，否则即使未命中也会持有行锁直到订单事务提交，使结算重新串行
+    // 优先在单个分桶内完成锁定，只对快照显示库存充足的分桶发起条件更新
+    for (StockpileBucketRepository.BucketStock bucket : rotate(productId)) {
+      if (bucket.getAmount() >= quantity
+          && stockpileBucketRepository.lockStock(productId, bucket.getBucketNo(), quantity) > 0) {
+        return true;
+      }
+    }
+
+    // 单个分桶都不足时，锁定主库存行与所有分桶后按最新库存跨分桶凑足数量，合计不足才返回失败
+    Stockpile stockpile = stockpileRepository.findForUpdateByProductId(productId).orElse(null);
+    if (stockpile == null) {
+      return false;
+    }
+    List<StockpileBucket> buckets = stockpileBucketRepository.findForUpdateByProductId(productId);
+    int available = stockpile.getAmount();
+    for (StockpileBucket bucket : buckets) {
+      available += bucket.getAmount();
+    }
+    if (available < quantity) {
+      return false;
+    }
+
+    int remaining = quantity;
+    for (StockpileBucket bucket : buckets) {
+      int take = Math.min(bucket.getAmount(), remaining);
+      if (take > 0) {
+        stockpileBucketRepository.lockStock(productId, bucket.getBucketNo(), take);
+        remaining -= take;
+      }
+    }
+    if (remaining > 0) {
+      stockpileRepository.lockStock(productId, remaining);
+    }
+    return true;
+  }
+
+  @Override
+  @Transactional
+  public void unlockStock(Long productId, Integer quantity) {
+    if (!isBucketed(productId)) {
+      if (stockpileRepository.unlockStock(productId, quantity) > 0) {
+        return;
+      }
+    } else {
+      for (StockpileBucketRepository.BucketStock bucket : rotate(productId)) {
+        if (bucket.getFrozen() >= quantity
+            && stockpileBucketRepository.unlockStock(productId, bucket.getBucketNo(), quantity)
+                > 0) {
+          return;
+        }
+      }
+    }
+
+    int remaining = quantity;
+    for (StockpileBucket bucket : lockFrozen(productId, quantity)) {
+      int take = Math.min(bucket.getFrozen(), remaining);
+      if (take > 0) {
+        stockpileBucketRepository.unlockStock(productId, bucket.getBucketNo(), take);
+        remaining -= take;
+      }
+    }
+    if (remaining > 0) {
+      stockpileRepository.unlockStock(productId, remaining);
+    }
+  }
+
+  @Override
+  @Transactional
+  public void reduceFrozenStock(Long productId, Integer quantity) {
+    if (!isBucketed(productId)) {
+      if (stockpileRepository.reduceFrozenStock(productId, quantity) > 0) {
+        return;
+      }
+    } else {
+      for (StockpileBucketRepository.BucketStock bucket : rotate(productId)) {
+        if (bucket.getFrozen() >= quantity
+            && stockpileBucketRepository.reduceFrozenStock(
+                    productId, bucket.getBucketNo(), quantity)
+                > 0) {
+          return;
+        }
+      }
+    }
+
+    int remaining = quantity;
+    for (StockpileBucket bucket : lockFrozen(productId, quantity)) {
+      int take = Math.min(bucket.getFrozen(), remaining);
+      if (take > 0) {
+        stockpileBucketRepository.reduceFrozenStock(productId, bucket.getBucketNo(), take);
+        remaining -= take;
+      }
+    }
+    if (remaining > 0) {
+      stockpileRepository.reduceFrozenStock(productId, remaining);
+    }
+  }
+
+  /**
+   * 锁定主库存行与所有分桶，确认冻结库存合计足以扣除指定数量
+   *
+   * <p>调用方按分桶优先、主库存行兜底的顺序扣除；合计不足说明库存数据已不一致，直接报错而不是把冻结库存截断为 0。
+   *
+   * @param productId 商品 ID
+   * @param quantity 需要扣除的冻结数量
+   * @return 已加锁的分桶列表，未分桶商品为空列表
+   * @throws BusinessException 库存记录不存在，或冻结库存合计不足
+   */
+  private List<StockpileBucket> lockFrozen(Long productId, int quantity) {
+    Stockpile stockpile =
+        stockpileRepository
+            .findForUpdateByProductId(productId)
+            .orElseThrow(() -> stockNotFound(productId));
+    List<StockpileBucket> buckets = stockpileBucketRepository.findForUpdateByProductId(productId);
+    int frozen = stockpile.getFrozen();
+    for (StockpileBucket bucket : buckets) {
+      frozen += bucket.getFrozen();
+    }
+    if (frozen < quantity) {
+      log.error("商品冻结库存不足：productId={}, frozen={}, quantity={}", productId, frozen, quantity);
+      throw new BusinessException(
+          BusinessErrorCode.PRODUCT_FROZEN_STOCK_INSUFFICIENT,
+          String.format(
+              ExceptionMessages.PRODUCT_FROZEN_STOCK_INSUFFICIENT, productId, frozen, quantity));
+    }
+    return buckets;
+  }
+
+  /**
+   * 按指定分桶数重新分配库存总量
+   *
+   * <p>分桶数大于 1 时，库存平均分配到各分桶（余数分给编号靠前的分桶），主库存行清零；否则库存全部归入主库存行并删除分桶。
+   *
+   * @param stockpile 已加锁的库存记录
+   * @param bucketCount 分桶数
+   * @param amount 可售库存总量
+   * @param frozen 冻结库存总量
+   */
+  private void rebalance(Stockpile stockpile, int bucketCount, int amount, int frozen) {
+    Long productId = stockpile.getProduct().getId();
+    if (stockpile.getId() != null) {
+      stockpileBucketRepository.deleteByProductId(productId);
+    }
+
+    if (bucketCount > 1) {
+      List<StockpileBucket> buckets = new ArrayList<>(bucketCount);
+      for (int i = 0; i < bucketCount; i++) {
+        buckets.add(
+            StockpileBucket.builder()
+                .productId(productId)
+                .bucketNo(i)
+                .amount(share(amount, bucketCount, i))
+                .frozen(share(frozen, bucketCount, i))
+                .build());
+      }
+      stockpileBucketRepository.saveAll(buckets);
+      stockpile.setAmount(0);
+      stockpile.setFrozen(0);
+      stockpile.setBucketCount(bucketCount);
+    } else {
+      stockpile.setAmount(amount);
+      stockpile.setFrozen(frozen);
+      stockpile.setBucketCount(0);
+    }
+    stockpileRepository.save(stockpile);
+  }
+
+  /**
+   * 读取商品的分桶快照，并从随机位置开始轮转，使并发请求优先命中不同的分桶
+   *
+   * <p>快照只用于挑选尝试的分桶，是否成功以条件更新的结果为准。
+   *
+   * @param productId 商品 ID
+   * @return 轮转后的分桶快照
+   */
+  private List<StockpileBucketRepository.BucketStock> rotate(Long productId) {
+    List<StockpileBucketRepository.BucketStock> buckets =
+        stockpileBucketRepository.findStocksByProductId(productId);
+    if (buckets.size() < 2) {
+      return buckets;
+    }
+    int start = ThreadLocalRandom.current().nextInt(buckets.size());
+    List<StockpileBucketRepository.BucketStock> rotated = new ArrayList<>(buckets.size());
+    rotated.addAll(buckets.subList(start, buckets.size()));
+    rotated.addAll(buckets.subList(0, start));
+    return rotated;
+  }
+
+  private static int share(int total, int bucketCount, int bucketNo) {
+    return total / bucketCount + (bucketNo < total % bucketCount ? 1 : 0);
+  }
+
+  private static boolean isBucketed(Stockpile stockpile) {
+    return stockpile.getBucketCount() != null && stockpile.getBucketCount() > 1;
+  }
+
+  private boolean isBucketed(Long productId) {
+    return stockpileRepository
+        .findBucketCountByProductId(productId)
+        .map(bucketCount -> bucketCount > 1)
+        .orElse(false);
+  }
+
+  private Stockpile findStockpile(Long productId) {
+    return stockpileRepository
+        .findByProductId(productId)
+        .orElseThrow(() -> stockNotFound(productId));
+  }
+
+  private BusinessException stockNotFound(Long productId) {
+    log.warn("商品库存记录不存在：productId={}", productId);
+    return new BusinessException(
+        BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND,
+        String.format(ExceptionMessages.PRODUCT_STOCK_NOT_FOUND, productId));
+  }
+}
@@ -0,0 +1,35 @@
+package com.tomato.bookstore.task;
+
+import com.tomato.bookstore.service.BestsellerService;
+import com.tomato.bookstore.service.JobLeaseService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 畅销榜同步任务
+ *
+ * <p>支付可能发生在任一实例上（支付通知与对账补单），由持有快照租约的实例从销售汇总合并所有实例的支付并写入榜单快照
+ */
+@Component
+@RequiredArgsConstructor
+public class BestsellerTask {
+  private static final String LEASE_NAME = "bestseller-snapshot";
+
+  private final JobLeaseService jobLeaseService;
+  private final BestsellerService bestsellerService;
+
+  /** 启动时从已支付订单重建榜单 */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    bestsellerService.rebuild();
+  }
+
+  /** 定期同步榜单 */
+  @Scheduled(fixedDelayString = "${app.bestseller.sync-interval-ms:60000}")
+  public void sync() {
+    bestsellerService.sync(jobLeaseService.tryAcquire(LEASE_NAME));
+  }
+}
@@ -0,0 +1,23 @@
+package com.tomato.bookstore.task;
+
+import com.tomato.bookstore.service.JobLeaseService;
+import com.tomato.bookstore.service.OrderArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** 订单归档任务 */
+@Component
+@RequiredArgsConstructor
+public class OrderArchiveTask {
+  private static final String LEASE_NAME = "order-archive";
+
+  private final JobLeaseService jobLeaseService;
+  private final OrderArchiveService orderArchiveService;
+
+  /** 归档超过保留期的已取消、已超时订单 */
+  @Scheduled(cron = "${app.order-archive.cron:0 0 4 * * *}")
+  public void archive() {
+    jobLeaseService.runWithLease(LEASE_NAME, orderArchiveService::archive);
+  }
+}
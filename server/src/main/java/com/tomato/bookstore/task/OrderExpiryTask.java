@@ -0,0 +1,124 @@
+package com.tomato.bookstore.task;
+
+import com.tomato.bookstore.service.JobLeaseService;
+import com.tomato.bookstore.service.OrderService;
+import com.tomato.bookstore.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订单过期任务
+ *
+ * <p>每个刻度推进一次订单过期时间轮，只有存在到期订单时才访问数据库。时间轮在下单时登记、支付或取消时移除，只保存在内存中。
+ * 到期订单按固定大小分批，每批一个事务，批量超时（如大量放弃结算）时事务规模有界，并可多批并行处理。
+ *
+ * <p>每个实例的时间轮只含本实例运行期间创建的订单，各实例分担超时处理。启动时不从数据库加载待支付订单：已停止或重启的实例遗留的订单
+ * 由持有租约的实例在过期 app.order.expiry-sweep-grace-ms 之后分批接管，最多晚一个宽限期加一个检查间隔关闭。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExpiryTask {
+  private static final String SWEEP_LEASE_NAME = "order-expiry-sweep";
+
+  private final Clock clock;
+  private final TimingWheel<Long> orderExpiryWheel;
+  private final OrderService orderService;
+  private final JobLeaseService jobLeaseService;
+
+  @Value("${app.order.expiry-chunk-size:500}")
+  private int chunkSize;
+
+  @Value("${app.order.expiry-sweep-grace-ms:60000}")
+  private long sweepGraceMillis;
+
+  @Value("${app.order.expiry-parallelism:1}")
+  private int parallelism;
+
+  private ExecutorService executor;
+
+  @PostConstruct
+  void init() {
+    if (parallelism > 1) {
+      AtomicInteger threadCount = new AtomicInteger();
+      executor =
+          Executors.newFixedThreadPool(
+              parallelism,
+              runnable -> {
+                Thread thread =
+                    new Thread(runnable, "order-expiry-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  /** 推进时间轮并分批关闭到期订单 */
+  @Scheduled(fixedDelayString = "${app.order.expiry-tick-ms:1000}")
+  public void tick() {
+    List<Long> expiredOrderIds = orderExpiryWheel.advance(clock.millis());
+    if (expiredOrderIds.isEmpty()) {
+      return;
+    }
+
+    List<List<Long>> chunks = new ArrayList<>();
+    for (int from = 0; from < expiredOrderIds.size(); from += chunkSize) {
+      int to = Math.min(from + chunkSize, expiredOrderIds.size());
+      chunks.add(expiredOrderIds.subList(from, to));
+    }
+
+    if (executor == null || chunks.size() == 1) {
+      chunks.forEach(this::handleChunk);
+      return;
+    }
+    CompletableFuture.allOf(
+            chunks.stream()
+                .map(chunk -> CompletableFuture.runAsync(() -> handleChunk(chunk), executor))
+                .toArray(CompletableFuture[]::new))
+        .join();
+  }
+
+  /** 接管超过过期时间仍未关闭的订单（如创建订单的实例已停止），登记到本实例的时间轮，由下一个刻度处理 */
+  @Scheduled(fixedDelayString = "${app.order.expiry-sweep-ms:60000}")
+  public void sweep() {
+    if (jobLeaseService.tryAcquire(SWEEP_LEASE_NAME)) {
+      orderService.scheduleOverdueOrders(Duration.ofMillis(sweepGraceMillis), chunkSize);
+    }
+  }
+
+  /**
+   * 在独立事务中处理一批到期订单
+   *
+   * @param orderIds 订单 ID
+   */
+  private void handleChunk(List<Long> orderIds) {
+    try {
+      orderService.handleExpiredOrders(orderIds);
+    } catch (RuntimeException e) {
+      // 处理失败时重新登记，下一个刻度重试
+      long now = clock.millis();
+      orderIds.forEach(orderId -> orderExpiryWheel.schedule(orderId, now));
+      log.error("处理过期订单失败，稍后重试：orderIds={}", orderIds, e);
+    }
+  }
+}
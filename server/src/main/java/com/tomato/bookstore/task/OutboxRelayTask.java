@@ -0,0 +1,34 @@
+package com.tomato.bookstore.task;
+
+import com.tomato.bookstore.service.JobLeaseService;
+import com.tomato.bookstore.service.OutboxRelayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 发件箱转发任务
+ *
+ * <p>由持有租约的一个实例投递，多实例不会并发投递同一批消息。投递顺序不保证与事务提交顺序一致，见 {@link OutboxRelayService}
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxRelayTask {
+  private static final String RELAY_LEASE_NAME = "outbox-relay";
+  private static final String PRUNE_LEASE_NAME = "outbox-prune";
+
+  private final JobLeaseService jobLeaseService;
+  private final OutboxRelayService outboxRelayService;
+
+  /** 批量投递发件箱消息 */
+  @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:1000}")
+  public void relay() {
+    jobLeaseService.runWithLease(RELAY_LEASE_NAME, outboxRelayService::relay);
+  }
+
+  /** 清理已投递的发件箱消息 */
+  @Scheduled(fixedDelayString = "${app.outbox.prune-interval-ms:600000}")
+  public void prune() {
+    jobLeaseService.runWithLease(PRUNE_LEASE_NAME, outboxRelayService::prune);
+  }
+}
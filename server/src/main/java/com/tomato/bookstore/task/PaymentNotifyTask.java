@@ -0,0 +1,29 @@
+package com.tomato.bookstore.task;
+
+import com.tomato.bookstore.service.JobLeaseService;
+import com.tomato.bookstore.service.PaymentNotifyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 支付通知处理任务
+ *
+ * <p>收件箱由持有租约的一个实例按接收顺序处理，多实例不会重复读取同一批通知
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentNotifyTask {
+  private static final String LEASE_NAME = "payment-notify";
+
+  private final JobLeaseService jobLeaseService;
+  private final PaymentNotifyService paymentNotifyService;
+
+  /** 批量应用已接收的支付通知 */
+  @Scheduled(fixedDelayString = "${app.payment.notify-poll-ms:500}")
+  public void processPending() {
+    if (jobLeaseService.tryAcquire(LEASE_NAME)) {
+      paymentNotifyService.processPending();
+    }
+  }
+}
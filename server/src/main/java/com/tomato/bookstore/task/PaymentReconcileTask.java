@@ -0,0 +1,28 @@
+package com.tomato.bookstore.task;
+
+import com.tomato.bookstore.service.JobLeaseService;
+import com.tomato.bookstore.service.PaymentReconcileService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 支付对账任务
+ *
+ * <p>由持有租约的一个实例向支付宝查询，实例数增加时查询量不变
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentReconcileTask {
+  private static final String LEASE_NAME = "payment-reconcile";
+
+  private final JobLeaseService jobLeaseService;
+  private final PaymentReconcileService paymentReconcileService;
+
+  /** 查询临近过期的待支付订单的交易状态 */
+  @Scheduled(fixedDelayString = "${app.payment.reconcile-interval-ms:60000}")
+  public void reconcile() {
+    // 一批远程查询可能超过租约时长，执行期间由后台续期
+    jobLeaseService.runWithLease(LEASE_NAME, leaseHeld -> paymentReconcileService.reconcile());
+  }
+}
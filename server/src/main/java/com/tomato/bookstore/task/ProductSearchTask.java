@@ -0,0 +1,31 @@
+package com.tomato.bookstore.task;
+
+import com.tomato.bookstore.service.ProductSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品搜索索引任务
+ *
+ * <p>每个实例各自持有完整索引，不需要租约
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductSearchTask {
+  private final ProductSearchService productSearchService;
+
+  /** 启动时加载索引 */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    productSearchService.load();
+  }
+
+  /** 定期补齐其他实例的修改并写出快照 */
+  @Scheduled(fixedDelayString = "${app.product-search.refresh-interval-ms:60000}")
+  public void refresh() {
+    productSearchService.refresh();
+  }
+}
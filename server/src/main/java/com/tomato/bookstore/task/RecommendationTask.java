@@ -0,0 +1,27 @@
+package com.tomato.bookstore.task;
+
+import com.tomato.bookstore.service.JobLeaseService;
+import com.tomato.bookstore.service.RecommendationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 共同购买推荐重建任务
+ *
+ * <p>每天从已支付订单全量重建，修正增量累加时未计入的新组合
+ */
+@Component
+@RequiredArgsConstructor
+public class RecommendationTask {
+  private static final String LEASE_NAME = "co-purchase-rebuild";
+
+  private final JobLeaseService jobLeaseService;
+  private final RecommendationService recommendationService;
+
+  /** 重建共同购买推荐 */
+  @Scheduled(cron = "${app.recommendation.rebuild-cron:0 30 3 * * *}")
+  public void rebuild() {
+    jobLeaseService.runWithLease(LEASE_NAME, recommendationService::rebuild);
+  }
+}
@@ -0,0 +1,36 @@
+package com.tomato.bookstore.task;
+
+import com.tomato.bookstore.service.JobLeaseService;
+import com.tomato.bookstore.service.SalesReportService;
+import java.time.Clock;
+import java.time.LocalDate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 销售汇总校准任务
+ *
+ * <p>每天凌晨从订单表重建前一天的汇总，跨零点提交的订单事务等情况造成的偏差在次日得到修正
+ */
+@Component
+@RequiredArgsConstructor
+public class SalesRollupTask {
+  private static final String LEASE_NAME = "sales-rollup";
+
+  private final Clock clock;
+  private final JobLeaseService jobLeaseService;
+  private final SalesReportService salesReportService;
+
+  /** 重建前一天的销售汇总 */
+  @Scheduled(cron = "${app.report.rebuild-cron:0 10 0 * * *}")
+  public void rebuildYesterday() {
+    // 只重建一天、在一个事务中完成，租约在执行期间由后台续期
+    jobLeaseService.runWithLease(
+        LEASE_NAME,
+        leaseHeld -> {
+          LocalDate yesterday = LocalDate.now(clock).minusDays(1);
+          salesReportService.backfill(yesterday, yesterday);
+        });
+  }
+}
@@ -0,0 +1,147 @@
+package com.tomato.bookstore.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按商品计数的无锁准入闸门
+ *
+ * <p>每个受控商品维护一个剩余名额计数，请求以 CAS 方式扣减名额，名额不足时立即拒绝，不触碰数据库。已准入但尚未完成的数量单独计数，与数据库库存同步时从可售库存中扣除，避免重复放行。
+ */
+public class AdmissionGate {
+  private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+  /**
+   * 开启或重置指定商品的闸门
+   *
+   * @param productId 商品 ID
+   * @param available 数据库中的可售库存
+   */
+  public void open(Long productId, int available) {
+    counters.computeIfAbsent(productId, id -> new Counter()).sync(available);
+  }
+
+  /**
+   * 关闭指定商品的闸门
+   *
+   * @param productId 商品 ID
+   */
+  public void close(Long productId) {
+    counters.remove(productId);
+  }
+
+  /**
+   * 商品是否受闸门控制
+   *
+   * @param productId 商品 ID
+   * @return 是否受控
+   */
+  public boolean isGated(Long productId) {
+    return counters.containsKey(productId);
+  }
+
+  /**
+   * 所有受控商品 ID
+   *
+   * @return 商品 ID 集合
+   */
+  public Set<Long> gatedProductIds() {
+    return Set.copyOf(counters.keySet());
+  }
+
+  /**
+   * 当前剩余名额
+   *
+   * @param productId 商品 ID
+   * @return 剩余名额，未受控时返回 -1
+   */
+  public int remaining(Long productId) {
+    Counter counter = counters.get(productId);
+    return counter == null ? -1 : counter.permits.get();
+  }
+
+  /**
+   * 以数据库可售库存校准剩余名额（扣除已准入未完成的数量）
+   *
+   * @param productId 商品 ID
+   * @param available 数据库中的可售库存
+   */
+  public void sync(Long productId, int available) {
+    Counter counter = counters.get(productId);
+    if (counter != null) {
+      counter.sync(available);
+    }
+  }
+
+  /**
+   * 尝试为一组商品同时获取名额，任一商品不足时已获取的名额全部退回
+   *
+   * @param quantities 商品 ID 到数量的映射（按商品 ID 有序），未受控商品忽略
+   * @return 是否全部获取成功
+   */
+  public boolean tryAcquire(SortedMap<Long, Integer> quantities) {
+    List<Map.Entry<Counter, Integer>> acquired = new ArrayList<>();
+    for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+      Counter counter = counters.get(entry.getKey());
+      if (counter == null) {
+        continue;
+      }
+      if (!counter.tryAcquire(entry.getValue())) {
+        acquired.forEach(e -> e.getKey().complete(e.getValue(), false));
+        return false;
+      }
+      acquired.add(Map.entry(counter, entry.getValue()));
+    }
+    return true;
+  }
+
+  /**
+   * 已准入的请求处理完毕
+   *
+   * @param quantities 获取名额时的商品数量映射
+   * @param consumed 库存是否已被实际占用（下单成功或数据库库存确已不足），否则退回名额
+   */
+  public void complete(Map<Long, Integer> quantities, boolean consumed) {
+    quantities.forEach(
+        (productId, quantity) -> {
+          Counter counter = counters.get(productId);
+          if (counter != null) {
+            counter.complete(quantity, consumed);
+          }
+        });
+  }
+
+  private static final class Counter {
+    private final AtomicInteger permits = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    boolean tryAcquire(int quantity) {
+      while (true) {
+        int current = permits.get();
+        if (current < quantity) {
+          return false;
+        }
+        if (permits.compareAndSet(current, current - quantity)) {
+          inFlight.addAndGet(quantity);
+          return true;
+        }
+      }
+    }
+
+    void complete(int quantity, boolean consumed) {
+      inFlight.addAndGet(-quantity);
+      if (!consumed) {
+        permits.addAndGet(quantity);
+      }
+    }
+
+    void sync(int available) {
+      permits.set(Math.max(0, available - Math.max(0, inFlight.get())));
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package com.tomato.bookstore.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 带过期时间与容量上限的内存缓存
+ *
+ * <p>读取时惰性淘汰过期条目；写入超出容量时先清理过期条目，仍超出则淘汰最早过期的条目。适用于条目量有限、允许丢失的场景（如结算凭证、幂等记录、读缓存）。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class ExpiringCache<K, V> {
+  private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final Duration ttl;
+  private final int maxSize;
+  private final Clock clock;
+
+  /**
+   * 创建缓存
+   *
+   * @param ttl 默认存活时间
+   * @param maxSize 最大条目数
+   * @param clock 时钟
+   */
+  public ExpiringCache(Duration ttl, int maxSize, Clock clock) {
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("ttl must be positive");
+    }
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    this.ttl = ttl;
+    this.maxSize = maxSize;
+    this.clock = clock;
+  }
+
+  /**
+   * 获取未过期的值
+   *
+   * @param key 键
+   * @return 值，不存在或已过期时返回 null
+   */
+  public V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.isExpired(clock.millis())) {
+      entries.remove(key, entry);
+      return null;
+    }
+    return entry.value();
+  }
+
+  /**
+   * 以默认存活时间写入
+   *
+   * @param key 键
+   * @param value 值
+   */
+  public void put(K key, V value) {
+    put(key, value, ttl);
+  }
+
+  /**
+   * 以指定存活时间写入
+   *
+   * @param key 键
+   * @param value 值
+   * @param timeToLive 存活时间
+   */
+  public void put(K key, V value, Duration timeToLive) {
+    entries.put(key, new Entry<>(value, clock.millis() + timeToLive.toMillis()));
+    evictIfNecessary();
+  }
+
+  /**
+   * 仅当键不存在（或已过期）时写入
+   *
+   * @param key 键
+   * @param value 值
+   * @return 已存在的未过期值，写入成功时返回 null
+   */
+  public V putIfAbsent(K key, V value) {
+    long now = clock.millis();
+    Entry<V> fresh = new Entry<>(value, now + ttl.toMillis());
+    Entry<V> current =
+        entries.compute(
+            key, (k, existing) -> existing == null || existing.isExpired(now) ? fresh : existing);
+    if (current == fresh) {
+      evictIfNecessary();
+      return null;
+    }
+    return current.value();
+  }
+
+  /**
+   * 原子地更新未过期的值，保留原有的过期时间
+   *
+   * @param key 键
+   * @param updater 更新函数，返回 null 表示删除
+   * @return 更新后的值，键不存在或已过期时返回 null 且不调用更新函数
+   */
+  public V computeIfPresent(K key, Function<? super V, ? extends V> updater) {
+    long now = clock.millis();
+    Entry<V> updated =
+        entries.computeIfPresent(
+            key,
+            (k, existing) -> {
+              if (existing.isExpired(now)) {
+                return null;
+              }
+              V value = updater.apply(existing.value());
+              return value == null ? null : new Entry<>(value, existing.expiresAt());
+            });
+    return updated == null ? null : updated.value();
+  }
+
+  /**
+   * 删除条目
+   *
+   * @param key 键
+   */
+  public void remove(K key) {
+    entries.remove(key);
+  }
+
+  /** 清空缓存 */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * 当前条目数（可能包含尚未清理的过期条目）
+   *
+   * @return 条目数
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * 清理所有过期条目
+   *
+   * @return 清理的条目数
+   */
+  public int purgeExpired() {
+    long now = clock.millis();
+    int before = entries.size();
+    entries.values().removeIf(entry -> entry.isExpired(now));
+    return Math.max(0, before - entries.size());
+  }
+
+  private void evictIfNecessary() {
+    if (entries.size() <= maxSize) {
+      return;
+    }
+    purgeExpired();
+    while (entries.size() > maxSize) {
+      entries.entrySet().stream()
+          .min(Comparator.comparingLong(e -> e.getValue().expiresAt()))
+          .ifPresent(e -> entries.remove(e.getKey(), e.getValue()));
+    }
+  }
+
+  private record Entry<V>(V value, long expiresAt) {
+    boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+}
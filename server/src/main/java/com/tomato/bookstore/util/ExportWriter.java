@@ -0,0 +1,118 @@
+package com.tomato.bookstore.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tomato.bookstore.constant.ExportFormat;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 逐行写出导出文件
+ *
+ * <p>CSV 以 UTF-8 BOM 开头，便于表格软件识别中文；以 =、+、-、@ 开头的文本前加单引号，避免被当作公式执行。JSON Lines 每行一个对象，字段名即列名。
+ * 时间统一格式化为 yyyy-MM-dd HH:mm:ss，与接口返回的格式一致。
+ */
+public class ExportWriter {
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private final Writer writer;
+  private final ExportFormat format;
+  private final List<String> columns;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * 创建导出写出器，CSV 格式立即写出表头
+   *
+   * @param out 输出流
+   * @param format 文件格式
+   * @param columns 列名
+   * @param objectMapper JSON 序列化器
+   * @throws IOException 写出失败
+   */
+  public ExportWriter(
+      OutputStream out, ExportFormat format, List<String> columns, ObjectMapper objectMapper)
+      throws IOException {
+    this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    this.format = format;
+    this.columns = columns;
+    this.objectMapper = objectMapper;
+    if (format == ExportFormat.CSV) {
+      writer.write('\uFEFF');
+      writeCsvLine(columns);
+    }
+  }
+
+  /**
+   * 写出一行
+   *
+   * @param values 各列的值，顺序与列名一致
+   * @throws IOException 写出失败
+   */
+  public void write(List<?> values) throws IOException {
+    if (format == ExportFormat.CSV) {
+      writeCsvLine(values);
+      return;
+    }
+    Map<String, Object> row = new LinkedHashMap<>();
+    for (int i = 0; i < columns.size(); i++) {
+      row.put(columns.get(i), normalize(values.get(i)));
+    }
+    writer.write(objectMapper.writeValueAsString(row));
+    writer.write('\n');
+  }
+
+  /**
+   * 将已写出的内容发送给客户端
+   *
+   * @throws IOException 写出失败
+   */
+  public void flush() throws IOException {
+    writer.flush();
+  }
+
+  private void writeCsvLine(List<?> values) throws IOException {
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      writer.write(csvField(normalize(values.get(i))));
+    }
+    writer.write("\r\n");
+  }
+
+  private static String csvField(Object value) {
+    if (value == null) {
+      return "";
+    }
+    String text = value.toString();
+    if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+      text = "'" + text;
+    }
+    if (text.indexOf(',') < 0
+        && text.indexOf('"') < 0
+        && text.indexOf('\n') < 0
+        && text.indexOf('\r') < 0) {
+      return text;
+    }
+    return '"' + text.replace("\"", "\"\"") + '"';
+  }
+
+  private static Object normalize(Object value) {
+    if (value instanceof LocalDateTime dateTime) {
+      return DATE_TIME_FORMATTER.format(dateTime);
+    }
+    if (value instanceof Enum<?> constant) {
+      return constant.name();
+    }
+    return value;
+  }
+}
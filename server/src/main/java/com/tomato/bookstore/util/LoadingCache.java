@@ -0,0 +1,138 @@
+package com.tomato.bookstore.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 读穿缓存
+ *
+ * <p>未命中时由第一个请求调用加载函数，同一个键的其他并发请求等待其结果，热点键过期时只有一次回源。加载期间发生失效时，加载结果照常返回但不写入缓存，
+ * 避免失效前读到的旧值在失效后被写回。加载失败不缓存，异常原样抛给所有等待的请求。存储基于 {@link ExpiringCache}，条目数与存活时间受限。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LoadingCache<K, V> {
+  private final ExpiringCache<K, V> values;
+  private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /** 失效次数，加载前后不一致说明期间发生过失效 */
+  private long generation;
+
+  /**
+   * 创建缓存
+   *
+   * @param ttl 存活时间
+   * @param maxSize 最大条目数
+   * @param clock 时钟
+   */
+  public LoadingCache(Duration ttl, int maxSize, Clock clock) {
+    this.values = new ExpiringCache<>(ttl, maxSize, clock);
+  }
+
+  /**
+   * 获取值，未命中时加载
+   *
+   * @param key 键
+   * @param loader 加载函数，不得返回 null
+   * @return 值
+   */
+  public V get(K key, Function<? super K, ? extends V> loader) {
+    V cached = values.get(key);
+    if (cached != null) {
+      hits.increment();
+      return cached;
+    }
+    misses.increment();
+
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+    if (existing != null) {
+      return await(existing);
+    }
+    try {
+      long loadGeneration = generation();
+      V value = loader.apply(key);
+      putIfNotInvalidated(key, value, loadGeneration);
+      future.complete(value);
+      return value;
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.remove(key, future);
+    }
+  }
+
+  /**
+   * 使指定键失效
+   *
+   * @param key 键
+   */
+  public synchronized void invalidate(K key) {
+    generation++;
+    values.remove(key);
+  }
+
+  /** 使所有键失效 */
+  public synchronized void invalidateAll() {
+    generation++;
+    values.clear();
+  }
+
+  /**
+   * 命中次数
+   *
+   * @return 次数
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * 未命中次数（含等待其他请求加载的次数）
+   *
+   * @return 次数
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * 当前条目数（可能包含尚未清理的过期条目）
+   *
+   * @return 条目数
+   */
+  public int size() {
+    return values.size();
+  }
+
+  private synchronized long generation() {
+    return generation;
+  }
+
+  private synchronized void putIfNotInvalidated(K key, V value, long loadGeneration) {
+    if (generation == loadGeneration) {
+      values.put(key, value);
+    }
+  }
+
+  private V await(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package com.tomato.bookstore.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 从定时任务租约表租用的 ID 生成器节点号
+ *
+ * <p>节点号 n 对应租约表中名为 snowflake-node-n 的一行。首次生成 ID 时取得一个没有实例持有或已到期的节点号，之后由后台线程每隔租约时长的
+ * 三分之一续期。租约在本地到期前没能续期（如数据库不可用）或已被其他实例接管时，生成 ID 立即失败，直到重新取得节点号，宁可拒绝写入也不产生
+ * 重复 ID。实例停止时不释放租约，节点号到期后才能被其他实例使用，因此同时运行的实例数不能超过 {@link SnowflakeIdGenerator#MAX_NODES}。
+ *
+ * <p>使用独立的自动提交连接而不是 JPA：首次生成 ID 通常发生在业务事务中，租约不能随业务回滚，而且 Hibernate 启动时就需要生成器实例。
+ */
+@Slf4j
+public class NodeIdLease implements IntSupplier, AutoCloseable {
+  /** 租约名前缀，后接节点号 */
+  public static final String LEASE_PREFIX = "snowflake-node-";
+
+  private static final String RENEW_SQL =
+      "UPDATE job_leases SET owner = ?, expires_at = ?, renewed_at = ?"
+          + " WHERE name = ? AND (owner = ? OR expires_at < ?)";
+
+  private static final String CREATE_SQL =
+      "INSERT INTO job_leases (name, owner, expires_at, renewed_at) VALUES (?, ?, ?, ?)";
+
+  private final DataSource dataSource;
+  private final Clock clock;
+  private final long leaseMillis;
+  private final String owner;
+  private final ScheduledExecutorService heartbeat;
+
+  /** 持有或最近一次持有的节点号，重新租用时优先尝试 */
+  private volatile int nodeId;
+
+  /** 最近一次成功续期后的到期时间（毫秒），0 表示未持有 */
+  private volatile long expiresAtMillis;
+
+  /**
+   * 创建节点号租约，首次调用 {@link #getAsInt()} 时才访问数据库
+   *
+   * @param dataSource 数据源
+   * @param clock 时钟，各实例的时钟偏差应远小于租约时长
+   * @param leaseMillis 租约时长（毫秒）
+   * @param owner 当前实例标识
+   */
+  public NodeIdLease(DataSource dataSource, Clock clock, long leaseMillis, String owner) {
+    this.dataSource = dataSource;
+    this.clock = clock;
+    this.leaseMillis = leaseMillis;
+    this.owner = owner;
+    heartbeat =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "node-id-lease");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long interval = Math.max(leaseMillis / 3, 1);
+    heartbeat.scheduleWithFixedDelay(this::renew, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * 返回当前持有的节点号，未持有时先租用
+   *
+   * @return 节点号
+   * @throws IllegalStateException 所有节点号都被其他实例持有或无法访问数据库
+   */
+  @Override
+  public int getAsInt() {
+    // 先读到期时间再读节点号：切换节点号时先写节点号再写到期时间
+    if (clock.millis() < expiresAtMillis) {
+      return nodeId;
+    }
+    return acquire();
+  }
+
+  @Override
+  public void close() {
+    heartbeat.shutdownNow();
+  }
+
+  private synchronized int acquire() {
+    if (clock.millis() < expiresAtMillis) {
+      return nodeId;
+    }
+    int preferred = nodeId;
+    for (int i = 0; i < SnowflakeIdGenerator.MAX_NODES; i++) {
+      int candidate = (preferred + i) % SnowflakeIdGenerator.MAX_NODES;
+      long now = clock.millis();
+      long expiresAt = now + leaseMillis;
+      try {
+        if (lease(candidate, now, expiresAt)) {
+          nodeId = candidate;
+          expiresAtMillis = expiresAt;
+          log.info("已租用 ID 生成器节点号：nodeId={}, owner={}", candidate, owner);
+          return candidate;
+        }
+      } catch (SQLException e) {
+        throw new IllegalStateException("租用 ID 生成器节点号失败", e);
+      }
+    }
+    throw new IllegalStateException(
+        "没有空闲的 ID 生成器节点号，同时运行的实例数不能超过 " + SnowflakeIdGenerator.MAX_NODES);
+  }
+
+  /** 续期持有的节点号，失去租约后等下次生成 ID 时重新租用 */
+  private synchronized void renew() {
+    long now = clock.millis();
+    if (expiresAtMillis == 0) {
+      return;
+    }
+    if (now >= expiresAtMillis) {
+      expiresAtMillis = 0;
+      log.warn("ID 生成器节点号租约已到期，重新租用前暂停生成 ID：nodeId={}", nodeId);
+      return;
+    }
+    long expiresAt = now + leaseMillis;
+    try {
+      if (lease(nodeId, now, expiresAt)) {
+        expiresAtMillis = expiresAt;
+      } else {
+        expiresAtMillis = 0;
+        log.warn("ID 生成器节点号已被其他实例接管，重新租用前暂停生成 ID：nodeId={}", nodeId);
+      }
+    } catch (SQLException e) {
+      // 到期前继续重试
+      log.warn("ID 生成器节点号续期失败：nodeId={}", nodeId, e);
+    }
+  }
+
+  /**
+   * 续期自己持有的租约或接管已到期的租约，租约不存在时创建
+   *
+   * @return 是否持有租约
+   */
+  private boolean lease(int candidate, long nowMillis, long expiresAtMillis)
+      throws SQLException {
+    String name = LEASE_PREFIX + candidate;
+    LocalDateTime now = toLocalDateTime(nowMillis);
+    LocalDateTime expiresAt = toLocalDateTime(expiresAtMillis);
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(true);
+      try (PreparedStatement renew = connection.prepareStatement(RENEW_SQL)) {
+        renew.setString(1, owner);
+        renew.setObject(2, expiresAt);
+        renew.setObject(3, now);
+        renew.setString(4, name);
+        renew.setString(5, owner);
+        renew.setObject(6, now);
+        if (renew.executeUpdate() > 0) {
+          return true;
+        }
+      }
+      try (PreparedStatement create = connection.prepareStatement(CREATE_SQL)) {
+        create.setString(1, name);
+        create.setString(2, owner);
+        create.setObject(3, expiresAt);
+        create.setObject(4, now);
+        return create.executeUpdate() > 0;
+      } catch (SQLIntegrityConstraintViolationException e) {
+        // 其他实例持有该节点号
+        return false;
+      }
+    }
+  }
+
+  private LocalDateTime toLocalDateTime(long millis) {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), clock.getZone());
+  }
+}
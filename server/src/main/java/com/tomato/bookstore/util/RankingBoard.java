@@ -0,0 +1,87 @@
+package com.tomato.bookstore.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 有界排行榜
+ *
+ * <p>按分数降序（分数相同按键升序）维护有序索引，累加为 O(log n)，读取前 k 名为 O(k)。记录的键数超过容量时淘汰分数最低的键，
+ * 被淘汰的键之后重新上榜时从零计分，因此只有键数不超过容量时排名是精确的，容量应明显大于需要读取的名次数。
+ *
+ * @param <K> 键类型
+ */
+public class RankingBoard<K extends Comparable<K>> {
+  private final int capacity;
+  private final Map<K, Long> scores = new HashMap<>();
+  private final TreeSet<Entry<K>> ranking =
+      new TreeSet<>(
+          Comparator.<Entry<K>>comparingLong(Entry::score).reversed().thenComparing(Entry::key));
+
+  /**
+   * 创建排行榜
+   *
+   * @param capacity 最多记录的键数
+   */
+  public RankingBoard(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.capacity = capacity;
+  }
+
+  /**
+   * 累加键的分数，分数降到零及以下时移除
+   *
+   * @param key 键
+   * @param delta 增量
+   */
+  public synchronized void add(K key, long delta) {
+    Long current = scores.get(key);
+    if (current != null) {
+      ranking.remove(new Entry<>(key, current));
+    }
+    long score = (current == null ? 0 : current) + delta;
+    if (score <= 0) {
+      scores.remove(key);
+      return;
+    }
+    scores.put(key, score);
+    ranking.add(new Entry<>(key, score));
+    if (ranking.size() > capacity) {
+      scores.remove(ranking.pollLast().key());
+    }
+  }
+
+  /**
+   * 前 k 名
+   *
+   * @param k 名次数
+   * @return 键与分数（按名次）
+   */
+  public synchronized List<Map.Entry<K, Long>> top(int k) {
+    List<Map.Entry<K, Long>> top = new ArrayList<>(Math.min(k, ranking.size()));
+    Iterator<Entry<K>> iterator = ranking.iterator();
+    while (iterator.hasNext() && top.size() < k) {
+      Entry<K> entry = iterator.next();
+      top.add(Map.entry(entry.key(), entry.score()));
+    }
+    return top;
+  }
+
+  /**
+   * 当前记录的键数
+   *
+   * @return 键数
+   */
+  public synchronized int size() {
+    return scores.size();
+  }
+
+  private record Entry<K>(K key, long score) {}
+}
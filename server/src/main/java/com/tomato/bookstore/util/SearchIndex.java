@@ -0,0 +1,408 @@
+package com.tomato.bookstore.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存倒排索引
+ *
+ * <p>每次写入文档分配一个递增的内部序号，倒排表按序号追加，因此始终有序，查询时从最短的倒排表出发，对其余倒排表二分查找求交集，并按 BM25
+ * 打分。更新与删除只把旧序号标记为失效，失效序号超过四分之一时整体压缩；压缩前失效序号仍计入文档数与文档频率，对打分的影响有限。
+ *
+ * <p>读写由读写锁保护，查询之间互不阻塞。
+ */
+public class SearchIndex {
+  private static final int SNAPSHOT_MAGIC = 0x544D5358;
+  private static final int SNAPSHOT_VERSION = 1;
+  private static final int MIN_COMPACT_DEAD = 1024;
+
+  private final double k1;
+  private final double b;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<Long, Integer> ordinals = new HashMap<>();
+  private final Map<String, Postings> postings = new HashMap<>();
+  private final BitSet live = new BitSet();
+  private long[] docIds = new long[1024];
+  private int[] docLengths = new int[1024];
+
+  /** 已分配的序号数（含失效序号） */
+  private int docCount;
+
+  /** 所有序号的文档长度之和（含失效序号） */
+  private long totalLength;
+
+  /**
+   * 创建索引
+   *
+   * @param k1 BM25 词频饱和参数，通常取 1.2
+   * @param b BM25 文档长度归一化参数，通常取 0.75
+   */
+  public SearchIndex(double k1, double b) {
+    this.k1 = k1;
+    this.b = b;
+  }
+
+  /**
+   * 写入或替换文档
+   *
+   * @param docId 文档 ID
+   * @param termFrequencies 词到词频的映射
+   */
+  public void put(long docId, Map<String, Integer> termFrequencies) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(docId);
+      if (termFrequencies.isEmpty()) {
+        compactIfNeeded();
+        return;
+      }
+      int ordinal = allocate(docId);
+      int length = 0;
+      for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+        postings
+            .computeIfAbsent(entry.getKey(), term -> new Postings())
+            .add(ordinal, entry.getValue());
+        length += entry.getValue();
+      }
+      docLengths[ordinal] = length;
+      totalLength += length;
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * 删除文档
+   *
+   * @param docId 文档 ID
+   */
+  public void remove(long docId) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(docId);
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * 查询同时包含所有词的文档，按 BM25 分数降序（分数相同按文档 ID 升序）分页返回
+   *
+   * @param terms 查询词，重复的词只计一次
+   * @param offset 跳过的条数
+   * @param limit 返回的条数
+   * @return 查询结果
+   */
+  public Result search(List<String> terms, int offset, int limit) {
+    lock.readLock().lock();
+    try {
+      List<Postings> lists = new ArrayList<>();
+      for (String term : new LinkedHashSet<>(terms)) {
+        Postings list = postings.get(term);
+        if (list == null) {
+          return new Result(0, List.of());
+        }
+        lists.add(list);
+      }
+      if (lists.isEmpty()) {
+        return new Result(0, List.of());
+      }
+      lists.sort(Comparator.comparingInt(list -> list.size));
+
+      double averageLength = docCount == 0 ? 1 : (double) totalLength / docCount;
+      double[] idf = new double[lists.size()];
+      for (int i = 0; i < lists.size(); i++) {
+        int df = lists.get(i).size;
+        idf[i] = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+      }
+
+      int window = offset + limit;
+      Comparator<Hit> ranking =
+          Comparator.comparingDouble(Hit::score)
+              .thenComparing(Hit::docId, Comparator.reverseOrder());
+      PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(window, 1), ranking);
+      long total = 0;
+      Postings first = lists.get(0);
+      for (int j = 0; j < first.size; j++) {
+        int ordinal = first.docs[j];
+        if (!live.get(ordinal)) {
+          continue;
+        }
+        double norm = k1 * (1 - b + b * docLengths[ordinal] / averageLength);
+        double score = bm25(first.freqs[j], norm, idf[0]);
+        boolean matched = true;
+        for (int i = 1; i < lists.size() && matched; i++) {
+          Postings list = lists.get(i);
+          int index = Arrays.binarySearch(list.docs, 0, list.size, ordinal);
+          if (index < 0) {
+            matched = false;
+          } else {
+            score += bm25(list.freqs[index], norm, idf[i]);
+          }
+        }
+        if (!matched) {
+          continue;
+        }
+        total++;
+        if (window <= 0) {
+          continue;
+        }
+        Hit hit = new Hit(docIds[ordinal], score);
+        if (top.size() < window) {
+          top.add(hit);
+        } else if (ranking.compare(hit, top.peek()) > 0) {
+          top.poll();
+          top.add(hit);
+        }
+      }
+
+      List<Hit> hits = new ArrayList<>(top);
+      hits.sort(ranking.reversed());
+      List<Long> page =
+          offset >= hits.size()
+              ? List.of()
+              : hits.subList(offset, hits.size()).stream().map(Hit::docId).toList();
+      return new Result(total, page);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 当前有效文档数
+   *
+   * @return 文档数
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return ordinals.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 写出快照，只包含有效文档，序号重新连续编号，倒排表以差值变长整数编码
+   *
+   * @param out 输出
+   * @throws IOException 写出失败
+   */
+  public void writeTo(DataOutput out) throws IOException {
+    lock.readLock().lock();
+    try {
+      int[] remap = new int[docCount];
+      int next = 0;
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeInt(SNAPSHOT_VERSION);
+      out.writeInt(ordinals.size());
+      for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+        remap[ordinal] = next++;
+        out.writeLong(docIds[ordinal]);
+        writeVarInt(out, docLengths[ordinal]);
+      }
+
+      List<Map.Entry<String, Postings>> terms = new ArrayList<>();
+      for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+        if (entry.getValue().liveCount(live) > 0) {
+          terms.add(entry);
+        }
+      }
+      out.writeInt(terms.size());
+      for (Map.Entry<String, Postings> entry : terms) {
+        Postings list = entry.getValue();
+        out.writeUTF(entry.getKey());
+        writeVarInt(out, list.liveCount(live));
+        int previous = 0;
+        for (int j = 0; j < list.size; j++) {
+          int ordinal = list.docs[j];
+          if (live.get(ordinal)) {
+            writeVarInt(out, remap[ordinal] - previous);
+            writeVarInt(out, list.freqs[j]);
+            previous = remap[ordinal];
+          }
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 从快照读取索引
+   *
+   * @param in 输入
+   * @param k1 BM25 词频饱和参数
+   * @param b BM25 文档长度归一化参数
+   * @return 索引
+   * @throws IOException 读取失败或快照格式不兼容
+   */
+  public static SearchIndex readFrom(DataInput in, double k1, double b) throws IOException {
+    if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+      throw new IOException("unsupported search index snapshot");
+    }
+    SearchIndex index = new SearchIndex(k1, b);
+    int documents = in.readInt();
+    for (int i = 0; i < documents; i++) {
+      int ordinal = index.allocate(in.readLong());
+      index.docLengths[ordinal] = readVarInt(in);
+      index.totalLength += index.docLengths[ordinal];
+    }
+    int terms = in.readInt();
+    for (int i = 0; i < terms; i++) {
+      String term = in.readUTF();
+      int size = readVarInt(in);
+      Postings list = new Postings(size);
+      int ordinal = 0;
+      for (int j = 0; j < size; j++) {
+        ordinal += readVarInt(in);
+        list.add(ordinal, readVarInt(in));
+      }
+      index.postings.put(term, list);
+    }
+    return index;
+  }
+
+  private int allocate(long docId) {
+    if (docCount == docIds.length) {
+      docIds = Arrays.copyOf(docIds, docCount * 2);
+      docLengths = Arrays.copyOf(docLengths, docCount * 2);
+    }
+    int ordinal = docCount++;
+    docIds[ordinal] = docId;
+    live.set(ordinal);
+    ordinals.put(docId, ordinal);
+    return ordinal;
+  }
+
+  private void removeLocked(long docId) {
+    Integer ordinal = ordinals.remove(docId);
+    if (ordinal != null) {
+      live.clear(ordinal);
+    }
+  }
+
+  /** 失效序号超过四分之一时重新编号，去掉失效的倒排项 */
+  private void compactIfNeeded() {
+    int dead = docCount - ordinals.size();
+    if (dead < MIN_COMPACT_DEAD || dead * 4 < docCount) {
+      return;
+    }
+    int[] remap = new int[docCount];
+    long[] newDocIds = new long[Math.max(1024, ordinals.size() * 2)];
+    int[] newDocLengths = new int[newDocIds.length];
+    int next = 0;
+    totalLength = 0;
+    for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+      remap[ordinal] = next;
+      newDocIds[next] = docIds[ordinal];
+      newDocLengths[next] = docLengths[ordinal];
+      totalLength += docLengths[ordinal];
+      ordinals.put(docIds[ordinal], next);
+      next++;
+    }
+    postings.values().removeIf(list -> list.compact(live, remap) == 0);
+    docIds = newDocIds;
+    docLengths = newDocLengths;
+    docCount = next;
+    live.clear();
+    live.set(0, next);
+  }
+
+  private double bm25(int tf, double norm, double idf) {
+    return idf * tf * (k1 + 1) / (tf + norm);
+  }
+
+  private static void writeVarInt(DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte current = in.readByte();
+      value |= (current & 0x7F) << shift;
+      if ((current & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("malformed varint");
+  }
+
+  /**
+   * 查询结果
+   *
+   * @param total 命中的文档总数
+   * @param docIds 当前页的文档 ID
+   */
+  public record Result(long total, List<Long> docIds) {}
+
+  private record Hit(long docId, double score) {}
+
+  /** 单个词的倒排表，按序号升序 */
+  private static final class Postings {
+    private int[] docs;
+    private int[] freqs;
+    private int size;
+
+    Postings() {
+      this(4);
+    }
+
+    Postings(int capacity) {
+      docs = new int[Math.max(capacity, 1)];
+      freqs = new int[docs.length];
+    }
+
+    void add(int ordinal, int freq) {
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size * 2);
+        freqs = Arrays.copyOf(freqs, size * 2);
+      }
+      docs[size] = ordinal;
+      freqs[size] = freq;
+      size++;
+    }
+
+    int liveCount(BitSet live) {
+      int count = 0;
+      for (int j = 0; j < size; j++) {
+        if (live.get(docs[j])) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    int compact(BitSet live, int[] remap) {
+      int next = 0;
+      for (int j = 0; j < size; j++) {
+        if (live.get(docs[j])) {
+          docs[next] = remap[docs[j]];
+          freqs[next] = freqs[j];
+          next++;
+        }
+      }
+      size = next;
+      return size;
+    }
+  }
+}
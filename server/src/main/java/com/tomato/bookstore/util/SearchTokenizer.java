@@ -0,0 +1,83 @@
+package com.tomato.bookstore.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索分词器
+ *
+ * <p>文本先做 NFKC 归一化（全角字母数字转为半角）并转为小写，再按字符类别切分：连续的字母与数字组成一个词；连续的中日韩文字切成相互重叠的二元词，
+ * 只有一个字时作为一元词；其余字符视为分隔符。二元切分不依赖词典，查询与文档使用同一规则即可匹配任意连续片段。
+ */
+public class SearchTokenizer {
+  /** 超过该长度的字母数字串（如哈希、长链接）不作为词 */
+  private static final int MAX_WORD_LENGTH = 64;
+
+  private SearchTokenizer() {}
+
+  /**
+   * 切分文本
+   *
+   * @param text 文本，可以为 null
+   * @param unigrams 是否额外输出每个中日韩文字的一元词，用于使单字查询也能命中（只建议用于标题等短字段）
+   * @return 词列表，保留重复
+   */
+  public static List<String> tokenize(String text, boolean unigrams) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null || text.isEmpty()) {
+      return tokens;
+    }
+    String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    StringBuilder word = new StringBuilder();
+    List<Integer> cjkRun = new ArrayList<>();
+    int i = 0;
+    while (i < normalized.length()) {
+      int codePoint = normalized.codePointAt(i);
+      i += Character.charCount(codePoint);
+      if (isCjk(codePoint)) {
+        flushWord(word, tokens);
+        cjkRun.add(codePoint);
+      } else if (Character.isLetterOrDigit(codePoint)) {
+        flushCjk(cjkRun, unigrams, tokens);
+        word.appendCodePoint(codePoint);
+      } else {
+        flushWord(word, tokens);
+        flushCjk(cjkRun, unigrams, tokens);
+      }
+    }
+    flushWord(word, tokens);
+    flushCjk(cjkRun, unigrams, tokens);
+    return tokens;
+  }
+
+  private static boolean isCjk(int codePoint) {
+    Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+    return script == Character.UnicodeScript.HAN
+        || script == Character.UnicodeScript.HIRAGANA
+        || script == Character.UnicodeScript.KATAKANA
+        || script == Character.UnicodeScript.HANGUL;
+  }
+
+  private static void flushWord(StringBuilder word, List<String> tokens) {
+    if (!word.isEmpty() && word.length() <= MAX_WORD_LENGTH) {
+      tokens.add(word.toString());
+    }
+    word.setLength(0);
+  }
+
+  private static void flushCjk(List<Integer> run, boolean unigrams, List<String> tokens) {
+    if (run.size() == 1) {
+      tokens.add(Character.toString(run.get(0)));
+    } else if (run.size() > 1) {
+      for (int j = 0; j + 1 < run.size(); j++) {
+        tokens.add(Character.toString(run.get(j)) + Character.toString(run.get(j + 1)));
+      }
+      if (unigrams) {
+        run.forEach(codePoint -> tokens.add(Character.toString(codePoint)));
+      }
+    }
+    run.clear();
+  }
+}
@@ -0,0 +1,87 @@
+package com.tomato.bookstore.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * 无锁环形滑动窗口
+ *
+ * <p>时间按固定宽度划分为桶，每个桶放在环形数组中按序号取模的位置。写入时若该位置仍是一圈之前的旧桶，以 CAS 换成新桶，
+ * 不加锁也不清零旧桶；读取时只汇总序号落在窗口内的桶。换桶瞬间仍在写旧桶的线程，其写入会随旧桶一同丢弃，误差不超过一个桶的宽度。
+ *
+ * @param <T> 桶内容类型，须自行保证并发写入安全
+ */
+public class SlidingWindow<T> {
+  private final long bucketMillis;
+  private final AtomicReferenceArray<Bucket<T>> buckets;
+  private final Supplier<T> factory;
+
+  /**
+   * 创建滑动窗口
+   *
+   * @param bucketMillis 桶宽度（毫秒）
+   * @param bucketCount 桶数，决定可查询的最长窗口
+   * @param factory 新桶内容的构造方法
+   */
+  public SlidingWindow(long bucketMillis, int bucketCount, Supplier<T> factory) {
+    if (bucketMillis <= 0 || bucketCount <= 0) {
+      throw new IllegalArgumentException("bucketMillis and bucketCount must be positive");
+    }
+    this.bucketMillis = bucketMillis;
+    this.buckets = new AtomicReferenceArray<>(bucketCount);
+    this.factory = factory;
+  }
+
+  /**
+   * 当前时间所在的桶，供写入
+   *
+   * @param nowMillis 当前时间（毫秒）
+   * @return 桶内容
+   */
+  public T current(long nowMillis) {
+    long epoch = nowMillis / bucketMillis;
+    int index = indexOf(epoch);
+    while (true) {
+      Bucket<T> bucket = buckets.get(index);
+      if (bucket != null && bucket.epoch() == epoch) {
+        return bucket.value();
+      }
+      if (bucket != null && bucket.epoch() > epoch) {
+        // 时钟回拨时写入一次性的桶，不影响统计
+        return factory.get();
+      }
+      Bucket<T> fresh = new Bucket<>(epoch, factory.get());
+      if (buckets.compareAndSet(index, bucket, fresh)) {
+        return fresh.value();
+      }
+    }
+  }
+
+  /**
+   * 最近一段时间内的所有桶，包括当前桶
+   *
+   * @param nowMillis 当前时间（毫秒）
+   * @param windowMillis 窗口长度（毫秒），超过环形数组跨度时按跨度计算
+   * @return 桶内容（从旧到新）
+   */
+  public List<T> values(long nowMillis, long windowMillis) {
+    long epoch = nowMillis / bucketMillis;
+    long count = Math.min(Math.ceilDiv(windowMillis, bucketMillis), buckets.length());
+    List<T> values = new ArrayList<>();
+    for (long e = epoch - count + 1; e <= epoch; e++) {
+      Bucket<T> bucket = buckets.get(indexOf(e));
+      if (bucket != null && bucket.epoch() == e) {
+        values.add(bucket.value());
+      }
+    }
+    return values;
+  }
+
+  private int indexOf(long epoch) {
+    return (int) Math.floorMod(epoch, (long) buckets.length());
+  }
+
+  private record Bucket<T>(long epoch, T value) {}
+}
@@ -0,0 +1,50 @@
+package com.tomato.bookstore.util;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+/**
+ * Hibernate 主键生成器，委托给 Spring 容器中的 {@link SnowflakeIdGenerator}
+ *
+ * <p>生成器实例通过 Hibernate 配置项 {@link #ID_GENERATOR_SETTING} 传入，与业务代码共用同一个实例，保证同一节点内序号不重复。
+ */
+public class SnowflakeIdentifierGenerator implements BeforeExecutionGenerator {
+  /** 传入 {@link SnowflakeIdGenerator} 实例的 Hibernate 配置项 */
+  public static final String ID_GENERATOR_SETTING = "com.tomato.bookstore.id-generator";
+
+  private final SnowflakeIdGenerator idGenerator;
+
+  public SnowflakeIdentifierGenerator(
+      SnowflakeId config, Member member, CustomIdGeneratorCreationContext context) {
+    Object setting =
+        context
+            .getServiceRegistry()
+            .requireService(ConfigurationService.class)
+            .getSettings()
+            .get(ID_GENERATOR_SETTING);
+    if (!(setting instanceof SnowflakeIdGenerator generator)) {
+      throw new IllegalStateException(ID_GENERATOR_SETTING + " is not configured");
+    }
+    this.idGenerator = generator;
+  }
+
+  @Override
+  public Object generate(
+      SharedSessionContractImplementor session,
+      Object owner,
+      Object currentValue,
+      EventType eventType) {
+    return idGenerator.nextId();
+  }
+
+  @Override
+  public EnumSet<EventType> getEventTypes() {
+    return EventTypeSets.INSERT_ONLY;
+  }
+}
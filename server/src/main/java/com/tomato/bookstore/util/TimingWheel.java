@@ -0,0 +1,112 @@
+package com.tomato.bookstore.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 哈希时间轮
+ *
+ * <p>时间按固定刻度划分，每个键按截止刻度放入对应槽位，推进时只检查经过的槽位，登记、取消和推进的开销与总键数无关。
+ * 截止时间超过一圈的键按轮次留在槽位中，直到其截止刻度到达。截止时间向上取整到刻度，因此键不会早于截止时间到期，最多晚一个刻度。
+ *
+ * @param <K> 键类型
+ */
+public class TimingWheel<K> {
+  private final long tickMillis;
+  private final List<Set<K>> slots;
+  private final Map<K, Long> deadlineTicks = new HashMap<>();
+
+  /** 下一个待处理的刻度 */
+  private long currentTick;
+
+  /**
+   * 创建时间轮
+   *
+   * @param tickMillis 刻度长度（毫秒）
+   * @param wheelSize 槽位数
+   * @param nowMillis 当前时间（毫秒）
+   */
+  public TimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+    if (tickMillis <= 0 || wheelSize <= 0) {
+      throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+    }
+    this.tickMillis = tickMillis;
+    this.slots = new ArrayList<>(wheelSize);
+    for (int i = 0; i < wheelSize; i++) {
+      slots.add(new LinkedHashSet<>());
+    }
+    this.currentTick = nowMillis / tickMillis;
+  }
+
+  /**
+   * 登记或更新键的截止时间，截止时间已过的键在下一次推进时到期
+   *
+   * @param key 键
+   * @param deadlineMillis 截止时间（毫秒）
+   */
+  public synchronized void schedule(K key, long deadlineMillis) {
+    cancel(key);
+    long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick);
+    slotOf(tick).add(key);
+    deadlineTicks.put(key, tick);
+  }
+
+  /**
+   * 取消键
+   *
+   * @param key 键
+   * @return 键是否存在
+   */
+  public synchronized boolean cancel(K key) {
+    Long tick = deadlineTicks.remove(key);
+    if (tick == null) {
+      return false;
+    }
+    slotOf(tick).remove(key);
+    return true;
+  }
+
+  /**
+   * 推进到指定时间，返回期间到期的键
+   *
+   * @param nowMillis 当前时间（毫秒）
+   * @return 到期的键
+   */
+  public synchronized List<K> advance(long nowMillis) {
+    long targetTick = nowMillis / tickMillis;
+    List<K> expired = new ArrayList<>();
+    // 经过的刻度超过一圈时，每个槽位只需检查一次
+    long lastTick = Math.min(targetTick, currentTick + slots.size() - 1);
+    for (long tick = currentTick; tick <= lastTick; tick++) {
+      Iterator<K> iterator = slotOf(tick).iterator();
+      while (iterator.hasNext()) {
+        K key = iterator.next();
+        if (deadlineTicks.get(key) <= targetTick) {
+          iterator.remove();
+          deadlineTicks.remove(key);
+          expired.add(key);
+        }
+      }
+    }
+    currentTick = Math.max(currentTick, targetTick + 1);
+    return expired;
+  }
+
+  /**
+   * 当前登记的键数
+   *
+   * @return 键数
+   */
+  public synchronized int size() {
+    return deadlineTicks.size();
+  }
+
+  private Set<K> slotOf(long tick) {
+    return slots.get((int) Math.floorMod(tick, (long) slots.size()));
+  }
+}
@@ -8,6 +8,15 @@ WHERE
             title LIKE 'test_%'
     );
 
+DELETE FROM stockpile_buckets
+WHERE
+    product_id IN (
+        SELECT id
+        FROM products
+        WHERE
+            title LIKE 'test_%'
+    );
+
 DELETE FROM stockpiles
 WHERE
     product_id IN (
@@ -26,6 +35,40 @@ WHERE
             title LIKE 'test_%'
     );
 
+-- 清理商品销售汇总、畅销榜快照与共同购买数据
+DELETE FROM product_daily_sales
+WHERE
+    product_id IN (
+        SELECT id
+        FROM products
+        WHERE
+            title LIKE 'test_%'
+    );
+
+DELETE FROM bestseller_rankings
+WHERE
+    product_id IN (
+        SELECT id
+        FROM products
+        WHERE
+            title LIKE 'test_%'
+    );
+
+DELETE FROM product_co_purchases
+WHERE
+    product_id IN (
+        SELECT id
+        FROM products
+        WHERE
+            title LIKE 'test_%'
+    )
+    OR related_product_id IN (
+        SELECT id
+        FROM products
+        WHERE
+            title LIKE 'test_%'
+    );
+
 -- 清理笔记评论数据
 DELETE FROM note_comments
 WHERE
@@ -88,6 +131,45 @@ WHERE
         WHERE username LIKE 'test_%'
     );
 
+-- 清理订单行、支付通知与发件箱消息
+DELETE FROM order_lines
+WHERE
+    order_id IN (
+        SELECT o.id
+        FROM orders o
+        JOIN users u ON o.user_id = u.id
+        WHERE u.username LIKE 'test_%'
+    );
+
+DELETE FROM payment_notifications
+WHERE
+    order_id IN (
+        SELECT o.id
+        FROM orders o
+        JOIN users u ON o.user_id = u.id
+        WHERE u.username LIKE 'test_%'
+    );
+
+DELETE FROM outbox_messages
+WHERE
+    aggregate_type = 'ORDER'
+    AND aggregate_id IN (
+        SELECT o.id
+        FROM orders o
+        JOIN users u ON o.user_id = u.id
+        WHERE u.username LIKE 'test_%'
+    );
+
+-- 每日订单汇总无法按用户区分，删除测试订单所在日期的汇总行，需要时用回填接口按订单表重建这些日期
+DELETE FROM daily_order_stats
+WHERE
+    stats_date IN (
+        SELECT DATE(COALESCE(o.updated_at, o.created_at))
+        FROM orders o
+        JOIN users u ON o.user_id = u.id
+        WHERE u.username LIKE 'test_%'
+    );
+
 DELETE FROM orders
 WHERE
     user_id IN (
@@ -96,6 +178,27 @@ WHERE
         WHERE username LIKE 'test_%'
     );
 
+-- 清理归档订单数据
+DELETE FROM archived_order_lines
+WHERE
+    order_id IN (
+        SELECT a.id
+        FROM archived_orders a
+        JOIN users u ON a.user_id = u.id
+        WHERE u.username LIKE 'test_%'
+    );
+
+DELETE FROM archived_orders
+WHERE
+    user_id IN (
+        SELECT id
+        FROM users
+        WHERE username LIKE 'test_%'
+    );
+
 DELETE FROM products WHERE title LIKE 'test_%';
 
 DELETE FROM users WHERE username LIKE 'test_%';
+
+-- 清理定时任务租约，下次调度时重新获取
+DELETE FROM job_leases;
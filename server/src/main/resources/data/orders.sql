@@ -115,6 +115,27 @@ WHERE EXISTS (
     WHERE cor.order_id = o.id
 );
 
+-- 为订单项记录商品快照
+INSERT INTO
+    order_lines (order_id, product_id, cart_item_id, title, price, cover, quantity)
+SELECT
+    cor.order_id,
+    p.id,
+    c.id,
+    p.title,
+    p.price,
+    p.cover,
+    cor.quantity
+FROM
+    carts_orders_relation cor
+    JOIN carts c ON cor.cart_id = c.id
+    JOIN products p ON c.product_id = p.id
+WHERE
+    NOT EXISTS (
+        SELECT 1 FROM order_lines ol
+        WHERE ol.order_id = cor.order_id
+    );
+
 -- 5. 创建已超时订单
 INSERT INTO
     orders (user_id, total_amount, payment_method, status, shipping_address, created_at, updated_at)
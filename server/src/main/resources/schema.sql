@@ -1,10 +1,21 @@
+DROP TABLE IF EXISTS archived_order_lines;
+DROP TABLE IF EXISTS archived_orders;
+DROP TABLE IF EXISTS product_co_purchases;
+DROP TABLE IF EXISTS bestseller_rankings;
+DROP TABLE IF EXISTS daily_order_stats;
+DROP TABLE IF EXISTS product_daily_sales;
+DROP TABLE IF EXISTS outbox_messages;
+DROP TABLE IF EXISTS job_leases;
+DROP TABLE IF EXISTS payment_notifications;
 DROP TABLE IF EXISTS note_comments;
 DROP TABLE IF EXISTS note_feedbacks;
 DROP TABLE IF EXISTS notes;
+DROP TABLE IF EXISTS order_lines;
 DROP TABLE IF EXISTS carts_orders_relation;
 DROP TABLE IF EXISTS orders;
 DROP TABLE IF EXISTS carts;
 DROP TABLE IF EXISTS specifications;
+DROP TABLE IF EXISTS stockpile_buckets;
 DROP TABLE IF EXISTS stockpiles;
 DROP TABLE IF EXISTS reviews;
 DROP TABLE IF EXISTS advertisements;
@@ -45,6 +56,19 @@ CREATE TABLE stockpiles (
     product_id BIGINT NOT NULL,
     amount INT NOT NULL,
     frozen INT NOT NULL,
+    bucket_count INT NOT NULL DEFAULT 0,
+    flash_sale BOOLEAN NOT NULL DEFAULT FALSE,
+    FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
+);
+
+-- 创建库存分桶表
+CREATE TABLE stockpile_buckets (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    bucket_no INT NOT NULL,
+    amount INT NOT NULL,
+    frozen INT NOT NULL,
+    UNIQUE KEY uk_stockpile_bucket (product_id, bucket_no),
     FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
 );
 
@@ -59,7 +83,7 @@ CREATE TABLE specifications (
 
 -- 创建购物车表
 CREATE TABLE carts (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '购物车商品 ID',
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '购物车商品 ID，由应用在插入前生成，自增仅供初始数据脚本使用',
     user_id BIGINT NOT NULL COMMENT '用户 ID，关联用户表',
     product_id BIGINT NOT NULL COMMENT '商品 ID，关联商品表',
     quantity INT NOT NULL DEFAULT 1 COMMENT '商品数量，默认为 1',
@@ -71,22 +95,25 @@ CREATE TABLE carts (
 
 -- 创建订单表
 CREATE TABLE orders (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '订单 ID',
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '订单 ID，由应用在插入前生成，自增仅供初始数据脚本使用',
     user_id BIGINT NOT NULL COMMENT '用户 ID',
     total_amount DECIMAL(10,2) NOT NULL COMMENT '订单总金额',
     payment_method VARCHAR(50) NOT NULL COMMENT '支付方式',
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT '订单支付状态（PENDING, PAID, CANCELLED, TIMEOUT）',
     shipping_address TEXT NOT NULL COMMENT '收货地址',
     trade_no VARCHAR(64) COMMENT '支付宝交易号',
+    out_trade_no VARCHAR(64) UNIQUE COMMENT '商户订单号，首次发起支付时分配',
+    idempotency_key VARCHAR(64) COMMENT '结算请求的幂等键',
     payment_time TIMESTAMP COMMENT '支付时间',
     created_at TIMESTAMP NOT NULL COMMENT '订单创建时间',
     updated_at TIMESTAMP COMMENT '订单更新时间',
-    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    UNIQUE KEY uk_order_user_idempotency_key (user_id, idempotency_key) COMMENT '同一用户的幂等键只创建一个订单'
 ) COMMENT='订单表';
 
 -- 创建购物车商品与订单关联表
 CREATE TABLE carts_orders_relation (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键 ID',
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键 ID，由应用在插入前生成',
     cart_id BIGINT NOT NULL COMMENT '关联购物车商品 ID',
     order_id BIGINT NOT NULL COMMENT '关联订单 ID',
     quantity INT NOT NULL COMMENT '购买数量',
@@ -95,6 +122,125 @@ CREATE TABLE carts_orders_relation (
     UNIQUE KEY uk_cart_order (cart_id, order_id) COMMENT '唯一索引，确保购物车商品与订单的唯一关联'
 ) COMMENT='购物车商品与订单关联表';
 
+-- 创建订单行快照表
+CREATE TABLE order_lines (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '订单行 ID，由应用在插入前生成',
+    order_id BIGINT NOT NULL COMMENT '关联订单 ID',
+    product_id BIGINT NOT NULL COMMENT '下单时的商品 ID',
+    cart_item_id BIGINT COMMENT '下单时的购物车商品 ID',
+    title VARCHAR(255) NOT NULL COMMENT '下单时的商品名称',
+    price DECIMAL(10,2) NOT NULL COMMENT '下单时的商品单价',
+    cover VARCHAR(255) COMMENT '下单时的商品封面',
+    quantity INT NOT NULL COMMENT '购买数量',
+    FOREIGN KEY (order_id) REFERENCES orders (id) ON DELETE CASCADE
+) COMMENT='订单行快照表';
+
+-- 创建商品每日销售汇总表
+CREATE TABLE product_daily_sales (
+    id BIGINT PRIMARY KEY COMMENT '汇总行 ID',
+    sales_date DATE NOT NULL COMMENT '日期',
+    product_id BIGINT NOT NULL COMMENT '商品 ID',
+    units BIGINT NOT NULL DEFAULT 0 COMMENT '销售件数',
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '销售额',
+    order_count BIGINT NOT NULL DEFAULT 0 COMMENT '包含该商品的订单数',
+    UNIQUE KEY uk_product_daily_sales (sales_date, product_id) COMMENT '每个商品每天一行'
+) COMMENT='商品每日销售汇总表';
+
+-- 创建每日订单汇总表
+CREATE TABLE daily_order_stats (
+    id BIGINT PRIMARY KEY COMMENT '汇总行 ID',
+    stats_date DATE NOT NULL COMMENT '日期',
+    payment_method VARCHAR(50) NOT NULL COMMENT '支付方式',
+    status VARCHAR(20) NOT NULL COMMENT '订单状态（PAID, CANCELLED, TIMEOUT）',
+    order_count BIGINT NOT NULL DEFAULT 0 COMMENT '订单数',
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '订单金额',
+    UNIQUE KEY uk_daily_order_stats (stats_date, payment_method, status) COMMENT '每天每种支付方式与状态一行'
+) COMMENT='每日订单汇总表';
+
+-- 创建畅销榜快照表
+CREATE TABLE bestseller_rankings (
+    id BIGINT PRIMARY KEY COMMENT '快照行 ID',
+    ranking_window VARCHAR(20) NOT NULL COMMENT '统计窗口（ALL_TIME, LAST_7_DAYS）',
+    rank_no INT NOT NULL COMMENT '名次',
+    product_id BIGINT NOT NULL COMMENT '商品 ID',
+    units BIGINT NOT NULL COMMENT '已支付件数',
+    updated_at DATETIME NOT NULL COMMENT '快照时间',
+    UNIQUE KEY uk_bestseller_rankings (ranking_window, rank_no) COMMENT '每个窗口每个名次一行'
+) COMMENT='畅销榜快照表';
+
+-- 创建商品共同购买表
+CREATE TABLE product_co_purchases (
+    id BIGINT PRIMARY KEY COMMENT '记录 ID',
+    product_id BIGINT NOT NULL COMMENT '商品 ID',
+    related_product_id BIGINT NOT NULL COMMENT '被一同购买的商品 ID',
+    co_purchases BIGINT NOT NULL DEFAULT 0 COMMENT '共同购买的订单数',
+    counted_before DATETIME COMMENT '重建时的统计截止时间，此前支付的订单已计入；为空表示由支付增量创建',
+    updated_at DATETIME NOT NULL COMMENT '最近一次重建或累加的时间',
+    UNIQUE KEY uk_product_co_purchases (product_id, related_product_id) COMMENT '每对商品一行'
+) COMMENT='商品共同购买表';
+
+-- 创建归档订单表
+CREATE TABLE archived_orders (
+    id BIGINT PRIMARY KEY COMMENT '原订单 ID',
+    user_id BIGINT NOT NULL COMMENT '用户 ID',
+    total_amount DECIMAL(10,2) NOT NULL COMMENT '订单总金额',
+    payment_method VARCHAR(50) NOT NULL COMMENT '支付方式',
+    status VARCHAR(20) NOT NULL COMMENT '订单状态（CANCELLED, TIMEOUT）',
+    shipping_address TEXT NOT NULL COMMENT '收货地址',
+    trade_no VARCHAR(64) COMMENT '支付宝交易号',
+    out_trade_no VARCHAR(64) COMMENT '商户订单号',
+    payment_time TIMESTAMP COMMENT '支付时间',
+    created_at TIMESTAMP NOT NULL COMMENT '订单创建时间',
+    updated_at TIMESTAMP COMMENT '订单更新时间'
+) COMMENT='归档订单表';
+
+-- 创建归档订单行表
+CREATE TABLE archived_order_lines (
+    id BIGINT PRIMARY KEY COMMENT '原订单行 ID',
+    order_id BIGINT NOT NULL COMMENT '原订单 ID',
+    product_id BIGINT NOT NULL COMMENT '下单时的商品 ID',
+    cart_item_id BIGINT COMMENT '下单时的购物车商品 ID',
+    title VARCHAR(255) NOT NULL COMMENT '下单时的商品名称',
+    price DECIMAL(10,2) NOT NULL COMMENT '下单时的商品单价',
+    cover VARCHAR(255) COMMENT '下单时的商品封面',
+    quantity INT NOT NULL COMMENT '购买数量'
+) COMMENT='归档订单行表';
+
+-- 创建支付通知收件箱表
+CREATE TABLE payment_notifications (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '通知 ID',
+    trade_no VARCHAR(64) NOT NULL COMMENT '支付宝交易号',
+    order_id BIGINT NOT NULL COMMENT '订单 ID',
+    trade_status VARCHAR(32) NOT NULL COMMENT '交易状态',
+    total_amount DECIMAL(10,2) NOT NULL COMMENT '支付金额',
+    payment_time TIMESTAMP COMMENT '支付时间',
+    status VARCHAR(20) NOT NULL DEFAULT 'RECEIVED' COMMENT '处理状态（RECEIVED, PROCESSED, IGNORED, FAILED）',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '处理次数',
+    last_error VARCHAR(500) COMMENT '失败原因',
+    received_at TIMESTAMP NOT NULL COMMENT '接收时间',
+    processed_at TIMESTAMP COMMENT '处理完成时间',
+    UNIQUE KEY uk_payment_notification_trade_status (trade_no, trade_status) COMMENT '同一支付宝交易号的每种交易状态只记录一次'
+) COMMENT='支付通知收件箱表';
+
+-- 创建发件箱消息表
+CREATE TABLE outbox_messages (
+    id BIGINT PRIMARY KEY COMMENT '消息 ID（按生成时间递增）',
+    aggregate_type VARCHAR(32) NOT NULL COMMENT '聚合类型',
+    aggregate_id BIGINT NOT NULL COMMENT '聚合 ID',
+    event_type VARCHAR(64) NOT NULL COMMENT '事件类型',
+    payload TEXT NOT NULL COMMENT '事件内容（JSON）',
+    created_at TIMESTAMP NOT NULL COMMENT '事件发生时间',
+    published_at TIMESTAMP COMMENT '投递时间'
+) COMMENT='发件箱消息表';
+
+-- 创建定时任务租约表
+CREATE TABLE job_leases (
+    name VARCHAR(64) PRIMARY KEY COMMENT '任务名',
+    owner VARCHAR(128) NOT NULL COMMENT '持有租约的实例标识',
+    expires_at TIMESTAMP(3) NOT NULL COMMENT '租约到期时间',
+    renewed_at TIMESTAMP(3) NOT NULL COMMENT '最近一次续期时间'
+) COMMENT='定时任务租约表';
+
 -- 创建广告表
 CREATE TABLE advertisements (
     id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '广告 ID',
@@ -165,8 +311,17 @@ CREATE INDEX idx_user_username ON users (username);
 CREATE INDEX idx_cart_user ON carts (user_id);
 CREATE INDEX idx_cart_product ON carts (product_id);
 CREATE INDEX idx_order_user ON orders (user_id);
+CREATE INDEX idx_order_status_created ON orders (status, created_at);
+CREATE INDEX idx_order_status_updated ON orders (status, updated_at);
 CREATE INDEX idx_relation_cart ON carts_orders_relation (cart_id);
 CREATE INDEX idx_relation_order ON carts_orders_relation (order_id);
+CREATE INDEX idx_order_line_order ON order_lines (order_id);
+CREATE INDEX idx_archived_order_user ON archived_orders (user_id, created_at);
+CREATE INDEX idx_archived_order_line_order ON archived_order_lines (order_id);
+CREATE INDEX idx_payment_notification_status ON payment_notifications (status, id);
+CREATE INDEX idx_outbox_published ON outbox_messages (published_at, id);
+CREATE INDEX idx_co_purchase_product ON product_co_purchases (product_id, co_purchases DESC);
+CREATE INDEX idx_co_purchase_updated ON product_co_purchases (updated_at);
 CREATE INDEX idx_advertisement_product ON advertisements (product_id);
 CREATE INDEX idx_review_user ON reviews (user_id);
 CREATE INDEX idx_product_rate ON products (rate);
@@ -0,0 +1,64 @@
+package com.tomato.bookstore.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class DomainEventBusTest {
+  private final List<OrderEvent> received = new CopyOnWriteArrayList<>();
+  private SimpleMeterRegistry meterRegistry;
+  private DomainEventBus eventBus;
+
+  private final OrderEvent event =
+      new OrderCreatedEvent(1L, 1L, new BigDecimal("49.90"), LocalDateTime.now());
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    OrderEventListener failing =
+        e -> {
+          throw new IllegalStateException("监听器异常");
+        };
+    OrderEventListener recording = received::add;
+    eventBus = new DomainEventBus(List.of(failing, recording), meterRegistry);
+    ReflectionTestUtils.setField(eventBus, "workers", 1);
+    ReflectionTestUtils.setField(eventBus, "queueCapacity", 1);
+    ReflectionTestUtils.invokeMethod(eventBus, "init");
+  }
+
+  @Test
+  @DisplayName("分发事件 - 单个监听器失败不影响其他监听器")
+  void dispatchIsolatesFailingListener() {
+    // 执行
+    eventBus.dispatch(event);
+    ReflectionTestUtils.invokeMethod(eventBus, "shutdown");
+
+    // 验证
+    assertEquals(List.of(event), received);
+    assertEquals(
+        1, meterRegistry.find("domain.events.listener").tag("outcome", "failure").timer().count());
+    assertEquals(
+        1, meterRegistry.find("domain.events.listener").tag("outcome", "success").timer().count());
+  }
+
+  @Test
+  @DisplayName("分发事件 - 队列已满时由发布线程直接处理，不丢弃事件")
+  void dispatchAppliesBackpressure() {
+    // 执行
+    for (int i = 0; i < 20; i++) {
+      eventBus.dispatch(event);
+    }
+    ReflectionTestUtils.invokeMethod(eventBus, "shutdown");
+
+    // 验证
+    assertEquals(20, received.size());
+  }
+}
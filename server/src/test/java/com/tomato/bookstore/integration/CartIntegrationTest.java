@@ -15,6 +15,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tomato.bookstore.constant.ApiConstants;
 import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.constant.OrderConstants;
 import com.tomato.bookstore.constant.OrderStatus;
 import com.tomato.bookstore.constant.PaymentMethod;
 import com.tomato.bookstore.dto.CartDTO;
@@ -29,11 +30,13 @@ import com.tomato.bookstore.repository.ProductRepository;
 import com.tomato.bookstore.repository.StockpileRepository;
 import com.tomato.bookstore.repository.UserRepository;
 import com.tomato.bookstore.util.TestDataFactory;
+import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.time.Clock;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -60,6 +63,7 @@ public class CartIntegrationTest {
   @Autowired private StockpileRepository stockpileRepository;
   @Autowired private CartRepository cartRepository;
   @Autowired private TestDataFactory testDataFactory;
+  @Autowired private EntityManager entityManager;
 
   private User testUser;
   private Product testProduct;
@@ -185,6 +189,34 @@ public class CartIntegrationTest {
                 .value(testProduct.getPrice().multiply(new BigDecimal(3)).doubleValue()));
   }
 
+  @Test
+  @DisplayName("获取购物车 - 商品从数据库加载时不读取简介与详情")
+  void getUserCartLoadsProductWithoutLazyFields() throws Exception {
+    // 先添加商品到购物车，清空持久化上下文使商品重新从数据库加载
+    testDataFactory.createTestCartItem(testUser, testProduct, 3);
+    entityManager.flush();
+    entityManager.clear();
+
+    // 获取购物车并验证
+    mockMvc
+        .perform(get(ApiConstants.CART_BASE_PATH).header("Authorization", "Bearer " + userToken))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.code").value(200))
+        .andExpect(jsonPath("$.data.items[0].productId").value(testProduct.getId()))
+        .andExpect(jsonPath("$.data.items[0].title").value(testProduct.getTitle()))
+        .andExpect(jsonPath("$.data.items[0].cover").value(testProduct.getCover()))
+        .andExpect(jsonPath("$.data.items[0].price").value(testProduct.getPrice().doubleValue()))
+        .andExpect(jsonPath("$.data.items[0].description").doesNotExist())
+        .andExpect(jsonPath("$.data.items[0].detail").doesNotExist());
+
+    // 验证简介与详情延迟加载，访问时仍能读到
+    Product product = cartRepository.findByUser(testUser).get(0).getProduct();
+    assertFalse(Hibernate.isPropertyInitialized(product, "description"));
+    assertFalse(Hibernate.isPropertyInitialized(product, "detail"));
+    assertEquals(TEST_PRODUCT_DESCRIPTION, product.getDescription());
+    assertEquals(TEST_PRODUCT_DETAIL, product.getDetail());
+  }
+
   @Test
   @DisplayName("更新购物车商品数量 - 成功")
   void updateCartItemQuantitySuccess() throws Exception {
@@ -271,6 +303,48 @@ public class CartIntegrationTest {
     assertEquals(2, updatedStockpile.getFrozen()); // 0 + 2
   }
 
+  @Test
+  @DisplayName("结算购物车 - 相同幂等键重复提交只创建一个订单")
+  void checkoutCartWithRepeatedIdempotencyKey() throws Exception {
+    // 先添加商品到购物车
+    Cart cart = testDataFactory.createTestCartItem(testUser, testProduct, 2);
+
+    CheckoutDTO checkoutDTO = new CheckoutDTO();
+    checkoutDTO.setCartItemIds(Collections.singletonList(cart.getId()));
+    checkoutDTO.setShippingAddress("测试地址");
+    checkoutDTO.setPaymentMethod(PaymentMethod.ALIPAY);
+    String content = objectMapper.writeValueAsString(checkoutDTO);
+
+    // 使用相同幂等键结算两次
+    Long[] orderIds = new Long[2];
+    for (int i = 0; i < 2; i++) {
+      MvcResult result =
+          mockMvc
+              .perform(
+                  post(ApiConstants.CART_CHECKOUT_PATH)
+                      .header("Authorization", "Bearer " + userToken)
+                      .header(OrderConstants.IDEMPOTENCY_KEY_HEADER, "checkout-retry")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content(content))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.code").value(200))
+              .andReturn();
+      orderIds[i] =
+          objectMapper
+              .readTree(result.getResponse().getContentAsString())
+              .get("data")
+              .get("orderId")
+              .asLong();
+    }
+
+    // 验证返回同一订单，库存只锁定一次
+    assertEquals(orderIds[0], orderIds[1]);
+    Stockpile updatedStockpile =
+        stockpileRepository.findByProductId(testProduct.getId()).orElseThrow();
+    assertEquals(TEST_STOCK_AMOUNT - 2, updatedStockpile.getAmount());
+    assertEquals(2, updatedStockpile.getFrozen());
+  }
+
   @Test
   @DisplayName("结算购物车 - 失败，购物车为空")
   void checkoutCartFailsWhenCartEmpty() throws Exception {
@@ -13,22 +13,33 @@ import com.tomato.bookstore.constant.ApiConstants;
 import com.tomato.bookstore.constant.BusinessErrorCode;
 import com.tomato.bookstore.constant.OrderStatus;
 import com.tomato.bookstore.constant.PaymentMethod;
+import com.tomato.bookstore.constant.PaymentNotifyStatus;
 import com.tomato.bookstore.dto.CheckoutDTO;
 import com.tomato.bookstore.model.Cart;
+import com.tomato.bookstore.model.DailyOrderStats;
 import com.tomato.bookstore.model.Order;
+import com.tomato.bookstore.model.PaymentNotification;
 import com.tomato.bookstore.model.Product;
+import com.tomato.bookstore.model.ProductDailySales;
 import com.tomato.bookstore.model.Stockpile;
 import com.tomato.bookstore.model.User;
 import com.tomato.bookstore.repository.CartRepository;
 import com.tomato.bookstore.repository.CartsOrdersRelationRepository;
+import com.tomato.bookstore.repository.DailyOrderStatsRepository;
 import com.tomato.bookstore.repository.OrderRepository;
+import com.tomato.bookstore.repository.PaymentNotificationRepository;
+import com.tomato.bookstore.repository.ProductDailySalesRepository;
 import com.tomato.bookstore.repository.ProductRepository;
 import com.tomato.bookstore.repository.StockpileRepository;
 import com.tomato.bookstore.repository.UserRepository;
+import com.tomato.bookstore.service.PaymentNotifyService;
 import com.tomato.bookstore.util.TestDataFactory;
+import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.time.Clock;
+import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -62,7 +73,12 @@ public class OrderIntegrationTest {
   @Autowired private CartRepository cartRepository;
   @Autowired private OrderRepository orderRepository;
   @Autowired private CartsOrdersRelationRepository relationRepository;
+  @Autowired private PaymentNotificationRepository notificationRepository;
+  @Autowired private ProductDailySalesRepository productDailySalesRepository;
+  @Autowired private DailyOrderStatsRepository dailyOrderStatsRepository;
+  @Autowired private PaymentNotifyService paymentNotifyService;
   @Autowired private TestDataFactory testDataFactory;
+  @Autowired private EntityManager entityManager;
 
   @MockitoBean private AlipayClient alipayClient;
 
@@ -78,6 +94,9 @@ public class OrderIntegrationTest {
   @BeforeEach
   void setUp() throws Exception {
     // 清理数据
+    notificationRepository.deleteAll();
+    productDailySalesRepository.deleteAll();
+    dailyOrderStatsRepository.deleteAll();
     relationRepository.deleteAll();
     orderRepository.deleteAll();
     cartRepository.deleteAll();
@@ -141,6 +160,60 @@ public class OrderIntegrationTest {
         .andExpect(jsonPath("$.data.orderItems[0].productId").value(testProduct.getId()));
   }
 
+  @Test
+  @DisplayName("结算并获取订单 - 商品从数据库加载时订单项信息完整")
+  void checkoutAndReadOrderWithProductReloaded() throws Exception {
+    // 清空持久化上下文，使结算时的商品从数据库加载
+    entityManager.flush();
+    entityManager.clear();
+
+    CheckoutDTO checkoutDTO = new CheckoutDTO();
+    checkoutDTO.setCartItemIds(Collections.singletonList(testCartItem.getId()));
+    checkoutDTO.setShippingAddress(TEST_SHIPPING_ADDRESS);
+    checkoutDTO.setPaymentMethod(PaymentMethod.ALIPAY);
+
+    // 结算购物车
+    MvcResult createResult =
+        mockMvc
+            .perform(
+                post(ApiConstants.CART_CHECKOUT_PATH)
+                    .header("Authorization", "Bearer " + userToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(checkoutDTO)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.orderItems[0].title").value(testProduct.getTitle()))
+            .andExpect(jsonPath("$.data.orderItems[0].cover").value(testProduct.getCover()))
+            .andReturn();
+    Long newOrderId =
+        objectMapper
+            .readTree(createResult.getResponse().getContentAsString())
+            .get("data")
+            .get("orderId")
+            .asLong();
+    entityManager.flush();
+    entityManager.clear();
+
+    // 获取订单详情与订单列表
+    mockMvc
+        .perform(
+            get(ApiConstants.ORDER_DETAIL_PATH.replace("{orderId}", newOrderId.toString()))
+                .header("Authorization", "Bearer " + userToken))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.orderItems[0].productId").value(testProduct.getId()))
+        .andExpect(jsonPath("$.data.orderItems[0].title").value(testProduct.getTitle()))
+        .andExpect(
+            jsonPath("$.data.orderItems[0].price").value(testProduct.getPrice().doubleValue()))
+        .andExpect(jsonPath("$.data.orderItems[0].quantity").value(TEST_ORDER_QUANTITY))
+        .andExpect(jsonPath("$.data.orderItems[0].description").doesNotExist());
+    mockMvc
+        .perform(get(ApiConstants.ORDER_BASE_PATH).header("Authorization", "Bearer " + userToken))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.length()").value(2))
+        .andExpect(
+            jsonPath("$.data[?(@.orderId == %s)].orderItems[0].title", newOrderId)
+                .value(testProduct.getTitle()));
+  }
+
   @Test
   @DisplayName("获取订单详情 - 失败，订单不存在")
   void getOrderDetailFailsWhenOrderNotFound() throws Exception {
@@ -262,7 +335,14 @@ public class OrderIntegrationTest {
                 .content(notifyParams))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.code").value(200))
-        .andExpect(jsonPath("$.msg").value("支付成功"));
+        .andExpect(jsonPath("$.msg").value("支付通知已接收"));
+
+    // 通知已记录，订单尚未更新
+    assertEquals(
+        OrderStatus.PENDING, orderRepository.findById(testOrder.getId()).orElseThrow().getStatus());
+
+    // 后台任务应用通知
+    assertEquals(1, paymentNotifyService.processPending());
 
     // 验证数据库中订单状态已更新
     Order updatedOrder = orderRepository.findById(testOrder.getId()).orElseThrow();
@@ -277,6 +357,84 @@ public class OrderIntegrationTest {
     assertEquals(0, updatedStockpile.getFrozen());
   }
 
+  @Test
+  @DisplayName("支付通知处理 - 成功，销售汇总随订单事务累加")
+  void handlePaymentNotifyRecordsSalesRollup() throws Exception {
+    String notifyParams =
+        "out_trade_no="
+            + testOrder.getId()
+            + "&trade_no="
+            + TEST_ALIPAY_TRADE_NO
+            + "&trade_status=TRADE_SUCCESS"
+            + "&total_amount="
+            + testOrder.getTotalAmount()
+            + "&gmt_payment=2023-11-28 12:34:56";
+
+    mockMvc
+        .perform(
+            post(ApiConstants.ORDER_NOTIFY_PATH)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .content(notifyParams))
+        .andExpect(status().isOk());
+    assertEquals(1, paymentNotifyService.processPending());
+
+    // 验证通知已应用
+    PaymentNotification notification = notificationRepository.findAll().get(0);
+    assertEquals(PaymentNotifyStatus.PROCESSED, notification.getStatus());
+
+    // 验证商品与订单汇总行已写入
+    LocalDate today = LocalDate.now(clock);
+    List<ProductDailySales> sales =
+        productDailySalesRepository.findByProductIdAndSalesDateBetweenOrderBySalesDateAsc(
+            testProduct.getId(), today, today);
+    assertEquals(1, sales.size());
+    assertEquals(TEST_ORDER_QUANTITY.longValue(), sales.get(0).getUnits());
+    assertEquals(0, testOrder.getTotalAmount().compareTo(sales.get(0).getRevenue()));
+    assertEquals(1L, sales.get(0).getOrderCount());
+
+    List<DailyOrderStats> stats =
+        dailyOrderStatsRepository
+            .findByStatsDateBetweenOrderByStatsDateAscPaymentMethodAscStatusAsc(today, today);
+    assertEquals(1, stats.size());
+    assertEquals(OrderStatus.PAID, stats.get(0).getStatus());
+    assertEquals(1L, stats.get(0).getOrderCount());
+    assertEquals(0, testOrder.getTotalAmount().compareTo(stats.get(0).getTotalAmount()));
+  }
+
+  @Test
+  @DisplayName("支付通知处理 - 重复通知只记录一次")
+  void handlePaymentNotifyDeduplicatesRetries() throws Exception {
+    String notifyParams =
+        "out_trade_no="
+            + testOrder.getId()
+            + "&trade_no="
+            + TEST_ALIPAY_TRADE_NO
+            + "&trade_status=TRADE_SUCCESS"
+            + "&total_amount="
+            + testOrder.getTotalAmount()
+            + "&gmt_payment=2023-11-28 12:34:56";
+
+    // 支付宝重试同一通知
+    for (int i = 0; i < 3; i++) {
+      mockMvc
+          .perform(
+              post(ApiConstants.ORDER_NOTIFY_PATH)
+                  .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                  .content(notifyParams))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.code").value(200));
+    }
+
+    // 验证只记录一次，且只应用一次
+    assertEquals(1, notificationRepository.count());
+    assertEquals(1, paymentNotifyService.processPending());
+    assertEquals(0, paymentNotifyService.processPending());
+
+    Stockpile updatedStockpile =
+        stockpileRepository.findByProductId(testProduct.getId()).orElseThrow();
+    assertEquals(TEST_STOCK_AMOUNT - TEST_ORDER_QUANTITY, updatedStockpile.getAmount());
+  }
+
   @Test
   @DisplayName("支付通知处理 - 失败，金额不匹配")
   void handlePaymentNotifyFailsWhenAmountMismatch() throws Exception {
@@ -291,15 +449,24 @@ public class OrderIntegrationTest {
             + // 错误的金额
             "&gmt_payment=2023-11-28 12:34:56";
 
-    // 发送支付通知
+    // 发送支付通知，收件箱记录后立即确认
     mockMvc
         .perform(
             post(ApiConstants.ORDER_NOTIFY_PATH)
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
                 .content(notifyParams))
-        .andExpect(status().isBadRequest())
-        .andExpect(jsonPath("$.code").value(BusinessErrorCode.ORDER_PAYMENT_AMOUNT_ERROR.getCode()))
-        .andExpect(jsonPath("$.msg").value("支付金额与订单金额不匹配"));
+        .andExpect(status().isOk());
+
+    // 后台任务应用通知时校验金额
+    paymentNotifyService.processPending();
+
+    PaymentNotification notification =
+        notificationRepository.findAll().stream()
+            .filter(n -> TEST_ALIPAY_TRADE_NO.equals(n.getTradeNo()))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(PaymentNotifyStatus.FAILED, notification.getStatus());
+    assertEquals("支付金额与订单金额不匹配", notification.getLastError());
 
     // 验证订单状态未变化
     Order unchangedOrder = orderRepository.findById(testOrder.getId()).orElseThrow();
@@ -19,14 +19,17 @@ import com.tomato.bookstore.constant.BusinessErrorCode;
 import com.tomato.bookstore.dto.LoginDTO;
 import com.tomato.bookstore.dto.ProductDTO;
 import com.tomato.bookstore.dto.SpecificationDTO;
+import com.tomato.bookstore.dto.StockpileBucketDTO;
 import com.tomato.bookstore.dto.StockpileDTO;
 import com.tomato.bookstore.model.Product;
 import com.tomato.bookstore.model.Specification;
 import com.tomato.bookstore.model.Stockpile;
+import com.tomato.bookstore.model.StockpileBucket;
 import com.tomato.bookstore.model.User;
 import com.tomato.bookstore.model.User.UserRole;
 import com.tomato.bookstore.repository.ProductRepository;
 import com.tomato.bookstore.repository.SpecificationRepository;
+import com.tomato.bookstore.repository.StockpileBucketRepository;
 import com.tomato.bookstore.repository.StockpileRepository;
 import com.tomato.bookstore.repository.UserRepository;
 import java.time.Clock;
@@ -59,6 +62,7 @@ public class ProductIntegrationTest {
   @Autowired private ProductRepository productRepository;
   @Autowired private SpecificationRepository specificationRepository;
   @Autowired private StockpileRepository stockpileRepository;
+  @Autowired private StockpileBucketRepository stockpileBucketRepository;
   @Autowired private UserRepository userRepository;
   @Autowired private PasswordEncoder passwordEncoder;
 
@@ -73,6 +77,7 @@ public class ProductIntegrationTest {
   void setUp() {
     // 清理数据
     specificationRepository.deleteAll();
+    stockpileBucketRepository.deleteAll();
     stockpileRepository.deleteAll();
     productRepository.deleteAll();
 
@@ -353,6 +358,42 @@ public class ProductIntegrationTest {
     assertEquals(10, updatedStockpile.getFrozen());
   }
 
+  @Test
+  @DisplayName("调整商品库存分桶成功 - 库存分散到分桶且合计不变")
+  void configureStockpileBucketsTest() throws Exception {
+    StockpileBucketDTO bucketDTO = new StockpileBucketDTO();
+    bucketDTO.setBucketCount(4);
+
+    mockMvc
+        .perform(
+            patch(
+                    ApiConstants.PRODUCT_STOCKPILE_BUCKETS_PATH.replace(
+                        "{productId}", testProduct.getId().toString()))
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bucketDTO)))
+        .andExpect(status().isOk());
+
+    // 主库存行清零，分桶合计等于原库存
+    Stockpile stockpile = stockpileRepository.findByProductId(testProduct.getId()).orElseThrow();
+    assertEquals(0, stockpile.getAmount());
+    assertEquals(4, stockpile.getBucketCount());
+    assertEquals(
+        TEST_STOCK_AMOUNT,
+        stockpileBucketRepository.findByProductIdOrderByBucketNo(testProduct.getId()).stream()
+            .mapToInt(StockpileBucket::getAmount)
+            .sum());
+
+    mockMvc
+        .perform(
+            get(ApiConstants.PRODUCT_STOCKPILE_DETAIL_PATH.replace(
+                    "{productId}", testProduct.getId().toString()))
+                .header("Authorization", "Bearer " + adminToken))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.amount").value(TEST_STOCK_AMOUNT))
+        .andExpect(jsonPath("$.data.bucketCount").value(4));
+  }
+
   @Test
   @DisplayName("完整商品流程 - 创建、更新、获取、库存管理、删除")
   void completeProductFlowTest() throws Exception {
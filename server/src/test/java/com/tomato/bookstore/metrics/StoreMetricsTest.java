@@ -0,0 +1,82 @@
+package com.tomato.bookstore.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.dto.StoreMetricsDTO;
+import com.tomato.bookstore.event.CheckoutFailedEvent;
+import com.tomato.bookstore.event.OrderCreatedEvent;
+import com.tomato.bookstore.event.OrderPaidEvent;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class StoreMetricsTest {
+  private static final Instant START = Instant.parse("2025-05-15T08:00:00Z");
+
+  private StoreMetrics storeMetrics;
+
+  @BeforeEach
+  void setUp() {
+    storeMetrics = new StoreMetrics(Clock.fixed(START, ZoneId.of("UTC")));
+    ReflectionTestUtils.setField(storeMetrics, "bucketSeconds", 5);
+    ReflectionTestUtils.setField(storeMetrics, "maxWindowMinutes", 60);
+    ReflectionTestUtils.setField(storeMetrics, "topProducts", 2);
+    ReflectionTestUtils.invokeMethod(storeMetrics, "init");
+  }
+
+  @Test
+  @DisplayName("实时指标 - 汇总下单、支付、失败与热销商品")
+  void snapshotAggregatesEvents() {
+    // 执行
+    LocalDateTime now = LocalDateTime.now();
+    storeMetrics.onOrderEvent(new OrderCreatedEvent(1L, 1L, new BigDecimal("59.80"), now));
+    storeMetrics.onOrderEvent(new OrderCreatedEvent(2L, 1L, new BigDecimal("29.90"), now));
+    storeMetrics.onOrderEvent(
+        new OrderPaidEvent(1L, "T1", new BigDecimal("59.80"), Map.of(10L, 2, 11L, 1), now));
+    storeMetrics.onOrderEvent(
+        new OrderPaidEvent(2L, "T2", new BigDecimal("29.90"), Map.of(12L, 3), now));
+    storeMetrics.onCheckoutFailed(
+        new CheckoutFailedEvent(BusinessErrorCode.PRODUCT_STOCK_INSUFFICIENT, now));
+    StoreMetricsDTO metrics = storeMetrics.snapshot(1);
+
+    // 验证
+    assertEquals(2, metrics.getOrdersCreated());
+    assertEquals(2, metrics.getOrdersPaid());
+    assertEquals(new BigDecimal("89.70"), metrics.getRevenue());
+    assertEquals(1, metrics.getCheckoutFailures());
+    assertEquals(new BigDecimal("0.3333"), metrics.getCheckoutFailureRate());
+    assertEquals(
+        Map.of(BusinessErrorCode.PRODUCT_STOCK_INSUFFICIENT, 1L), metrics.getFailuresByCode());
+    assertEquals(
+        List.of(
+            new StoreMetricsDTO.ProductUnits(12L, 3L), new StoreMetricsDTO.ProductUnits(10L, 2L)),
+        metrics.getTopProducts());
+  }
+
+  @Test
+  @DisplayName("实时指标 - 超出窗口的事件不再计入")
+  void snapshotExcludesExpiredBuckets() {
+    // 准备
+    storeMetrics.onOrderEvent(
+        new OrderCreatedEvent(1L, 1L, new BigDecimal("59.80"), LocalDateTime.now()));
+
+    // 执行
+    ReflectionTestUtils.setField(
+        storeMetrics, "clock", Clock.fixed(START.plus(Duration.ofMinutes(3)), ZoneId.of("UTC")));
+
+    // 验证
+    assertEquals(0, storeMetrics.snapshot(1).getOrdersCreated());
+    assertEquals(1, storeMetrics.snapshot(5).getOrdersCreated());
+    assertEquals(new BigDecimal("0.20"), storeMetrics.snapshot(5).getOrdersPerMinute());
+  }
+}
@@ -0,0 +1,253 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tomato.bookstore.constant.BestsellerWindow;
+import com.tomato.bookstore.dto.BestsellerDTO;
+import com.tomato.bookstore.event.OrderPaidEvent;
+import com.tomato.bookstore.model.BestsellerRanking;
+import com.tomato.bookstore.model.ProductDailySales;
+import com.tomato.bookstore.repository.BestsellerRankingRepository;
+import com.tomato.bookstore.repository.OrderLineRepository;
+import com.tomato.bookstore.repository.ProductDailySalesRepository;
+import com.tomato.bookstore.service.impl.BestsellerServiceImpl;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class BestsellerServiceImplTest {
+  @Mock private TransactionTemplate transactionTemplate;
+  @Mock private OrderLineRepository orderLineRepository;
+  @Mock private BestsellerRankingRepository bestsellerRankingRepository;
+  @Mock private ProductDailySalesRepository productDailySalesRepository;
+
+  @InjectMocks private BestsellerServiceImpl bestsellerService;
+
+  private LocalDate today;
+
+  @BeforeEach
+  void setUp() {
+    Clock fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneId.of("UTC"));
+    ReflectionTestUtils.setField(bestsellerService, "clock", fixedClock);
+    ReflectionTestUtils.setField(bestsellerService, "topK", 2);
+    ReflectionTestUtils.setField(bestsellerService, "capacity", 10);
+    today = LocalDate.now(fixedClock);
+  }
+
+  @Test
+  @DisplayName("重建畅销榜 - 按已支付订单排名，最近两天取自销售汇总")
+  void rebuildRanksPaidOrders() {
+    // 准备
+    stubPaidOrders();
+
+    // 执行
+    bestsellerService.rebuild();
+
+    // 验证
+    verify(orderLineRepository).sumPaidQuantityByProductBefore(today.minusDays(1).atStartOfDay());
+    verify(orderLineRepository)
+        .sumPaidSalesByProductBetween(
+            today.minusDays(6).atStartOfDay(), today.minusDays(1).atStartOfDay());
+    verify(productDailySalesRepository)
+        .findBySalesDateBetweenOrderBySalesDateAscProductIdAsc(today.minusDays(1), today);
+    List<BestsellerDTO> allTime = bestsellerService.getBestsellers(BestsellerWindow.ALL_TIME, 10);
+    assertEquals(2, allTime.size());
+    assertEquals(1, allTime.get(0).getRank());
+    assertEquals(2L, allTime.get(0).getProductId());
+    assertEquals(8L, allTime.get(0).getUnits());
+    assertEquals(1L, allTime.get(1).getProductId());
+
+    List<BestsellerDTO> recent = bestsellerService.getBestsellers(BestsellerWindow.LAST_7_DAYS, 1);
+    assertEquals(1, recent.size());
+    assertEquals(1L, recent.get(0).getProductId());
+  }
+
+  @Test
+  @DisplayName("支付事件 - 增量累加到所有窗口")
+  void paidEventUpdatesBoards() {
+    // 准备
+    stubPaidOrders();
+    bestsellerService.rebuild();
+
+    // 执行
+    bestsellerService.onOrderEvent(
+        new OrderPaidEvent(
+            10L, "T10", new BigDecimal("99.00"), Map.of(3L, 9), LocalDateTime.now()));
+
+    // 验证
+    assertEquals(
+        3L, bestsellerService.getBestsellers(BestsellerWindow.ALL_TIME, 1).get(0).getProductId());
+    assertEquals(
+        9L, bestsellerService.getBestsellers(BestsellerWindow.LAST_7_DAYS, 1).get(0).getUnits());
+  }
+
+  @Test
+  @DisplayName("同步畅销榜 - 写入快照的实例首次同步时重建并写入快照")
+  void syncPersistsWhenWritingSnapshot() {
+    // 准备
+    stubPaidOrders();
+    stubTransaction();
+
+    // 执行
+    bestsellerService.sync(true);
+
+    // 验证
+    verify(orderLineRepository).sumPaidQuantityByProductBefore(any());
+    for (BestsellerWindow window : BestsellerWindow.values()) {
+      verify(bestsellerRankingRepository).deleteByRankingWindow(window);
+    }
+    verify(bestsellerRankingRepository, never()).findByRankingWindowOrderByRankNoAsc(any());
+  }
+
+  @Test
+  @DisplayName("同步畅销榜 - 合并其他实例累加的销售汇总，重复同步不重复计入")
+  void syncMergesRollupFromAllInstances() {
+    // 准备：重建后其他实例又支付了商品 3 共 10 件
+    stubPaidOrders();
+    stubTransaction();
+    bestsellerService.rebuild();
+    when(productDailySalesRepository.findBySalesDateBetweenOrderBySalesDateAscProductIdAsc(
+            today.minusDays(1), today))
+        .thenReturn(List.of(dailySales(3L, 10L)));
+
+    // 执行
+    bestsellerService.sync(true);
+    bestsellerService.sync(true);
+
+    // 验证：基线 1 件加汇总 10 件，且同一天内不再重建
+    List<BestsellerDTO> allTime = bestsellerService.getBestsellers(BestsellerWindow.ALL_TIME, 1);
+    assertEquals(3L, allTime.get(0).getProductId());
+    assertEquals(11L, allTime.get(0).getUnits());
+    List<BestsellerDTO> recent = bestsellerService.getBestsellers(BestsellerWindow.LAST_7_DAYS, 1);
+    assertEquals(3L, recent.get(0).getProductId());
+    assertEquals(10L, recent.get(0).getUnits());
+    verify(orderLineRepository).sumPaidQuantityByProductBefore(any());
+  }
+
+  @Test
+  @DisplayName("同步畅销榜 - 其他实例从快照加载")
+  void syncReloadsSnapshot() {
+    // 准备
+    when(bestsellerRankingRepository.findByRankingWindowOrderByRankNoAsc(
+            BestsellerWindow.ALL_TIME))
+        .thenReturn(List.of(ranking(BestsellerWindow.ALL_TIME, 1, 7L, 20L)));
+    when(bestsellerRankingRepository.findByRankingWindowOrderByRankNoAsc(
+            BestsellerWindow.LAST_7_DAYS))
+        .thenReturn(List.of());
+
+    // 执行
+    bestsellerService.sync(false);
+
+    // 验证
+    List<BestsellerDTO> allTime = bestsellerService.getBestsellers(BestsellerWindow.ALL_TIME, 10);
+    assertEquals(1, allTime.size());
+    assertEquals(7L, allTime.get(0).getProductId());
+    assertEquals(20L, allTime.get(0).getUnits());
+    assertTrue(bestsellerService.getBestsellers(BestsellerWindow.LAST_7_DAYS, 10).isEmpty());
+    verify(bestsellerRankingRepository, never()).saveAll(anyList());
+  }
+
+  private void stubPaidOrders() {
+    when(orderLineRepository.sumPaidQuantityByProductBefore(any()))
+        .thenReturn(
+            List.of(productQuantity(1L, 5L), productQuantity(2L, 8L), productQuantity(3L, 1L)));
+    when(orderLineRepository.sumPaidSalesByProductBetween(any(), any()))
+        .thenReturn(List.of(productSales(1L, 4L)));
+    when(productDailySalesRepository.findBySalesDateBetweenOrderBySalesDateAscProductIdAsc(
+            any(), any()))
+        .thenReturn(List.of());
+  }
+
+  private void stubTransaction() {
+    doAnswer(
+            invocation -> {
+              Consumer<TransactionStatus> action = invocation.getArgument(0);
+              action.accept(null);
+              return null;
+            })
+        .when(transactionTemplate)
+        .executeWithoutResult(any());
+  }
+
+  private ProductDailySales dailySales(Long productId, Long units) {
+    return ProductDailySales.builder()
+        .salesDate(today)
+        .productId(productId)
+        .units(units)
+        .revenue(BigDecimal.ZERO)
+        .orderCount(1L)
+        .build();
+  }
+
+  private BestsellerRanking ranking(
+      BestsellerWindow window, int rankNo, Long productId, Long units) {
+    return BestsellerRanking.builder()
+        .rankingWindow(window)
+        .rankNo(rankNo)
+        .productId(productId)
+        .units(units)
+        .build();
+  }
+
+  private OrderLineRepository.ProductQuantity productQuantity(Long productId, Long quantity) {
+    return new OrderLineRepository.ProductQuantity() {
+      @Override
+      public Long getProductId() {
+        return productId;
+      }
+
+      @Override
+      public Long getQuantity() {
+        return quantity;
+      }
+    };
+  }
+
+  private OrderLineRepository.ProductSales productSales(Long productId, Long units) {
+    return new OrderLineRepository.ProductSales() {
+      @Override
+      public Long getProductId() {
+        return productId;
+      }
+
+      @Override
+      public Long getUnits() {
+        return units;
+      }
+
+      @Override
+      public BigDecimal getRevenue() {
+        return BigDecimal.ZERO;
+      }
+
+      @Override
+      public Long getOrderCount() {
+        return 1L;
+      }
+    };
+  }
+}
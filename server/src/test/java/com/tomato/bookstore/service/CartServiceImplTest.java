@@ -13,6 +13,7 @@ import static org.mockito.Mockito.when;
 import com.tomato.bookstore.constant.BusinessErrorCode;
 import com.tomato.bookstore.dto.CartDTO;
 import com.tomato.bookstore.dto.CartListDTO;
+import com.tomato.bookstore.dto.StockpileDTO;
 import com.tomato.bookstore.exception.BusinessException;
 import com.tomato.bookstore.exception.ResourceNotFoundException;
 import com.tomato.bookstore.model.Cart;
@@ -21,7 +22,6 @@ import com.tomato.bookstore.model.Stockpile;
 import com.tomato.bookstore.model.User;
 import com.tomato.bookstore.repository.CartRepository;
 import com.tomato.bookstore.repository.ProductRepository;
-import com.tomato.bookstore.repository.StockpileRepository;
 import com.tomato.bookstore.repository.UserRepository;
 import com.tomato.bookstore.service.impl.CartServiceImpl;
 import java.math.BigDecimal;
@@ -43,7 +43,7 @@ public class CartServiceImplTest {
   @Mock private CartRepository cartRepository;
   @Mock private UserRepository userRepository;
   @Mock private ProductRepository productRepository;
-  @Mock private StockpileRepository stockpileRepository;
+  @Mock private StockService stockService;
 
   @InjectMocks private CartServiceImpl cartService;
 
@@ -111,7 +111,7 @@ public class CartServiceImplTest {
     // 准备
     when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
     when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
-    when(stockpileRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(stockpile));
+    when(stockService.getStockpile(PRODUCT_ID)).thenReturn(toStockpileDTO(stockpile));
     when(cartRepository.findByUserAndProduct(user, product)).thenReturn(Optional.empty());
     when(cartRepository.save(any(Cart.class)))
         .thenAnswer(
@@ -138,7 +138,7 @@ public class CartServiceImplTest {
     // 准备
     when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
     when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
-    when(stockpileRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(stockpile));
+    when(stockService.getStockpile(PRODUCT_ID)).thenReturn(toStockpileDTO(stockpile));
     when(cartRepository.findByUserAndProduct(user, product)).thenReturn(Optional.of(cart));
     when(cartRepository.save(any(Cart.class))).thenReturn(cart);
 
@@ -197,7 +197,7 @@ public class CartServiceImplTest {
     stockpile.setAmount(1); // 设置库存小于请求数量
     when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
     when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
-    when(stockpileRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(stockpile));
+    when(stockService.getStockpile(PRODUCT_ID)).thenReturn(toStockpileDTO(stockpile));
 
     // 执行和验证
     BusinessException exception =
@@ -251,7 +251,7 @@ public class CartServiceImplTest {
     Integer newQuantity = 5;
     when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
     when(cartRepository.findByUserAndId(user, CART_ITEM_ID)).thenReturn(Optional.of(cart));
-    when(stockpileRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(stockpile));
+    when(stockService.getStockpile(PRODUCT_ID)).thenReturn(toStockpileDTO(stockpile));
     when(cartRepository.save(any(Cart.class))).thenReturn(cart);
 
     // 执行
@@ -287,7 +287,7 @@ public class CartServiceImplTest {
     Integer excessiveQuantity = TEST_STOCK_AMOUNT + 10;
     when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
     when(cartRepository.findByUserAndId(user, CART_ITEM_ID)).thenReturn(Optional.of(cart));
-    when(stockpileRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(stockpile));
+    when(stockService.getStockpile(PRODUCT_ID)).thenReturn(toStockpileDTO(stockpile));
 
     // 执行和验证
     BusinessException exception =
@@ -353,4 +353,12 @@ public class CartServiceImplTest {
     // 验证
     verify(cartRepository).deleteByUser(user);
   }
+
+  private StockpileDTO toStockpileDTO(Stockpile stockpile) {
+    return StockpileDTO.builder()
+        .productId(stockpile.getProduct().getId())
+        .amount(stockpile.getAmount())
+        .frozen(stockpile.getFrozen())
+        .build();
+  }
 }
@@ -0,0 +1,120 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tomato.bookstore.constant.ExportFormat;
+import com.tomato.bookstore.repository.ReviewRepository;
+import com.tomato.bookstore.service.impl.ExportServiceImpl;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class ExportServiceImplTest {
+  @Spy private ObjectMapper objectMapper = new ObjectMapper();
+  @Mock private ReviewRepository reviewRepository;
+
+  @InjectMocks private ExportServiceImpl exportService;
+
+  private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 5, 15, 8, 0);
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(exportService, "batchSize", 2);
+  }
+
+  @Test
+  @DisplayName("导出评论 - CSV 按 ID 游标分批写出并转义特殊字符")
+  void exportReviewsAsCsv() throws Exception {
+    // 准备
+    when(reviewRepository.findExportRows(0L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(review(1L, "好书"), review(2L, "推荐，\"必读\"")));
+    when(reviewRepository.findExportRows(2L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(review(3L, "=1+1")));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // 执行
+    long count = exportService.exportReviews(ExportFormat.CSV, out);
+
+    // 验证
+    assertEquals(3, count);
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+    assertEquals("\uFEFFreviewId,productId,userId,rating,content,createTime,updateTime", lines[0]);
+    assertEquals("1,10,20,5,好书,2025-05-15 08:00:00,", lines[1]);
+    assertEquals("2,10,20,5,\"推荐，\"\"必读\"\"\",2025-05-15 08:00:00,", lines[2]);
+    assertEquals("3,10,20,5,'=1+1,2025-05-15 08:00:00,", lines[3]);
+    verify(reviewRepository).findExportRows(2L, PageRequest.of(0, 2));
+  }
+
+  @Test
+  @DisplayName("导出评论 - JSON Lines 每行一个对象")
+  void exportReviewsAsJsonLines() throws Exception {
+    // 准备
+    when(reviewRepository.findExportRows(0L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(review(1L, "好书")));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // 执行
+    long count = exportService.exportReviews(ExportFormat.JSONL, out);
+
+    // 验证
+    assertEquals(1, count);
+    assertEquals(
+        "{\"reviewId\":1,\"productId\":10,\"userId\":20,\"rating\":5,\"content\":\"好书\","
+            + "\"createTime\":\"2025-05-15 08:00:00\",\"updateTime\":null}\n",
+        out.toString(StandardCharsets.UTF_8));
+  }
+
+  private ReviewRepository.ReviewExportRow review(Long id, String content) {
+    return new ReviewRepository.ReviewExportRow() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Long getProductId() {
+        return 10L;
+      }
+
+      @Override
+      public Long getUserId() {
+        return 20L;
+      }
+
+      @Override
+      public Integer getRating() {
+        return 5;
+      }
+
+      @Override
+      public String getContent() {
+        return content;
+      }
+
+      @Override
+      public LocalDateTime getCreatedAt() {
+        return CREATED_AT;
+      }
+
+      @Override
+      public LocalDateTime getUpdatedAt() {
+        return null;
+      }
+    };
+  }
+}
@@ -0,0 +1,210 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.constant.FlashSaleTicketStatus;
+import com.tomato.bookstore.constant.PaymentMethod;
+import com.tomato.bookstore.dto.CheckoutDTO;
+import com.tomato.bookstore.dto.FlashSaleTicketDTO;
+import com.tomato.bookstore.dto.OrderDTO;
+import com.tomato.bookstore.dto.StockpileDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.model.Cart;
+import com.tomato.bookstore.model.Product;
+import com.tomato.bookstore.model.User;
+import com.tomato.bookstore.repository.CartRepository;
+import com.tomato.bookstore.repository.StockpileRepository;
+import com.tomato.bookstore.repository.UserRepository;
+import com.tomato.bookstore.service.impl.FlashSaleServiceImpl;
+import com.tomato.bookstore.util.AdmissionGate;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class FlashSaleServiceImplTest {
+  @Spy private AdmissionGate flashSaleGate = new AdmissionGate();
+  @Mock private OrderService orderService;
+  @Mock private StockService stockService;
+  @Mock private CartRepository cartRepository;
+  @Mock private UserRepository userRepository;
+  @Mock private StockpileRepository stockpileRepository;
+
+  @InjectMocks private FlashSaleServiceImpl flashSaleService;
+
+  private User user;
+  private Cart cart;
+  private CheckoutDTO checkoutDTO;
+
+  private static final Long USER_ID = 1L;
+  private static final Long PRODUCT_ID = 1L;
+  private static final Long ORDER_ID = 10L;
+  private static final Integer QUANTITY = 2;
+
+  @BeforeEach
+  void setUp() {
+    Clock fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneId.of("UTC"));
+    ReflectionTestUtils.setField(flashSaleService, "clock", fixedClock);
+    ReflectionTestUtils.setField(flashSaleService, "workers", 1);
+    ReflectionTestUtils.setField(flashSaleService, "queueCapacity", 10);
+    ReflectionTestUtils.setField(flashSaleService, "ticketTtlMinutes", 30);
+    ReflectionTestUtils.invokeMethod(flashSaleService, "init");
+
+    user = new User();
+    user.setId(USER_ID);
+
+    Product product = new Product();
+    product.setId(PRODUCT_ID);
+    product.setTitle("限量商品");
+
+    cart = new Cart();
+    cart.setId(1L);
+    cart.setUser(user);
+    cart.setProduct(product);
+    cart.setQuantity(QUANTITY);
+
+    checkoutDTO =
+        CheckoutDTO.builder()
+            .userId(USER_ID)
+            .cartItemIds(List.of(1L))
+            .shippingAddress("测试地址")
+            .paymentMethod(PaymentMethod.ALIPAY)
+            .build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    ReflectionTestUtils.invokeMethod(flashSaleService, "shutdown");
+  }
+
+  @Test
+  @DisplayName("秒杀结算 - 成功，排队后异步下单")
+  void submitQueuesOrderCreation() {
+    // 准备
+    stubCartItems();
+    flashSaleGate.open(PRODUCT_ID, 5);
+    when(orderService.createFlashSaleOrder(checkoutDTO))
+        .thenReturn(OrderDTO.builder().orderId(ORDER_ID).build());
+
+    // 执行
+    FlashSaleTicketDTO ticket = flashSaleService.submit(checkoutDTO);
+
+    // 验证
+    assertNotNull(ticket.getTicketId());
+    assertEquals(FlashSaleTicketStatus.QUEUED, ticket.getStatus());
+    assertEquals(3, flashSaleGate.remaining(PRODUCT_ID));
+    verify(orderService, timeout(1000)).createFlashSaleOrder(checkoutDTO);
+    verify(flashSaleGate, timeout(1000)).complete(any(), anyBoolean());
+
+    FlashSaleTicketDTO result = flashSaleService.getTicket(USER_ID, ticket.getTicketId());
+    assertEquals(FlashSaleTicketStatus.SUCCESS, result.getStatus());
+    assertEquals(ORDER_ID, result.getOrderId());
+  }
+
+  @Test
+  @DisplayName("秒杀结算 - 失败，名额不足时立即拒绝")
+  void submitRejectsWhenSoldOut() {
+    // 准备
+    stubCartItems();
+    flashSaleGate.open(PRODUCT_ID, 1);
+
+    // 执行和验证
+    BusinessException exception =
+        assertThrows(BusinessException.class, () -> flashSaleService.submit(checkoutDTO));
+
+    assertEquals(BusinessErrorCode.FLASH_SALE_SOLD_OUT, exception.getErrorCode());
+    assertEquals(1, flashSaleGate.remaining(PRODUCT_ID));
+    verify(orderService, never()).createFlashSaleOrder(any());
+  }
+
+  @Test
+  @DisplayName("秒杀结算 - 失败，商品未开启秒杀")
+  void submitRejectsWhenNotFlashSale() {
+    // 准备
+    stubCartItems();
+
+    // 执行和验证
+    BusinessException exception =
+        assertThrows(BusinessException.class, () -> flashSaleService.submit(checkoutDTO));
+
+    assertEquals(BusinessErrorCode.FLASH_SALE_NOT_ACTIVE, exception.getErrorCode());
+  }
+
+  @Test
+  @DisplayName("秒杀结算 - 下单失败时退回名额")
+  void submitReleasesPermitsWhenOrderFails() {
+    // 准备
+    stubCartItems();
+    flashSaleGate.open(PRODUCT_ID, 5);
+    when(orderService.createFlashSaleOrder(checkoutDTO))
+        .thenThrow(new BusinessException(BusinessErrorCode.CART_ITEM_NOT_FOUND, "购物车商品不存在"));
+
+    // 执行
+    FlashSaleTicketDTO ticket = flashSaleService.submit(checkoutDTO);
+
+    // 验证
+    verify(flashSaleGate, timeout(1000)).complete(any(), anyBoolean());
+    assertEquals(5, flashSaleGate.remaining(PRODUCT_ID));
+    FlashSaleTicketDTO result = flashSaleService.getTicket(USER_ID, ticket.getTicketId());
+    assertEquals(FlashSaleTicketStatus.FAILED, result.getStatus());
+  }
+
+  @Test
+  @DisplayName("查询排队凭证 - 失败，不能查询他人凭证")
+  void getTicketRejectsOtherUser() {
+    // 准备
+    stubCartItems();
+    flashSaleGate.open(PRODUCT_ID, 5);
+    when(orderService.createFlashSaleOrder(checkoutDTO))
+        .thenReturn(OrderDTO.builder().orderId(ORDER_ID).build());
+    FlashSaleTicketDTO ticket = flashSaleService.submit(checkoutDTO);
+    verify(orderService, timeout(1000)).createFlashSaleOrder(checkoutDTO);
+
+    // 执行和验证
+    BusinessException exception =
+        assertThrows(
+            BusinessException.class, () -> flashSaleService.getTicket(2L, ticket.getTicketId()));
+
+    assertEquals(BusinessErrorCode.FLASH_SALE_TICKET_NOT_FOUND, exception.getErrorCode());
+  }
+
+  @Test
+  @DisplayName("开启秒杀 - 按可售库存初始化闸门名额")
+  void configureOpensGate() {
+    // 准备
+    when(stockpileRepository.updateFlashSale(PRODUCT_ID, true)).thenReturn(1);
+    when(stockService.getStockpile(PRODUCT_ID))
+        .thenReturn(StockpileDTO.builder().productId(PRODUCT_ID).amount(8).frozen(0).build());
+
+    // 执行
+    flashSaleService.configure(PRODUCT_ID, true);
+
+    // 验证
+    assertEquals(8, flashSaleGate.remaining(PRODUCT_ID));
+  }
+
+  private void stubCartItems() {
+    when(userRepository.getReferenceById(USER_ID)).thenReturn(user);
+    when(cartRepository.findByUserAndIdIn(user, List.of(1L))).thenReturn(List.of(cart));
+  }
+}
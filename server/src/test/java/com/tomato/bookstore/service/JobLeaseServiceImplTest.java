@@ -0,0 +1,146 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tomato.bookstore.repository.JobLeaseRepository;
+import com.tomato.bookstore.service.impl.JobLeaseServiceImpl;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class JobLeaseServiceImplTest {
+  @Mock private JobLeaseRepository jobLeaseRepository;
+
+  @InjectMocks private JobLeaseServiceImpl jobLeaseService;
+
+  private LocalDateTime now;
+
+  private static final String LEASE_NAME = "payment-notify";
+
+  @BeforeEach
+  void setUp() {
+    Clock fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneId.of("UTC"));
+    ReflectionTestUtils.setField(jobLeaseService, "clock", fixedClock);
+    ReflectionTestUtils.setField(jobLeaseService, "leaseMillis", 30000L);
+    ReflectionTestUtils.setField(jobLeaseService, "nodeName", "node-a");
+    ReflectionTestUtils.invokeMethod(jobLeaseService, "init");
+    now = LocalDateTime.now(fixedClock);
+  }
+
+  @AfterEach
+  void tearDown() {
+    ReflectionTestUtils.invokeMethod(jobLeaseService, "releaseAll");
+  }
+
+  @Test
+  @DisplayName("获取租约 - 续期自己持有或已过期的租约")
+  void tryAcquireRenewsLease() {
+    // 准备
+    when(jobLeaseRepository.renew(eq(LEASE_NAME), anyString(), eq(now.plusSeconds(30)), eq(now)))
+        .thenReturn(1);
+
+    // 执行和验证
+    assertTrue(jobLeaseService.tryAcquire(LEASE_NAME));
+    verify(jobLeaseRepository, never()).create(any(), any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("获取租约 - 首次运行时创建租约")
+  void tryAcquireCreatesLease() {
+    // 准备
+    when(jobLeaseRepository.existsById(LEASE_NAME)).thenReturn(false);
+
+    // 执行和验证
+    assertTrue(jobLeaseService.tryAcquire(LEASE_NAME));
+    verify(jobLeaseRepository)
+        .create(eq(LEASE_NAME), anyString(), eq(now.plusSeconds(30)), eq(now));
+  }
+
+  @Test
+  @DisplayName("获取租约 - 失败，租约由其他实例持有")
+  void tryAcquireFailsWhenHeldByOther() {
+    // 准备
+    when(jobLeaseRepository.existsById(LEASE_NAME)).thenReturn(true);
+
+    // 执行和验证
+    assertFalse(jobLeaseService.tryAcquire(LEASE_NAME));
+    verify(jobLeaseRepository, never()).create(any(), any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("获取租约 - 失败，其他实例同时创建了租约")
+  void tryAcquireFailsWhenCreatedConcurrently() {
+    // 准备
+    when(jobLeaseRepository.existsById(LEASE_NAME)).thenReturn(false);
+    when(jobLeaseRepository.create(any(), any(), any(), any()))
+        .thenThrow(new DataIntegrityViolationException("PRIMARY"));
+
+    // 执行和验证
+    assertFalse(jobLeaseService.tryAcquire(LEASE_NAME));
+  }
+
+  @Test
+  @DisplayName("执行长任务 - 未获得租约时不执行")
+  void runWithLeaseSkipsWhenHeldByOther() {
+    // 准备
+    when(jobLeaseRepository.existsById(LEASE_NAME)).thenReturn(true);
+    AtomicBoolean ran = new AtomicBoolean();
+
+    // 执行和验证
+    assertFalse(jobLeaseService.runWithLease(LEASE_NAME, leaseHeld -> ran.set(true)));
+    assertFalse(ran.get());
+  }
+
+  @Test
+  @DisplayName("执行长任务 - 执行期间后台续期，续期失败后检查返回 false")
+  void runWithLeaseStopsWhenRenewalFails() {
+    // 准备：获取与第一次续期成功，第二次续期时租约已被其他实例接管
+    ReflectionTestUtils.setField(jobLeaseService, "leaseMillis", 30L);
+    when(jobLeaseRepository.renew(eq(LEASE_NAME), anyString(), any(), eq(now)))
+        .thenReturn(1, 1, 0);
+    List<Boolean> checks = new ArrayList<>();
+
+    // 执行
+    boolean ran =
+        jobLeaseService.runWithLease(
+            LEASE_NAME,
+            leaseHeld -> {
+              checks.add(leaseHeld.getAsBoolean());
+              long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+              while (leaseHeld.getAsBoolean() && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+              }
+              checks.add(leaseHeld.getAsBoolean());
+            });
+
+    // 验证
+    assertTrue(ran);
+    assertEquals(List.of(true, false), checks);
+    verify(jobLeaseRepository, times(3)).renew(eq(LEASE_NAME), anyString(), any(), eq(now));
+  }
+}
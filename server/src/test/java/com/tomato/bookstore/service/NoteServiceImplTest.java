@@ -0,0 +1,230 @@
+package com.tomato.bookstore.service;
+
+import static com.tomato.bookstore.constant.TestConstants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tomato.bookstore.constant.FeedbackType;
+import com.tomato.bookstore.dto.NoteCommentCreateDTO;
+import com.tomato.bookstore.dto.NoteCommentDTO;
+import com.tomato.bookstore.dto.NoteDTO;
+import com.tomato.bookstore.exception.ResourceNotFoundException;
+import com.tomato.bookstore.model.Note;
+import com.tomato.bookstore.model.NoteComment;
+import com.tomato.bookstore.model.NoteFeedback;
+import com.tomato.bookstore.model.Product;
+import com.tomato.bookstore.model.User;
+import com.tomato.bookstore.repository.NoteCommentRepository;
+import com.tomato.bookstore.repository.NoteFeedbackRepository;
+import com.tomato.bookstore.repository.NoteRepository;
+import com.tomato.bookstore.repository.ProductRepository;
+import com.tomato.bookstore.repository.UserRepository;
+import com.tomato.bookstore.service.impl.NoteServiceImpl;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class NoteServiceImplTest {
+  @Mock private NoteRepository noteRepository;
+  @Mock private NoteFeedbackRepository noteFeedbackRepository;
+  @Mock private NoteCommentRepository noteCommentRepository;
+  @Mock private UserRepository userRepository;
+  @Mock private ProductRepository productRepository;
+
+  @InjectMocks private NoteServiceImpl noteService;
+
+  private User user;
+  private Product product;
+  private Note note;
+  private NoteComment comment;
+  private static final Long USER_ID = 1L;
+  private static final Long PRODUCT_ID = 1L;
+  private static final Long NOTE_ID = 1L;
+  private static final Long COMMENT_ID = 1L;
+  private static final String COMMENT_CONTENT = "写得很好";
+
+  @BeforeEach
+  void setUp() {
+    // 设置测试数据
+    LocalDateTime now = LocalDateTime.now();
+
+    // 创建用户
+    user = new User();
+    user.setId(USER_ID);
+    user.setUsername(TEST_USERNAME);
+    user.setEmail(TEST_EMAIL);
+    user.setPhone(TEST_PHONE);
+    user.setCreatedAt(now);
+    user.setUpdatedAt(now);
+
+    // 创建商品
+    product = new Product();
+    product.setId(PRODUCT_ID);
+    product.setTitle(TEST_PRODUCT_TITLE);
+    product.setPrice(TEST_PRODUCT_PRICE);
+    product.setCreatedAt(now);
+    product.setUpdatedAt(now);
+
+    // 创建读书笔记
+    note =
+        Note.builder()
+            .id(NOTE_ID)
+            .title("读书笔记")
+            .content("笔记正文")
+            .productId(PRODUCT_ID)
+            .userId(USER_ID)
+            .createdAt(now)
+            .updatedAt(now)
+            .build();
+
+    // 创建评论
+    comment =
+        NoteComment.builder()
+            .id(COMMENT_ID)
+            .noteId(NOTE_ID)
+            .userId(USER_ID)
+            .content(COMMENT_CONTENT)
+            .createdAt(now)
+            .updatedAt(now)
+            .build();
+  }
+
+  @Test
+  @DisplayName("添加反馈 - 只判断笔记是否存在，不为校验加载笔记正文")
+  void addOrUpdateFeedbackChecksNoteExistence() {
+    // 准备
+    when(noteRepository.existsById(NOTE_ID)).thenReturn(true);
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(noteFeedbackRepository.findByNoteIdAndUserId(NOTE_ID, USER_ID))
+        .thenReturn(Optional.empty())
+        .thenReturn(
+            Optional.of(
+                NoteFeedback.builder()
+                    .noteId(NOTE_ID)
+                    .userId(USER_ID)
+                    .feedbackType(FeedbackType.LIKE)
+                    .build()));
+    when(noteFeedbackRepository.save(any(NoteFeedback.class))).thenAnswer(i -> i.getArgument(0));
+    when(noteRepository.findById(NOTE_ID)).thenReturn(Optional.of(note));
+    when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+    when(noteFeedbackRepository.countByNoteIdAndFeedbackType(NOTE_ID, FeedbackType.LIKE))
+        .thenReturn(1L);
+    when(noteFeedbackRepository.countByNoteIdAndFeedbackType(NOTE_ID, FeedbackType.DISLIKE))
+        .thenReturn(0L);
+    when(noteCommentRepository.countByNoteId(NOTE_ID)).thenReturn(0L);
+
+    // 执行
+    NoteDTO result = noteService.addOrUpdateFeedback(NOTE_ID, USER_ID, FeedbackType.LIKE);
+
+    // 验证
+    assertEquals(NOTE_ID, result.getId());
+    assertEquals(1, result.getLikeCount());
+    assertEquals(FeedbackType.LIKE, result.getUserFeedback());
+    verify(noteRepository).existsById(NOTE_ID);
+    // 只有组装返回结果时加载一次笔记
+    verify(noteRepository, times(1)).findById(NOTE_ID);
+    verify(noteFeedbackRepository).save(any(NoteFeedback.class));
+  }
+
+  @Test
+  @DisplayName("添加反馈 - 笔记不存在")
+  void addOrUpdateFeedbackNoteNotFound() {
+    // 准备
+    when(noteRepository.existsById(NOTE_ID)).thenReturn(false);
+
+    // 执行和验证
+    assertThrows(
+        ResourceNotFoundException.class,
+        () -> noteService.addOrUpdateFeedback(NOTE_ID, USER_ID, FeedbackType.LIKE));
+    verify(noteRepository, never()).findById(anyLong());
+    verify(userRepository, never()).findById(anyLong());
+    verify(noteFeedbackRepository, never()).save(any(NoteFeedback.class));
+  }
+
+  @Test
+  @DisplayName("获取评论 - 只判断笔记是否存在，不加载笔记")
+  void getNoteCommentsChecksNoteExistence() {
+    // 准备
+    when(noteRepository.existsById(NOTE_ID)).thenReturn(true);
+    when(noteCommentRepository.findByNoteIdOrderByCreatedAtDesc(NOTE_ID))
+        .thenReturn(List.of(comment));
+    when(userRepository.findAllById(List.of(USER_ID))).thenReturn(List.of(user));
+
+    // 执行
+    List<NoteCommentDTO> result = noteService.getNoteComments(NOTE_ID);
+
+    // 验证
+    assertEquals(1, result.size());
+    assertEquals(COMMENT_CONTENT, result.get(0).getContent());
+    assertEquals(TEST_USERNAME, result.get(0).getUsername());
+    verify(noteRepository).existsById(NOTE_ID);
+    verify(noteRepository, never()).findById(anyLong());
+  }
+
+  @Test
+  @DisplayName("获取评论 - 笔记不存在")
+  void getNoteCommentsNoteNotFound() {
+    // 准备
+    when(noteRepository.existsById(NOTE_ID)).thenReturn(false);
+
+    // 执行和验证
+    assertThrows(ResourceNotFoundException.class, () -> noteService.getNoteComments(NOTE_ID));
+    verify(noteCommentRepository, never()).findByNoteIdOrderByCreatedAtDesc(anyLong());
+  }
+
+  @Test
+  @DisplayName("添加评论 - 只判断笔记是否存在，不加载笔记")
+  void addCommentChecksNoteExistence() {
+    // 准备
+    NoteCommentCreateDTO commentCreateDTO = new NoteCommentCreateDTO(COMMENT_CONTENT);
+    when(noteRepository.existsById(NOTE_ID)).thenReturn(true);
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(noteCommentRepository.save(any(NoteComment.class)))
+        .thenAnswer(
+            i -> {
+              NoteComment savedComment = i.getArgument(0);
+              savedComment.setId(COMMENT_ID);
+              return savedComment;
+            });
+
+    // 执行
+    NoteCommentDTO result = noteService.addComment(NOTE_ID, USER_ID, commentCreateDTO);
+
+    // 验证
+    assertEquals(COMMENT_ID, result.getId());
+    assertEquals(NOTE_ID, result.getNoteId());
+    assertEquals(COMMENT_CONTENT, result.getContent());
+    assertEquals(TEST_USERNAME, result.getUsername());
+    verify(noteRepository).existsById(NOTE_ID);
+    verify(noteRepository, never()).findById(anyLong());
+  }
+
+  @Test
+  @DisplayName("添加评论 - 笔记不存在")
+  void addCommentNoteNotFound() {
+    // 准备
+    NoteCommentCreateDTO commentCreateDTO = new NoteCommentCreateDTO(COMMENT_CONTENT);
+    when(noteRepository.existsById(NOTE_ID)).thenReturn(false);
+
+    // 执行和验证
+    assertThrows(
+        ResourceNotFoundException.class,
+        () -> noteService.addComment(NOTE_ID, USER_ID, commentCreateDTO));
+    verify(userRepository, never()).findById(anyLong());
+    verify(noteCommentRepository, never()).save(any(NoteComment.class));
+  }
+}
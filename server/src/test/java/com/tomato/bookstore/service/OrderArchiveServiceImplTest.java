@@ -0,0 +1,181 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.constant.PaymentMethod;
+import com.tomato.bookstore.dto.OrderDTO;
+import com.tomato.bookstore.model.ArchivedOrder;
+import com.tomato.bookstore.model.ArchivedOrderLine;
+import com.tomato.bookstore.repository.ArchivedOrderLineRepository;
+import com.tomato.bookstore.repository.ArchivedOrderRepository;
+import com.tomato.bookstore.repository.CartsOrdersRelationRepository;
+import com.tomato.bookstore.repository.OrderLineRepository;
+import com.tomato.bookstore.repository.OrderRepository;
+import com.tomato.bookstore.service.impl.OrderArchiveServiceImpl;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderArchiveServiceImplTest {
+  @Mock private TransactionTemplate transactionTemplate;
+  @Mock private OrderRepository orderRepository;
+  @Mock private OrderLineRepository orderLineRepository;
+  @Mock private CartsOrdersRelationRepository relationRepository;
+  @Mock private ArchivedOrderRepository archivedOrderRepository;
+  @Mock private ArchivedOrderLineRepository archivedOrderLineRepository;
+
+  @InjectMocks private OrderArchiveServiceImpl orderArchiveService;
+
+  private LocalDateTime before;
+
+  private static final Long USER_ID = 1L;
+  private static final Set<OrderStatus> ARCHIVABLE =
+      Set.of(OrderStatus.CANCELLED, OrderStatus.TIMEOUT);
+
+  @BeforeEach
+  void setUp() {
+    Clock fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneId.of("UTC"));
+    ReflectionTestUtils.setField(orderArchiveService, "clock", fixedClock);
+    ReflectionTestUtils.setField(orderArchiveService, "retentionDays", 90);
+    ReflectionTestUtils.setField(orderArchiveService, "batchSize", 2);
+    before = LocalDateTime.now(fixedClock).minusDays(90);
+  }
+
+  @Test
+  @DisplayName("归档订单 - 分批复制到归档表后从原表删除，不足一批时结束")
+  void archiveMovesOrdersInBatches() {
+    // 准备
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocation -> {
+              TransactionCallback<Integer> callback = invocation.getArgument(0);
+              return callback.doInTransaction(null);
+            });
+    when(orderRepository.findIdsByStatusInAndUpdatedAtBefore(
+            ARCHIVABLE, before, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L, 2L), List.of(3L));
+
+    // 执行
+    int archived = orderArchiveService.archive(() -> true);
+
+    // 验证
+    assertEquals(3, archived);
+    verify(transactionTemplate, times(2)).execute(any());
+    verify(archivedOrderRepository).copyFromOrders(List.of(1L, 2L));
+    verify(archivedOrderLineRepository).copyFromOrderLines(List.of(1L, 2L));
+    verify(relationRepository).deleteByOrderIdIn(List.of(1L, 2L));
+    verify(orderLineRepository).deleteByOrderIdIn(List.of(1L, 2L));
+    verify(orderRepository).deleteByIdInAndStatusIn(List.of(1L, 2L), ARCHIVABLE);
+    verify(orderRepository).deleteByIdInAndStatusIn(List.of(3L), ARCHIVABLE);
+  }
+
+  @Test
+  @DisplayName("归档订单 - 没有可归档的订单")
+  void archiveDoesNothingWhenNoOrders() {
+    // 准备
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocation -> {
+              TransactionCallback<Integer> callback = invocation.getArgument(0);
+              return callback.doInTransaction(null);
+            });
+    when(orderRepository.findIdsByStatusInAndUpdatedAtBefore(any(), any(), any()))
+        .thenReturn(List.of());
+
+    // 执行
+    int archived = orderArchiveService.archive(() -> true);
+
+    // 验证
+    assertEquals(0, archived);
+    verify(archivedOrderRepository, never()).copyFromOrders(anyCollection());
+    verify(orderRepository, never()).deleteByIdInAndStatusIn(anyCollection(), anyCollection());
+  }
+
+  @Test
+  @DisplayName("归档订单 - 失去任务租约后不再开始下一批")
+  void archiveStopsWhenLeaseLost() {
+    // 准备：第一批之后租约被其他实例接管
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocation -> {
+              TransactionCallback<Integer> callback = invocation.getArgument(0);
+              return callback.doInTransaction(null);
+            });
+    when(orderRepository.findIdsByStatusInAndUpdatedAtBefore(
+            ARCHIVABLE, before, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L, 2L));
+    Iterator<Boolean> leaseHeld = List.of(true, false).iterator();
+
+    // 执行
+    int archived = orderArchiveService.archive(leaseHeld::next);
+
+    // 验证
+    assertEquals(2, archived);
+    verify(transactionTemplate, times(1)).execute(any());
+  }
+
+  @Test
+  @DisplayName("获取归档订单 - 一次查询取回所有订单行")
+  void getArchivedOrdersLoadsLines() {
+    // 准备
+    ArchivedOrder order =
+        ArchivedOrder.builder()
+            .id(3L)
+            .userId(USER_ID)
+            .totalAmount(new BigDecimal("49.90"))
+            .paymentMethod(PaymentMethod.ALIPAY)
+            .status(OrderStatus.TIMEOUT)
+            .shippingAddress("测试地址")
+            .createdAt(before.minusDays(1))
+            .build();
+    ArchivedOrderLine line =
+        ArchivedOrderLine.builder()
+            .id(30L)
+            .orderId(3L)
+            .productId(1L)
+            .title("测试商品")
+            .price(new BigDecimal("49.90"))
+            .quantity(1)
+            .build();
+    when(archivedOrderRepository.findByUserIdOrderByCreatedAtDesc(USER_ID))
+        .thenReturn(List.of(order));
+    when(archivedOrderLineRepository.findByOrderIdInOrderById(List.of(3L)))
+        .thenReturn(List.of(line));
+
+    // 执行
+    List<OrderDTO> result = orderArchiveService.getArchivedOrders(USER_ID);
+
+    // 验证
+    assertEquals(1, result.size());
+    assertEquals(3L, result.get(0).getOrderId());
+    assertEquals(USER_ID, result.get(0).getUserId());
+    assertEquals(OrderStatus.TIMEOUT, result.get(0).getStatus());
+    assertEquals(1, result.get(0).getOrderItems().size());
+    assertTrue(orderArchiveService.getArchivedOrders(2L).isEmpty());
+  }
+}
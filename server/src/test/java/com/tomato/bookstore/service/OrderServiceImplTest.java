@@ -6,6 +6,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -22,23 +24,35 @@ import com.tomato.bookstore.dto.CheckoutDTO;
 import com.tomato.bookstore.dto.OrderDTO;
 import com.tomato.bookstore.dto.PaymentDTO;
 import com.tomato.bookstore.dto.PaymentNotifyDTO;
+import com.tomato.bookstore.dto.StockpileDTO;
+import com.tomato.bookstore.event.CheckoutFailedEvent;
+import com.tomato.bookstore.event.OrderCancelledEvent;
+import com.tomato.bookstore.event.OrderCreatedEvent;
+import com.tomato.bookstore.event.OrderPaidEvent;
+import com.tomato.bookstore.event.OrderTimedOutEvent;
 import com.tomato.bookstore.exception.BusinessException;
 import com.tomato.bookstore.exception.ResourceNotFoundException;
+import com.tomato.bookstore.exception.StockInsufficientException;
 import com.tomato.bookstore.model.Cart;
 import com.tomato.bookstore.model.CartsOrdersRelation;
 import com.tomato.bookstore.model.Order;
+import com.tomato.bookstore.model.OrderLine;
 import com.tomato.bookstore.model.Product;
 import com.tomato.bookstore.model.Stockpile;
 import com.tomato.bookstore.model.User;
 import com.tomato.bookstore.repository.CartRepository;
 import com.tomato.bookstore.repository.CartsOrdersRelationRepository;
+import com.tomato.bookstore.repository.OrderLineRepository;
 import com.tomato.bookstore.repository.OrderRepository;
-import com.tomato.bookstore.repository.StockpileRepository;
 import com.tomato.bookstore.repository.UserRepository;
 import com.tomato.bookstore.service.impl.CartServiceImpl;
 import com.tomato.bookstore.service.impl.OrderServiceImpl;
+import com.tomato.bookstore.util.AdmissionGate;
+import com.tomato.bookstore.util.SnowflakeIdGenerator;
+import com.tomato.bookstore.util.TimingWheel;
 import java.math.BigDecimal;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -52,7 +66,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
@@ -61,7 +78,13 @@ public class OrderServiceImplTest {
   @Mock private UserRepository userRepository;
   @Mock private CartRepository cartRepository;
   @Mock private CartsOrdersRelationRepository relationRepository;
-  @Mock private StockpileRepository stockpileRepository;
+  @Mock private OrderLineRepository orderLineRepository;
+  @Mock private OrderArchiveService orderArchiveService;
+  @Mock private StockService stockService;
+  @Mock private AdmissionGate flashSaleGate;
+  @Mock private TimingWheel<Long> orderExpiryWheel;
+  @Mock private ApplicationEventPublisher eventPublisher;
+  @Spy private SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(0, Clock.systemUTC());
   @Mock private AlipayClient alipayClient;
   @Mock private AlipayConfig alipayConfig;
   @Mock private AlipayTradePagePayResponse alipayResponse;
@@ -77,6 +100,7 @@ public class OrderServiceImplTest {
   private Order order;
   private CheckoutDTO checkoutDTO;
   private CartsOrdersRelation orderItem;
+  private OrderLine orderLine;
   private List<Long> cartItemIds;
   private PaymentNotifyDTO paymentNotifyDTO;
 
@@ -95,6 +119,11 @@ public class OrderServiceImplTest {
     // 设置测试数据
     fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00.238770100Z"), ZoneId.of("UTC"));
     ReflectionTestUtils.setField(orderService, "clock", fixedClock);
+    ReflectionTestUtils.setField(orderService, "paymentConcurrency", 1);
+    ReflectionTestUtils.setField(orderService, "paymentWaitMillis", 100L);
+    ReflectionTestUtils.setField(orderService, "paymentFormCacheSize", 10);
+    ReflectionTestUtils.setField(orderService, "idempotencyCacheSize", 10);
+    ReflectionTestUtils.invokeMethod(orderService, "init");
     LocalDateTime now = LocalDateTime.now(fixedClock);
 
     // 创建用户
@@ -149,6 +178,17 @@ public class OrderServiceImplTest {
     orderItems.add(orderItem);
     order.setOrderItems(orderItems);
 
+    // 创建订单行快照
+    orderLine =
+        OrderLine.builder()
+            .orderId(ORDER_ID)
+            .productId(PRODUCT_ID)
+            .cartItemId(CART_ITEM_ID)
+            .title("测试商品")
+            .price(PRICE)
+            .quantity(QUANTITY)
+            .build();
+
     // 准备结账 DTO
     cartItemIds = Collections.singletonList(CART_ITEM_ID);
     checkoutDTO = new CheckoutDTO();
@@ -175,7 +215,7 @@ public class OrderServiceImplTest {
     List<Cart> cartItems = Collections.singletonList(cart);
     when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
     when(cartRepository.findByUserAndIdIn(user, cartItemIds)).thenReturn(cartItems);
-    when(stockpileRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(stockpile));
+    when(stockService.lockStock(PRODUCT_ID, QUANTITY)).thenReturn(true);
     when(orderRepository.save(any(Order.class)))
         .thenAnswer(
             i -> {
@@ -196,14 +236,45 @@ public class OrderServiceImplTest {
     assertEquals(PaymentMethod.ALIPAY, result.getPaymentMethod());
     assertEquals(OrderStatus.PENDING, result.getStatus());
     assertEquals(SHIPPING_ADDRESS, result.getShippingAddress());
+    assertEquals("测试商品", result.getOrderItems().get(0).getTitle());
+    assertEquals(PRICE, result.getOrderItems().get(0).getPrice());
 
     verify(orderRepository).save(any(Order.class));
     verify(relationRepository).saveAll(anyList());
-    verify(stockpileRepository).save(stockpile);
+    verify(orderLineRepository).saveAll(List.of(orderLine));
 
-    // 验证库存锁定
-    assertEquals(QUANTITY, stockpile.getFrozen());
-    assertEquals(100 - QUANTITY, stockpile.getAmount());
+    // 验证库存通过条件更新锁定，而非先读后写
+    verify(stockService).lockStock(PRODUCT_ID, QUANTITY);
+
+    // 验证订单按创建时间加 30 分钟登记到过期时间轮
+    long expiryMillis = fixedClock.millis() + 30 * 60 * 1000L;
+    verify(orderExpiryWheel).schedule(ORDER_ID, expiryMillis);
+
+    // 验证发布订单创建事件
+    verify(eventPublisher).publishEvent(any(OrderCreatedEvent.class));
+  }
+
+  @Test
+  @DisplayName("创建订单 - 重复的幂等键返回已创建的订单，不再锁定库存")
+  void createOrderReturnsExistingOrderForRepeatedKey() {
+    // 准备
+    checkoutDTO.setIdempotencyKey("checkout-1");
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(orderRepository.findByUserAndIdempotencyKey(user, "checkout-1"))
+        .thenReturn(Optional.of(order));
+    when(orderLineRepository.findByOrderIdOrderById(ORDER_ID)).thenReturn(List.of(orderLine));
+
+    // 执行
+    OrderDTO first = orderService.createOrder(checkoutDTO);
+    OrderDTO second = orderService.createOrder(checkoutDTO);
+
+    // 验证第二次直接命中缓存
+    assertEquals(ORDER_ID, first.getOrderId());
+    assertEquals(first, second);
+    verify(orderRepository).findByUserAndIdempotencyKey(user, "checkout-1");
+    verify(cartRepository, never()).findByUserAndIdIn(any(), any());
+    verify(stockService, never()).lockStock(any(), any());
+    verify(orderRepository, never()).save(any(Order.class));
   }
 
   @Test
@@ -222,6 +293,7 @@ public class OrderServiceImplTest {
 
     assertEquals(BusinessErrorCode.ORDER_EMPTY_CART_ITEMS, exception.getErrorCode());
     verify(orderRepository, never()).save(any(Order.class));
+    verify(eventPublisher).publishEvent(any(CheckoutFailedEvent.class));
   }
 
   @Test
@@ -243,6 +315,52 @@ public class OrderServiceImplTest {
     verify(orderRepository, never()).save(any(Order.class));
   }
 
+  @Test
+  @DisplayName("创建订单 - 失败，秒杀商品须通过秒杀通道结算")
+  void createOrderFailsWhenProductInFlashSale() {
+    // 准备
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(cartRepository.findByUserAndIdIn(user, cartItemIds))
+        .thenReturn(Collections.singletonList(cart));
+    when(flashSaleGate.isGated(PRODUCT_ID)).thenReturn(true);
+
+    // 执行和验证
+    BusinessException exception =
+        assertThrows(
+            BusinessException.class,
+            () -> {
+              orderService.createOrder(checkoutDTO);
+            });
+
+    assertEquals(BusinessErrorCode.FLASH_SALE_CHECKOUT_REQUIRED, exception.getErrorCode());
+    verify(stockService, never()).lockStock(any(), any());
+    verify(orderRepository, never()).save(any(Order.class));
+  }
+
+  @Test
+  @DisplayName("创建秒杀订单 - 成功，已准入的请求不受秒杀拦截")
+  void createFlashSaleOrderSuccess() {
+    // 准备
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(cartRepository.findByUserAndIdIn(user, cartItemIds))
+        .thenReturn(Collections.singletonList(cart));
+    when(stockService.lockStock(PRODUCT_ID, QUANTITY)).thenReturn(true);
+    when(orderRepository.save(any(Order.class)))
+        .thenAnswer(
+            i -> {
+              Order savedOrder = i.getArgument(0);
+              savedOrder.setId(ORDER_ID);
+              return savedOrder;
+            });
+
+    // 执行
+    OrderDTO result = orderService.createFlashSaleOrder(checkoutDTO);
+
+    // 验证
+    assertEquals(ORDER_ID, result.getOrderId());
+    verify(flashSaleGate, never()).isGated(any());
+  }
+
   @Test
   @DisplayName("创建订单 - 失败，库存不足")
   void createOrderFailsWhenStockInsufficient() {
@@ -252,17 +370,91 @@ public class OrderServiceImplTest {
 
     when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
     when(cartRepository.findByUserAndIdIn(user, cartItemIds)).thenReturn(cartItems);
-    when(stockpileRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(stockpile));
+    when(stockService.lockStock(PRODUCT_ID, QUANTITY)).thenReturn(false);
+    when(stockService.getStockpile(PRODUCT_ID)).thenReturn(toStockpileDTO(stockpile));
 
     // 执行和验证
-    BusinessException exception =
+    StockInsufficientException exception =
         assertThrows(
-            BusinessException.class,
+            StockInsufficientException.class,
             () -> {
               orderService.createOrder(checkoutDTO);
             });
 
     assertEquals(BusinessErrorCode.PRODUCT_STOCK_INSUFFICIENT, exception.getErrorCode());
+    assertEquals(1, exception.getShortages().size());
+    assertEquals(PRODUCT_ID, exception.getShortages().get(0).getProductId());
+    assertEquals(1, exception.getShortages().get(0).getAvailable());
+    assertEquals(QUANTITY, exception.getShortages().get(0).getRequested());
+    verify(orderRepository, never()).save(any(Order.class));
+  }
+
+  @Test
+  @DisplayName("创建订单 - 失败，锁定失败后读到的库存充足也按库存不足处理")
+  void createOrderFailsWhenLockFailsDespiteStaleRead() {
+    // 准备：锁定失败后，其他订单恰好释放了库存
+    List<Cart> cartItems = Collections.singletonList(cart);
+    stockpile.setAmount(QUANTITY);
+
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(cartRepository.findByUserAndIdIn(user, cartItemIds)).thenReturn(cartItems);
+    when(stockService.lockStock(PRODUCT_ID, QUANTITY)).thenReturn(false);
+    when(stockService.getStockpile(PRODUCT_ID)).thenReturn(toStockpileDTO(stockpile));
+
+    // 执行和验证
+    StockInsufficientException exception =
+        assertThrows(
+            StockInsufficientException.class,
+            () -> {
+              orderService.createOrder(checkoutDTO);
+            });
+
+    assertEquals(1, exception.getShortages().size());
+    assertEquals(PRODUCT_ID, exception.getShortages().get(0).getProductId());
+    verify(orderRepository, never()).save(any(Order.class));
+  }
+
+  @Test
+  @DisplayName("创建订单 - 失败，报告所有库存不足的商品且按商品 ID 顺序锁定")
+  void createOrderReportsEveryShortage() {
+    // 准备：第二个商品 ID 更小，应当先被锁定
+    Product otherProduct = new Product();
+    otherProduct.setId(0L);
+    otherProduct.setTitle("另一个商品");
+    otherProduct.setPrice(PRICE);
+
+    Cart otherCart = new Cart();
+    otherCart.setId(2L);
+    otherCart.setUser(user);
+    otherCart.setProduct(otherProduct);
+    otherCart.setQuantity(5);
+
+    Stockpile otherStockpile = new Stockpile();
+    otherStockpile.setProduct(otherProduct);
+    otherStockpile.setAmount(3);
+    otherStockpile.setFrozen(0);
+    stockpile.setAmount(1);
+
+    List<Cart> cartItems = List.of(cart, otherCart);
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(cartRepository.findByUserAndIdIn(user, cartItemIds)).thenReturn(cartItems);
+    when(stockService.lockStock(0L, 5)).thenReturn(false);
+    when(stockService.getStockpile(0L)).thenReturn(toStockpileDTO(otherStockpile));
+    when(stockService.getStockpile(PRODUCT_ID)).thenReturn(toStockpileDTO(stockpile));
+
+    // 执行和验证
+    StockInsufficientException exception =
+        assertThrows(
+            StockInsufficientException.class,
+            () -> {
+              orderService.createOrder(checkoutDTO);
+            });
+
+    assertEquals(2, exception.getShortages().size());
+    assertEquals(0L, exception.getShortages().get(0).getProductId());
+    assertEquals(PRODUCT_ID, exception.getShortages().get(1).getProductId());
+    // 首个商品失败后不再尝试锁定后续商品
+    verify(stockService, never()).lockStock(PRODUCT_ID, QUANTITY);
     verify(orderRepository, never()).save(any(Order.class));
   }
 
@@ -272,6 +464,7 @@ public class OrderServiceImplTest {
     // 准备
     when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
     when(orderRepository.findByUserAndId(user, ORDER_ID)).thenReturn(Optional.of(order));
+    when(orderLineRepository.findByOrderIdOrderById(ORDER_ID)).thenReturn(List.of(orderLine));
 
     // 执行
     OrderDTO result = orderService.getOrder(USER_ID, ORDER_ID);
@@ -281,6 +474,66 @@ public class OrderServiceImplTest {
     assertEquals(ORDER_ID, result.getOrderId());
     assertEquals(USER_ID, result.getUserId());
     assertEquals(OrderStatus.PENDING, result.getStatus());
+
+    // 验证订单项取自下单时的快照，商品改价不影响订单展示
+    product.setPrice(new BigDecimal("99.90"));
+    assertEquals(1, result.getOrderItems().size());
+    assertEquals(PRICE, result.getOrderItems().get(0).getPrice());
+    assertEquals(CART_ITEM_ID, result.getOrderItems().get(0).getCartItemId());
+  }
+
+  @Test
+  @DisplayName("获取用户订单列表 - 成功，一次查询取回所有订单行")
+  void getUserOrderListSuccess() {
+    // 准备
+    Order other = Order.builder().id(2L).user(user).status(OrderStatus.PAID).build();
+    OrderLine otherLine =
+        OrderLine.builder()
+            .orderId(2L)
+            .productId(PRODUCT_ID)
+            .title("测试商品")
+            .price(PRICE)
+            .quantity(1)
+            .build();
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(orderRepository.findByUserOrderByCreatedAtDesc(user)).thenReturn(List.of(other, order));
+    when(orderLineRepository.findByOrderIdInOrderById(List.of(2L, ORDER_ID)))
+        .thenReturn(List.of(orderLine, otherLine));
+
+    // 执行
+    List<OrderDTO> result = orderService.getUserOrderList(USER_ID, false);
+
+    // 验证
+    assertEquals(2, result.size());
+    assertEquals(1, result.get(0).getOrderItems().get(0).getQuantity());
+    assertEquals(QUANTITY, result.get(1).getOrderItems().get(0).getQuantity());
+    verify(orderLineRepository, never()).findByOrderIdOrderById(any());
+    verify(orderArchiveService, never()).getArchivedOrders(any());
+  }
+
+  @Test
+  @DisplayName("获取用户订单列表 - 包含归档订单时按创建时间合并")
+  void getUserOrderListIncludesArchived() {
+    // 准备
+    OrderDTO archived =
+        OrderDTO.builder()
+            .orderId(3L)
+            .status(OrderStatus.TIMEOUT)
+            .createTime(order.getCreatedAt().minusDays(100))
+            .build();
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(orderRepository.findByUserOrderByCreatedAtDesc(user)).thenReturn(List.of(order));
+    when(orderLineRepository.findByOrderIdInOrderById(List.of(ORDER_ID)))
+        .thenReturn(List.of(orderLine));
+    when(orderArchiveService.getArchivedOrders(USER_ID)).thenReturn(List.of(archived));
+
+    // 执行
+    List<OrderDTO> result = orderService.getUserOrderList(USER_ID, true);
+
+    // 验证
+    assertEquals(2, result.size());
+    assertEquals(ORDER_ID, result.get(0).getOrderId());
+    assertEquals(3L, result.get(1).getOrderId());
   }
 
   @Test
@@ -315,8 +568,10 @@ public class OrderServiceImplTest {
     when(alipayResponse.getBody()).thenReturn(PAYMENT_FORM);
     when(alipayClient.pageExecute(any(AlipayTradePagePayRequest.class))).thenReturn(alipayResponse);
 
+    when(orderRepository.assignOutTradeNo(eq(ORDER_ID), anyString())).thenReturn(1);
+
     // 执行
-    PaymentDTO result = orderService.payOrder(USER_ID, ORDER_ID);
+    PaymentDTO result = orderService.payOrder(USER_ID, ORDER_ID, null);
 
     // 验证
     assertNotNull(result);
@@ -325,9 +580,72 @@ public class OrderServiceImplTest {
     assertEquals(order.getTotalAmount(), result.getTotalAmount());
     assertEquals(PaymentMethod.ALIPAY, result.getPaymentMethod());
 
+    // 验证首次支付时分配商户订单号
+    assertNotNull(order.getOutTradeNo());
+    verify(alipayClient).pageExecute(any(AlipayTradePagePayRequest.class));
+  }
+
+  @Test
+  @DisplayName("支付订单 - 重复支付使用已缓存的支付表单")
+  void payOrderReusesCachedForm() throws Exception {
+    // 准备
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(orderRepository.findByUserAndId(user, ORDER_ID)).thenReturn(Optional.of(order));
+    when(alipayResponse.isSuccess()).thenReturn(true);
+    when(alipayResponse.getBody()).thenReturn(PAYMENT_FORM);
+    when(alipayClient.pageExecute(any(AlipayTradePagePayRequest.class))).thenReturn(alipayResponse);
+
+    // 执行
+    orderService.payOrder(USER_ID, ORDER_ID, null);
+    PaymentDTO result = orderService.payOrder(USER_ID, ORDER_ID, null);
+
+    // 验证只调用一次支付宝接口
+    assertEquals(PAYMENT_FORM, result.getPaymentForm());
     verify(alipayClient).pageExecute(any(AlipayTradePagePayRequest.class));
   }
 
+  @Test
+  @DisplayName("支付订单 - 重复的幂等键返回首次的支付信息")
+  void payOrderReturnsOriginalResultForRepeatedKey() throws Exception {
+    // 准备
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(orderRepository.findByUserAndId(user, ORDER_ID)).thenReturn(Optional.of(order));
+    when(alipayResponse.isSuccess()).thenReturn(true);
+    when(alipayResponse.getBody()).thenReturn(PAYMENT_FORM);
+    when(alipayClient.pageExecute(any(AlipayTradePagePayRequest.class))).thenReturn(alipayResponse);
+    PaymentDTO first = orderService.payOrder(USER_ID, ORDER_ID, "pay-1");
+
+    // 执行：订单状态已变化，重试仍返回首次结果
+    order.setStatus(OrderStatus.PAID);
+    PaymentDTO second = orderService.payOrder(USER_ID, ORDER_ID, "pay-1");
+
+    // 验证
+    assertEquals(first, second);
+    verify(orderRepository).findByUserAndId(user, ORDER_ID);
+
+    // 同一幂等键不能用于其他订单
+    BusinessException exception =
+        assertThrows(
+            BusinessException.class, () -> orderService.payOrder(USER_ID, 2L, "pay-1"));
+    assertEquals(BusinessErrorCode.ORDER_IDEMPOTENCY_KEY_INVALID, exception.getErrorCode());
+  }
+
+  @Test
+  @DisplayName("支付订单 - 失败，订单已过期")
+  void payOrderFailsWhenOrderExpired() throws AlipayApiException {
+    // 准备
+    order.setCreatedAt(LocalDateTime.now(fixedClock).minusMinutes(30));
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    when(orderRepository.findByUserAndId(user, ORDER_ID)).thenReturn(Optional.of(order));
+
+    // 执行和验证
+    BusinessException exception =
+        assertThrows(BusinessException.class, () -> orderService.payOrder(USER_ID, ORDER_ID, null));
+
+    assertEquals(BusinessErrorCode.ORDER_EXPIRED, exception.getErrorCode());
+    verify(alipayClient, never()).pageExecute(any(AlipayTradePagePayRequest.class));
+  }
+
   @Test
   @DisplayName("支付订单 - 失败，订单状态错误")
   void payOrderFailsWhenOrderStatusError() throws AlipayApiException {
@@ -341,7 +659,7 @@ public class OrderServiceImplTest {
         assertThrows(
             BusinessException.class,
             () -> {
-              orderService.payOrder(USER_ID, ORDER_ID);
+              orderService.payOrder(USER_ID, ORDER_ID, null);
             });
 
     assertEquals(BusinessErrorCode.ORDER_STATUS_ERROR, exception.getErrorCode());
@@ -366,7 +684,7 @@ public class OrderServiceImplTest {
         assertThrows(
             BusinessException.class,
             () -> {
-              orderService.payOrder(USER_ID, ORDER_ID);
+              orderService.payOrder(USER_ID, ORDER_ID, null);
             });
 
     assertEquals(BusinessErrorCode.ORDER_PAY_FAILED, exception.getErrorCode());
@@ -376,25 +694,30 @@ public class OrderServiceImplTest {
   @DisplayName("处理支付通知 - 成功")
   void handlePaymentNotifySuccess() {
     // 准备
-    when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
-    when(orderRepository.save(any(Order.class))).thenReturn(order);
-    when(relationRepository.findByOrder(order)).thenReturn(Collections.singletonList(orderItem));
-    when(stockpileRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(stockpile));
+    when(orderRepository.markPaid(
+            ORDER_ID,
+            PRICE.multiply(BigDecimal.valueOf(QUANTITY)),
+            ALIPAY_TRADE_NO,
+            LocalDateTime.now(fixedClock),
+            LocalDateTime.now(fixedClock)))
+        .thenReturn(1);
+    when(orderLineRepository.sumQuantityByProductForOrders(List.of(ORDER_ID)))
+        .thenReturn(List.of(productQuantity(PRODUCT_ID, (long) QUANTITY)));
 
     // 执行
     PaymentNotifyDTO result = orderService.handlePaymentNotify(paymentNotifyDTO);
 
     // 验证
     assertNotNull(result);
-    assertEquals(OrderStatus.PAID, order.getStatus());
-    assertEquals(ALIPAY_TRADE_NO, order.getTradeNo());
-    assertNotNull(order.getPaymentTime());
+    verify(orderExpiryWheel).cancel(ORDER_ID);
 
-    verify(orderRepository).save(order);
-    verify(stockpileRepository).save(stockpile);
+    // 验证成功路径只执行条件更新，不先查询订单
+    verify(orderRepository, never()).findById(any());
+    verify(orderRepository, never()).save(any(Order.class));
 
-    // 验证库存更新
-    assertEquals(0, stockpile.getFrozen()); // 冻结库存应减少
+    // 验证冻结库存扣减
+    verify(stockService).reduceFrozenStock(PRODUCT_ID, QUANTITY);
+    verify(eventPublisher).publishEvent(any(OrderPaidEvent.class));
   }
 
   @Test
@@ -412,7 +735,7 @@ public class OrderServiceImplTest {
             });
 
     assertTrue(exception.getMessage().contains("订单不存在"));
-    verify(orderRepository, never()).save(any(Order.class));
+    verify(stockService, never()).reduceFrozenStock(any(), any());
   }
 
   @Test
@@ -431,7 +754,24 @@ public class OrderServiceImplTest {
             });
 
     assertEquals(BusinessErrorCode.ORDER_STATUS_ERROR, exception.getErrorCode());
-    verify(orderRepository, never()).save(any(Order.class));
+    verify(orderExpiryWheel, never()).cancel(any());
+    verify(stockService, never()).reduceFrozenStock(any(), any());
+  }
+
+  @Test
+  @DisplayName("处理支付通知 - 同一交易的重复通知直接返回")
+  void handlePaymentNotifyIgnoresDuplicate() {
+    // 准备
+    order.setStatus(OrderStatus.PAID);
+    order.setTradeNo(ALIPAY_TRADE_NO);
+    when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+
+    // 执行
+    PaymentNotifyDTO result = orderService.handlePaymentNotify(paymentNotifyDTO);
+
+    // 验证
+    assertEquals(paymentNotifyDTO, result);
+    verify(stockService, never()).reduceFrozenStock(any(), any());
   }
 
   @Test
@@ -450,34 +790,33 @@ public class OrderServiceImplTest {
             });
 
     assertEquals(BusinessErrorCode.ORDER_PAYMENT_AMOUNT_ERROR, exception.getErrorCode());
-    verify(orderRepository, never()).save(any(Order.class));
+    verify(stockService, never()).reduceFrozenStock(any(), any());
   }
 
   @Test
   @DisplayName("取消订单 - 成功")
   void cancelOrderSuccess() {
     // 准备
-    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-    when(orderRepository.findByUserAndId(user, ORDER_ID)).thenReturn(Optional.of(order));
-    when(orderRepository.save(any(Order.class))).thenReturn(order);
-    when(relationRepository.findByOrder(order)).thenReturn(Collections.singletonList(orderItem));
-    when(stockpileRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(stockpile));
-
-    // 设置初始库存状态
-    stockpile.setAmount(98);
-    stockpile.setFrozen(2);
+    when(orderRepository.updateStatusByIdAndUserId(
+            ORDER_ID,
+            USER_ID,
+            OrderStatus.PENDING,
+            OrderStatus.CANCELLED,
+            LocalDateTime.now(fixedClock)))
+        .thenReturn(1);
+    when(orderLineRepository.sumQuantityByProductForOrders(List.of(ORDER_ID)))
+        .thenReturn(List.of(productQuantity(PRODUCT_ID, (long) QUANTITY)));
 
     // 执行
     orderService.cancelOrder(USER_ID, ORDER_ID);
 
-    // 验证
-    assertEquals(OrderStatus.CANCELLED, order.getStatus());
-    verify(orderRepository).save(order);
-    verify(stockpileRepository).save(stockpile);
+    // 验证成功路径只执行条件更新，不先查询订单
+    verify(orderRepository, never()).findByUserAndId(any(), any());
+    verify(orderExpiryWheel).cancel(ORDER_ID);
 
-    // 验证库存更新
-    assertEquals(0, stockpile.getFrozen()); // 冻结库存应减少
-    assertEquals(100, stockpile.getAmount()); // 可用库存应增加
+    // 验证库存解锁
+    verify(stockService).unlockStock(PRODUCT_ID, QUANTITY);
+    verify(eventPublisher).publishEvent(any(OrderCancelledEvent.class));
   }
 
   @Test
@@ -497,38 +836,110 @@ public class OrderServiceImplTest {
             });
 
     assertEquals(BusinessErrorCode.ORDER_CANNOT_CANCEL, exception.getErrorCode());
-    verify(orderRepository, never()).save(any(Order.class));
+    verify(stockService, never()).unlockStock(any(), any());
   }
 
   @Test
-  @DisplayName("处理过期订单")
+  @DisplayName("处理过期订单 - 成功，批量更新状态并按商品汇总解锁库存")
   void handleExpiredOrdersSuccess() {
     // 准备
-    LocalDateTime expiredTime = LocalDateTime.now(fixedClock).minusMinutes(30);
-    List<Order> expiredOrders = Collections.singletonList(order);
+    LocalDateTime expiredAt = LocalDateTime.now(fixedClock).minusMinutes(30);
+    List<Long> orderIds = List.of(ORDER_ID, 2L);
+    when(orderRepository.findCreatedAtForUpdateByIdInAndStatus(orderIds, OrderStatus.PENDING))
+        .thenReturn(List.of(createdAt(ORDER_ID, expiredAt), createdAt(2L, expiredAt)));
+    when(orderRepository.updateStatusByIdIn(
+            orderIds, OrderStatus.PENDING, OrderStatus.TIMEOUT, LocalDateTime.now(fixedClock)))
+        .thenReturn(2);
+    when(orderLineRepository.sumQuantityByProductForOrders(orderIds))
+        .thenReturn(List.of(productQuantity(PRODUCT_ID, 5L), productQuantity(2L, 1L)));
+
+    // 执行
+    int count = orderService.handleExpiredOrders(orderIds);
+
+    // 验证
+    assertEquals(2, count);
+
+    // 验证每个商品只解锁一次，且不逐个加载订单
+    verify(stockService).unlockStock(PRODUCT_ID, 5);
+    verify(stockService).unlockStock(2L, 1);
+    verify(relationRepository, never()).findByOrder(any());
+    verify(orderRepository, never()).saveAll(anyList());
+
+    // 验证一批超时订单只发布一个事件
+    verify(eventPublisher)
+        .publishEvent(new OrderTimedOutEvent(orderIds, LocalDateTime.now(fixedClock)));
+  }
+
+  @Test
+  @DisplayName("处理过期订单 - 未到期订单重新登记")
+  void handleExpiredOrdersReschedulesPendingOrders() {
+    // 准备
+    LocalDateTime createdAt = LocalDateTime.now(fixedClock).minusMinutes(29);
+    when(orderRepository.findCreatedAtForUpdateByIdInAndStatus(
+            List.of(ORDER_ID), OrderStatus.PENDING))
+        .thenReturn(List.of(createdAt(ORDER_ID, createdAt)));
 
-    when(orderRepository.findByStatusAndCreatedAtBefore(OrderStatus.PENDING, expiredTime))
-        .thenReturn(expiredOrders);
-    when(relationRepository.findByOrder(order)).thenReturn(Collections.singletonList(orderItem));
-    when(stockpileRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(stockpile));
+    // 执行
+    int count = orderService.handleExpiredOrders(List.of(ORDER_ID));
 
-    // 设置初始库存状态
-    stockpile.setAmount(98);
-    stockpile.setFrozen(2);
+    // 验证
+    assertEquals(0, count);
+    verify(orderExpiryWheel).schedule(ORDER_ID, fixedClock.millis() + 60 * 1000L);
+    verify(orderRepository, never()).updateStatusByIdIn(any(), any(), any(), any());
+    verify(stockService, never()).unlockStock(any(), any());
+  }
 
-    // 覆盖计划任务中使用的当前时间
-    ReflectionTestUtils.setField(orderService, "ORDER_EXPIRATION_MINUTES", 30);
+  @Test
+  @DisplayName("接管遗漏的过期订单 - 登记到本实例时间轮并立即到期")
+  void scheduleOverdueOrdersTakesOverOrders() {
+    // 准备
+    LocalDateTime createdBefore = LocalDateTime.now(fixedClock).minusMinutes(31);
+    when(orderRepository.findIdsByStatusAndCreatedAtBefore(
+            OrderStatus.PENDING, createdBefore, PageRequest.of(0, 100)))
+        .thenReturn(List.of(ORDER_ID, 2L));
 
     // 执行
-    orderService.handleExpiredOrders();
+    int count = orderService.scheduleOverdueOrders(Duration.ofMinutes(1), 100);
 
     // 验证
-    assertEquals(OrderStatus.TIMEOUT, order.getStatus());
-    verify(orderRepository).saveAll(expiredOrders);
-    verify(stockpileRepository).save(stockpile);
+    assertEquals(2, count);
+    verify(orderExpiryWheel).schedule(ORDER_ID, fixedClock.millis());
+    verify(orderExpiryWheel).schedule(2L, fixedClock.millis());
+  }
+
+  private OrderRepository.OrderCreatedAt createdAt(Long id, LocalDateTime createdAt) {
+    return new OrderRepository.OrderCreatedAt() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public LocalDateTime getCreatedAt() {
+        return createdAt;
+      }
+    };
+  }
+
+  private OrderLineRepository.ProductQuantity productQuantity(Long productId, Long quantity) {
+    return new OrderLineRepository.ProductQuantity() {
+      @Override
+      public Long getProductId() {
+        return productId;
+      }
+
+      @Override
+      public Long getQuantity() {
+        return quantity;
+      }
+    };
+  }
 
-    // 验证库存更新
-    assertEquals(0, stockpile.getFrozen()); // 冻结库存应减少
-    assertEquals(100, stockpile.getAmount()); // 可用库存应增加
+  private StockpileDTO toStockpileDTO(Stockpile stockpile) {
+    return StockpileDTO.builder()
+        .productId(stockpile.getProduct().getId())
+        .amount(stockpile.getAmount())
+        .frozen(stockpile.getFrozen())
+        .build();
   }
 }
@@ -0,0 +1,112 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tomato.bookstore.event.OutboxSink;
+import com.tomato.bookstore.model.OutboxMessage;
+import com.tomato.bookstore.repository.OutboxMessageRepository;
+import com.tomato.bookstore.service.impl.OutboxRelayServiceImpl;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayServiceImplTest {
+  @Mock private OutboxMessageRepository outboxMessageRepository;
+  @Mock private OutboxSink outboxSink;
+
+  @InjectMocks private OutboxRelayServiceImpl outboxRelayService;
+
+  private LocalDateTime now;
+
+  private static final int BATCH_SIZE = 2;
+
+  @BeforeEach
+  void setUp() {
+    Clock fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneId.of("UTC"));
+    ReflectionTestUtils.setField(outboxRelayService, "clock", fixedClock);
+    ReflectionTestUtils.setField(outboxRelayService, "batchSize", BATCH_SIZE);
+    ReflectionTestUtils.setField(outboxRelayService, "retentionHours", 24);
+    now = LocalDateTime.now(fixedClock);
+  }
+
+  @Test
+  @DisplayName("投递发件箱消息 - 分批投递后标记已投递")
+  void relayPublishesInBatches() {
+    // 准备
+    List<OutboxMessage> first = List.of(message(1L), message(2L));
+    List<OutboxMessage> second = List.of(message(3L));
+    when(outboxMessageRepository.findByPublishedAtIsNullOrderByIdAsc(
+            PageRequest.of(0, BATCH_SIZE)))
+        .thenReturn(first, second);
+
+    // 执行
+    int relayed = outboxRelayService.relay(() -> true);
+
+    // 验证
+    assertEquals(3, relayed);
+    verify(outboxSink).publish(first);
+    verify(outboxSink).publish(second);
+    verify(outboxMessageRepository).markPublished(List.of(1L, 2L), now);
+    verify(outboxMessageRepository).markPublished(List.of(3L), now);
+  }
+
+  @Test
+  @DisplayName("投递发件箱消息 - 投递失败时不标记，下次重试")
+  void relayKeepsBatchWhenSinkFails() {
+    // 准备
+    List<OutboxMessage> batch = List.of(message(1L));
+    when(outboxMessageRepository.findByPublishedAtIsNullOrderByIdAsc(
+            PageRequest.of(0, BATCH_SIZE)))
+        .thenReturn(batch);
+    doThrow(new IllegalStateException("sink down")).when(outboxSink).publish(batch);
+
+    // 执行和验证
+    assertThrows(IllegalStateException.class, () -> outboxRelayService.relay(() -> true));
+    verify(outboxMessageRepository, never()).markPublished(any(), any());
+  }
+
+  @Test
+  @DisplayName("清理发件箱消息 - 按批删除超过保留时间的已投递消息")
+  void pruneDeletesExpiredMessages() {
+    // 准备
+    when(outboxMessageRepository.findIdsPublishedBefore(
+            now.minusHours(24), PageRequest.of(0, BATCH_SIZE)))
+        .thenReturn(List.of(1L, 2L), List.of());
+
+    // 执行
+    int pruned = outboxRelayService.prune(() -> true);
+
+    // 验证
+    assertEquals(2, pruned);
+    verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+  }
+
+  private OutboxMessage message(Long id) {
+    return OutboxMessage.builder()
+        .id(id)
+        .aggregateType("ORDER")
+        .aggregateId(id)
+        .eventType("OrderPaid")
+        .payload("{}")
+        .createdAt(now)
+        .build();
+  }
+}
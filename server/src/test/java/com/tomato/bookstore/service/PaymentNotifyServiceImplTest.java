@@ -0,0 +1,193 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.constant.PaymentNotifyStatus;
+import com.tomato.bookstore.dto.PaymentNotifyDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.model.PaymentNotification;
+import com.tomato.bookstore.repository.PaymentNotificationRepository;
+import com.tomato.bookstore.service.impl.PaymentNotifyServiceImpl;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentNotifyServiceImplTest {
+  @Mock private PaymentNotificationRepository notificationRepository;
+  @Mock private OrderService orderService;
+
+  @InjectMocks private PaymentNotifyServiceImpl paymentNotifyService;
+
+  private PaymentNotifyDTO notifyDTO;
+
+  private static final Long ORDER_ID = 1L;
+  private static final String TRADE_NO = "2023112822001123456789";
+  private static final BigDecimal AMOUNT = new BigDecimal("99.80");
+
+  @BeforeEach
+  void setUp() {
+    Clock fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneId.of("UTC"));
+    ReflectionTestUtils.setField(paymentNotifyService, "clock", fixedClock);
+    ReflectionTestUtils.setField(paymentNotifyService, "batchSize", 10);
+    ReflectionTestUtils.setField(paymentNotifyService, "maxAttempts", 2);
+
+    notifyDTO =
+        PaymentNotifyDTO.builder()
+            .orderId(ORDER_ID)
+            .status("TRADE_SUCCESS")
+            .tradeNo(TRADE_NO)
+            .totalAmount(AMOUNT)
+            .paymentTime(LocalDateTime.now(fixedClock))
+            .build();
+  }
+
+  @Test
+  @DisplayName("记录支付通知 - 新通知写入收件箱")
+  void receiveRecordsNotification() {
+    // 执行
+    boolean recorded = paymentNotifyService.receive(notifyDTO);
+
+    // 验证
+    assertTrue(recorded);
+    verify(notificationRepository).save(any(PaymentNotification.class));
+    verify(orderService, never()).handlePaymentNotify(any());
+  }
+
+  @Test
+  @DisplayName("记录支付通知 - 重复的交易号与交易状态不再写入")
+  void receiveDeduplicatesByTradeNoAndStatus() {
+    // 准备
+    when(notificationRepository.existsByTradeNoAndTradeStatus(TRADE_NO, "TRADE_SUCCESS"))
+        .thenReturn(true);
+
+    // 执行和验证
+    assertFalse(paymentNotifyService.receive(notifyDTO));
+    verify(notificationRepository, never()).save(any(PaymentNotification.class));
+  }
+
+  @Test
+  @DisplayName("记录支付通知 - 先到的等待付款通知不影响之后的支付成功通知")
+  void receiveAcceptsSuccessAfterWaitingNotify() {
+    // 准备
+    PaymentNotifyDTO waitingDTO =
+        PaymentNotifyDTO.builder()
+            .orderId(ORDER_ID)
+            .status("WAIT_BUYER_PAY")
+            .tradeNo(TRADE_NO)
+            .totalAmount(AMOUNT)
+            .build();
+    PaymentNotification waiting = notification(TRADE_NO, "WAIT_BUYER_PAY");
+    PaymentNotification paid = notification(TRADE_NO, "TRADE_SUCCESS");
+    when(notificationRepository.existsByTradeNoAndTradeStatus(TRADE_NO, "WAIT_BUYER_PAY"))
+        .thenReturn(false, true);
+    when(notificationRepository.findByStatusOrderByIdAsc(
+            PaymentNotifyStatus.RECEIVED, PageRequest.of(0, 10)))
+        .thenReturn(List.of(waiting, paid));
+    when(orderService.handlePaymentNotify(any())).thenReturn(notifyDTO);
+
+    // 执行
+    assertTrue(paymentNotifyService.receive(waitingDTO));
+    assertFalse(paymentNotifyService.receive(waitingDTO));
+    assertTrue(paymentNotifyService.receive(notifyDTO));
+    paymentNotifyService.processPending();
+
+    // 验证
+    assertEquals(PaymentNotifyStatus.IGNORED, waiting.getStatus());
+    assertEquals(PaymentNotifyStatus.PROCESSED, paid.getStatus());
+    verify(notificationRepository, times(2)).save(any(PaymentNotification.class));
+    verify(orderService).handlePaymentNotify(any());
+  }
+
+  @Test
+  @DisplayName("记录支付通知 - 并发写入由唯一约束去重")
+  void receiveDeduplicatesConcurrentRetries() {
+    // 准备
+    when(notificationRepository.save(any(PaymentNotification.class)))
+        .thenThrow(new DataIntegrityViolationException("uk_payment_notification_trade_status"));
+
+    // 执行和验证
+    assertFalse(paymentNotifyService.receive(notifyDTO));
+  }
+
+  @Test
+  @DisplayName("批量处理 - 成功、失败与忽略的通知分别记录状态")
+  void processPendingAppliesBatch() {
+    // 准备
+    PaymentNotification paid = notification(TRADE_NO, "TRADE_SUCCESS");
+    PaymentNotification mismatch = notification("T2", "TRADE_SUCCESS");
+    PaymentNotification waiting = notification("T3", "WAIT_BUYER_PAY");
+    List<PaymentNotification> batch = List.of(paid, mismatch, waiting);
+    when(notificationRepository.findByStatusOrderByIdAsc(
+            PaymentNotifyStatus.RECEIVED, PageRequest.of(0, 10)))
+        .thenReturn(batch);
+    when(orderService.handlePaymentNotify(any()))
+        .thenReturn(notifyDTO)
+        .thenThrow(
+            new BusinessException(BusinessErrorCode.ORDER_PAYMENT_AMOUNT_ERROR, "支付金额与订单金额不匹配"));
+
+    // 执行
+    int count = paymentNotifyService.processPending();
+
+    // 验证
+    assertEquals(3, count);
+    assertEquals(PaymentNotifyStatus.PROCESSED, paid.getStatus());
+    assertNull(paid.getLastError());
+    assertEquals(PaymentNotifyStatus.FAILED, mismatch.getStatus());
+    assertEquals("支付金额与订单金额不匹配", mismatch.getLastError());
+    assertEquals(PaymentNotifyStatus.IGNORED, waiting.getStatus());
+    verify(notificationRepository).saveAll(batch);
+  }
+
+  @Test
+  @DisplayName("批量处理 - 临时错误保留重试，超过最大次数后记为失败")
+  void processPendingRetriesTransientErrors() {
+    // 准备
+    PaymentNotification notification = notification(TRADE_NO, "TRADE_SUCCESS");
+    when(notificationRepository.findByStatusOrderByIdAsc(
+            PaymentNotifyStatus.RECEIVED, PageRequest.of(0, 10)))
+        .thenReturn(List.of(notification));
+    when(orderService.handlePaymentNotify(any())).thenThrow(new IllegalStateException("数据库不可用"));
+
+    // 执行和验证
+    paymentNotifyService.processPending();
+    assertEquals(PaymentNotifyStatus.RECEIVED, notification.getStatus());
+    assertEquals("数据库不可用", notification.getLastError());
+
+    paymentNotifyService.processPending();
+    assertEquals(PaymentNotifyStatus.FAILED, notification.getStatus());
+    assertEquals(2, notification.getAttempts());
+  }
+
+  private PaymentNotification notification(String tradeNo, String tradeStatus) {
+    return PaymentNotification.builder()
+        .tradeNo(tradeNo)
+        .orderId(ORDER_ID)
+        .tradeStatus(tradeStatus)
+        .totalAmount(AMOUNT)
+        .receivedAt(LocalDateTime.now())
+        .build();
+  }
+}
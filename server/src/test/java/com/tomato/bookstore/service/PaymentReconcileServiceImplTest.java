@@ -0,0 +1,157 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.alipay.api.AlipayApiException;
+import com.alipay.api.AlipayClient;
+import com.alipay.api.request.AlipayTradeQueryRequest;
+import com.alipay.api.response.AlipayTradeQueryResponse;
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.dto.PaymentNotifyDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.repository.OrderRepository;
+import com.tomato.bookstore.service.impl.PaymentReconcileServiceImpl;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentReconcileServiceImplTest {
+  @Mock private OrderRepository orderRepository;
+  @Mock private OrderService orderService;
+  @Mock private AlipayClient alipayClient;
+  @Mock private AlipayTradeQueryResponse queryResponse;
+
+  @InjectMocks private PaymentReconcileServiceImpl paymentReconcileService;
+
+  private Clock fixedClock;
+
+  private static final Long ORDER_ID = 1L;
+  private static final String OUT_TRADE_NO = "1747296000000_1";
+  private static final String TRADE_NO = "2023112822001123456789";
+
+  @BeforeEach
+  void setUp() {
+    fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneId.of("UTC"));
+    ReflectionTestUtils.setField(paymentReconcileService, "clock", fixedClock);
+    ReflectionTestUtils.setField(paymentReconcileService, "leadMinutes", 5);
+    ReflectionTestUtils.setField(paymentReconcileService, "batchSize", 10);
+    ReflectionTestUtils.setField(paymentReconcileService, "concurrency", 2);
+    ReflectionTestUtils.invokeMethod(paymentReconcileService, "init");
+
+    // 剩余有效期不足 5 分钟的订单
+    LocalDateTime createdBefore = LocalDateTime.now(fixedClock).minusMinutes(25);
+    when(orderRepository.findTradesByStatusAndCreatedAtBefore(
+            OrderStatus.PENDING, createdBefore, PageRequest.of(0, 10)))
+        .thenReturn(List.of(trade()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    ReflectionTestUtils.invokeMethod(paymentReconcileService, "shutdown");
+  }
+
+  @Test
+  @DisplayName("支付对账 - 已付款交易直接结算订单")
+  void reconcileRecordsPaidTrade() throws AlipayApiException {
+    // 准备
+    when(alipayClient.execute(any(AlipayTradeQueryRequest.class))).thenReturn(queryResponse);
+    when(queryResponse.isSuccess()).thenReturn(true);
+    when(queryResponse.getTradeStatus()).thenReturn("TRADE_SUCCESS");
+    when(queryResponse.getTradeNo()).thenReturn(TRADE_NO);
+    when(queryResponse.getTotalAmount()).thenReturn("99.80");
+
+    // 执行
+    int paid = paymentReconcileService.reconcile();
+
+    // 验证
+    assertEquals(1, paid);
+    ArgumentCaptor<PaymentNotifyDTO> captor = ArgumentCaptor.forClass(PaymentNotifyDTO.class);
+    verify(orderService).handlePaymentNotify(captor.capture());
+    assertEquals(ORDER_ID, captor.getValue().getOrderId());
+    assertEquals(TRADE_NO, captor.getValue().getTradeNo());
+    assertEquals(new BigDecimal("99.80"), captor.getValue().getTotalAmount());
+  }
+
+  @Test
+  @DisplayName("支付对账 - 未付款交易不做处理")
+  void reconcileSkipsUnpaidTrade() throws AlipayApiException {
+    // 准备
+    when(alipayClient.execute(any(AlipayTradeQueryRequest.class))).thenReturn(queryResponse);
+    when(queryResponse.isSuccess()).thenReturn(false);
+
+    // 执行
+    int paid = paymentReconcileService.reconcile();
+
+    // 验证
+    assertEquals(0, paid);
+    verify(orderService, never()).handlePaymentNotify(any());
+  }
+
+  @Test
+  @DisplayName("支付对账 - 查询失败不影响其他订单")
+  void reconcileToleratesQueryFailure() throws AlipayApiException {
+    // 准备
+    when(alipayClient.execute(any(AlipayTradeQueryRequest.class)))
+        .thenThrow(new AlipayApiException("网络异常"));
+
+    // 执行
+    int paid = paymentReconcileService.reconcile();
+
+    // 验证
+    assertEquals(0, paid);
+    verify(orderService, never()).handlePaymentNotify(any());
+  }
+
+  @Test
+  @DisplayName("支付对账 - 订单拒绝结算时不计为已付款")
+  void reconcileToleratesRejectedSettlement() throws AlipayApiException {
+    // 准备：订单已被取消，金额或状态校验失败
+    when(alipayClient.execute(any(AlipayTradeQueryRequest.class))).thenReturn(queryResponse);
+    when(queryResponse.isSuccess()).thenReturn(true);
+    when(queryResponse.getTradeStatus()).thenReturn("TRADE_SUCCESS");
+    when(queryResponse.getTradeNo()).thenReturn(TRADE_NO);
+    when(queryResponse.getTotalAmount()).thenReturn("99.80");
+    when(orderService.handlePaymentNotify(any()))
+        .thenThrow(new BusinessException(BusinessErrorCode.ORDER_STATUS_ERROR, "订单状态错误"));
+
+    // 执行
+    int paid = paymentReconcileService.reconcile();
+
+    // 验证
+    assertEquals(0, paid);
+  }
+
+  private OrderRepository.OrderTrade trade() {
+    return new OrderRepository.OrderTrade() {
+      @Override
+      public Long getId() {
+        return ORDER_ID;
+      }
+
+      @Override
+      public String getOutTradeNo() {
+        return OUT_TRADE_NO;
+      }
+    };
+  }
+}
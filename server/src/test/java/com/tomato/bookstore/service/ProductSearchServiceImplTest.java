@@ -0,0 +1,283 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.dto.ProductSearchDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.model.Product;
+import com.tomato.bookstore.model.Specification;
+import com.tomato.bookstore.repository.ProductRepository;
+import com.tomato.bookstore.repository.SpecificationRepository;
+import com.tomato.bookstore.service.impl.ProductSearchServiceImpl;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSearchServiceImplTest {
+  @Mock private ProductRepository productRepository;
+  @Mock private SpecificationRepository specificationRepository;
+
+  @InjectMocks private ProductSearchServiceImpl productSearchService;
+
+  @TempDir private Path tempDir;
+
+  private Clock fixedClock;
+
+  @BeforeEach
+  void setUp() {
+    fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneId.of("UTC"));
+    configure(productSearchService, "");
+  }
+
+  @Test
+  @DisplayName("搜索商品 - 失败，索引尚未加载")
+  void searchFailsBeforeLoad() {
+    // 执行和验证
+    BusinessException exception =
+        assertThrows(BusinessException.class, () -> productSearchService.search("编程", 0, 10));
+
+    assertEquals(BusinessErrorCode.PRODUCT_SEARCH_UNAVAILABLE, exception.getErrorCode());
+  }
+
+  @Test
+  @DisplayName("搜索商品 - 从数据库重建索引，标题命中排在正文命中之前")
+  void searchRanksTitleMatchesFirst() {
+    // 准备
+    stubCatalog();
+    stubCards();
+    productSearchService.load();
+
+    // 执行
+    ProductSearchDTO result = productSearchService.search("编程", 0, 10);
+
+    // 验证
+    assertEquals(3L, result.getTotal());
+    assertEquals(3, result.getItems().size());
+    assertEquals(1L, result.getItems().get(0).getId());
+    assertEquals(
+        Set.of(2L, 3L),
+        Set.of(result.getItems().get(1).getId(), result.getItems().get(2).getId()));
+  }
+
+  @Test
+  @DisplayName("搜索商品 - 要求包含所有词，并按页返回")
+  void searchMatchesAllTermsAndPages() {
+    // 准备
+    stubCatalog();
+    stubCards();
+    productSearchService.load();
+
+    // 执行
+    ProductSearchDTO both = productSearchService.search("编程 算法", 0, 10);
+    ProductSearchDTO secondPage = productSearchService.search("编程", 1, 1);
+
+    // 验证
+    assertEquals(1L, both.getTotal());
+    assertEquals(2L, both.getItems().get(0).getId());
+    assertEquals(3L, secondPage.getTotal());
+    assertEquals(1, secondPage.getItems().size());
+  }
+
+  @Test
+  @DisplayName("搜索商品 - 已被删除的商品不返回并移出索引")
+  void searchSkipsDeletedProducts() {
+    // 准备
+    stubCatalog();
+    productSearchService.load();
+    when(productRepository.findCardsByIdIn(List.of(4L))).thenReturn(List.of());
+
+    // 执行
+    ProductSearchDTO first = productSearchService.search("虚拟机", 0, 10);
+    ProductSearchDTO second = productSearchService.search("虚拟机", 0, 10);
+
+    // 验证
+    assertEquals(1L, first.getTotal());
+    assertTrue(first.getItems().isEmpty());
+    assertEquals(0L, second.getTotal());
+  }
+
+  @Test
+  @DisplayName("写入商品 - 没有事务时立即更新索引，规格值可被搜索")
+  void indexUpdatesImmediatelyWithoutTransaction() {
+    // 准备
+    stubCatalog();
+    stubCards();
+    productSearchService.load();
+    Product product = Product.builder().id(5L).title("数据结构").build();
+    product.getSpecifications().add(Specification.builder().item("作者").value("严蔚敏").build());
+
+    // 执行
+    productSearchService.index(product);
+    ProductSearchDTO result = productSearchService.search("严蔚敏", 0, 10);
+
+    // 验证
+    assertEquals(1L, result.getTotal());
+    assertEquals(5L, result.getItems().get(0).getId());
+  }
+
+  @Test
+  @DisplayName("加载索引 - 快照存在时不再从数据库重建")
+  void loadReadsSnapshot() {
+    // 准备
+    stubCatalog();
+    stubCards();
+    String snapshotPath = tempDir.resolve("product-search.idx").toString();
+    configure(productSearchService, snapshotPath);
+    productSearchService.load();
+    assertTrue(Files.exists(Path.of(snapshotPath)));
+
+    ProductSearchServiceImpl restarted =
+        new ProductSearchServiceImpl(fixedClock, productRepository, specificationRepository);
+    configure(restarted, snapshotPath);
+
+    // 执行
+    restarted.load();
+    ProductSearchDTO result = restarted.search("编程", 0, 10);
+
+    // 验证
+    assertEquals(3L, result.getTotal());
+    verify(productRepository, times(1)).findSearchRows(eq(0L), any());
+  }
+
+  @Test
+  @DisplayName("加载索引 - 从快照记录的补齐起点补齐，而不是快照写出时间")
+  void loadCatchesUpFromSnapshotWatermark() {
+    // 准备：08:00 加载后补齐起点为 07:59，09:00 停止时写出快照
+    stubCatalog();
+    String snapshotPath = tempDir.resolve("product-search.idx").toString();
+    configure(productSearchService, snapshotPath);
+    productSearchService.load();
+    productSearchService.index(Product.builder().id(5L).title("数据结构").build());
+    Clock later = Clock.offset(fixedClock, Duration.ofHours(1));
+    ReflectionTestUtils.setField(productSearchService, "clock", later);
+    ReflectionTestUtils.invokeMethod(productSearchService, "shutdown");
+
+    ProductSearchServiceImpl restarted =
+        new ProductSearchServiceImpl(later, productRepository, specificationRepository);
+    configure(restarted, snapshotPath);
+    ReflectionTestUtils.setField(restarted, "clock", later);
+
+    // 执行
+    restarted.load();
+
+    // 验证：两次加载都从 07:59 补齐，09:00 之前其他实例的修改不会遗漏
+    verify(productRepository, times(2))
+        .findIdsModifiedSince(LocalDateTime.of(2025, 5, 15, 7, 59));
+  }
+
+  private void configure(ProductSearchServiceImpl service, String snapshotPath) {
+    ReflectionTestUtils.setField(service, "clock", fixedClock);
+    ReflectionTestUtils.setField(service, "snapshotPath", snapshotPath);
+    ReflectionTestUtils.setField(service, "batchSize", 2);
+    ReflectionTestUtils.setField(service, "maxResults", 1000);
+    ReflectionTestUtils.setField(service, "snapshotIntervalMs", 0L);
+  }
+
+  /** 四个商品分两批读取：1 标题含“编程”，2、3 正文含“编程”，4 只含“虚拟机” */
+  private void stubCatalog() {
+    when(productRepository.findSearchRows(0L, PageRequest.of(0, 2)))
+        .thenReturn(
+            List.of(
+                row(1L, "Java编程思想", "经典教材", null),
+                row(2L, "算法导论", "讲解算法与编程基础", null)));
+    when(productRepository.findSearchRows(2L, PageRequest.of(0, 2)))
+        .thenReturn(
+            List.of(
+                row(3L, "深入理解计算机系统", null, "<p>面向程序员的<b>编程</b>视角</p>"),
+                row(4L, "深入理解虚拟机", null, null)));
+    when(productRepository.findSearchRows(4L, PageRequest.of(0, 2))).thenReturn(List.of());
+    when(specificationRepository.findValuesByProductIdIn(anyCollection())).thenReturn(List.of());
+    when(productRepository.findIdsModifiedSince(any())).thenReturn(List.of());
+  }
+
+  private void stubCards() {
+    when(productRepository.findCardsByIdIn(anyCollection()))
+        .thenAnswer(
+            invocation -> {
+              Collection<Long> ids = invocation.getArgument(0);
+              return ids.stream().map(this::card).toList();
+            });
+  }
+
+  private ProductRepository.ProductSearchRow row(
+      Long id, String title, String description, String detail) {
+    return new ProductRepository.ProductSearchRow() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getTitle() {
+        return title;
+      }
+
+      @Override
+      public String getDescription() {
+        return description;
+      }
+
+      @Override
+      public String getDetail() {
+        return detail;
+      }
+    };
+  }
+
+  private ProductRepository.ProductCard card(Long id) {
+    return new ProductRepository.ProductCard() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getTitle() {
+        return "商品" + id;
+      }
+
+      @Override
+      public BigDecimal getPrice() {
+        return BigDecimal.TEN;
+      }
+
+      @Override
+      public Integer getRate() {
+        return 8;
+      }
+
+      @Override
+      public String getCover() {
+        return null;
+      }
+    };
+  }
+}
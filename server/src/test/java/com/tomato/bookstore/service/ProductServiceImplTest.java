@@ -9,10 +9,12 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.dto.ProductCardDTO;
 import com.tomato.bookstore.dto.ProductDTO;
 import com.tomato.bookstore.dto.SpecificationDTO;
 import com.tomato.bookstore.dto.StockpileDTO;
@@ -23,11 +25,16 @@ import com.tomato.bookstore.model.Specification;
 import com.tomato.bookstore.model.Stockpile;
 import com.tomato.bookstore.repository.ProductRepository;
 import com.tomato.bookstore.repository.SpecificationRepository;
+import com.tomato.bookstore.repository.StockpileBucketRepository;
 import com.tomato.bookstore.repository.StockpileRepository;
 import com.tomato.bookstore.service.impl.ProductServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -38,12 +45,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 public class ProductServiceImplTest {
   @Mock private ProductRepository productRepository;
   @Mock private SpecificationRepository specificationRepository;
   @Mock private StockpileRepository stockpileRepository;
+  @Mock private StockpileBucketRepository stockpileBucketRepository;
+  @Mock private StockService stockService;
+  @Mock private ProductSearchService productSearchService;
+  @Mock private PlatformTransactionManager transactionManager;
 
   @InjectMocks private ProductServiceImpl productService;
 
@@ -57,6 +70,13 @@ public class ProductServiceImplTest {
 
   @BeforeEach
   void setUp() {
+    Clock fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneId.of("UTC"));
+    ReflectionTestUtils.setField(productService, "clock", fixedClock);
+    ReflectionTestUtils.setField(productService, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(productService, "cacheTtlSeconds", 60L);
+    ReflectionTestUtils.setField(productService, "cacheMaxSize", 100);
+    ReflectionTestUtils.invokeMethod(productService, "init");
+
     // 设置测试数据
     LocalDateTime now = LocalDateTime.now();
 
@@ -116,11 +136,11 @@ public class ProductServiceImplTest {
   }
 
   @Test
-  @DisplayName("获取所有商品成功")
+  @DisplayName("获取所有商品成功 - 商品与规格各一条投影查询")
   void getAllProductsSuccess() {
     // 准备
-    List<Product> products = Arrays.asList(product);
-    when(productRepository.findAllByOrderByCreatedAtDesc()).thenReturn(products);
+    when(productRepository.findAllRows()).thenReturn(List.of(productRow()));
+    when(specificationRepository.findAllRows()).thenReturn(List.of(specificationRow()));
 
     // 执行
     List<ProductDTO> result = productService.getAllProducts();
@@ -130,7 +150,29 @@ public class ProductServiceImplTest {
     assertEquals(1, result.size());
     assertEquals(product.getId(), result.get(0).getId());
     assertEquals(product.getTitle(), result.get(0).getTitle());
-    verify(productRepository).findAllByOrderByCreatedAtDesc();
+    assertEquals(TEST_PRODUCT_DETAIL, result.get(0).getDetail());
+    assertEquals(List.of(specificationDTO), result.get(0).getSpecifications());
+    verify(productRepository, never()).findAll();
+    verify(specificationRepository, never()).findByProductId(anyLong());
+  }
+
+  @Test
+  @DisplayName("获取商品卡片列表成功 - 只读取卡片字段")
+  void getProductCardsSuccess() {
+    // 准备
+    when(productRepository.findAllCards())
+        .thenReturn(List.of(productCard(1L, TEST_PRODUCT_TITLE, TEST_PRODUCT_PRICE)));
+
+    // 执行
+    List<ProductCardDTO> result = productService.getProductCards();
+
+    // 验证
+    assertEquals(1, result.size());
+    assertEquals(1L, result.get(0).getId());
+    assertEquals(TEST_PRODUCT_TITLE, result.get(0).getTitle());
+    assertEquals(TEST_PRODUCT_PRICE, result.get(0).getPrice());
+    verify(productRepository, never()).findAllRows();
+    verify(specificationRepository, never()).findAllRows();
   }
 
   @Test
@@ -149,6 +191,40 @@ public class ProductServiceImplTest {
     verify(productRepository).findById(1L);
   }
 
+  @Test
+  @DisplayName("根据 ID 获取商品 - 重复查询命中缓存")
+  void getProductByIdHitsCache() {
+    // 准备
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+    // 执行
+    productService.getProductById(1L);
+    ProductDTO result = productService.getProductById(1L);
+
+    // 验证
+    assertEquals(product.getTitle(), result.getTitle());
+    verify(productRepository, times(1)).findById(1L);
+  }
+
+  @Test
+  @DisplayName("使商品缓存失效 - 下次查询重新回源")
+  void evictProductReloadsFromRepository() {
+    // 准备
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    when(productRepository.findAllRows()).thenReturn(List.of(productRow()));
+    productService.getProductById(1L);
+    productService.getAllProducts();
+
+    // 执行
+    productService.evictProduct(1L);
+    productService.getProductById(1L);
+    productService.getAllProducts();
+
+    // 验证
+    verify(productRepository, times(2)).findById(1L);
+    verify(productRepository, times(2)).findAllRows();
+  }
+
   @Test
   @DisplayName("根据 ID 获取商品失败 - 商品不存在")
   void getProductByIdFailsWhenProductNotFound() {
@@ -222,6 +298,7 @@ public class ProductServiceImplTest {
     verify(productRepository).findById(productDTO.getId());
     verify(productRepository).existsByTitleAndIdNot(productDTO.getTitle(), productDTO.getId());
     verify(productRepository).save(any(Product.class));
+    verify(productSearchService).index(product);
   }
 
   @Test
@@ -276,8 +353,10 @@ public class ProductServiceImplTest {
     // 验证
     verify(productRepository).findById(1L);
     verify(specificationRepository).deleteByProductId(1L);
+    verify(stockpileBucketRepository).deleteByProductId(1L);
     verify(stockpileRepository).deleteByProductId(1L);
     verify(productRepository).deleteById(1L);
+    verify(productSearchService).remove(1L);
   }
 
   @Test
@@ -304,7 +383,7 @@ public class ProductServiceImplTest {
   void getStockpileSuccess() {
     // 准备
     when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
-    when(stockpileRepository.findByProductId(anyLong())).thenReturn(Optional.of(stockpile));
+    when(stockService.getStockpile(anyLong())).thenReturn(stockpileDTO);
 
     // 执行
     StockpileDTO result = productService.getStockpile(1L);
@@ -314,7 +393,7 @@ public class ProductServiceImplTest {
     assertEquals(stockpile.getAmount(), result.getAmount());
     assertEquals(stockpile.getFrozen(), result.getFrozen());
     verify(productRepository).findById(1L);
-    verify(stockpileRepository).findByProductId(1L);
+    verify(stockService).getStockpile(1L);
   }
 
   @Test
@@ -333,7 +412,7 @@ public class ProductServiceImplTest {
 
     assertTrue(exception.getMessage().contains(PRODUCT_NOT_FOUND_MESSAGE));
     verify(productRepository).findById(1L);
-    verify(stockpileRepository, never()).findByProductId(anyLong());
+    verify(stockService, never()).getStockpile(anyLong());
   }
 
   @Test
@@ -341,7 +420,8 @@ public class ProductServiceImplTest {
   void getStockpileFailsWhenStockpileNotFound() {
     // 准备
     when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
-    when(stockpileRepository.findByProductId(anyLong())).thenReturn(Optional.empty());
+    when(stockService.getStockpile(anyLong()))
+        .thenThrow(new BusinessException(BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND, "商品库存记录不存在"));
 
     // 执行和验证
     BusinessException exception =
@@ -353,43 +433,21 @@ public class ProductServiceImplTest {
 
     assertEquals(BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND, exception.getErrorCode());
     verify(productRepository).findById(1L);
-    verify(stockpileRepository).findByProductId(1L);
+    verify(stockService).getStockpile(1L);
   }
 
   @Test
-  @DisplayName("更新商品库存成功 - 已存在库存记录")
-  void updateStockpileSuccessWithExistingStockpile() {
+  @DisplayName("更新商品库存成功")
+  void updateStockpileSuccess() {
     // 准备
     when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
-    when(stockpileRepository.findByProductId(anyLong())).thenReturn(Optional.of(stockpile));
-    when(stockpileRepository.save(any(Stockpile.class))).thenReturn(stockpile);
 
     // 执行
     productService.updateStockpile(1L, stockpileDTO);
 
     // 验证
     verify(productRepository).findById(1L);
-    verify(stockpileRepository).findByProductId(1L);
-    verify(stockpileRepository).save(any(Stockpile.class));
-  }
-
-  @Test
-  @DisplayName("更新商品库存成功 - 新建库存记录")
-  void updateStockpileSuccessWithNewStockpile() {
-    // 准备
-    when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
-    when(stockpileRepository.findByProductId(anyLong())).thenReturn(Optional.empty());
-    when(productRepository.getReferenceById(anyLong())).thenReturn(product);
-    when(stockpileRepository.save(any(Stockpile.class))).thenReturn(stockpile);
-
-    // 执行
-    productService.updateStockpile(1L, stockpileDTO);
-
-    // 验证
-    verify(productRepository).findById(1L);
-    verify(stockpileRepository).findByProductId(1L);
-    verify(productRepository).getReferenceById(1L);
-    verify(stockpileRepository).save(any(Stockpile.class));
+    verify(stockService).updateStockpile(1L, TEST_STOCK_AMOUNT, TEST_STOCK_FROZEN);
   }
 
   @Test
@@ -408,6 +466,112 @@ public class ProductServiceImplTest {
 
     assertTrue(exception.getMessage().contains(PRODUCT_NOT_FOUND_MESSAGE));
     verify(productRepository).findById(1L);
-    verify(stockpileRepository, never()).save(any(Stockpile.class));
+    verify(stockService, never()).updateStockpile(anyLong(), any(), any());
+  }
+
+  @Test
+  @DisplayName("调整商品库存分桶成功")
+  void configureStockpileBucketsSuccess() {
+    // 准备
+    when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
+
+    // 执行
+    productService.configureStockpileBuckets(1L, 8);
+
+    // 验证
+    verify(productRepository).findById(1L);
+    verify(stockService).configureBuckets(1L, 8);
+  }
+
+  private ProductRepository.ProductCard productCard(Long id, String title, BigDecimal price) {
+    return new ProductRepository.ProductCard() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getTitle() {
+        return title;
+      }
+
+      @Override
+      public BigDecimal getPrice() {
+        return price;
+      }
+
+      @Override
+      public Integer getRate() {
+        return TEST_PRODUCT_RATE;
+      }
+
+      @Override
+      public String getCover() {
+        return TEST_PRODUCT_COVER;
+      }
+    };
+  }
+
+  private ProductRepository.ProductRow productRow() {
+    return new ProductRepository.ProductRow() {
+      @Override
+      public Long getId() {
+        return product.getId();
+      }
+
+      @Override
+      public String getTitle() {
+        return product.getTitle();
+      }
+
+      @Override
+      public BigDecimal getPrice() {
+        return product.getPrice();
+      }
+
+      @Override
+      public Integer getRate() {
+        return product.getRate();
+      }
+
+      @Override
+      public String getDescription() {
+        return product.getDescription();
+      }
+
+      @Override
+      public String getCover() {
+        return product.getCover();
+      }
+
+      @Override
+      public String getDetail() {
+        return product.getDetail();
+      }
+    };
+  }
+
+  private SpecificationRepository.SpecificationRow specificationRow() {
+    return new SpecificationRepository.SpecificationRow() {
+      @Override
+      public Long getId() {
+        return specification.getId();
+      }
+
+      @Override
+      public Long getProductId() {
+        return product.getId();
+      }
+
+      @Override
+      public String getItem() {
+        return specification.getItem();
+      }
+
+      @Override
+      public String getValue() {
+        return specification.getValue();
+      }
+    };
   }
 }
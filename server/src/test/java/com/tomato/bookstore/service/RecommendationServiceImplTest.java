@@ -0,0 +1,272 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.dto.ProductRecommendationDTO;
+import com.tomato.bookstore.event.OrderPaidEvent;
+import com.tomato.bookstore.model.ProductCoPurchase;
+import com.tomato.bookstore.repository.OrderLineRepository;
+import com.tomato.bookstore.repository.OrderRepository;
+import com.tomato.bookstore.repository.ProductCoPurchaseRepository;
+import com.tomato.bookstore.service.impl.RecommendationServiceImpl;
+import com.tomato.bookstore.util.SnowflakeIdGenerator;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class RecommendationServiceImplTest {
+  @Spy private SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(0, Clock.systemUTC());
+  @Mock private TransactionTemplate transactionTemplate;
+  @Mock private OrderRepository orderRepository;
+  @Mock private OrderLineRepository orderLineRepository;
+  @Mock private ProductCoPurchaseRepository productCoPurchaseRepository;
+
+  @InjectMocks private RecommendationServiceImpl recommendationService;
+
+  private LocalDateTime now;
+
+  @BeforeEach
+  void setUp() {
+    Clock fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneId.of("UTC"));
+    ReflectionTestUtils.setField(recommendationService, "clock", fixedClock);
+    ReflectionTestUtils.setField(recommendationService, "topN", 2);
+    ReflectionTestUtils.setField(recommendationService, "maxOrderItems", 3);
+    ReflectionTestUtils.setField(recommendationService, "batchSize", 2);
+    ReflectionTestUtils.setField(recommendationService, "parallelism", 2);
+    now = LocalDateTime.now(fixedClock);
+  }
+
+  @Test
+  @DisplayName("重建推荐 - 分批统计共同购买次数，每个商品保留前 N 名")
+  @SuppressWarnings("unchecked")
+  void rebuildCountsCoPurchases() {
+    // 准备
+    when(orderRepository.findIdsByStatusAndUpdatedAtBeforeAndIdGreaterThan(
+            OrderStatus.PAID, now, 0L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L, 2L));
+    when(orderRepository.findIdsByStatusAndUpdatedAtBeforeAndIdGreaterThan(
+            OrderStatus.PAID, now, 2L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(3L));
+    when(orderLineRepository.findOrderProductsByOrderIdIn(List.of(1L, 2L)))
+        .thenReturn(
+            List.of(
+                orderProduct(1L, 10L),
+                orderProduct(1L, 11L),
+                orderProduct(1L, 11L),
+                orderProduct(2L, 10L),
+                orderProduct(2L, 11L),
+                orderProduct(2L, 12L)));
+    when(orderLineRepository.findOrderProductsByOrderIdIn(List.of(3L)))
+        .thenReturn(
+            List.of(
+                orderProduct(3L, 10L),
+                orderProduct(3L, 13L),
+                orderProduct(3L, 14L),
+                orderProduct(3L, 15L)));
+    stubTransaction();
+
+    // 执行
+    recommendationService.rebuild(() -> true);
+
+    // 验证
+    ArgumentCaptor<List<ProductCoPurchase>> captor = ArgumentCaptor.forClass(List.class);
+    verify(productCoPurchaseRepository, times(2)).saveAll(captor.capture());
+    List<ProductCoPurchase> rows = new ArrayList<>();
+    captor.getAllValues().forEach(rows::addAll);
+    // 订单 3 的商品种数超过上限，不计入
+    assertEquals(6, rows.size());
+    ProductCoPurchase top =
+        rows.stream()
+            .filter(row -> row.getProductId().equals(10L))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(11L, top.getRelatedProductId());
+    assertEquals(2L, top.getCoPurchases());
+    assertEquals(now, top.getCountedBefore());
+    assertEquals(now, top.getUpdatedAt());
+    verify(productCoPurchaseRepository).deleteByUpdatedAtBefore(now);
+  }
+
+  @Test
+  @DisplayName("重建推荐 - 商品对超过上限时拆分商品分片重新统计，结果不变")
+  @SuppressWarnings("unchecked")
+  void rebuildSplitsShardsWhenPairsExceedLimit() {
+    // 准备
+    ReflectionTestUtils.setField(recommendationService, "maxPairs", 2L);
+    when(orderRepository.findIdsByStatusAndUpdatedAtBeforeAndIdGreaterThan(
+            OrderStatus.PAID, now, 0L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L, 2L));
+    when(orderRepository.findIdsByStatusAndUpdatedAtBeforeAndIdGreaterThan(
+            OrderStatus.PAID, now, 2L, PageRequest.of(0, 2)))
+        .thenReturn(List.of());
+    when(orderLineRepository.findOrderProductsByOrderIdIn(List.of(1L, 2L)))
+        .thenReturn(
+            List.of(
+                orderProduct(1L, 10L),
+                orderProduct(1L, 11L),
+                orderProduct(2L, 10L),
+                orderProduct(2L, 11L),
+                orderProduct(2L, 12L)));
+    stubTransaction();
+
+    // 执行
+    recommendationService.rebuild(() -> true);
+
+    // 验证
+    ArgumentCaptor<List<ProductCoPurchase>> captor = ArgumentCaptor.forClass(List.class);
+    // 每个商品有两个候选，拆到每个分片只剩一个商品
+    verify(productCoPurchaseRepository, times(3)).saveAll(captor.capture());
+    List<ProductCoPurchase> rows = new ArrayList<>();
+    captor.getAllValues().forEach(rows::addAll);
+    assertEquals(6, rows.size());
+    ProductCoPurchase top =
+        rows.stream()
+            .filter(row -> row.getProductId().equals(10L))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(11L, top.getRelatedProductId());
+    assertEquals(2L, top.getCoPurchases());
+  }
+
+  @Test
+  @DisplayName("重建推荐 - 补上重建开始后支付的订单")
+  @SuppressWarnings("unchecked")
+  void rebuildAddsOrdersPaidDuringRebuild() {
+    // 准备
+    when(orderRepository.findIdsByStatusAndUpdatedAtBeforeAndIdGreaterThan(
+            OrderStatus.PAID, now, 0L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L));
+    when(orderLineRepository.findOrderProductsByOrderIdIn(List.of(1L)))
+        .thenReturn(List.of(orderProduct(1L, 10L), orderProduct(1L, 11L)));
+    // 订单 2 在重建开始后支付，累加在了被替换的旧记录上
+    when(orderLineRepository.findPaidOrderProductsBetween(now, now))
+        .thenReturn(List.of(orderProduct(2L, 10L), orderProduct(2L, 11L)));
+    stubTransaction();
+
+    // 执行
+    recommendationService.rebuild(() -> true);
+
+    // 验证
+    ArgumentCaptor<List<ProductCoPurchase>> captor = ArgumentCaptor.forClass(List.class);
+    verify(productCoPurchaseRepository).saveAll(captor.capture());
+    List<ProductCoPurchase> rows = captor.getValue();
+    assertEquals(2, rows.size());
+    rows.forEach(row -> assertEquals(2L, row.getCoPurchases()));
+    rows.forEach(row -> assertEquals(now, row.getCountedBefore()));
+  }
+
+  @Test
+  @DisplayName("重建推荐 - 失去任务租约时放弃重建，不写入也不删除")
+  void rebuildAbortsWhenLeaseLost() {
+    // 执行
+    recommendationService.rebuild(() -> false);
+
+    // 验证
+    verify(orderRepository, never())
+        .findIdsByStatusAndUpdatedAtBeforeAndIdGreaterThan(any(), any(), any(), any());
+    verify(transactionTemplate, never()).executeWithoutResult(any());
+    verify(productCoPurchaseRepository, never()).deleteByUpdatedAtBefore(any());
+  }
+
+  @Test
+  @DisplayName("支付事件 - 累加已有记录，记录数不足时补充新记录")
+  void paidEventIncrementsCoPurchases() {
+    // 准备
+    LocalDateTime paidAt = now.minusSeconds(1);
+    when(productCoPurchaseRepository.findRelatedProductIds(10L, List.of(11L)))
+        .thenReturn(List.of(11L));
+    when(productCoPurchaseRepository.countByProductId(10L)).thenReturn(2L);
+    when(productCoPurchaseRepository.findRelatedProductIds(11L, List.of(10L)))
+        .thenReturn(List.of());
+    when(productCoPurchaseRepository.countByProductId(11L)).thenReturn(0L);
+
+    // 执行
+    recommendationService.onOrderEvent(
+        new OrderPaidEvent(
+            1L, "T1", new BigDecimal("59.80"), Map.of(10L, 1, 11L, 2), paidAt));
+
+    // 验证
+    verify(productCoPurchaseRepository).create(anyLong(), eq(11L), eq(10L), eq(now));
+    verify(productCoPurchaseRepository, never()).create(anyLong(), eq(10L), any(), any());
+    verify(productCoPurchaseRepository).increment(10L, 11L, paidAt, now);
+    verify(productCoPurchaseRepository).increment(11L, 10L, paidAt, now);
+  }
+
+  @Test
+  @DisplayName("查询推荐 - 条数不超过保存的推荐条数")
+  void getRecommendationsCapsLimit() {
+    // 准备
+    when(productCoPurchaseRepository.findByProductIdOrderByCoPurchasesDescRelatedProductIdAsc(
+            10L, PageRequest.of(0, 2)))
+        .thenReturn(
+            List.of(
+                ProductCoPurchase.builder()
+                    .productId(10L)
+                    .relatedProductId(11L)
+                    .coPurchases(5L)
+                    .build()));
+
+    // 执行
+    List<ProductRecommendationDTO> recommendations =
+        recommendationService.getRecommendations(10L, 10);
+
+    // 验证
+    assertEquals(1, recommendations.size());
+    assertEquals(11L, recommendations.get(0).getProductId());
+    assertEquals(5L, recommendations.get(0).getCoPurchases());
+  }
+
+  private void stubTransaction() {
+    doAnswer(
+            invocation -> {
+              Consumer<TransactionStatus> action = invocation.getArgument(0);
+              action.accept(null);
+              return null;
+            })
+        .when(transactionTemplate)
+        .executeWithoutResult(any());
+  }
+
+  private OrderLineRepository.OrderProduct orderProduct(Long orderId, Long productId) {
+    return new OrderLineRepository.OrderProduct() {
+      @Override
+      public Long getOrderId() {
+        return orderId;
+      }
+
+      @Override
+      public Long getProductId() {
+        return productId;
+      }
+    };
+  }
+}
@@ -0,0 +1,213 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.constant.OrderStatus;
+import com.tomato.bookstore.constant.PaymentMethod;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.repository.DailyOrderStatsRepository;
+import com.tomato.bookstore.repository.OrderLineRepository;
+import com.tomato.bookstore.repository.OrderRepository;
+import com.tomato.bookstore.repository.ProductDailySalesRepository;
+import com.tomato.bookstore.service.impl.SalesReportServiceImpl;
+import com.tomato.bookstore.util.SnowflakeIdGenerator;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class SalesReportServiceImplTest {
+  @Spy private SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(0, Clock.systemUTC());
+  @Mock private TransactionTemplate transactionTemplate;
+  @Mock private OrderRepository orderRepository;
+  @Mock private OrderLineRepository orderLineRepository;
+  @Mock private ProductDailySalesRepository productDailySalesRepository;
+  @Mock private DailyOrderStatsRepository dailyOrderStatsRepository;
+
+  @InjectMocks private SalesReportServiceImpl salesReportService;
+
+  private LocalDate today;
+
+  private static final Long ORDER_ID = 10L;
+  private static final Long PRODUCT_ID = 1L;
+
+  @BeforeEach
+  void setUp() {
+    Clock fixedClock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneId.of("UTC"));
+    ReflectionTestUtils.setField(salesReportService, "clock", fixedClock);
+    ReflectionTestUtils.setField(salesReportService, "maxDays", 366);
+    today = LocalDate.now(fixedClock);
+  }
+
+  @Test
+  @DisplayName("累加销售汇总 - 以插入或累加写入商品与订单汇总行")
+  void recordOrdersUpsertsRows() {
+    // 准备
+    when(orderLineRepository.sumPaidSalesByProductForOrders(List.of(ORDER_ID)))
+        .thenReturn(List.of(productSales(PRODUCT_ID, 2L, new BigDecimal("59.80"), 1L)));
+    when(orderRepository.sumTotalsByIdIn(List.of(ORDER_ID)))
+        .thenReturn(List.of(orderTotals(OrderStatus.PAID, 1L, new BigDecimal("59.80"))));
+
+    // 执行
+    salesReportService.recordOrders(List.of(ORDER_ID), today);
+
+    // 验证
+    verify(productDailySalesRepository)
+        .upsert(anyLong(), eq(today), eq(PRODUCT_ID), eq(2L), eq(new BigDecimal("59.80")), eq(1L));
+    verify(dailyOrderStatsRepository)
+        .upsert(
+            anyLong(), eq(today), eq("ALIPAY"), eq("PAID"), eq(1L), eq(new BigDecimal("59.80")));
+  }
+
+  @Test
+  @DisplayName("累加销售汇总 - 不计入汇总的订单状态被跳过")
+  void recordOrdersSkipsNonRollupStatuses() {
+    // 准备
+    when(orderLineRepository.sumPaidSalesByProductForOrders(List.of(ORDER_ID)))
+        .thenReturn(List.of());
+    when(orderRepository.sumTotalsByIdIn(List.of(ORDER_ID)))
+        .thenReturn(
+            List.of(
+                orderTotals(OrderStatus.PENDING, 1L, new BigDecimal("29.90")),
+                orderTotals(OrderStatus.TIMEOUT, 1L, new BigDecimal("29.90"))));
+
+    // 执行
+    salesReportService.recordOrders(List.of(ORDER_ID), today);
+
+    // 验证
+    verify(dailyOrderStatsRepository)
+        .upsert(
+            anyLong(), eq(today), eq("ALIPAY"), eq("TIMEOUT"), eq(1L), eq(new BigDecimal("29.90")));
+    verify(dailyOrderStatsRepository, never())
+        .upsert(anyLong(), any(), any(), eq("PENDING"), anyLong(), any());
+    verify(productDailySalesRepository, never())
+        .upsert(anyLong(), any(), any(), anyLong(), any(), anyLong());
+  }
+
+  @Test
+  @DisplayName("重建销售汇总 - 每天在独立事务中重建")
+  void backfillRebuildsEachDay() {
+    // 准备
+    LocalDate from = today.minusDays(2);
+    LocalDate to = today.minusDays(1);
+    doAnswer(
+            invocation -> {
+              Consumer<TransactionStatus> action = invocation.getArgument(0);
+              action.accept(null);
+              return null;
+            })
+        .when(transactionTemplate)
+        .executeWithoutResult(any());
+    when(orderLineRepository.sumPaidSalesByProductBetween(any(), any()))
+        .thenReturn(List.of(productSales(PRODUCT_ID, 3L, new BigDecimal("89.70"), 2L)));
+    when(orderRepository.sumTotalsByStatusInAndUpdatedAtBetween(any(), any(), any()))
+        .thenReturn(List.of());
+
+    // 执行
+    int days = salesReportService.backfill(from, to);
+
+    // 验证
+    assertEquals(2, days);
+    verify(productDailySalesRepository).deleteBySalesDate(from);
+    verify(productDailySalesRepository).deleteBySalesDate(to);
+    verify(dailyOrderStatsRepository).deleteByStatsDate(from);
+    verify(dailyOrderStatsRepository).deleteByStatsDate(to);
+  }
+
+  @Test
+  @DisplayName("重建销售汇总 - 失败，不能重建当天")
+  void backfillRejectsToday() {
+    // 执行和验证
+    BusinessException exception =
+        assertThrows(BusinessException.class, () -> salesReportService.backfill(today, today));
+
+    assertEquals(BusinessErrorCode.REPORT_INVALID_DATE_RANGE, exception.getErrorCode());
+    verify(transactionTemplate, never()).executeWithoutResult(any());
+  }
+
+  @Test
+  @DisplayName("查询销售汇总 - 失败，日期范围超过上限")
+  void getDailyOrderStatsRejectsLongRange() {
+    // 执行和验证
+    BusinessException exception =
+        assertThrows(
+            BusinessException.class,
+            () -> salesReportService.getDailyOrderStats(today.minusDays(400), today));
+
+    assertEquals(BusinessErrorCode.REPORT_INVALID_DATE_RANGE, exception.getErrorCode());
+  }
+
+  private OrderLineRepository.ProductSales productSales(
+      Long productId, Long units, BigDecimal revenue, Long orderCount) {
+    return new OrderLineRepository.ProductSales() {
+      @Override
+      public Long getProductId() {
+        return productId;
+      }
+
+      @Override
+      public Long getUnits() {
+        return units;
+      }
+
+      @Override
+      public BigDecimal getRevenue() {
+        return revenue;
+      }
+
+      @Override
+      public Long getOrderCount() {
+        return orderCount;
+      }
+    };
+  }
+
+  private OrderRepository.OrderTotals orderTotals(
+      OrderStatus status, Long orderCount, BigDecimal totalAmount) {
+    return new OrderRepository.OrderTotals() {
+      @Override
+      public PaymentMethod getPaymentMethod() {
+        return PaymentMethod.ALIPAY;
+      }
+
+      @Override
+      public OrderStatus getStatus() {
+        return status;
+      }
+
+      @Override
+      public Long getOrderCount() {
+        return orderCount;
+      }
+
+      @Override
+      public BigDecimal getTotalAmount() {
+        return totalAmount;
+      }
+    };
+  }
+}
@@ -0,0 +1,336 @@
+package com.tomato.bookstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tomato.bookstore.constant.BusinessErrorCode;
+import com.tomato.bookstore.dto.StockpileDTO;
+import com.tomato.bookstore.exception.BusinessException;
+import com.tomato.bookstore.model.Product;
+import com.tomato.bookstore.model.Stockpile;
+import com.tomato.bookstore.model.StockpileBucket;
+import com.tomato.bookstore.repository.ProductRepository;
+import com.tomato.bookstore.repository.StockpileBucketRepository;
+import com.tomato.bookstore.repository.StockpileRepository;
+import com.tomato.bookstore.service.impl.StockServiceImpl;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class StockServiceImplTest {
+  @Mock private StockpileRepository stockpileRepository;
+  @Mock private StockpileBucketRepository stockpileBucketRepository;
+  @Mock private ProductRepository productRepository;
+
+  @InjectMocks private StockServiceImpl stockService;
+
+  private Stockpile stockpile;
+
+  private static final Long PRODUCT_ID = 1L;
+
+  @BeforeEach
+  void setUp() {
+    Product product = new Product();
+    product.setId(PRODUCT_ID);
+
+    stockpile = new Stockpile();
+    stockpile.setId(1L);
+    stockpile.setProduct(product);
+    stockpile.setAmount(0);
+    stockpile.setFrozen(0);
+    stockpile.setBucketCount(0);
+  }
+
+  @Test
+  @DisplayName("锁定库存 - 未分桶商品直接条件更新主库存行，不再查询库存记录")
+  void lockStockWithoutBuckets() {
+    // 准备
+    when(stockpileRepository.findBucketCountByProductId(PRODUCT_ID)).thenReturn(Optional.of(0));
+    when(stockpileRepository.lockStock(PRODUCT_ID, 3)).thenReturn(1);
+
+    // 执行和验证
+    assertTrue(stockService.lockStock(PRODUCT_ID, 3));
+    verify(stockpileRepository, never()).findByProductId(anyLong());
+    verify(stockpileBucketRepository, never()).findStocksByProductId(anyLong());
+  }
+
+  @Test
+  @DisplayName("锁定库存 - 未分桶商品库存不足时不再加锁重试")
+  void lockStockWithoutBucketsFailsWhenShort() {
+    // 准备
+    when(stockpileRepository.findBucketCountByProductId(PRODUCT_ID)).thenReturn(Optional.of(0));
+
+    // 执行和验证
+    assertFalse(stockService.lockStock(PRODUCT_ID, 3));
+    verify(stockpileRepository).lockStock(PRODUCT_ID, 3);
+    verify(stockpileRepository, never()).findForUpdateByProductId(anyLong());
+  }
+
+  @Test
+  @DisplayName("锁定库存 - 库存记录不存在时返回 false")
+  void lockStockFailsWhenStockpileNotFound() {
+    // 准备
+    when(stockpileRepository.findBucketCountByProductId(PRODUCT_ID)).thenReturn(Optional.empty());
+
+    // 执行和验证
+    assertFalse(stockService.lockStock(PRODUCT_ID, 3));
+    verify(stockpileBucketRepository, never()).findStocksByProductId(anyLong());
+  }
+
+  @Test
+  @DisplayName("锁定库存 - 分桶商品在单个分桶内完成锁定")
+  void lockStockWithinSingleBucket() {
+    // 准备：两个分桶库存都充足，无论从哪个分桶开始都应一次成功
+    when(stockpileRepository.findBucketCountByProductId(PRODUCT_ID)).thenReturn(Optional.of(2));
+    when(stockpileBucketRepository.findStocksByProductId(PRODUCT_ID))
+        .thenReturn(List.of(stock(0, 5, 0), stock(1, 5, 0)));
+    when(stockpileBucketRepository.lockStock(eq(PRODUCT_ID), anyInt(), eq(3))).thenReturn(1);
+
+    // 执行和验证：主库存行既不条件更新也不加锁
+    assertTrue(stockService.lockStock(PRODUCT_ID, 3));
+    verify(stockpileRepository, never()).lockStock(anyLong(), anyInt());
+    verify(stockpileRepository, never()).findForUpdateByProductId(anyLong());
+    verify(stockpileBucketRepository, never()).findForUpdateByProductId(anyLong());
+  }
+
+  @Test
+  @DisplayName("锁定库存 - 单个分桶不足时按加锁后的最新库存跨分桶凑足数量")
+  void lockStockAcrossBucketsWithFreshAmounts() {
+    // 准备：快照显示合计只有 2 件，加锁后读到其他订单已退回库存，合计 6 件
+    stockpile.setBucketCount(2);
+    when(stockpileRepository.findBucketCountByProductId(PRODUCT_ID)).thenReturn(Optional.of(2));
+    when(stockpileBucketRepository.findStocksByProductId(PRODUCT_ID))
+        .thenReturn(List.of(stock(0, 1, 0), stock(1, 1, 0)));
+    when(stockpileRepository.findForUpdateByProductId(PRODUCT_ID))
+        .thenReturn(Optional.of(stockpile));
+    when(stockpileBucketRepository.findForUpdateByProductId(PRODUCT_ID))
+        .thenReturn(List.of(bucket(0, 3, 0), bucket(1, 3, 0)));
+
+    // 执行和验证：按分桶号顺序，分桶 0 锁定 3 件、分桶 1 锁定 2 件
+    assertTrue(stockService.lockStock(PRODUCT_ID, 5));
+    verify(stockpileBucketRepository).lockStock(PRODUCT_ID, 0, 3);
+    verify(stockpileBucketRepository).lockStock(PRODUCT_ID, 1, 2);
+    verify(stockpileRepository, never()).lockStock(PRODUCT_ID, 0);
+  }
+
+  @Test
+  @DisplayName("锁定库存 - 最新库存合计不足时返回 false 且不改变任何库存")
+  void lockStockFailsWhenFreshTotalShort() {
+    // 准备
+    stockpile.setBucketCount(2);
+    when(stockpileRepository.findBucketCountByProductId(PRODUCT_ID)).thenReturn(Optional.of(2));
+    when(stockpileBucketRepository.findStocksByProductId(PRODUCT_ID))
+        .thenReturn(List.of(stock(0, 2, 0), stock(1, 2, 0)));
+    when(stockpileRepository.findForUpdateByProductId(PRODUCT_ID))
+        .thenReturn(Optional.of(stockpile));
+    when(stockpileBucketRepository.findForUpdateByProductId(PRODUCT_ID))
+        .thenReturn(List.of(bucket(0, 2, 0), bucket(1, 2, 0)));
+
+    // 执行和验证
+    assertFalse(stockService.lockStock(PRODUCT_ID, 5));
+    verify(stockpileBucketRepository, never()).lockStock(anyLong(), anyInt(), anyInt());
+    verify(stockpileBucketRepository, never()).unlockStock(anyLong(), anyInt(), anyInt());
+  }
+
+  @Test
+  @DisplayName("解锁库存 - 单个分桶不足时先跨分桶扣除，剩余部分退回主库存行")
+  void unlockStockDrainsBucketsThenStockpileRow() {
+    // 准备
+    stockpile.setBucketCount(2);
+    stockpile.setFrozen(2);
+    when(stockpileRepository.findBucketCountByProductId(PRODUCT_ID)).thenReturn(Optional.of(2));
+    when(stockpileBucketRepository.findStocksByProductId(PRODUCT_ID))
+        .thenReturn(List.of(stock(0, 0, 1), stock(1, 0, 0)));
+    when(stockpileRepository.findForUpdateByProductId(PRODUCT_ID))
+        .thenReturn(Optional.of(stockpile));
+    when(stockpileBucketRepository.findForUpdateByProductId(PRODUCT_ID))
+        .thenReturn(List.of(bucket(0, 0, 1), bucket(1, 0, 0)));
+
+    // 执行
+    stockService.unlockStock(PRODUCT_ID, 3);
+
+    // 验证
+    verify(stockpileBucketRepository).unlockStock(PRODUCT_ID, 0, 1);
+    verify(stockpileRepository).unlockStock(PRODUCT_ID, 2);
+  }
+
+  @Test
+  @DisplayName("解锁库存 - 失败，冻结库存合计不足时报错且不截断")
+  void unlockStockFailsWhenFrozenShort() {
+    // 准备
+    stockpile.setBucketCount(2);
+    when(stockpileRepository.findBucketCountByProductId(PRODUCT_ID)).thenReturn(Optional.of(2));
+    when(stockpileBucketRepository.findStocksByProductId(PRODUCT_ID))
+        .thenReturn(List.of(stock(0, 0, 1), stock(1, 0, 1)));
+    when(stockpileRepository.findForUpdateByProductId(PRODUCT_ID))
+        .thenReturn(Optional.of(stockpile));
+    when(stockpileBucketRepository.findForUpdateByProductId(PRODUCT_ID))
+        .thenReturn(List.of(bucket(0, 0, 1), bucket(1, 0, 1)));
+
+    // 执行和验证
+    BusinessException exception =
+        assertThrows(BusinessException.class, () -> stockService.unlockStock(PRODUCT_ID, 3));
+    assertEquals(BusinessErrorCode.PRODUCT_FROZEN_STOCK_INSUFFICIENT, exception.getErrorCode());
+    verify(stockpileBucketRepository, never()).unlockStock(anyLong(), anyInt(), anyInt());
+  }
+
+  @Test
+  @DisplayName("解锁库存 - 失败，库存记录不存在")
+  void unlockStockFailsWhenStockpileNotFound() {
+    // 准备
+    when(stockpileRepository.findBucketCountByProductId(PRODUCT_ID)).thenReturn(Optional.empty());
+    when(stockpileRepository.findForUpdateByProductId(PRODUCT_ID)).thenReturn(Optional.empty());
+
+    // 执行和验证
+    BusinessException exception =
+        assertThrows(BusinessException.class, () -> stockService.unlockStock(PRODUCT_ID, 3));
+    assertEquals(BusinessErrorCode.PRODUCT_STOCK_NOT_FOUND, exception.getErrorCode());
+  }
+
+  @Test
+  @DisplayName("扣减冻结库存 - 分桶商品在单个分桶内完成扣减")
+  void reduceFrozenStockWithinSingleBucket() {
+    // 准备
+    when(stockpileRepository.findBucketCountByProductId(PRODUCT_ID)).thenReturn(Optional.of(2));
+    when(stockpileBucketRepository.findStocksByProductId(PRODUCT_ID))
+        .thenReturn(List.of(stock(0, 0, 3), stock(1, 0, 3)));
+    when(stockpileBucketRepository.reduceFrozenStock(eq(PRODUCT_ID), anyInt(), eq(2)))
+        .thenReturn(1);
+
+    // 执行
+    stockService.reduceFrozenStock(PRODUCT_ID, 2);
+
+    // 验证
+    verify(stockpileRepository, never()).reduceFrozenStock(anyLong(), anyInt());
+    verify(stockpileRepository, never()).findForUpdateByProductId(anyLong());
+  }
+
+  @Test
+  @DisplayName("扣减冻结库存 - 未分桶商品直接条件更新主库存行")
+  void reduceFrozenStockWithoutBuckets() {
+    // 准备
+    when(stockpileRepository.findBucketCountByProductId(PRODUCT_ID)).thenReturn(Optional.of(0));
+    when(stockpileRepository.reduceFrozenStock(PRODUCT_ID, 2)).thenReturn(1);
+
+    // 执行
+    stockService.reduceFrozenStock(PRODUCT_ID, 2);
+
+    // 验证
+    verify(stockpileBucketRepository, never()).findStocksByProductId(anyLong());
+    verify(stockpileRepository, never()).findForUpdateByProductId(anyLong());
+  }
+
+  @Test
+  @DisplayName("获取库存 - 分桶商品返回合计")
+  void getStockpileSumsBuckets() {
+    // 准备
+    stockpile.setBucketCount(2);
+    stockpile.setAmount(1);
+    when(stockpileRepository.findByProductId(PRODUCT_ID)).thenReturn(Optional.of(stockpile));
+    when(stockpileBucketRepository.findByProductIdOrderByBucketNo(PRODUCT_ID))
+        .thenReturn(List.of(bucket(0, 4, 1), bucket(1, 5, 2)));
+
+    // 执行
+    StockpileDTO result = stockService.getStockpile(PRODUCT_ID);
+
+    // 验证
+    assertEquals(10, result.getAmount());
+    assertEquals(3, result.getFrozen());
+    assertEquals(2, result.getBucketCount());
+  }
+
+  @Test
+  @DisplayName("调整分桶 - 库存平均分配到各分桶且主库存行清零")
+  @SuppressWarnings("unchecked")
+  void configureBucketsDistributesStock() {
+    // 准备
+    stockpile.setAmount(10);
+    stockpile.setFrozen(1);
+    when(stockpileRepository.findForUpdateByProductId(PRODUCT_ID))
+        .thenReturn(Optional.of(stockpile));
+    when(stockpileBucketRepository.findForUpdateByProductId(PRODUCT_ID)).thenReturn(List.of());
+
+    // 执行
+    stockService.configureBuckets(PRODUCT_ID, 3);
+
+    // 验证
+    ArgumentCaptor<List<StockpileBucket>> captor = ArgumentCaptor.forClass(List.class);
+    verify(stockpileBucketRepository).saveAll(captor.capture());
+    List<StockpileBucket> buckets = captor.getValue();
+    assertEquals(3, buckets.size());
+    assertEquals(4, buckets.get(0).getAmount());
+    assertEquals(3, buckets.get(1).getAmount());
+    assertEquals(3, buckets.get(2).getAmount());
+    assertEquals(1, buckets.get(0).getFrozen());
+    assertEquals(0, stockpile.getAmount());
+    assertEquals(0, stockpile.getFrozen());
+    assertEquals(3, stockpile.getBucketCount());
+    verify(stockpileRepository).save(stockpile);
+  }
+
+  @Test
+  @DisplayName("调整分桶 - 关闭分桶时库存归还主库存行")
+  void configureBucketsMergesBackIntoStockpileRow() {
+    // 准备
+    stockpile.setBucketCount(2);
+    when(stockpileRepository.findForUpdateByProductId(PRODUCT_ID))
+        .thenReturn(Optional.of(stockpile));
+    when(stockpileBucketRepository.findForUpdateByProductId(PRODUCT_ID))
+        .thenReturn(List.of(bucket(0, 4, 1), bucket(1, 5, 0)));
+
+    // 执行
+    stockService.configureBuckets(PRODUCT_ID, 0);
+
+    // 验证
+    assertEquals(9, stockpile.getAmount());
+    assertEquals(1, stockpile.getFrozen());
+    assertEquals(0, stockpile.getBucketCount());
+    verify(stockpileBucketRepository).deleteByProductId(PRODUCT_ID);
+    verify(stockpileBucketRepository, never()).saveAll(anyList());
+  }
+
+  private StockpileBucket bucket(int bucketNo, int amount, int frozen) {
+    return StockpileBucket.builder()
+        .productId(PRODUCT_ID)
+        .bucketNo(bucketNo)
+        .amount(amount)
+        .frozen(frozen)
+        .build();
+  }
+
+  private StockpileBucketRepository.BucketStock stock(int bucketNo, int amount, int frozen) {
+    return new StockpileBucketRepository.BucketStock() {
+      @Override
+      public Integer getBucketNo() {
+        return bucketNo;
+      }
+
+      @Override
+      public Integer getAmount() {
+        return amount;
+      }
+
+      @Override
+      public Integer getFrozen() {
+        return frozen;
+      }
+    };
+  }
+}
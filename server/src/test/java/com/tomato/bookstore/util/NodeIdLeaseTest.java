@@ -0,0 +1,163 @@
+package com.tomato.bookstore.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class NodeIdLeaseTest {
+  private static final long LEASE_MILLIS = 30000;
+
+  @Mock private Clock clock;
+
+  private final AtomicLong now =
+      new AtomicLong(Instant.parse("2025-05-15T08:00:00Z").toEpochMilli());
+
+  private final List<NodeIdLease> leases = new ArrayList<>();
+
+  private JdbcDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    when(clock.millis()).thenAnswer(invocation -> now.get());
+    when(clock.getZone()).thenReturn(ZoneId.of("UTC"));
+    dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:node-id-lease-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    execute(
+        "CREATE TABLE job_leases (name VARCHAR(64) PRIMARY KEY, owner VARCHAR(128) NOT NULL,"
+            + " expires_at TIMESTAMP(3) NOT NULL, renewed_at TIMESTAMP(3) NOT NULL)");
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    leases.forEach(NodeIdLease::close);
+    execute("SHUTDOWN");
+  }
+
+  @Test
+  @DisplayName("租用节点号 - 各实例取得不同的节点号，持有期间不再访问数据库")
+  void getAsIntLeasesDistinctNodeIds() throws SQLException {
+    // 准备
+    NodeIdLease first = lease("node-a");
+    NodeIdLease second = lease("node-b");
+
+    // 执行
+    int firstNodeId = first.getAsInt();
+    int secondNodeId = second.getAsInt();
+    execute("DELETE FROM job_leases");
+
+    // 验证
+    assertEquals(0, firstNodeId);
+    assertEquals(1, secondNodeId);
+    assertEquals(0, first.getAsInt());
+  }
+
+  @Test
+  @DisplayName("租用节点号 - 接管已到期的节点号，原持有者改用其他节点号")
+  void getAsIntTakesOverExpiredNodeId() {
+    // 准备
+    NodeIdLease first = lease("node-a");
+    NodeIdLease second = lease("node-b");
+    first.getAsInt();
+    now.addAndGet(LEASE_MILLIS + 1);
+
+    // 执行
+    int takenOver = second.getAsInt();
+    int reassigned = first.getAsInt();
+
+    // 验证
+    assertEquals(0, takenOver);
+    assertEquals(1, reassigned);
+  }
+
+  @Test
+  @DisplayName("续期 - 节点号已被其他实例接管时停止使用，重新租用其他节点号")
+  void renewDropsNodeIdTakenOverByOthers() throws SQLException {
+    // 准备
+    NodeIdLease lease = lease("node-a");
+    lease.getAsInt();
+    execute("UPDATE job_leases SET owner = 'node-b'");
+
+    // 执行
+    now.addAndGet(LEASE_MILLIS / 3);
+    ReflectionTestUtils.invokeMethod(lease, "renew");
+
+    // 验证
+    assertEquals(1, lease.getAsInt());
+  }
+
+  @Test
+  @DisplayName("续期 - 延长持有节点号的租约")
+  void renewExtendsLease() {
+    // 准备
+    NodeIdLease lease = lease("node-a");
+    NodeIdLease other = lease("node-b");
+    lease.getAsInt();
+
+    // 执行
+    now.addAndGet(LEASE_MILLIS / 3);
+    ReflectionTestUtils.invokeMethod(lease, "renew");
+    now.addAndGet(LEASE_MILLIS * 2 / 3 + 1);
+
+    // 验证
+    assertEquals(0, lease.getAsInt());
+    assertEquals(1, other.getAsInt());
+  }
+
+  @Test
+  @DisplayName("租用节点号 - 所有节点号都被其他实例持有时失败")
+  void getAsIntFailsWhenAllNodeIdsHeld() throws SQLException {
+    // 准备
+    LocalDateTime expiresAt =
+        LocalDateTime.ofInstant(Instant.ofEpochMilli(now.get() + LEASE_MILLIS), ZoneId.of("UTC"));
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement insert =
+            connection.prepareStatement("INSERT INTO job_leases VALUES (?, 'node-b', ?, ?)")) {
+      for (int nodeId = 0; nodeId < SnowflakeIdGenerator.MAX_NODES; nodeId++) {
+        insert.setString(1, NodeIdLease.LEASE_PREFIX + nodeId);
+        insert.setObject(2, expiresAt);
+        insert.setObject(3, expiresAt);
+        insert.executeUpdate();
+      }
+    }
+    NodeIdLease lease = lease("node-a");
+
+    // 执行和验证
+    assertThrows(IllegalStateException.class, lease::getAsInt);
+  }
+
+  private NodeIdLease lease(String owner) {
+    NodeIdLease lease = new NodeIdLease(dataSource, clock, LEASE_MILLIS, owner);
+    leases.add(lease);
+    return lease;
+  }
+
+  private void execute(String sql) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+}
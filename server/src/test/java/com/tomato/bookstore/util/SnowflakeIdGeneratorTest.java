@@ -0,0 +1,154 @@
+package com.tomato.bookstore.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class SnowflakeIdGeneratorTest {
+  /** 纪元：2025-01-01T00:00:00Z */
+  private static final long EPOCH_MILLIS = 1735689600000L;
+
+  @Mock private Clock clock;
+
+  private final AtomicLong now = new AtomicLong(EPOCH_MILLIS + 1000);
+
+  @Test
+  @DisplayName("生成 ID - 从高到低依次为毫秒数、5 位节点号与 7 位序号")
+  void nextIdPacksTimestampNodeAndSequence() {
+    // 准备
+    stubClock();
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, clock);
+
+    // 执行
+    long first = generator.nextId();
+    long second = generator.nextId();
+
+    // 验证
+    assertEquals((1000L << 12) | (5L << 7), first);
+    assertEquals(1000L, second >> 12);
+    assertEquals(5L, (second >> 7) & 31);
+    assertEquals(1L, second & 127);
+  }
+
+  @Test
+  @DisplayName("生成 ID - 纪元后 2^41 毫秒内不超过 53 位")
+  void nextIdFitsInFiftyThreeBits() {
+    // 准备
+    stubClock();
+    now.set(EPOCH_MILLIS + (1L << 41) - 1);
+    SnowflakeIdGenerator generator =
+        new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODES - 1, clock);
+
+    // 执行
+    long id = generator.nextId();
+
+    // 验证
+    assertTrue(id > 0);
+    assertTrue(id < (1L << 53));
+  }
+
+  @Test
+  @DisplayName("生成 ID - 同一毫秒内序号用尽时推进到下一毫秒，不等待时钟")
+  void nextIdRollsOverSequence() {
+    // 准备
+    stubClock();
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock);
+    long previous = 0;
+    for (int i = 0; i < 128; i++) {
+      long id = generator.nextId();
+      assertTrue(id > previous);
+      previous = id;
+    }
+
+    // 执行
+    long rolledOver = generator.nextId();
+    long following = generator.nextId();
+
+    // 验证
+    assertTrue(rolledOver > previous);
+    assertEquals(1001L, rolledOver >> 12);
+    assertEquals(0L, rolledOver & 127);
+    // 时钟追上之前沿用推进后的时间戳
+    assertEquals(1001L, following >> 12);
+    assertEquals(1L, following & 127);
+  }
+
+  @Test
+  @DisplayName("生成 ID - 时钟回拨时沿用上一次的时间戳，ID 仍然递增")
+  void nextIdSurvivesClockRollback() {
+    // 准备
+    stubClock();
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock);
+    long before = generator.nextId();
+    now.set(EPOCH_MILLIS + 500);
+
+    // 执行
+    long rolledBack = generator.nextId();
+    now.set(EPOCH_MILLIS + 1001);
+    long caughtUp = generator.nextId();
+
+    // 验证
+    assertTrue(rolledBack > before);
+    assertEquals(1000L, rolledBack >> 12);
+    assertEquals(1L, rolledBack & 127);
+    assertTrue(caughtUp > rolledBack);
+    assertEquals(1001L, caughtUp >> 12);
+    assertEquals(0L, caughtUp & 127);
+  }
+
+  @Test
+  @DisplayName("生成 ID - 每次使用当前持有的节点号，没有节点号时生成失败")
+  void nextIdUsesLeasedNodeId() {
+    // 准备
+    stubClock();
+    AtomicInteger nodeId = new AtomicInteger(3);
+    SnowflakeIdGenerator generator =
+        new SnowflakeIdGenerator(
+            () -> {
+              if (nodeId.get() < 0) {
+                throw new IllegalStateException("no node id");
+              }
+              return nodeId.get();
+            },
+            clock);
+
+    // 执行
+    long first = generator.nextId();
+    nodeId.set(-1);
+    assertThrows(IllegalStateException.class, generator::nextId);
+    nodeId.set(4);
+    long second = generator.nextId();
+
+    // 验证
+    assertEquals(3L, (first >> 7) & 31);
+    assertEquals(4L, (second >> 7) & 31);
+    // 失败的调用不消耗序号
+    assertEquals(1L, second & 127);
+  }
+
+  @Test
+  @DisplayName("创建生成器 - 节点号超出范围时拒绝")
+  void constructorRejectsInvalidNodeId() {
+    // 执行和验证
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODES, Clock.systemUTC()));
+    assertThrows(
+        IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1, Clock.systemUTC()));
+  }
+
+  private void stubClock() {
+    when(clock.millis()).thenAnswer(invocation -> now.get());
+  }
+}
@@ -14,6 +14,7 @@ import com.tomato.bookstore.model.Advertisement;
 import com.tomato.bookstore.model.Cart;
 import com.tomato.bookstore.model.CartsOrdersRelation;
 import com.tomato.bookstore.model.Order;
+import com.tomato.bookstore.model.OrderLine;
 import com.tomato.bookstore.model.Product;
 import com.tomato.bookstore.model.Stockpile;
 import com.tomato.bookstore.model.User;
@@ -21,6 +22,7 @@ import com.tomato.bookstore.model.User.UserRole;
 import com.tomato.bookstore.repository.AdvertisementRepository;
 import com.tomato.bookstore.repository.CartRepository;
 import com.tomato.bookstore.repository.CartsOrdersRelationRepository;
+import com.tomato.bookstore.repository.OrderLineRepository;
 import com.tomato.bookstore.repository.OrderRepository;
 import com.tomato.bookstore.repository.ProductRepository;
 import com.tomato.bookstore.repository.StockpileRepository;
@@ -59,6 +61,8 @@ public class TestDataFactory {
 
   @Autowired private CartsOrdersRelationRepository relationRepository;
 
+  @Autowired private OrderLineRepository orderLineRepository;
+
   @Autowired private AdvertisementRepository advertisementRepository;
 
   @Autowired private Clock clock;
@@ -182,6 +186,18 @@ public class TestDataFactory {
     order.getOrderItems().add(orderItem);
     order = orderRepository.save(order);
 
+    // 创建订单行快照
+    orderLineRepository.save(
+        OrderLine.builder()
+            .orderId(order.getId())
+            .productId(product.getId())
+            .cartItemId(cartItem.getId())
+            .title(product.getTitle())
+            .price(product.getPrice())
+            .cover(product.getCover())
+            .quantity(quantity)
+            .build());
+
     // 更新库存
     Stockpile stockpile = stockpileRepository.findByProductId(product.getId()).orElseThrow();
     stockpile.setAmount(stockpile.getAmount() - quantity);